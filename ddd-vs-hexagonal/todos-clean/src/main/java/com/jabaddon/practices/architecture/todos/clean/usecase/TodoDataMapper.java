@@ -0,0 +1,24 @@
+package com.jabaddon.practices.architecture.todos.clean.usecase;
+
+import com.jabaddon.practices.architecture.todos.clean.entity.Todo;
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoData;
+
+/**
+ * Maps between the Todo entity and the TodoData the gateway exchanges.
+ * Not exported: only the use cases build entities.
+ */
+public final class TodoDataMapper {
+
+    private TodoDataMapper() {
+    }
+
+    public static Todo toEntity(TodoData data) {
+        return new Todo(data.id(), data.title(), data.description(), data.completed(),
+                data.createdAt(), data.updatedAt());
+    }
+
+    public static TodoData toData(Todo todo) {
+        return new TodoData(todo.getId(), todo.getTitle(), todo.getDescription(), todo.isCompleted(),
+                todo.getCreatedAt(), todo.getUpdatedAt());
+    }
+}
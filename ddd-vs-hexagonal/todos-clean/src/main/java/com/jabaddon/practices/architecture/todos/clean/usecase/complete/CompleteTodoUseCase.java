@@ -1,6 +1,8 @@
 package com.jabaddon.practices.architecture.todos.clean.usecase.complete;
 
 import com.jabaddon.practices.architecture.todos.clean.entity.Todo;
+import com.jabaddon.practices.architecture.todos.clean.usecase.TodoDataMapper;
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoData;
 import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
 
 public class CompleteTodoUseCase implements CompleteTodoInputPort {
@@ -14,19 +16,20 @@ public class CompleteTodoUseCase implements CompleteTodoInputPort {
     @Override
     public CompleteTodoResponse execute(CompleteTodoRequest request) {
         Todo todo = todoGateway.findById(request.id())
+                .map(TodoDataMapper::toEntity)
                 .orElseThrow(() -> new IllegalArgumentException("Todo not found with id: " + request.id()));
 
         todo.complete();
 
-        Todo saved = todoGateway.save(todo);
+        TodoData saved = todoGateway.save(TodoDataMapper.toData(todo));
 
         return new CompleteTodoResponse(
-                saved.getId(),
-                saved.getTitle(),
-                saved.getDescription(),
-                saved.isCompleted(),
-                saved.getCreatedAt(),
-                saved.getUpdatedAt()
+                saved.id(),
+                saved.title(),
+                saved.description(),
+                saved.completed(),
+                saved.createdAt(),
+                saved.updatedAt()
         );
     }
 }
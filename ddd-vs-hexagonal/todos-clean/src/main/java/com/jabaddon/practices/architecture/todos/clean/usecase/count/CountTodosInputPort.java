@@ -0,0 +1,6 @@
+package com.jabaddon.practices.architecture.todos.clean.usecase.count;
+
+public interface CountTodosInputPort {
+
+    CountTodosResponse execute();
+}
@@ -0,0 +1,4 @@
+package com.jabaddon.practices.architecture.todos.clean.usecase.count;
+
+public record CountTodosResponse(long pending, long completed) {
+}
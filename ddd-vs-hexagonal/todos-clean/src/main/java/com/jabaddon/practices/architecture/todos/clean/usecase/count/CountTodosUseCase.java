@@ -0,0 +1,17 @@
+package com.jabaddon.practices.architecture.todos.clean.usecase.count;
+
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
+
+public class CountTodosUseCase implements CountTodosInputPort {
+
+    private final TodoGateway todoGateway;
+
+    public CountTodosUseCase(TodoGateway todoGateway) {
+        this.todoGateway = todoGateway;
+    }
+
+    @Override
+    public CountTodosResponse execute() {
+        return new CountTodosResponse(todoGateway.countByCompleted(false), todoGateway.countByCompleted(true));
+    }
+}
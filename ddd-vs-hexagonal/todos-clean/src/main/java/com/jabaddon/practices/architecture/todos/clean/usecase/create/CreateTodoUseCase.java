@@ -1,6 +1,8 @@
 package com.jabaddon.practices.architecture.todos.clean.usecase.create;
 
 import com.jabaddon.practices.architecture.todos.clean.entity.Todo;
+import com.jabaddon.practices.architecture.todos.clean.usecase.TodoDataMapper;
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoData;
 import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
 
 import java.time.LocalDateTime;
@@ -38,16 +40,16 @@ public class CreateTodoUseCase implements CreateTodoInputPort {
         todo.validateDescription(request.description());
 
         // Save via gateway (output port)
-        Todo saved = todoGateway.save(todo);
+        TodoData saved = todoGateway.save(TodoDataMapper.toData(todo));
 
         // Return use-case-specific response model
         return new CreateTodoResponse(
-                saved.getId(),
-                saved.getTitle(),
-                saved.getDescription(),
-                saved.isCompleted(),
-                saved.getCreatedAt(),
-                saved.getUpdatedAt()
+                saved.id(),
+                saved.title(),
+                saved.description(),
+                saved.completed(),
+                saved.createdAt(),
+                saved.updatedAt()
         );
     }
 }
@@ -1,6 +1,6 @@
 package com.jabaddon.practices.architecture.todos.clean.usecase.findbyid;
 
-import com.jabaddon.practices.architecture.todos.clean.entity.Todo;
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoData;
 import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
 
 import java.util.Optional;
@@ -19,14 +19,14 @@ public class FindTodoByIdUseCase implements FindTodoByIdInputPort {
                 .map(this::toResponse);
     }
 
-    private FindTodoByIdResponse toResponse(Todo todo) {
+    private FindTodoByIdResponse toResponse(TodoData todo) {
         return new FindTodoByIdResponse(
-                todo.getId(),
-                todo.getTitle(),
-                todo.getDescription(),
-                todo.isCompleted(),
-                todo.getCreatedAt(),
-                todo.getUpdatedAt()
+                todo.id(),
+                todo.title(),
+                todo.description(),
+                todo.completed(),
+                todo.createdAt(),
+                todo.updatedAt()
         );
     }
 }
@@ -1,6 +1,13 @@
 package com.jabaddon.practices.architecture.todos.clean.usecase.getall;
 
+import java.util.function.Consumer;
+
 public interface GetAllTodosInputPort {
 
     GetAllTodosResponse execute();
+
+    /**
+     * Streaming variant: presents every todo as it is read instead of building the response list.
+     */
+    void execute(Consumer<GetAllTodosResponse.TodoItem> presenter);
 }
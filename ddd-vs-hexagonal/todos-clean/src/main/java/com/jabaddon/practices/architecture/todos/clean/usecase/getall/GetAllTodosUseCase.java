@@ -1,9 +1,10 @@
 package com.jabaddon.practices.architecture.todos.clean.usecase.getall;
 
-import com.jabaddon.practices.architecture.todos.clean.entity.Todo;
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoData;
 import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class GetAllTodosUseCase implements GetAllTodosInputPort {
@@ -23,14 +24,19 @@ public class GetAllTodosUseCase implements GetAllTodosInputPort {
         return new GetAllTodosResponse(items);
     }
 
-    private GetAllTodosResponse.TodoItem toItem(Todo todo) {
+    @Override
+    public void execute(Consumer<GetAllTodosResponse.TodoItem> presenter) {
+        todoGateway.forEach(todo -> presenter.accept(toItem(todo)));
+    }
+
+    private GetAllTodosResponse.TodoItem toItem(TodoData todo) {
         return new GetAllTodosResponse.TodoItem(
-                todo.getId(),
-                todo.getTitle(),
-                todo.getDescription(),
-                todo.isCompleted(),
-                todo.getCreatedAt(),
-                todo.getUpdatedAt()
+                todo.id(),
+                todo.title(),
+                todo.description(),
+                todo.completed(),
+                todo.createdAt(),
+                todo.updatedAt()
         );
     }
 }
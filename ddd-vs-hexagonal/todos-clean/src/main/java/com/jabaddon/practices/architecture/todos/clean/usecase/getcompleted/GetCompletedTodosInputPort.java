@@ -1,6 +1,13 @@
 package com.jabaddon.practices.architecture.todos.clean.usecase.getcompleted;
 
+import java.util.function.Consumer;
+
 public interface GetCompletedTodosInputPort {
 
     GetCompletedTodosResponse execute();
+
+    /**
+     * Streaming variant: presents every completed todo as it is read instead of building the response list.
+     */
+    void execute(Consumer<GetCompletedTodosResponse.TodoItem> presenter);
 }
@@ -1,9 +1,10 @@
 package com.jabaddon.practices.architecture.todos.clean.usecase.getcompleted;
 
-import com.jabaddon.practices.architecture.todos.clean.entity.Todo;
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoData;
 import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class GetCompletedTodosUseCase implements GetCompletedTodosInputPort {
@@ -23,14 +24,19 @@ public class GetCompletedTodosUseCase implements GetCompletedTodosInputPort {
         return new GetCompletedTodosResponse(items);
     }
 
-    private GetCompletedTodosResponse.TodoItem toItem(Todo todo) {
+    @Override
+    public void execute(Consumer<GetCompletedTodosResponse.TodoItem> presenter) {
+        todoGateway.forEachByCompleted(true, todo -> presenter.accept(toItem(todo)));
+    }
+
+    private GetCompletedTodosResponse.TodoItem toItem(TodoData todo) {
         return new GetCompletedTodosResponse.TodoItem(
-                todo.getId(),
-                todo.getTitle(),
-                todo.getDescription(),
-                todo.isCompleted(),
-                todo.getCreatedAt(),
-                todo.getUpdatedAt()
+                todo.id(),
+                todo.title(),
+                todo.description(),
+                todo.completed(),
+                todo.createdAt(),
+                todo.updatedAt()
         );
     }
 }
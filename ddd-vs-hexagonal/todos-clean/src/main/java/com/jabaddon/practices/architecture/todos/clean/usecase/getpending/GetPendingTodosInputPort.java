@@ -1,6 +1,13 @@
 package com.jabaddon.practices.architecture.todos.clean.usecase.getpending;
 
+import java.util.function.Consumer;
+
 public interface GetPendingTodosInputPort {
 
     GetPendingTodosResponse execute();
+
+    /**
+     * Streaming variant: presents every pending todo as it is read instead of building the response list.
+     */
+    void execute(Consumer<GetPendingTodosResponse.TodoItem> presenter);
 }
@@ -1,9 +1,10 @@
 package com.jabaddon.practices.architecture.todos.clean.usecase.getpending;
 
-import com.jabaddon.practices.architecture.todos.clean.entity.Todo;
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoData;
 import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class GetPendingTodosUseCase implements GetPendingTodosInputPort {
@@ -23,14 +24,19 @@ public class GetPendingTodosUseCase implements GetPendingTodosInputPort {
         return new GetPendingTodosResponse(items);
     }
 
-    private GetPendingTodosResponse.TodoItem toItem(Todo todo) {
+    @Override
+    public void execute(Consumer<GetPendingTodosResponse.TodoItem> presenter) {
+        todoGateway.forEachByCompleted(false, todo -> presenter.accept(toItem(todo)));
+    }
+
+    private GetPendingTodosResponse.TodoItem toItem(TodoData todo) {
         return new GetPendingTodosResponse.TodoItem(
-                todo.getId(),
-                todo.getTitle(),
-                todo.getDescription(),
-                todo.isCompleted(),
-                todo.getCreatedAt(),
-                todo.getUpdatedAt()
+                todo.id(),
+                todo.title(),
+                todo.description(),
+                todo.completed(),
+                todo.createdAt(),
+                todo.updatedAt()
         );
     }
 }
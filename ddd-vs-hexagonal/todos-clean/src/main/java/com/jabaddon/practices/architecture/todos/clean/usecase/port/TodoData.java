@@ -0,0 +1,19 @@
+package com.jabaddon.practices.architecture.todos.clean.usecase.port;
+
+import java.time.LocalDateTime;
+
+/**
+ * TodoData - the state of a todo as it crosses the gateway.
+ *
+ * The Todo entity stays inside the use case layer; gateways store and
+ * return this plain record, and the use cases map it to and from the entity.
+ */
+public record TodoData(
+        String id,
+        String title,
+        String description,
+        boolean completed,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
@@ -1,9 +1,9 @@
 package com.jabaddon.practices.architecture.todos.clean.usecase.port;
 
-import com.jabaddon.practices.architecture.todos.clean.entity.Todo;
-
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * TodoGateway - Output Port (Use Case Layer)
@@ -11,16 +11,56 @@ import java.util.Optional;
  * Interface defined in the use case layer, implemented in the adapter layer.
  * Use cases depend on this interface (Dependency Inversion Principle).
  * Adapters implement this interface to provide actual persistence.
+ * Todos cross it as TodoData, so the entity layer is never exported.
  */
 public interface TodoGateway {
 
-    Todo save(Todo todo);
+    TodoData save(TodoData todo);
+
+    Optional<TodoData> findById(String id);
+
+    List<TodoData> findAll();
+
+    List<TodoData> findByCompleted(boolean completed);
+
+    /**
+     * Hands every todo to the action, one at a time. Lists them all first by default;
+     * gateways able to read one todo at a time override it so memory stays bounded.
+     */
+    default void forEach(Consumer<TodoData> action) {
+        findAll().forEach(action);
+    }
+
+    /**
+     * Like forEach, for the todos with the given completion state.
+     */
+    default void forEachByCompleted(boolean completed, Consumer<TodoData> action) {
+        findByCompleted(completed).forEach(action);
+    }
+
+    long countByCompleted(boolean completed);
+
+    /**
+     * Todos created in [from, to), oldest first and ties broken by id, at most limit of them.
+     */
+    List<TodoData> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to, int limit);
 
-    Optional<Todo> findById(String id);
+    /**
+     * Todos created before to that come after the todo (afterCreatedAt, afterId) in the order
+     * of findByCreatedAtBetween, at most limit of them: the page following one that ended with it.
+     */
+    List<TodoData> findByCreatedAtAfter(LocalDateTime afterCreatedAt, String afterId, LocalDateTime to, int limit);
 
-    List<Todo> findAll();
+    /**
+     * The limit most recently updated todos, newest first.
+     */
+    List<TodoData> findRecentlyUpdated(int limit);
 
-    List<Todo> findByCompleted(boolean completed);
+    /**
+     * Todos whose title or description has a word starting with every word of the query,
+     * best matches first, at most limit of them.
+     */
+    List<TodoData> search(String query, int limit);
 
     void delete(String id);
 
@@ -0,0 +1,6 @@
+package com.jabaddon.practices.architecture.todos.clean.usecase.search;
+
+public interface SearchTodosInputPort {
+
+    SearchTodosResponse execute(SearchTodosRequest request);
+}
@@ -0,0 +1,4 @@
+package com.jabaddon.practices.architecture.todos.clean.usecase.search;
+
+public record SearchTodosRequest(String query, int limit) {
+}
@@ -0,0 +1,17 @@
+package com.jabaddon.practices.architecture.todos.clean.usecase.search;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record SearchTodosResponse(List<TodoItem> todos) {
+
+    public record TodoItem(
+            String id,
+            String title,
+            String description,
+            boolean completed,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt
+    ) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.jabaddon.practices.architecture.todos.clean.usecase.search;
+
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoData;
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class SearchTodosUseCase implements SearchTodosInputPort {
+
+    private final TodoGateway todoGateway;
+
+    public SearchTodosUseCase(TodoGateway todoGateway) {
+        this.todoGateway = todoGateway;
+    }
+
+    @Override
+    public SearchTodosResponse execute(SearchTodosRequest request) {
+        if (request.limit() < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        List<SearchTodosResponse.TodoItem> items = todoGateway.search(request.query(), request.limit()).stream()
+                .map(this::toItem)
+                .collect(Collectors.toList());
+
+        return new SearchTodosResponse(items);
+    }
+
+    private SearchTodosResponse.TodoItem toItem(TodoData todo) {
+        return new SearchTodosResponse.TodoItem(
+                todo.id(),
+                todo.title(),
+                todo.description(),
+                todo.completed(),
+                todo.createdAt(),
+                todo.updatedAt()
+        );
+    }
+}
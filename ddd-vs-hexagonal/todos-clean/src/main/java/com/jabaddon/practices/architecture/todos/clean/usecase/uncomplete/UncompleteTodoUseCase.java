@@ -1,6 +1,8 @@
 package com.jabaddon.practices.architecture.todos.clean.usecase.uncomplete;
 
 import com.jabaddon.practices.architecture.todos.clean.entity.Todo;
+import com.jabaddon.practices.architecture.todos.clean.usecase.TodoDataMapper;
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoData;
 import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
 
 public class UncompleteTodoUseCase implements UncompleteTodoInputPort {
@@ -14,19 +16,20 @@ public class UncompleteTodoUseCase implements UncompleteTodoInputPort {
     @Override
     public UncompleteTodoResponse execute(UncompleteTodoRequest request) {
         Todo todo = todoGateway.findById(request.id())
+                .map(TodoDataMapper::toEntity)
                 .orElseThrow(() -> new IllegalArgumentException("Todo not found with id: " + request.id()));
 
         todo.uncomplete();
 
-        Todo saved = todoGateway.save(todo);
+        TodoData saved = todoGateway.save(TodoDataMapper.toData(todo));
 
         return new UncompleteTodoResponse(
-                saved.getId(),
-                saved.getTitle(),
-                saved.getDescription(),
-                saved.isCompleted(),
-                saved.getCreatedAt(),
-                saved.getUpdatedAt()
+                saved.id(),
+                saved.title(),
+                saved.description(),
+                saved.completed(),
+                saved.createdAt(),
+                saved.updatedAt()
         );
     }
 }
@@ -1,6 +1,8 @@
 package com.jabaddon.practices.architecture.todos.clean.usecase.update;
 
 import com.jabaddon.practices.architecture.todos.clean.entity.Todo;
+import com.jabaddon.practices.architecture.todos.clean.usecase.TodoDataMapper;
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoData;
 import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
 
 public class UpdateTodoUseCase implements UpdateTodoInputPort {
@@ -14,19 +16,20 @@ public class UpdateTodoUseCase implements UpdateTodoInputPort {
     @Override
     public UpdateTodoResponse execute(UpdateTodoRequest request) {
         Todo todo = todoGateway.findById(request.id())
+                .map(TodoDataMapper::toEntity)
                 .orElseThrow(() -> new IllegalArgumentException("Todo not found with id: " + request.id()));
 
         todo.updateContent(request.title(), request.description());
 
-        Todo saved = todoGateway.save(todo);
+        TodoData saved = todoGateway.save(TodoDataMapper.toData(todo));
 
         return new UpdateTodoResponse(
-                saved.getId(),
-                saved.getTitle(),
-                saved.getDescription(),
-                saved.isCompleted(),
-                saved.getCreatedAt(),
-                saved.getUpdatedAt()
+                saved.id(),
+                saved.title(),
+                saved.description(),
+                saved.completed(),
+                saved.createdAt(),
+                saved.updatedAt()
         );
     }
 }
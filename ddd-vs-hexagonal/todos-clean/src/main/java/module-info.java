@@ -9,6 +9,8 @@ module com.jabaddon.practices.architecture.todos.clean {
     exports com.jabaddon.practices.architecture.todos.clean.usecase.getall;
     exports com.jabaddon.practices.architecture.todos.clean.usecase.getcompleted;
     exports com.jabaddon.practices.architecture.todos.clean.usecase.getpending;
+    exports com.jabaddon.practices.architecture.todos.clean.usecase.search;
+    exports com.jabaddon.practices.architecture.todos.clean.usecase.count;
 
     // Export gateway interface (output port) for implementations
     exports com.jabaddon.practices.architecture.todos.clean.usecase.port;
@@ -1,10 +1,14 @@
 package com.jabaddon.practices.architecture.todos.clean.gateway;
 
-import com.jabaddon.practices.architecture.todos.clean.entity.Todo;
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoData;
 import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -18,28 +22,70 @@ import java.util.stream.Collectors;
  */
 public class InMemoryTodoGateway implements TodoGateway {
 
-    private final Map<String, Todo> storage = new ConcurrentHashMap<>();
+    private final Map<String, TodoData> storage = new ConcurrentHashMap<>();
 
     @Override
-    public Todo save(Todo todo) {
-        storage.put(todo.getId(), todo);
+    public TodoData save(TodoData todo) {
+        storage.put(todo.id(), todo);
         return todo;
     }
 
     @Override
-    public Optional<Todo> findById(String id) {
+    public Optional<TodoData> findById(String id) {
         return Optional.ofNullable(storage.get(id));
     }
 
     @Override
-    public List<Todo> findAll() {
+    public List<TodoData> findAll() {
         return new ArrayList<>(storage.values());
     }
 
     @Override
-    public List<Todo> findByCompleted(boolean completed) {
+    public List<TodoData> findByCompleted(boolean completed) {
         return storage.values().stream()
-                .filter(todo -> todo.isCompleted() == completed)
+                .filter(todo -> todo.completed() == completed)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long countByCompleted(boolean completed) {
+        return storage.values().stream()
+                .filter(todo -> todo.completed() == completed)
+                .count();
+    }
+
+    @Override
+    public List<TodoData> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return storage.values().stream()
+                .filter(todo -> !todo.createdAt().isBefore(from) && todo.createdAt().isBefore(to))
+                .sorted(Comparator.comparing(TodoData::createdAt).thenComparing(TodoData::id))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TodoData> findByCreatedAtAfter(LocalDateTime afterCreatedAt, String afterId, LocalDateTime to, int limit) {
+        return storage.values().stream()
+                .filter(todo -> todo.createdAt().isBefore(to) && (todo.createdAt().isAfter(afterCreatedAt)
+                        || todo.createdAt().isEqual(afterCreatedAt) && todo.id().compareTo(afterId) > 0))
+                .sorted(Comparator.comparing(TodoData::createdAt).thenComparing(TodoData::id))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TodoData> findRecentlyUpdated(int limit) {
+        return storage.values().stream()
+                .sorted(Comparator.comparing(TodoData::updatedAt).thenComparing(TodoData::id).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TodoData> search(String query, int limit) {
+        return storage.values().stream()
+                .filter(todo -> matchesSearch(query, todo.title(), todo.description()))
+                .limit(limit)
                 .collect(Collectors.toList());
     }
 
@@ -56,4 +102,25 @@ public class InMemoryTodoGateway implements TodoGateway {
     public void clear() {
         storage.clear();
     }
+
+    private static boolean matchesSearch(String query, String... texts) {
+        String[] terms = query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        List<String> words = new ArrayList<>();
+        for (String text : texts) {
+            if (text != null) {
+                words.addAll(Arrays.asList(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")));
+            }
+        }
+        boolean any = false;
+        for (String term : terms) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            any = true;
+            if (words.stream().noneMatch(word -> word.startsWith(term))) {
+                return false;
+            }
+        }
+        return any;
+    }
 }
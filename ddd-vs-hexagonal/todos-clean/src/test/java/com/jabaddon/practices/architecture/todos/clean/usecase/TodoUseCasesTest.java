@@ -5,6 +5,9 @@ import com.jabaddon.practices.architecture.todos.clean.usecase.complete.Complete
 import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoRequest;
 import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoResponse;
 import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.count.CountTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.count.CountTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.count.CountTodosUseCase;
 import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoInputPort;
 import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoRequest;
 import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoResponse;
@@ -26,6 +29,10 @@ import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPen
 import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPendingTodosResponse;
 import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPendingTodosUseCase;
 import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
+import com.jabaddon.practices.architecture.todos.clean.usecase.search.SearchTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.search.SearchTodosRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.search.SearchTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.search.SearchTodosUseCase;
 import com.jabaddon.practices.architecture.todos.clean.usecase.uncomplete.UncompleteTodoInputPort;
 import com.jabaddon.practices.architecture.todos.clean.usecase.uncomplete.UncompleteTodoRequest;
 import com.jabaddon.practices.architecture.todos.clean.usecase.uncomplete.UncompleteTodoResponse;
@@ -37,6 +44,8 @@ import com.jabaddon.practices.architecture.todos.clean.usecase.update.UpdateTodo
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -64,6 +73,8 @@ class TodoUseCasesTest {
     private GetAllTodosInputPort getAllTodosUseCase;
     private GetCompletedTodosInputPort getCompletedTodosUseCase;
     private GetPendingTodosInputPort getPendingTodosUseCase;
+    private SearchTodosInputPort searchTodosUseCase;
+    private CountTodosInputPort countTodosUseCase;
 
     @BeforeEach
     void setUp() {
@@ -79,6 +90,8 @@ class TodoUseCasesTest {
         getAllTodosUseCase = new GetAllTodosUseCase(todoGateway);
         getCompletedTodosUseCase = new GetCompletedTodosUseCase(todoGateway);
         getPendingTodosUseCase = new GetPendingTodosUseCase(todoGateway);
+        searchTodosUseCase = new SearchTodosUseCase(todoGateway);
+        countTodosUseCase = new CountTodosUseCase(todoGateway);
     }
 
     @Test
@@ -243,5 +256,36 @@ class TodoUseCasesTest {
         assertThat(completed.todos(), hasSize(2));
         assertThat(pending.todos(), hasSize(1));
         assertThat(pending.todos().get(0).id(), is(equalTo(todo2.id())));
+
+        List<GetPendingTodosResponse.TodoItem> streamed = new ArrayList<>();
+        getPendingTodosUseCase.execute(streamed::add);
+        assertThat(streamed, is(equalTo(pending.todos())));
+    }
+
+    @Test
+    void shouldSearchTodosByWordPrefix() {
+        CreateTodoResponse groceries = createTodoUseCase.execute(
+                new CreateTodoRequest("Buy groceries", "Milk, bread, eggs"));
+        createTodoUseCase.execute(new CreateTodoRequest("Buy a bike", "Road bike"));
+
+        SearchTodosResponse response = searchTodosUseCase.execute(new SearchTodosRequest("buy bre", 10));
+
+        assertThat(response.todos(), hasSize(1));
+        assertThat(response.todos().get(0).id(), is(equalTo(groceries.id())));
+        assertThrows(IllegalArgumentException.class,
+                () -> searchTodosUseCase.execute(new SearchTodosRequest("buy", 0)));
+    }
+
+    @Test
+    void shouldCountTodosByStatus() {
+        CreateTodoResponse todo1 = createTodoUseCase.execute(new CreateTodoRequest("Task 1", null));
+        createTodoUseCase.execute(new CreateTodoRequest("Task 2", null));
+        createTodoUseCase.execute(new CreateTodoRequest("Task 3", null));
+        completeTodoUseCase.execute(new CompleteTodoRequest(todo1.id()));
+
+        CountTodosResponse response = countTodosUseCase.execute();
+
+        assertThat(response.pending(), is(2L));
+        assertThat(response.completed(), is(1L));
     }
 }
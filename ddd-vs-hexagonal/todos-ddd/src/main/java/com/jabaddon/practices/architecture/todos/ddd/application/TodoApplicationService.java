@@ -1,19 +1,47 @@
 package com.jabaddon.practices.architecture.todos.ddd.application;
 
+import com.jabaddon.practices.architecture.todos.ddd.application.dto.TodoChangeDTO;
+import com.jabaddon.practices.architecture.todos.ddd.application.dto.TodoCountsDTO;
 import com.jabaddon.practices.architecture.todos.ddd.application.dto.TodoDTO;
 import com.jabaddon.practices.architecture.todos.ddd.domain.model.*;
 import com.jabaddon.practices.architecture.todos.ddd.domain.repository.TodoRepository;
+import com.jabaddon.practices.architecture.todos.ddd.domain.repository.TodoUnitOfWork;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class TodoApplicationService {
 
     private final TodoRepository todoRepository;
+    private final TodoChangePublisher changePublisher;
 
     public TodoApplicationService(TodoRepository todoRepository) {
+        this(todoRepository, TodoChangePublisher.NONE);
+    }
+
+    public TodoApplicationService(TodoRepository todoRepository, TodoChangePublisher changePublisher) {
         this.todoRepository = todoRepository;
+        this.changePublisher = changePublisher;
+    }
+
+    /**
+     * Runs several commands against one {@link TodoUnitOfWork} and writes their changes together.
+     *
+     * Each todo is loaded at most once whatever the number of commands touching it,
+     * and the todos that changed are saved in one batched write after the last
+     * command. When a command throws, the changes not yet flushed are dropped.
+     * Changes are published once written, so a failed unit of work publishes none.
+     */
+    public <T> T inUnitOfWork(Function<TodoApplicationService, T> commands) {
+        TodoUnitOfWork unitOfWork = todoRepository.beginUnitOfWork();
+        List<TodoChangeDTO> changes = new ArrayList<>();
+        T result = commands.apply(new TodoApplicationService(unitOfWork, changes::add));
+        unitOfWork.flush();
+        changes.forEach(changePublisher::publish);
+        return result;
     }
 
     public TodoDTO createTodo(String title, String description) {
@@ -22,7 +50,7 @@ public class TodoApplicationService {
                 description != null ? new TodoDescription(description) : TodoDescription.empty()
         );
         todoRepository.save(todo);
-        return toDTO(todo);
+        return published(TodoChangeDTO.Type.CREATED, todo);
     }
 
     public TodoDTO updateTodo(String id, String title, String description) {
@@ -33,7 +61,7 @@ public class TodoApplicationService {
         todo.updateDescription(description != null ? new TodoDescription(description) : TodoDescription.empty());
 
         todoRepository.save(todo);
-        return toDTO(todo);
+        return published(TodoChangeDTO.Type.UPDATED, todo);
     }
 
     public TodoDTO completeTodo(String id) {
@@ -43,7 +71,7 @@ public class TodoApplicationService {
         todo.markAsCompleted();
 
         todoRepository.save(todo);
-        return toDTO(todo);
+        return published(TodoChangeDTO.Type.COMPLETED, todo);
     }
 
     public TodoDTO uncompleteTodo(String id) {
@@ -53,7 +81,7 @@ public class TodoApplicationService {
         todo.markAsPending();
 
         todoRepository.save(todo);
-        return toDTO(todo);
+        return published(TodoChangeDTO.Type.UNCOMPLETED, todo);
     }
 
     public void deleteTodo(String id) {
@@ -62,6 +90,7 @@ public class TodoApplicationService {
             throw new TodoNotFoundException("Todo not found with id: " + id);
         }
         todoRepository.delete(todoId);
+        changePublisher.publish(new TodoChangeDTO(TodoChangeDTO.Type.DELETED, id, null));
     }
 
     public Optional<TodoDTO> findTodoById(String id) {
@@ -87,6 +116,28 @@ public class TodoApplicationService {
                 .collect(Collectors.toList());
     }
 
+    public TodoCountsDTO countTodosByStatus() {
+        return new TodoCountsDTO(
+                todoRepository.countByStatus(TodoStatus.PENDING),
+                todoRepository.countByStatus(TodoStatus.COMPLETED)
+        );
+    }
+
+    public List<TodoDTO> searchTodos(String query, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return todoRepository.search(query, limit).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    private TodoDTO published(TodoChangeDTO.Type type, Todo todo) {
+        TodoDTO dto = toDTO(todo);
+        changePublisher.publish(new TodoChangeDTO(type, dto.id(), dto));
+        return dto;
+    }
+
     private TodoDTO toDTO(Todo todo) {
         return new TodoDTO(
                 todo.getId().value(),
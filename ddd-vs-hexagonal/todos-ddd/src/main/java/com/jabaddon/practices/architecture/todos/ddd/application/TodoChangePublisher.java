@@ -0,0 +1,17 @@
+package com.jabaddon.practices.architecture.todos.ddd.application;
+
+import com.jabaddon.practices.architecture.todos.ddd.application.dto.TodoChangeDTO;
+
+/**
+ * Receives every change once it is saved, for adapters that notify clients as todos change.
+ *
+ * Changes are published on the thread that made them, so implementations must
+ * return quickly and must not throw.
+ */
+public interface TodoChangePublisher {
+
+    TodoChangePublisher NONE = change -> {
+    };
+
+    void publish(TodoChangeDTO change);
+}
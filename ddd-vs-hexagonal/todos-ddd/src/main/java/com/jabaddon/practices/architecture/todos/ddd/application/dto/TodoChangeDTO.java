@@ -0,0 +1,20 @@
+package com.jabaddon.practices.architecture.todos.ddd.application.dto;
+
+/**
+ * A todo command that went through: which todo changed, how, and its new state.
+ * Deleted todos have no state left, so their {@code todo} is {@code null}.
+ */
+public record TodoChangeDTO(
+        Type type,
+        String id,
+        TodoDTO todo
+) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        COMPLETED,
+        UNCOMPLETED,
+        DELETED
+    }
+}
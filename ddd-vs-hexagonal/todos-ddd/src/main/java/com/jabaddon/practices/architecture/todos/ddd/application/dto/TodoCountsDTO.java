@@ -0,0 +1,7 @@
+package com.jabaddon.practices.architecture.todos.ddd.application.dto;
+
+public record TodoCountsDTO(
+        long pending,
+        long completed
+) {
+}
@@ -4,6 +4,7 @@ import com.jabaddon.practices.architecture.todos.ddd.domain.model.*;
 import com.jabaddon.practices.architecture.todos.ddd.domain.repository.dao.TodoDao;
 import com.jabaddon.practices.architecture.todos.ddd.domain.repository.dao.TodoPersistenceModel;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -16,6 +17,13 @@ public class TodoRepository {
         this.todoDao = todoDao;
     }
 
+    /**
+     * Starts a unit of work over the same DAO, see {@link TodoUnitOfWork}.
+     */
+    public TodoUnitOfWork beginUnitOfWork() {
+        return new TodoUnitOfWork(todoDao);
+    }
+
     public void save(Todo todo) {
         TodoPersistenceModel model = TodoPersistenceModel.fromAggregate(todo);
         todoDao.save(model);
@@ -38,6 +46,37 @@ public class TodoRepository {
                 .collect(Collectors.toList());
     }
 
+    public long countByStatus(TodoStatus status) {
+        return todoDao.countByStatus(status.name());
+    }
+
+    public List<Todo> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return todoDao.findByCreatedAtBetween(from, to, limit).stream()
+                .map(TodoPersistenceModel::toAggregate)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The page after one ending with the todo {@code (afterCreatedAt, afterId)}, see {@link TodoDao#findByCreatedAtAfter}.
+     */
+    public List<Todo> findByCreatedAtAfter(LocalDateTime afterCreatedAt, TodoId afterId, LocalDateTime to, int limit) {
+        return todoDao.findByCreatedAtAfter(afterCreatedAt, afterId.value(), to, limit).stream()
+                .map(TodoPersistenceModel::toAggregate)
+                .collect(Collectors.toList());
+    }
+
+    public List<Todo> findRecentlyUpdated(int limit) {
+        return todoDao.findRecentlyUpdated(limit).stream()
+                .map(TodoPersistenceModel::toAggregate)
+                .collect(Collectors.toList());
+    }
+
+    public List<Todo> search(String query, int limit) {
+        return todoDao.search(query, limit).stream()
+                .map(TodoPersistenceModel::toAggregate)
+                .collect(Collectors.toList());
+    }
+
     public void delete(TodoId id) {
         todoDao.delete(id.value());
     }
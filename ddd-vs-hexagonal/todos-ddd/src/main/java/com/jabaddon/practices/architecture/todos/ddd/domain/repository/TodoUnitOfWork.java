@@ -0,0 +1,163 @@
+package com.jabaddon.practices.architecture.todos.ddd.domain.repository;
+
+import com.jabaddon.practices.architecture.todos.ddd.domain.model.*;
+import com.jabaddon.practices.architecture.todos.ddd.domain.repository.dao.TodoDao;
+import com.jabaddon.practices.architecture.todos.ddd.domain.repository.dao.TodoPersistenceModel;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Request-scoped TodoRepository keeping track of the aggregates it hands out.
+ *
+ * Loaded todos go into an identity map: loading an id again returns the same
+ * aggregate without a DAO round trip, and existence checks of loaded ids are
+ * answered from the map. Saves and deletes are only recorded; {@link #flush()}
+ * writes every tracked todo that differs from what was loaded and deletes the
+ * deleted ids with a single {@link TodoDao#writeAll}.
+ *
+ * Other queries flush first so they see the pending changes, and return the
+ * tracked instance for todos already in the map. A unit of work batches
+ * writes, it is not a transaction: what was flushed stays written. Not thread
+ * safe, meant to live for one request.
+ */
+public class TodoUnitOfWork extends TodoRepository {
+
+    private final TodoDao todoDao;
+    private final Map<String, Tracked> identityMap = new HashMap<>();
+    private final Set<String> deleted = new LinkedHashSet<>();
+
+    TodoUnitOfWork(TodoDao todoDao) {
+        super(todoDao);
+        this.todoDao = todoDao;
+    }
+
+    /**
+     * Joins this unit of work: nested commands flush with it.
+     */
+    @Override
+    public TodoUnitOfWork beginUnitOfWork() {
+        return this;
+    }
+
+    @Override
+    public void save(Todo todo) {
+        String id = todo.getId().value();
+        deleted.remove(id);
+        Tracked tracked = identityMap.get(id);
+        if (tracked == null || tracked.todo() != todo) {
+            identityMap.put(id, new Tracked(todo, tracked != null ? tracked.persisted() : null));
+        }
+    }
+
+    @Override
+    public Optional<Todo> findById(TodoId id) {
+        if (deleted.contains(id.value())) {
+            return Optional.empty();
+        }
+        Tracked tracked = identityMap.get(id.value());
+        if (tracked != null) {
+            return Optional.of(tracked.todo());
+        }
+        return todoDao.findById(id.value()).map(this::track);
+    }
+
+    @Override
+    public List<Todo> findAll() {
+        flush();
+        return track(todoDao.findAll());
+    }
+
+    @Override
+    public List<Todo> findByStatus(TodoStatus status) {
+        flush();
+        return track(todoDao.findByStatus(status.name()));
+    }
+
+    @Override
+    public long countByStatus(TodoStatus status) {
+        flush();
+        return todoDao.countByStatus(status.name());
+    }
+
+    @Override
+    public List<Todo> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        flush();
+        return track(todoDao.findByCreatedAtBetween(from, to, limit));
+    }
+
+    @Override
+    public List<Todo> findByCreatedAtAfter(LocalDateTime afterCreatedAt, TodoId afterId, LocalDateTime to, int limit) {
+        flush();
+        return track(todoDao.findByCreatedAtAfter(afterCreatedAt, afterId.value(), to, limit));
+    }
+
+    @Override
+    public List<Todo> findRecentlyUpdated(int limit) {
+        flush();
+        return track(todoDao.findRecentlyUpdated(limit));
+    }
+
+    @Override
+    public List<Todo> search(String query, int limit) {
+        flush();
+        return track(todoDao.search(query, limit));
+    }
+
+    @Override
+    public void delete(TodoId id) {
+        identityMap.remove(id.value());
+        deleted.add(id.value());
+    }
+
+    @Override
+    public boolean existsById(TodoId id) {
+        if (deleted.contains(id.value())) {
+            return false;
+        }
+        return identityMap.containsKey(id.value()) || todoDao.existsById(id.value());
+    }
+
+    /**
+     * Writes the pending changes, the todos that changed and the deleted ids, as one batch.
+     */
+    public void flush() {
+        List<Tracked> dirty = new ArrayList<>();
+        for (Tracked tracked : identityMap.values()) {
+            TodoPersistenceModel current = TodoPersistenceModel.fromAggregate(tracked.todo());
+            if (!current.equals(tracked.persisted())) {
+                dirty.add(new Tracked(tracked.todo(), current));
+            }
+        }
+        if (dirty.isEmpty() && deleted.isEmpty()) {
+            return;
+        }
+        todoDao.writeAll(dirty.stream().map(Tracked::persisted).collect(Collectors.toList()),
+                new ArrayList<>(deleted));
+        dirty.forEach(tracked -> identityMap.put(tracked.persisted().id(), tracked));
+        deleted.clear();
+    }
+
+    private List<Todo> track(List<TodoPersistenceModel> models) {
+        return models.stream()
+                .map(this::track)
+                .collect(Collectors.toList());
+    }
+
+    private Todo track(TodoPersistenceModel model) {
+        return identityMap.computeIfAbsent(model.id(), id -> new Tracked(model.toAggregate(), model)).todo();
+    }
+
+    /**
+     * A tracked aggregate and the model last read from or written to the DAO, {@code null} for new ones.
+     */
+    private record Tracked(Todo todo, TodoPersistenceModel persisted) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.jabaddon.practices.architecture.todos.ddd.domain.repository.dao;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -7,13 +8,66 @@ public interface TodoDao {
 
     void save(TodoPersistenceModel model);
 
+    /**
+     * Saves several todos as one write where the storage allows it; saves them one by one by default.
+     */
+    default void saveAll(List<TodoPersistenceModel> models) {
+        models.forEach(this::save);
+    }
+
     Optional<TodoPersistenceModel> findById(String id);
 
     List<TodoPersistenceModel> findAll();
 
     List<TodoPersistenceModel> findByStatus(String status);
 
+    long countByStatus(String status);
+
+    /**
+     * Todos created in {@code [from, to)}, oldest first and ties broken by id, at most {@code limit} of them.
+     */
+    List<TodoPersistenceModel> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to, int limit);
+
+    /**
+     * Todos created before {@code to} that come after the todo {@code (afterCreatedAt, afterId)}
+     * in the order of {@link #findByCreatedAtBetween}, at most {@code limit} of them: the page
+     * following one that ended with that todo.
+     */
+    List<TodoPersistenceModel> findByCreatedAtAfter(LocalDateTime afterCreatedAt, String afterId,
+                                                    LocalDateTime to, int limit);
+
+    /**
+     * The {@code limit} most recently updated todos, newest first.
+     */
+    List<TodoPersistenceModel> findRecentlyUpdated(int limit);
+
+    /**
+     * Todos whose title or description has a word starting with every word of the query,
+     * best matches first, at most {@code limit} of them.
+     */
+    List<TodoPersistenceModel> search(String query, int limit);
+
     void delete(String id);
 
+    /**
+     * Deletes several todos; deletes them one by one by default.
+     */
+    default void deleteAll(List<String> ids) {
+        ids.forEach(this::delete);
+    }
+
+    /**
+     * Saves the models, then deletes the ids, as one write where the storage allows it;
+     * by default with {@link #saveAll} and {@link #deleteAll}.
+     */
+    default void writeAll(List<TodoPersistenceModel> models, List<String> deletedIds) {
+        if (!models.isEmpty()) {
+            saveAll(models);
+        }
+        if (!deletedIds.isEmpty()) {
+            deleteAll(deletedIds);
+        }
+    }
+
     boolean existsById(String id);
 }
@@ -1,26 +1,33 @@
 package com.jabaddon.practices.architecture.todos.ddd.application;
 
+import com.jabaddon.practices.architecture.todos.ddd.application.dto.TodoChangeDTO;
 import com.jabaddon.practices.architecture.todos.ddd.application.dto.TodoDTO;
 import com.jabaddon.practices.architecture.todos.ddd.domain.repository.TodoRepository;
+import com.jabaddon.practices.architecture.todos.ddd.domain.repository.dao.TodoPersistenceModel;
 import com.jabaddon.practices.architecture.todos.ddd.infrastructure.InMemoryTodoDao;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class TodoApplicationServiceTest {
 
+    private CountingTodoDao todoDao;
     private TodoRepository todoRepository;
     private TodoApplicationService todoApplicationService;
 
     @BeforeEach
     void setUp() {
-        todoRepository = new TodoRepository(new InMemoryTodoDao());
+        todoDao = new CountingTodoDao();
+        todoRepository = new TodoRepository(todoDao);
         todoApplicationService = new TodoApplicationService(todoRepository);
     }
 
@@ -104,4 +111,124 @@ class TodoApplicationServiceTest {
         assertThat(pendingTodos, hasSize(1));
         assertThat(pendingTodos.get(0).id(), is(equalTo(todo2.id())));
     }
+
+    @Test
+    void shouldLoadEachTodoOnceAndWriteChangesInOneBatch() {
+        TodoDTO renamed = todoApplicationService.createTodo("Task 1", "Description 1");
+        TodoDTO completed = todoApplicationService.createTodo("Task 2", "Description 2");
+        TodoDTO deleted = todoApplicationService.createTodo("Task 3", "Description 3");
+        TodoDTO untouched = todoApplicationService.createTodo("Task 4", "Description 4");
+        todoDao.reset();
+
+        TodoDTO result = todoApplicationService.inUnitOfWork(service -> {
+            service.updateTodo(renamed.id(), "Task 1, renamed", "Description 1");
+            service.completeTodo(renamed.id());
+            service.completeTodo(completed.id());
+            service.deleteTodo(deleted.id());
+            service.findTodoById(untouched.id());
+            return service.findTodoById(renamed.id()).orElseThrow();
+        });
+
+        assertThat(result.title(), is(equalTo("Task 1, renamed")));
+        assertThat(result.status(), is(equalTo("COMPLETED")));
+        assertThat(todoDao.finds.get(), is(3));
+        assertThat(todoDao.saves.get(), is(0));
+        assertThat(todoDao.deletes.get(), is(0));
+        assertThat(todoDao.batches.get(), is(1));
+        assertThat(todoDao.batchedModels.get(), is(2));
+        assertThat(todoDao.batchedDeletes.get(), is(1));
+        assertThat(todoApplicationService.getCompletedTodos(), hasSize(2));
+        assertThat(todoApplicationService.findTodoById(deleted.id()).isPresent(), is(false));
+        assertThat(todoApplicationService.findTodoById(untouched.id()).get(), is(equalTo(untouched)));
+    }
+
+    @Test
+    void shouldFlushBeforeQueriesAndDropChangesOfFailedUnitOfWork() {
+        TodoDTO first = todoApplicationService.createTodo("Task 1", "Description 1");
+        TodoDTO second = todoApplicationService.createTodo("Task 2", "Description 2");
+
+        int completedInside = todoApplicationService.inUnitOfWork(service -> {
+            service.completeTodo(first.id());
+            return service.getCompletedTodos().size();
+        });
+        assertThat(completedInside, is(1));
+
+        assertThrows(TodoNotFoundException.class, () -> todoApplicationService.inUnitOfWork(service -> {
+            service.completeTodo(second.id());
+            return service.completeTodo("missing-id");
+        }));
+
+        assertThat(todoApplicationService.findTodoById(second.id()).get().status(), is(equalTo("PENDING")));
+    }
+
+    @Test
+    void shouldPublishChangesOfAUnitOfWorkOnlyOnceFlushed() {
+        List<TodoChangeDTO> changes = new ArrayList<>();
+        TodoApplicationService publishing = new TodoApplicationService(todoRepository, changes::add);
+        TodoDTO first = publishing.createTodo("Task 1", "Description 1");
+        TodoDTO second = publishing.createTodo("Task 2", "Description 2");
+
+        publishing.inUnitOfWork(service -> {
+            service.completeTodo(first.id());
+            service.deleteTodo(second.id());
+            assertThat(changes, hasSize(2));
+            return null;
+        });
+        assertThrows(TodoNotFoundException.class, () -> publishing.inUnitOfWork(service -> {
+            service.uncompleteTodo(first.id());
+            return service.completeTodo("missing-id");
+        }));
+
+        assertThat(changes.stream().map(TodoChangeDTO::type).toList(), contains(
+                TodoChangeDTO.Type.CREATED, TodoChangeDTO.Type.CREATED,
+                TodoChangeDTO.Type.COMPLETED, TodoChangeDTO.Type.DELETED));
+        assertThat(changes.get(2).todo().status(), is(equalTo("COMPLETED")));
+        assertThat(changes.get(3).id(), is(equalTo(second.id())));
+    }
+
+    private static class CountingTodoDao extends InMemoryTodoDao {
+
+        private final AtomicInteger finds = new AtomicInteger();
+        private final AtomicInteger saves = new AtomicInteger();
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger batchedModels = new AtomicInteger();
+        private final AtomicInteger batchedDeletes = new AtomicInteger();
+        private final AtomicInteger deletes = new AtomicInteger();
+
+        @Override
+        public void save(TodoPersistenceModel model) {
+            saves.incrementAndGet();
+            super.save(model);
+        }
+
+        @Override
+        public void writeAll(List<TodoPersistenceModel> models, List<String> deletedIds) {
+            batches.incrementAndGet();
+            batchedModels.addAndGet(models.size());
+            batchedDeletes.addAndGet(deletedIds.size());
+            models.forEach(super::save);
+            deletedIds.forEach(super::delete);
+        }
+
+        @Override
+        public void delete(String id) {
+            deletes.incrementAndGet();
+            super.delete(id);
+        }
+
+        @Override
+        public Optional<TodoPersistenceModel> findById(String id) {
+            finds.incrementAndGet();
+            return super.findById(id);
+        }
+
+        void reset() {
+            finds.set(0);
+            saves.set(0);
+            batches.set(0);
+            batchedModels.set(0);
+            batchedDeletes.set(0);
+            deletes.set(0);
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.jabaddon.practices.architecture.todos.ddd.infrastructure;
 import com.jabaddon.practices.architecture.todos.ddd.domain.repository.dao.TodoDao;
 import com.jabaddon.practices.architecture.todos.ddd.domain.repository.dao.TodoPersistenceModel;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
@@ -33,6 +34,50 @@ public class InMemoryTodoDao implements TodoDao {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public long countByStatus(String status) {
+        return storage.values().stream()
+                .filter(model -> model.status().equals(status))
+                .count();
+    }
+
+    @Override
+    public List<TodoPersistenceModel> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return storage.values().stream()
+                .filter(model -> !model.createdAt().isBefore(from) && model.createdAt().isBefore(to))
+                .sorted(Comparator.comparing(TodoPersistenceModel::createdAt).thenComparing(TodoPersistenceModel::id))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TodoPersistenceModel> findByCreatedAtAfter(LocalDateTime afterCreatedAt, String afterId, LocalDateTime to, int limit) {
+        return storage.values().stream()
+                .filter(model -> model.createdAt().isBefore(to) && (model.createdAt().isAfter(afterCreatedAt)
+                        || model.createdAt().isEqual(afterCreatedAt) && model.id().compareTo(afterId) > 0))
+                .sorted(Comparator.comparing(TodoPersistenceModel::createdAt).thenComparing(TodoPersistenceModel::id))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TodoPersistenceModel> findRecentlyUpdated(int limit) {
+        return storage.values().stream()
+                .sorted(Comparator.comparing(TodoPersistenceModel::updatedAt)
+                        .thenComparing(TodoPersistenceModel::id)
+                        .reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TodoPersistenceModel> search(String query, int limit) {
+        return storage.values().stream()
+                .filter(model -> matchesSearch(query, model.title(), model.description()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public void delete(String id) {
         storage.remove(id);
@@ -46,4 +91,25 @@ public class InMemoryTodoDao implements TodoDao {
     public void clear() {
         storage.clear();
     }
+
+    private static boolean matchesSearch(String query, String... texts) {
+        String[] terms = query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        List<String> words = new ArrayList<>();
+        for (String text : texts) {
+            if (text != null) {
+                words.addAll(Arrays.asList(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")));
+            }
+        }
+        boolean any = false;
+        for (String term : terms) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            any = true;
+            if (words.stream().noneMatch(word -> word.startsWith(term))) {
+                return false;
+            }
+        }
+        return any;
+    }
 }
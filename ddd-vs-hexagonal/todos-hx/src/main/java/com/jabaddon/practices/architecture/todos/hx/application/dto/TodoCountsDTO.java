@@ -0,0 +1,7 @@
+package com.jabaddon.practices.architecture.todos.hx.application.dto;
+
+public record TodoCountsDTO(
+        long pending,
+        long completed
+) {
+}
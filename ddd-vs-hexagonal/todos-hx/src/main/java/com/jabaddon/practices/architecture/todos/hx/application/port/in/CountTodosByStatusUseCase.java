@@ -0,0 +1,8 @@
+package com.jabaddon.practices.architecture.todos.hx.application.port.in;
+
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoCountsDTO;
+
+public interface CountTodosByStatusUseCase {
+
+    TodoCountsDTO countTodosByStatus();
+}
@@ -3,8 +3,23 @@ package com.jabaddon.practices.architecture.todos.hx.application.port.in;
 import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
 
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
 
 public interface GetCompletedTodosUseCase {
 
     List<TodoDTO> getCompletedTodos();
+
+    /**
+     * Hands every completed todo to the consumer as it is read, without building the list.
+     */
+    void streamCompletedTodos(Consumer<TodoDTO> consumer);
+
+    /**
+     * A version of the completed todos that changes whenever they do, read without loading any;
+     * empty when the storage keeps none. Read it before the list it stands for.
+     */
+    default OptionalLong completedTodosVersion() {
+        return OptionalLong.empty();
+    }
 }
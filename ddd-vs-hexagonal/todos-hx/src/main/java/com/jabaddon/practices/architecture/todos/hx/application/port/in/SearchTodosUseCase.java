@@ -0,0 +1,10 @@
+package com.jabaddon.practices.architecture.todos.hx.application.port.in;
+
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
+
+import java.util.List;
+
+public interface SearchTodosUseCase {
+
+    List<TodoDTO> searchTodos(String query, int limit);
+}
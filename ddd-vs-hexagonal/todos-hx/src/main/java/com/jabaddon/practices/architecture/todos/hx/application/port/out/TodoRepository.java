@@ -0,0 +1,80 @@
+package com.jabaddon.practices.architecture.todos.hx.application.port.out;
+
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+
+public interface TodoRepository {
+
+    TodoDTO save(TodoDTO todo);
+
+    Optional<TodoDTO> findById(String id);
+
+    List<TodoDTO> findAll();
+
+    List<TodoDTO> findByCompleted(boolean completed);
+
+    /**
+     * Hands every todo to the action, one at a time. Lists them all first by default;
+     * adapters able to read one todo at a time override it so memory stays bounded.
+     */
+    default void forEach(Consumer<TodoDTO> action) {
+        findAll().forEach(action);
+    }
+
+    /**
+     * Like {@link #forEach(Consumer)}, for the todos with the given completion state.
+     */
+    default void forEachByCompleted(boolean completed, Consumer<TodoDTO> action) {
+        findByCompleted(completed).forEach(action);
+    }
+
+    long countByCompleted(boolean completed);
+
+    /**
+     * A number that changes whenever any todo is saved or deleted; empty when the storage keeps none.
+     */
+    default OptionalLong version() {
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Like {@link #version()}, changing whenever a todo with the given completion state
+     * is saved or deleted, or leaves that state.
+     */
+    default OptionalLong versionByCompleted(boolean completed) {
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Todos created in {@code [from, to)}, oldest first and ties broken by id, at most {@code limit} of them.
+     * Read the next page with {@link #findByCreatedAtAfter}.
+     */
+    List<TodoDTO> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to, int limit);
+
+    /**
+     * Todos created before {@code to} that come after the todo {@code (afterCreatedAt, afterId)}
+     * in the order of {@link #findByCreatedAtBetween}, at most {@code limit} of them. Pass the
+     * createdAt and id of the last todo of a page to read the next one.
+     */
+    List<TodoDTO> findByCreatedAtAfter(LocalDateTime afterCreatedAt, String afterId, LocalDateTime to, int limit);
+
+    /**
+     * The {@code limit} most recently updated todos, newest first.
+     */
+    List<TodoDTO> findRecentlyUpdated(int limit);
+
+    /**
+     * Todos whose title or description has a word starting with every word of the query,
+     * best matches first, at most {@code limit} of them.
+     */
+    List<TodoDTO> search(String query, int limit);
+
+    void deleteById(String id);
+
+    boolean existsById(String id);
+}
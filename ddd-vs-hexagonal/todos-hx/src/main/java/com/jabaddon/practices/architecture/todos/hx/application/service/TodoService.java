@@ -1,13 +1,18 @@
 package com.jabaddon.practices.architecture.todos.hx.application.service;
 
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoChangeDTO;
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoCountsDTO;
 import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
 import com.jabaddon.practices.architecture.todos.hx.application.port.in.*;
+import com.jabaddon.practices.architecture.todos.hx.application.port.out.TodoChangePublisher;
 import com.jabaddon.practices.architecture.todos.hx.application.port.out.TodoRepository;
 import com.jabaddon.practices.architecture.todos.hx.domain.Todo;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public class TodoService implements
         CreateTodoUseCase,
@@ -18,20 +23,27 @@ public class TodoService implements
         FindTodoByIdUseCase,
         GetAllTodosUseCase,
         GetCompletedTodosUseCase,
-        GetIncompleteTodosUseCase {
+        GetIncompleteTodosUseCase,
+        SearchTodosUseCase,
+        CountTodosByStatusUseCase {
 
     private final TodoRepository todoRepository;
+    private final TodoChangePublisher changePublisher;
 
     public TodoService(TodoRepository todoRepository) {
+        this(todoRepository, TodoChangePublisher.NONE);
+    }
+
+    public TodoService(TodoRepository todoRepository, TodoChangePublisher changePublisher) {
         this.todoRepository = todoRepository;
+        this.changePublisher = changePublisher;
     }
 
     @Override
     public TodoDTO createTodo(String title, String description) {
         String id = UUID.randomUUID().toString();
         Todo todo = new Todo(id, title, description);
-        TodoDTO dto = toDTO(todo);
-        return todoRepository.save(dto);
+        return saved(TodoChangeDTO.Type.CREATED, toDTO(todo));
     }
 
     @Override
@@ -43,7 +55,7 @@ public class TodoService implements
         todo.updateTitle(title);
         todo.updateDescription(description);
 
-        return todoRepository.save(toDTO(todo));
+        return saved(TodoChangeDTO.Type.UPDATED, toDTO(todo));
     }
 
     @Override
@@ -54,7 +66,7 @@ public class TodoService implements
         Todo todo = toDomain(dto);
         todo.markAsCompleted();
 
-        return todoRepository.save(toDTO(todo));
+        return saved(TodoChangeDTO.Type.COMPLETED, toDTO(todo));
     }
 
     @Override
@@ -65,7 +77,7 @@ public class TodoService implements
         Todo todo = toDomain(dto);
         todo.markAsIncomplete();
 
-        return todoRepository.save(toDTO(todo));
+        return saved(TodoChangeDTO.Type.UNCOMPLETED, toDTO(todo));
     }
 
     @Override
@@ -74,6 +86,7 @@ public class TodoService implements
             throw new TodoNotFoundException("Todo not found with id: " + id);
         }
         todoRepository.deleteById(id);
+        changePublisher.publish(new TodoChangeDTO(TodoChangeDTO.Type.DELETED, id, null));
     }
 
     @Override
@@ -86,16 +99,65 @@ public class TodoService implements
         return todoRepository.findAll();
     }
 
+    @Override
+    public void streamAllTodos(Consumer<TodoDTO> consumer) {
+        todoRepository.forEach(consumer);
+    }
+
+    @Override
+    public OptionalLong allTodosVersion() {
+        return todoRepository.version();
+    }
+
     @Override
     public List<TodoDTO> getCompletedTodos() {
         return todoRepository.findByCompleted(true);
     }
 
+    @Override
+    public void streamCompletedTodos(Consumer<TodoDTO> consumer) {
+        todoRepository.forEachByCompleted(true, consumer);
+    }
+
+    @Override
+    public OptionalLong completedTodosVersion() {
+        return todoRepository.versionByCompleted(true);
+    }
+
     @Override
     public List<TodoDTO> getIncompleteTodos() {
         return todoRepository.findByCompleted(false);
     }
 
+    @Override
+    public void streamIncompleteTodos(Consumer<TodoDTO> consumer) {
+        todoRepository.forEachByCompleted(false, consumer);
+    }
+
+    @Override
+    public OptionalLong incompleteTodosVersion() {
+        return todoRepository.versionByCompleted(false);
+    }
+
+    @Override
+    public List<TodoDTO> searchTodos(String query, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return todoRepository.search(query, limit);
+    }
+
+    @Override
+    public TodoCountsDTO countTodosByStatus() {
+        return new TodoCountsDTO(todoRepository.countByCompleted(false), todoRepository.countByCompleted(true));
+    }
+
+    private TodoDTO saved(TodoChangeDTO.Type type, TodoDTO dto) {
+        TodoDTO saved = todoRepository.save(dto);
+        changePublisher.publish(new TodoChangeDTO(type, saved.id(), saved));
+        return saved;
+    }
+
     private TodoDTO toDTO(Todo todo) {
         return new TodoDTO(
                 todo.getId(),
@@ -1,5 +1,6 @@
 package com.jabaddon.practices.architecture.todos.hx.application.service;
 
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoChangeDTO;
 import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
 import com.jabaddon.practices.architecture.todos.hx.application.port.in.CreateTodoUseCase;
 import com.jabaddon.practices.architecture.todos.hx.application.port.in.FindTodoByIdUseCase;
@@ -9,12 +10,14 @@ import com.jabaddon.practices.architecture.todos.hx.infrastructure.InMemoryTodoR
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class TodoServiceTest {
 
@@ -86,4 +89,26 @@ class TodoServiceTest {
         assertThat(foundTodo2.get().title(), is(equalTo("Task 2")));
         assertThat(foundTodo3.get().title(), is(equalTo("Task 3")));
     }
+
+    @Test
+    void shouldPublishEachChangeOnceSaved() {
+        List<TodoChangeDTO> changes = new ArrayList<>();
+        TodoService todoService = new TodoService(todoRepository, changes::add);
+
+        TodoDTO created = todoService.createTodo("Task 1", "Description 1");
+        todoService.updateTodo(created.id(), "Task 1, renamed", null);
+        todoService.completeTodo(created.id());
+        todoService.uncompleteTodo(created.id());
+        todoService.deleteTodo(created.id());
+        assertThrows(TodoNotFoundException.class, () -> todoService.completeTodo(created.id()));
+
+        assertThat(changes.stream().map(TodoChangeDTO::type).toList(), contains(
+                TodoChangeDTO.Type.CREATED, TodoChangeDTO.Type.UPDATED, TodoChangeDTO.Type.COMPLETED,
+                TodoChangeDTO.Type.UNCOMPLETED, TodoChangeDTO.Type.DELETED));
+        assertThat(changes.get(0).todo(), is(equalTo(created)));
+        assertThat(changes.get(1).todo().title(), is(equalTo("Task 1, renamed")));
+        assertThat(changes.get(2).todo().completed(), is(true));
+        assertThat(changes.get(4).id(), is(equalTo(created.id())));
+        assertThat(changes.get(4).todo(), is(nullValue()));
+    }
 }
@@ -3,6 +3,7 @@ package com.jabaddon.practices.architecture.todos.hx.infrastructure;
 import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
 import com.jabaddon.practices.architecture.todos.hx.application.port.out.TodoRepository;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
@@ -34,6 +35,48 @@ public class InMemoryTodoRepository implements TodoRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public long countByCompleted(boolean completed) {
+        return storage.values().stream()
+                .filter(todo -> todo.completed() == completed)
+                .count();
+    }
+
+    @Override
+    public List<TodoDTO> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return storage.values().stream()
+                .filter(todo -> !todo.createdAt().isBefore(from) && todo.createdAt().isBefore(to))
+                .sorted(Comparator.comparing(TodoDTO::createdAt).thenComparing(TodoDTO::id))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TodoDTO> findByCreatedAtAfter(LocalDateTime afterCreatedAt, String afterId, LocalDateTime to, int limit) {
+        return storage.values().stream()
+                .filter(todo -> todo.createdAt().isBefore(to) && (todo.createdAt().isAfter(afterCreatedAt)
+                        || todo.createdAt().isEqual(afterCreatedAt) && todo.id().compareTo(afterId) > 0))
+                .sorted(Comparator.comparing(TodoDTO::createdAt).thenComparing(TodoDTO::id))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TodoDTO> findRecentlyUpdated(int limit) {
+        return storage.values().stream()
+                .sorted(Comparator.comparing(TodoDTO::updatedAt).thenComparing(TodoDTO::id).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TodoDTO> search(String query, int limit) {
+        return storage.values().stream()
+                .filter(todo -> matchesSearch(query, todo.title(), todo.description()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public void deleteById(String id) {
         storage.remove(id);
@@ -47,4 +90,25 @@ public class InMemoryTodoRepository implements TodoRepository {
     public void clear() {
         storage.clear();
     }
+
+    private static boolean matchesSearch(String query, String... texts) {
+        String[] terms = query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        List<String> words = new ArrayList<>();
+        for (String text : texts) {
+            if (text != null) {
+                words.addAll(Arrays.asList(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")));
+            }
+        }
+        boolean any = false;
+        for (String term : terms) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            any = true;
+            if (words.stream().noneMatch(word -> word.startsWith(term))) {
+                return false;
+            }
+        }
+        return any;
+    }
 }
@@ -0,0 +1,376 @@
+package com.jabaddon.practices.architecture.todos.tcp.client;
+
+import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.count.CountTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.count.CountTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.delete.DeleteTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getall.GetAllTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getall.GetAllTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getcompleted.GetCompletedTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getcompleted.GetCompletedTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPendingTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPendingTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.search.SearchTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.search.SearchTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.uncomplete.UncompleteTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.uncomplete.UncompleteTodoResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.update.UpdateTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.update.UpdateTodoResponse;
+import com.jabaddon.practices.architecture.todos.tcp.protocol.TodoPayload;
+import com.jabaddon.practices.architecture.todos.tcp.protocol.TodoProtocol;
+import com.jabaddon.practices.architecture.todos.tcp.protocol.TodoTcpException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Client of a {@link com.jabaddon.practices.architecture.todos.tcp.server.TodoTcpServer},
+ * exposing the input ports of todos-clean remotely.
+ *
+ * Callers get the same port interfaces as in-process, e.g.
+ * {@code client.createTodo().execute(new CreateTodoRequest(..))}, and the same
+ * IllegalArgumentException when a port rejects a request. A call blocks its
+ * thread until the response comes, which on a virtual thread only parks it.
+ *
+ * Calls from any number of threads share a few connections: each call takes
+ * the next connection in turn, writes its frame under a short lock and waits
+ * for the response with its correlation id, so many calls are pipelined on
+ * one connection without waiting for each other. A reader thread per
+ * connection hands each response to its caller and the caller decodes it.
+ * Lists are collected before they are returned or presented.
+ *
+ * A connection that fails fails every call waiting on it and the ones made on
+ * it afterwards with a {@link TodoTcpException}; the client does not
+ * reconnect, so callers replace a client whose connections broke.
+ */
+public final class TodoTcpClient implements AutoCloseable {
+
+    private final TodoTcpClientOptions options;
+    private final Connection[] connections;
+    private final AtomicInteger nextCorrelationId = new AtomicInteger();
+    private final AtomicInteger nextConnection = new AtomicInteger();
+
+    private TodoTcpClient(TodoTcpClientOptions options, Connection[] connections) {
+        this.options = options;
+        this.connections = connections;
+    }
+
+    public static TodoTcpClient connect(String host, int port, TodoTcpClientOptions options) {
+        Connection[] connections = new Connection[options.connections()];
+        try {
+            for (int i = 0; i < connections.length; i++) {
+                SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                connections[i] = new Connection(channel, options.maxFrameSize());
+            }
+        } catch (IOException e) {
+            for (Connection connection : connections) {
+                if (connection != null) {
+                    connection.close();
+                }
+            }
+            throw new TodoTcpException("Cannot connect to " + host + ":" + port, e);
+        }
+        return new TodoTcpClient(options, connections);
+    }
+
+    public CreateTodoInputPort createTodo() {
+        return request -> todo(call(TodoProtocol.CREATE,
+                TodoProtocol.maxStringSize(request.title()) + TodoProtocol.maxStringSize(request.description()),
+                frame -> {
+                    TodoProtocol.putString(frame, request.title());
+                    TodoProtocol.putString(frame, request.description());
+                }), CreateTodoResponse::new);
+    }
+
+    public UpdateTodoInputPort updateTodo() {
+        return request -> todo(call(TodoProtocol.UPDATE, TodoProtocol.maxStringSize(request.id())
+                        + TodoProtocol.maxStringSize(request.title()) + TodoProtocol.maxStringSize(request.description()),
+                frame -> {
+                    TodoProtocol.putString(frame, request.id());
+                    TodoProtocol.putString(frame, request.title());
+                    TodoProtocol.putString(frame, request.description());
+                }), UpdateTodoResponse::new);
+    }
+
+    public CompleteTodoInputPort completeTodo() {
+        return request -> todo(callWithId(TodoProtocol.COMPLETE, request.id()), CompleteTodoResponse::new);
+    }
+
+    public UncompleteTodoInputPort uncompleteTodo() {
+        return request -> todo(callWithId(TodoProtocol.UNCOMPLETE, request.id()), UncompleteTodoResponse::new);
+    }
+
+    public DeleteTodoInputPort deleteTodo() {
+        return request -> callWithId(TodoProtocol.DELETE, request.id());
+    }
+
+    public FindTodoByIdInputPort findTodoById() {
+        return request -> {
+            ByteBuffer payload = callWithId(TodoProtocol.FIND_BY_ID, request.id()).get(0);
+            if (payload.get() == 0) {
+                return Optional.empty();
+            }
+            return Optional.of(TodoPayload.get(payload, FindTodoByIdResponse::new));
+        };
+    }
+
+    public GetAllTodosInputPort getAllTodos() {
+        return new GetAllTodosInputPort() {
+            @Override
+            public GetAllTodosResponse execute() {
+                return new GetAllTodosResponse(list(TodoProtocol.GET_ALL, GetAllTodosResponse.TodoItem::new));
+            }
+
+            @Override
+            public void execute(Consumer<GetAllTodosResponse.TodoItem> presenter) {
+                list(TodoProtocol.GET_ALL, GetAllTodosResponse.TodoItem::new).forEach(presenter);
+            }
+        };
+    }
+
+    public GetCompletedTodosInputPort getCompletedTodos() {
+        return new GetCompletedTodosInputPort() {
+            @Override
+            public GetCompletedTodosResponse execute() {
+                return new GetCompletedTodosResponse(
+                        list(TodoProtocol.GET_COMPLETED, GetCompletedTodosResponse.TodoItem::new));
+            }
+
+            @Override
+            public void execute(Consumer<GetCompletedTodosResponse.TodoItem> presenter) {
+                list(TodoProtocol.GET_COMPLETED, GetCompletedTodosResponse.TodoItem::new).forEach(presenter);
+            }
+        };
+    }
+
+    public GetPendingTodosInputPort getPendingTodos() {
+        return new GetPendingTodosInputPort() {
+            @Override
+            public GetPendingTodosResponse execute() {
+                return new GetPendingTodosResponse(
+                        list(TodoProtocol.GET_PENDING, GetPendingTodosResponse.TodoItem::new));
+            }
+
+            @Override
+            public void execute(Consumer<GetPendingTodosResponse.TodoItem> presenter) {
+                list(TodoProtocol.GET_PENDING, GetPendingTodosResponse.TodoItem::new).forEach(presenter);
+            }
+        };
+    }
+
+    public SearchTodosInputPort searchTodos() {
+        return request -> new SearchTodosResponse(todos(call(TodoProtocol.SEARCH,
+                TodoProtocol.maxStringSize(request.query()) + Integer.BYTES,
+                frame -> {
+                    TodoProtocol.putString(frame, request.query());
+                    frame.putInt(request.limit());
+                }), SearchTodosResponse.TodoItem::new));
+    }
+
+    public CountTodosInputPort countTodos() {
+        return () -> {
+            ByteBuffer payload = call(TodoProtocol.COUNT, 0, frame -> {
+            }).get(0);
+            return new CountTodosResponse(payload.getLong(), payload.getLong());
+        };
+    }
+
+    @Override
+    public void close() {
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private List<ByteBuffer> callWithId(byte code, String id) {
+        return call(code, TodoProtocol.maxStringSize(id), frame -> TodoProtocol.putString(frame, id));
+    }
+
+    private <T> List<T> list(byte code, TodoPayload.Reader<T> reader) {
+        return todos(call(code, 0, frame -> {
+        }), reader);
+    }
+
+    /**
+     * Sends one request and returns the payloads of its response frames, or
+     * throws what its status stands for.
+     */
+    private List<ByteBuffer> call(byte code, int payloadCapacity, Consumer<ByteBuffer> payload) {
+        int correlationId = nextCorrelationId.incrementAndGet();
+        ByteBuffer frame = TodoProtocol.frame(correlationId, code, payloadCapacity);
+        payload.accept(frame);
+        Connection connection = connections[Math.floorMod(nextConnection.getAndIncrement(), connections.length)];
+        Reply reply = connection.call(correlationId, TodoProtocol.finish(frame), options.requestTimeout());
+        return switch (reply.status()) {
+            case TodoProtocol.OK -> reply.payloads();
+            case TodoProtocol.INVALID -> throw new IllegalArgumentException(message(reply));
+            default -> throw new TodoTcpException(message(reply));
+        };
+    }
+
+    private static String message(Reply reply) {
+        return TodoProtocol.getString(reply.payloads().get(reply.payloads().size() - 1));
+    }
+
+    private static <T> T todo(List<ByteBuffer> payloads, TodoPayload.Reader<T> reader) {
+        return TodoPayload.get(payloads.get(0), reader);
+    }
+
+    private static <T> List<T> todos(List<ByteBuffer> payloads, TodoPayload.Reader<T> reader) {
+        List<T> todos = new ArrayList<>();
+        for (ByteBuffer payload : payloads) {
+            for (int count = payload.getInt(); count > 0; count--) {
+                todos.add(TodoPayload.get(payload, reader));
+            }
+        }
+        return todos;
+    }
+
+    private record Reply(byte status, List<ByteBuffer> payloads) {
+    }
+
+    /**
+     * Frames received so far for a call, completed with the final one.
+     */
+    private static final class Call {
+
+        private final CompletableFuture<Reply> reply = new CompletableFuture<>();
+        private final List<ByteBuffer> payloads = new ArrayList<>(1);
+    }
+
+    private static final class Connection {
+
+        private final SocketChannel channel;
+        private final int maxFrameSize;
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private final Map<Integer, Call> calls = new ConcurrentHashMap<>();
+        private volatile TodoTcpException failure;
+
+        private Connection(SocketChannel channel, int maxFrameSize) {
+            this.channel = channel;
+            this.maxFrameSize = maxFrameSize;
+            Thread.ofVirtual().name("tcp-client-reader-", 0).start(this::read);
+        }
+
+        private Reply call(int correlationId, ByteBuffer frame, Duration timeout) {
+            Call call = new Call();
+            calls.put(correlationId, call);
+            // Checked after registering, so a failure racing with this call fails it either way
+            TodoTcpException failed = failure;
+            if (failed != null) {
+                calls.remove(correlationId);
+                throw new TodoTcpException(failed.getMessage(), failed);
+            }
+            writeLock.lock();
+            try {
+                while (frame.hasRemaining()) {
+                    channel.write(frame);
+                }
+            } catch (IOException e) {
+                fail(new TodoTcpException("Connection failed", e));
+            } finally {
+                writeLock.unlock();
+            }
+            try {
+                return call.reply.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                calls.remove(correlationId);
+                throw new TodoTcpException("No response within " + timeout);
+            } catch (ExecutionException e) {
+                throw new TodoTcpException(e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                calls.remove(correlationId);
+                throw new TodoTcpException("Interrupted while waiting for a response", e);
+            }
+        }
+
+        /**
+         * Reads response frames and completes their calls, until the connection fails or closes.
+         */
+        private void read() {
+            ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+            try {
+                while (channel.read(in) >= 0) {
+                    in.flip();
+                    while (in.remaining() >= Integer.BYTES) {
+                        int length = in.getInt(in.position());
+                        if (length < TodoProtocol.HEADER_SIZE - Integer.BYTES || length > maxFrameSize) {
+                            throw new TodoTcpException("Invalid response frame length: " + length);
+                        }
+                        if (in.remaining() < Integer.BYTES + length) {
+                            if (in.capacity() < Integer.BYTES + length) {
+                                in = ByteBuffer.allocate(Math.max(in.capacity() * 2, Integer.BYTES + length))
+                                        .put(in).flip();
+                            }
+                            break;
+                        }
+                        in.getInt();
+                        int correlationId = in.getInt();
+                        byte status = in.get();
+                        byte[] payload = new byte[length - (TodoProtocol.HEADER_SIZE - Integer.BYTES)];
+                        in.get(payload);
+                        received(correlationId, status, ByteBuffer.wrap(payload));
+                    }
+                    in.compact();
+                }
+                fail(new TodoTcpException("Connection closed by the server"));
+            } catch (IOException e) {
+                fail(new TodoTcpException("Connection failed", e));
+            } catch (TodoTcpException e) {
+                fail(e);
+            }
+        }
+
+        private void received(int correlationId, byte status, ByteBuffer payload) {
+            Call call = status == TodoProtocol.CONTINUED ? calls.get(correlationId) : calls.remove(correlationId);
+            if (call == null) {
+                // Its caller timed out
+                return;
+            }
+            call.payloads.add(payload);
+            if (status != TodoProtocol.CONTINUED) {
+                call.reply.complete(new Reply(status, call.payloads));
+            }
+        }
+
+        private void fail(TodoTcpException e) {
+            if (failure == null) {
+                failure = e;
+            }
+            close();
+            calls.values().forEach(call -> call.reply.completeExceptionally(failure));
+            calls.clear();
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Closing anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.jabaddon.practices.architecture.todos.tcp.client;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for {@link TodoTcpClient}.
+ *
+ * @param connections    connections opened to the server; every call picks the next one in turn
+ * @param requestTimeout how long a call waits for its response
+ * @param maxFrameSize   largest accepted response frame in bytes, length prefix excluded;
+ *                       a larger one fails the connection
+ */
+public record TodoTcpClientOptions(int connections, Duration requestTimeout, int maxFrameSize) {
+
+    public TodoTcpClientOptions {
+        if (connections < 1) {
+            throw new IllegalArgumentException("Connections must be positive");
+        }
+        if (requestTimeout.isNegative() || requestTimeout.isZero()) {
+            throw new IllegalArgumentException("Request timeout must be positive");
+        }
+        if (maxFrameSize < 64) {
+            throw new IllegalArgumentException("Max frame size must be at least 64 bytes");
+        }
+    }
+
+    public static TodoTcpClientOptions defaults() {
+        return new TodoTcpClientOptions(2, Duration.ofSeconds(5), 16 * 1024 * 1024);
+    }
+
+    public TodoTcpClientOptions withConnections(int connections) {
+        return new TodoTcpClientOptions(connections, requestTimeout, maxFrameSize);
+    }
+
+    public TodoTcpClientOptions withRequestTimeout(Duration requestTimeout) {
+        return new TodoTcpClientOptions(connections, requestTimeout, maxFrameSize);
+    }
+
+    public TodoTcpClientOptions withMaxFrameSize(int maxFrameSize) {
+        return new TodoTcpClientOptions(connections, requestTimeout, maxFrameSize);
+    }
+}
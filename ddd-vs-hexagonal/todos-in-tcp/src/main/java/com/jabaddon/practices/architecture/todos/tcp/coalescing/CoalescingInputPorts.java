@@ -0,0 +1,167 @@
+package com.jabaddon.practices.architecture.todos.tcp.coalescing;
+
+import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.count.CountTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.delete.DeleteTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getall.GetAllTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getall.GetAllTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getcompleted.GetCompletedTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getcompleted.GetCompletedTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPendingTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPendingTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.search.SearchTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.search.SearchTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.uncomplete.UncompleteTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.update.UpdateTodoInputPort;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Clean Architecture input ports with concurrent identical reads coalesced, one wrapper per port.
+ *
+ * A read port wrapped by {@code coalesce} runs once for all the identical
+ * calls in flight together, that is the same port with an equal request,
+ * and hands every caller the same response, or the same exception. List
+ * responses are made unmodifiable before they are shared. The streaming
+ * list variants are passed through: a presenter consumes the todos as they
+ * are read, so there is no response to share.
+ *
+ * Writes must go through ports wrapped by {@code invalidating}, or be
+ * followed by {@link #invalidate()}: once a write returns, reads starting
+ * after it no longer join flights started before it, so no caller reads
+ * older data than an uncoalesced call would. Reads overlapping the write may
+ * still share a flight, which is no different from their running just
+ * before it.
+ */
+public final class CoalescingInputPorts {
+
+    private final SingleFlight flights = new SingleFlight();
+
+    public FindTodoByIdInputPort coalesce(FindTodoByIdInputPort port) {
+        return request -> flights.execute(new Key(port, request), () -> port.execute(request));
+    }
+
+    public SearchTodosInputPort coalesce(SearchTodosInputPort port) {
+        return request -> flights.execute(new Key(port, request),
+                () -> new SearchTodosResponse(List.copyOf(port.execute(request).todos())));
+    }
+
+    public CountTodosInputPort coalesce(CountTodosInputPort port) {
+        return () -> flights.execute(new Key(port, null), port::execute);
+    }
+
+    public GetAllTodosInputPort coalesce(GetAllTodosInputPort port) {
+        return new GetAllTodosInputPort() {
+            @Override
+            public GetAllTodosResponse execute() {
+                return flights.execute(new Key(port, null),
+                        () -> new GetAllTodosResponse(List.copyOf(port.execute().todos())));
+            }
+
+            @Override
+            public void execute(Consumer<GetAllTodosResponse.TodoItem> presenter) {
+                port.execute(presenter);
+            }
+        };
+    }
+
+    public GetCompletedTodosInputPort coalesce(GetCompletedTodosInputPort port) {
+        return new GetCompletedTodosInputPort() {
+            @Override
+            public GetCompletedTodosResponse execute() {
+                return flights.execute(new Key(port, null),
+                        () -> new GetCompletedTodosResponse(List.copyOf(port.execute().todos())));
+            }
+
+            @Override
+            public void execute(Consumer<GetCompletedTodosResponse.TodoItem> presenter) {
+                port.execute(presenter);
+            }
+        };
+    }
+
+    public GetPendingTodosInputPort coalesce(GetPendingTodosInputPort port) {
+        return new GetPendingTodosInputPort() {
+            @Override
+            public GetPendingTodosResponse execute() {
+                return flights.execute(new Key(port, null),
+                        () -> new GetPendingTodosResponse(List.copyOf(port.execute().todos())));
+            }
+
+            @Override
+            public void execute(Consumer<GetPendingTodosResponse.TodoItem> presenter) {
+                port.execute(presenter);
+            }
+        };
+    }
+
+    public CreateTodoInputPort invalidating(CreateTodoInputPort port) {
+        return request -> {
+            try {
+                return port.execute(request);
+            } finally {
+                flights.invalidate();
+            }
+        };
+    }
+
+    public UpdateTodoInputPort invalidating(UpdateTodoInputPort port) {
+        return request -> {
+            try {
+                return port.execute(request);
+            } finally {
+                flights.invalidate();
+            }
+        };
+    }
+
+    public CompleteTodoInputPort invalidating(CompleteTodoInputPort port) {
+        return request -> {
+            try {
+                return port.execute(request);
+            } finally {
+                flights.invalidate();
+            }
+        };
+    }
+
+    public UncompleteTodoInputPort invalidating(UncompleteTodoInputPort port) {
+        return request -> {
+            try {
+                return port.execute(request);
+            } finally {
+                flights.invalidate();
+            }
+        };
+    }
+
+    public DeleteTodoInputPort invalidating(DeleteTodoInputPort port) {
+        return request -> {
+            try {
+                port.execute(request);
+            } finally {
+                flights.invalidate();
+            }
+        };
+    }
+
+    /**
+     * For writes made around the invalidating ports: reads starting after it run afresh.
+     */
+    public void invalidate() {
+        flights.invalidate();
+    }
+
+    public CoalescingStats stats() {
+        return flights.stats();
+    }
+
+    /**
+     * Identifies identical calls: the wrapped port, by identity, and its request, by value.
+     */
+    private record Key(Object port, Object request) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.jabaddon.practices.architecture.todos.tcp.coalescing;
+
+/**
+ * Counters of a {@link CoalescingInputPorts}.
+ *
+ * @param calls         calls made to the coalesced read ports
+ * @param executions    calls that ran the wrapped port, one per flight
+ * @param invalidations writes completed through the invalidating ports, or explicit invalidations
+ */
+public record CoalescingStats(long calls, long executions, long invalidations) {
+
+    /**
+     * Calls answered by joining a flight already in the air.
+     */
+    public long coalesced() {
+        return calls - executions;
+    }
+
+    public double coalescingRatio() {
+        return calls == 0 ? 0 : (double) coalesced() / calls;
+    }
+}
@@ -0,0 +1,101 @@
+package com.jabaddon.practices.architecture.todos.tcp.coalescing;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one call per key at a time; callers arriving while it runs wait for it and share its outcome.
+ *
+ * The first caller for a key, the leader, runs the call on its own thread
+ * and publishes the result or exception to the callers that joined it. A
+ * flight is tagged with the generation it started in and only joined by
+ * callers of that generation or an earlier one: {@link #invalidate()} moves
+ * to the next generation, so a caller arriving after it starts a fresh call
+ * instead of getting a result read before it. Nothing is kept once a flight
+ * lands; this coalesces, it does not cache.
+ */
+final class SingleFlight {
+
+    private final Map<Object, Flight> flights = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    <T> T execute(Object key, Supplier<T> call) {
+        calls.increment();
+        long current = generation.get();
+        while (true) {
+            Flight existing = flights.get(key);
+            if (existing != null && existing.generation >= current) {
+                return existing.await();
+            }
+            Flight flight = new Flight(current);
+            boolean leader = existing == null
+                    ? flights.putIfAbsent(key, flight) == null
+                    : flights.replace(key, existing, flight);
+            if (leader) {
+                return lead(key, flight, call);
+            }
+        }
+    }
+
+    /**
+     * Makes later callers start new flights rather than join the ones in the air.
+     */
+    void invalidate() {
+        generation.incrementAndGet();
+        invalidations.increment();
+    }
+
+    CoalescingStats stats() {
+        return new CoalescingStats(calls.sum(), executions.sum(), invalidations.sum());
+    }
+
+    private <T> T lead(Object key, Flight flight, Supplier<T> call) {
+        executions.increment();
+        try {
+            T result = call.get();
+            flight.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private static final class Flight {
+
+        private final long generation;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Flight(long generation) {
+            this.generation = generation;
+        }
+
+        /**
+         * The leader's result, or the exception it threw, rethrown as is so callers can handle it by type.
+         */
+        @SuppressWarnings("unchecked")
+        private <T> T await() {
+            try {
+                return (T) result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
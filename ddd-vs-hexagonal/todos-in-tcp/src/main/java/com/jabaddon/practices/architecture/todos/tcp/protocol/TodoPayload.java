@@ -0,0 +1,174 @@
+package com.jabaddon.practices.architecture.todos.tcp.protocol;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Binary form of a todo in {@link TodoProtocol} payloads (big-endian, version 1):
+ * <pre>
+ * offset  size  field
+ *  0      1     version
+ *  1      1     flags (1 = text id, 2 = null description)
+ *  2      1     status (0 = pending, 1 = completed)
+ *  3      1     reserved
+ *  4      8     id, most significant bits
+ *  12     8     id, least significant bits
+ *  20     8     createdAt, epoch micros UTC
+ *  28     8     updatedAt, epoch micros UTC
+ *  36     2     id length (text id only)
+ *  38     2     title length
+ *  40     2     description length
+ *  42     ...   [id UTF-8 (text id only)] [title UTF-8] [description UTF-8]
+ * </pre>
+ * Canonical UUID ids are packed into the 16 id bytes; any other id is sent
+ * as text. Timestamps are truncated to microseconds. The layout matches the
+ * todo records of the stores byte for byte, but is defined here: the wire
+ * does not change with the storage format.
+ */
+public final class TodoPayload {
+
+    public static final int HEADER_SIZE = 42;
+
+    private static final byte VERSION = 1;
+    private static final byte FLAG_TEXT_ID = 1;
+    private static final byte FLAG_NULL_DESCRIPTION = 2;
+    private static final byte PENDING = 0;
+    private static final byte COMPLETED = 1;
+    private static final int MAX_FIELD_BYTES = 0xFFFF;
+    private static final int UUID_LENGTH = 36;
+
+    private TodoPayload() {
+    }
+
+    /**
+     * Upper bound of the encoded size of a todo, to size a frame before writing it.
+     */
+    public static int maxSize(String id, String title, String description) {
+        int idChars = isCanonicalUuid(id) ? 0 : id.length();
+        int descriptionChars = description != null ? description.length() : 0;
+        return HEADER_SIZE + 3 * (idChars + title.length() + descriptionChars);
+    }
+
+    /**
+     * Writes a todo at the buffer position and advances it past the todo.
+     */
+    public static void put(ByteBuffer target, String id, String title, String description, boolean completed,
+                           LocalDateTime createdAt, LocalDateTime updatedAt) {
+        if (target.remaining() < maxSize(id, title, description)) {
+            throw new BufferOverflowException();
+        }
+        boolean uuid = isCanonicalUuid(id);
+        byte[] idBytes = uuid ? new byte[0] : id.getBytes(StandardCharsets.UTF_8);
+        byte[] titleBytes = title.getBytes(StandardCharsets.UTF_8);
+        byte[] descriptionBytes = description != null ? description.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        byte flags = (byte) ((uuid ? 0 : FLAG_TEXT_ID) | (description == null ? FLAG_NULL_DESCRIPTION : 0));
+        target.put(VERSION).put(flags).put(completed ? COMPLETED : PENDING).put((byte) 0)
+                .putLong(uuid ? hexBits(id, 0, 18) : 0)
+                .putLong(uuid ? hexBits(id, 19, UUID_LENGTH) : 0)
+                .putLong(toEpochMicros(createdAt))
+                .putLong(toEpochMicros(updatedAt))
+                .putShort(fieldLength(idBytes.length, "Id"))
+                .putShort(fieldLength(titleBytes.length, "Title"))
+                .putShort(fieldLength(descriptionBytes.length, "Description"))
+                .put(idBytes).put(titleBytes).put(descriptionBytes);
+    }
+
+    /**
+     * Reads a todo written by {@link #put} and advances the buffer past it.
+     *
+     * @throws BufferUnderflowException when the payload ends within the todo
+     */
+    public static <T> T get(ByteBuffer source, Reader<T> reader) {
+        if (source.remaining() < HEADER_SIZE) {
+            throw new BufferUnderflowException();
+        }
+        byte version = source.get();
+        if (version != VERSION) {
+            throw new TodoTcpException("Unsupported todo payload version: " + version);
+        }
+        byte flags = source.get();
+        boolean completed = source.get() == COMPLETED;
+        source.get();
+        long msb = source.getLong();
+        long lsb = source.getLong();
+        LocalDateTime createdAt = fromEpochMicros(source.getLong());
+        LocalDateTime updatedAt = fromEpochMicros(source.getLong());
+        int idLength = Short.toUnsignedInt(source.getShort());
+        int titleLength = Short.toUnsignedInt(source.getShort());
+        int descriptionLength = Short.toUnsignedInt(source.getShort());
+        if (source.remaining() < idLength + titleLength + descriptionLength) {
+            throw new BufferUnderflowException();
+        }
+        String id = (flags & FLAG_TEXT_ID) != 0 ? string(source, idLength) : new UUID(msb, lsb).toString();
+        String title = string(source, titleLength);
+        String description = string(source, descriptionLength);
+        return reader.read(id, title, (flags & FLAG_NULL_DESCRIPTION) != 0 ? null : description,
+                completed, createdAt, updatedAt);
+    }
+
+    /**
+     * Builds a caller-specific type from the fields of a todo, as the todos-clean response models take them.
+     */
+    @FunctionalInterface
+    public interface Reader<T> {
+
+        T read(String id, String title, String description, boolean completed,
+               LocalDateTime createdAt, LocalDateTime updatedAt);
+    }
+
+    private static String string(ByteBuffer source, int length) {
+        String value = new String(source.array(), source.arrayOffset() + source.position(), length,
+                StandardCharsets.UTF_8);
+        source.position(source.position() + length);
+        return value;
+    }
+
+    private static short fieldLength(int length, String field) {
+        if (length > MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException(field + " exceeds " + MAX_FIELD_BYTES + " encoded bytes");
+        }
+        return (short) length;
+    }
+
+    private static long toEpochMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Whether the id is a lowercase, hyphenated UUID that packs into two longs.
+     */
+    private static boolean isCanonicalUuid(String id) {
+        if (id.length() != UUID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = id.charAt(i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash ? c != '-' : !((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hexBits(String id, int from, int to) {
+        long bits = 0;
+        for (int i = from; i < to; i++) {
+            char c = id.charAt(i);
+            if (c != '-') {
+                bits = (bits << 4) | (c <= '9' ? c - '0' : c - 'a' + 10);
+            }
+        }
+        return bits;
+    }
+}
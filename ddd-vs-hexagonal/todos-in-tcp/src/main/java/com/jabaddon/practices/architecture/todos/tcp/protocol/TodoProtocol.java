@@ -0,0 +1,147 @@
+package com.jabaddon.practices.architecture.todos.tcp.protocol;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Length-prefixed binary wire format of the todo TCP adapter.
+ *
+ * Every message, request or response, is one frame (big-endian):
+ * <pre>
+ * [int length][int correlationId][byte code][payload]
+ * </pre>
+ * where {@code length} counts the bytes after itself. The client picks the
+ * correlation id of a request and the server answers with the same one, so
+ * a client may send many requests without waiting, from many threads over
+ * one connection, and match the responses as they come back in any order.
+ *
+ * The code of a request names its input port, the code of a response is its
+ * status. Request payloads:
+ * <pre>
+ * CREATE      [string title][string description]
+ * UPDATE      [string id][string title][string description]
+ * COMPLETE, UNCOMPLETE, DELETE, FIND_BY_ID   [string id]
+ * GET_ALL, GET_COMPLETED, GET_PENDING, COUNT [nothing]
+ * SEARCH      [string query][int limit]
+ * </pre>
+ * Strings are {@code [unsigned short length][UTF-8 bytes]}, the length
+ * {@code 0xFFFF} standing for {@code null}.
+ *
+ * An {@link #OK} payload is the todo of CREATE, UPDATE, COMPLETE and
+ * UNCOMPLETE as a {@link TodoPayload} record; nothing for DELETE;
+ * {@code [byte found][record]} for FIND_BY_ID, the record only when found;
+ * {@code [long pending][long completed]} for COUNT; and
+ * {@code [int count] count x [record]} for the lists. A long list comes as
+ * {@link #CONTINUED} frames of the same shape followed by a final {@code OK}
+ * one, so neither side holds it in one frame. {@link #INVALID},
+ * {@link #FAILED} and {@link #MALFORMED} end a request with a
+ * {@code [string message]} payload, also after {@code CONTINUED} frames,
+ * whose todos the client then drops.
+ */
+public final class TodoProtocol {
+
+    /**
+     * Bytes before the payload: length, correlation id and code.
+     */
+    public static final int HEADER_SIZE = 9;
+
+    public static final byte CREATE = 1;
+    public static final byte UPDATE = 2;
+    public static final byte COMPLETE = 3;
+    public static final byte UNCOMPLETE = 4;
+    public static final byte DELETE = 5;
+    public static final byte FIND_BY_ID = 6;
+    public static final byte GET_ALL = 7;
+    public static final byte GET_COMPLETED = 8;
+    public static final byte GET_PENDING = 9;
+    public static final byte SEARCH = 10;
+    public static final byte COUNT = 11;
+
+    public static final byte OK = 0;
+    /**
+     * Part of a list; more frames follow for the same correlation id.
+     */
+    public static final byte CONTINUED = 1;
+    /**
+     * The input port rejected the request, as an IllegalArgumentException does locally.
+     */
+    public static final byte INVALID = 2;
+    /**
+     * The input port failed unexpectedly.
+     */
+    public static final byte FAILED = 3;
+    /**
+     * The request frame could not be read.
+     */
+    public static final byte MALFORMED = 4;
+
+    private static final int NULL_STRING = 0xFFFF;
+
+    private TodoProtocol() {
+    }
+
+    /**
+     * Upper bound of the encoded size of a string, to size a frame before writing it.
+     */
+    public static int maxStringSize(String value) {
+        return 2 + (value != null ? value.length() * 3 : 0);
+    }
+
+    public static void putString(ByteBuffer target, String value) {
+        if (value == null) {
+            target.putShort((short) NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_STRING) {
+            throw new TodoTcpException("String too long for the wire: " + bytes.length + " bytes");
+        }
+        target.putShort((short) bytes.length);
+        target.put(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #putString}.
+     *
+     * @throws BufferUnderflowException when the payload ends within the string
+     */
+    public static String getString(ByteBuffer source) {
+        int length = Short.toUnsignedInt(source.getShort());
+        if (length == NULL_STRING) {
+            return null;
+        }
+        if (source.remaining() < length) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(source.array(), source.arrayOffset() + source.position(), length,
+                StandardCharsets.UTF_8);
+        source.position(source.position() + length);
+        return value;
+    }
+
+    /**
+     * Allocates a frame and writes its header; the payload goes after it and
+     * {@link #finish} completes it.
+     */
+    public static ByteBuffer frame(int correlationId, byte code, int payloadCapacity) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + payloadCapacity);
+        frame.putInt(0).putInt(correlationId).put(code);
+        return frame;
+    }
+
+    /**
+     * Fills in the length of a frame written up to its position and flips it for sending.
+     */
+    public static ByteBuffer finish(ByteBuffer frame) {
+        frame.putInt(0, frame.position() - Integer.BYTES);
+        return frame.flip();
+    }
+
+    /**
+     * The code of a complete frame, whatever its position.
+     */
+    public static byte code(ByteBuffer frame) {
+        return frame.get(HEADER_SIZE - 1);
+    }
+}
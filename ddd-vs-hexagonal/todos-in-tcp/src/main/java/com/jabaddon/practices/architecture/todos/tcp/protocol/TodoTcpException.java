@@ -0,0 +1,15 @@
+package com.jabaddon.practices.architecture.todos.tcp.protocol;
+
+/**
+ * Raised for frames that break the wire format and for connections that fail or time out.
+ */
+public class TodoTcpException extends RuntimeException {
+
+    public TodoTcpException(String message) {
+        super(message);
+    }
+
+    public TodoTcpException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
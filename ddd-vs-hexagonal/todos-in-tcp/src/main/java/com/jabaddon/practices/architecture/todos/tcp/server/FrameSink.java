@@ -0,0 +1,12 @@
+package com.jabaddon.practices.architecture.todos.tcp.server;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Where {@link TodoTcpAdapter} sends the response frames of a request, ready to write.
+ */
+@FunctionalInterface
+interface FrameSink {
+
+    void send(ByteBuffer frame);
+}
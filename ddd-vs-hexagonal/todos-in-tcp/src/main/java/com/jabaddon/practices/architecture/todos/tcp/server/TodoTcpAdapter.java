@@ -0,0 +1,257 @@
+package com.jabaddon.practices.architecture.todos.tcp.server;
+
+import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.count.CountTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.count.CountTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.delete.DeleteTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.delete.DeleteTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getall.GetAllTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getcompleted.GetCompletedTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPendingTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.search.SearchTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.search.SearchTodosRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.search.SearchTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.uncomplete.UncompleteTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.uncomplete.UncompleteTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.uncomplete.UncompleteTodoResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.update.UpdateTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.update.UpdateTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.update.UpdateTodoResponse;
+import com.jabaddon.practices.architecture.todos.tcp.protocol.TodoPayload;
+import com.jabaddon.practices.architecture.todos.tcp.protocol.TodoProtocol;
+import com.jabaddon.practices.architecture.todos.tcp.protocol.TodoTcpException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Maps {@link TodoProtocol} requests onto the input ports of todos-clean.
+ *
+ * Depends on the input port interfaces only, one per request code. Todos are
+ * written as todo records straight from the response models. Lists are read
+ * through the streaming variants of their ports and sent in frames of about
+ * {@link #LIST_FRAME_SIZE} bytes as they fill, so memory stays bounded
+ * whatever the number of todos.
+ */
+public final class TodoTcpAdapter {
+
+    static final int LIST_FRAME_SIZE = 64 * 1024;
+
+    private final CreateTodoInputPort createTodo;
+    private final UpdateTodoInputPort updateTodo;
+    private final CompleteTodoInputPort completeTodo;
+    private final UncompleteTodoInputPort uncompleteTodo;
+    private final DeleteTodoInputPort deleteTodo;
+    private final FindTodoByIdInputPort findTodoById;
+    private final GetAllTodosInputPort getAllTodos;
+    private final GetCompletedTodosInputPort getCompletedTodos;
+    private final GetPendingTodosInputPort getPendingTodos;
+    private final SearchTodosInputPort searchTodos;
+    private final CountTodosInputPort countTodos;
+
+    public TodoTcpAdapter(CreateTodoInputPort createTodo,
+                          UpdateTodoInputPort updateTodo,
+                          CompleteTodoInputPort completeTodo,
+                          UncompleteTodoInputPort uncompleteTodo,
+                          DeleteTodoInputPort deleteTodo,
+                          FindTodoByIdInputPort findTodoById,
+                          GetAllTodosInputPort getAllTodos,
+                          GetCompletedTodosInputPort getCompletedTodos,
+                          GetPendingTodosInputPort getPendingTodos,
+                          SearchTodosInputPort searchTodos,
+                          CountTodosInputPort countTodos) {
+        this.createTodo = createTodo;
+        this.updateTodo = updateTodo;
+        this.completeTodo = completeTodo;
+        this.uncompleteTodo = uncompleteTodo;
+        this.deleteTodo = deleteTodo;
+        this.findTodoById = findTodoById;
+        this.getAllTodos = getAllTodos;
+        this.getCompletedTodos = getCompletedTodos;
+        this.getPendingTodos = getPendingTodos;
+        this.searchTodos = searchTodos;
+        this.countTodos = countTodos;
+    }
+
+    /**
+     * Runs one request and sends its response frames, the last one with a status other than CONTINUED.
+     */
+    void handle(int correlationId, byte code, ByteBuffer payload, FrameSink sink) {
+        try {
+            switch (code) {
+                case TodoProtocol.CREATE -> {
+                    CreateTodoRequest request = new CreateTodoRequest(
+                            TodoProtocol.getString(payload), TodoProtocol.getString(payload));
+                    CreateTodoResponse todo = createTodo.execute(end(payload, request));
+                    sink.send(todo(correlationId, todo.id(), todo.title(), todo.description(), todo.completed(),
+                            todo.createdAt(), todo.updatedAt()));
+                }
+                case TodoProtocol.UPDATE -> {
+                    UpdateTodoRequest request = new UpdateTodoRequest(TodoProtocol.getString(payload),
+                            TodoProtocol.getString(payload), TodoProtocol.getString(payload));
+                    UpdateTodoResponse todo = updateTodo.execute(end(payload, request));
+                    sink.send(todo(correlationId, todo.id(), todo.title(), todo.description(), todo.completed(),
+                            todo.createdAt(), todo.updatedAt()));
+                }
+                case TodoProtocol.COMPLETE -> {
+                    CompleteTodoRequest request = new CompleteTodoRequest(TodoProtocol.getString(payload));
+                    CompleteTodoResponse todo = completeTodo.execute(end(payload, request));
+                    sink.send(todo(correlationId, todo.id(), todo.title(), todo.description(), todo.completed(),
+                            todo.createdAt(), todo.updatedAt()));
+                }
+                case TodoProtocol.UNCOMPLETE -> {
+                    UncompleteTodoRequest request = new UncompleteTodoRequest(TodoProtocol.getString(payload));
+                    UncompleteTodoResponse todo = uncompleteTodo.execute(end(payload, request));
+                    sink.send(todo(correlationId, todo.id(), todo.title(), todo.description(), todo.completed(),
+                            todo.createdAt(), todo.updatedAt()));
+                }
+                case TodoProtocol.DELETE -> {
+                    deleteTodo.execute(end(payload, new DeleteTodoRequest(TodoProtocol.getString(payload))));
+                    sink.send(TodoProtocol.finish(TodoProtocol.frame(correlationId, TodoProtocol.OK, 0)));
+                }
+                case TodoProtocol.FIND_BY_ID -> {
+                    FindTodoByIdRequest request = new FindTodoByIdRequest(TodoProtocol.getString(payload));
+                    sink.send(found(correlationId, findTodoById.execute(end(payload, request))));
+                }
+                case TodoProtocol.GET_ALL -> {
+                    end(payload, null);
+                    ListWriter list = new ListWriter(correlationId, sink);
+                    getAllTodos.execute(todo -> list.add(todo.id(), todo.title(), todo.description(),
+                            todo.completed(), todo.createdAt(), todo.updatedAt()));
+                    list.finish();
+                }
+                case TodoProtocol.GET_COMPLETED -> {
+                    end(payload, null);
+                    ListWriter list = new ListWriter(correlationId, sink);
+                    getCompletedTodos.execute(todo -> list.add(todo.id(), todo.title(), todo.description(),
+                            todo.completed(), todo.createdAt(), todo.updatedAt()));
+                    list.finish();
+                }
+                case TodoProtocol.GET_PENDING -> {
+                    end(payload, null);
+                    ListWriter list = new ListWriter(correlationId, sink);
+                    getPendingTodos.execute(todo -> list.add(todo.id(), todo.title(), todo.description(),
+                            todo.completed(), todo.createdAt(), todo.updatedAt()));
+                    list.finish();
+                }
+                case TodoProtocol.SEARCH -> {
+                    SearchTodosRequest request = new SearchTodosRequest(TodoProtocol.getString(payload),
+                            payload.getInt());
+                    SearchTodosResponse found = searchTodos.execute(end(payload, request));
+                    ListWriter list = new ListWriter(correlationId, sink);
+                    for (SearchTodosResponse.TodoItem todo : found.todos()) {
+                        list.add(todo.id(), todo.title(), todo.description(), todo.completed(),
+                                todo.createdAt(), todo.updatedAt());
+                    }
+                    list.finish();
+                }
+                case TodoProtocol.COUNT -> {
+                    end(payload, null);
+                    CountTodosResponse counts = countTodos.execute();
+                    ByteBuffer frame = TodoProtocol.frame(correlationId, TodoProtocol.OK, 2 * Long.BYTES);
+                    sink.send(TodoProtocol.finish(frame.putLong(counts.pending()).putLong(counts.completed())));
+                }
+                default -> sink.send(error(correlationId, TodoProtocol.MALFORMED, "Unknown request code: " + code));
+            }
+        } catch (BufferUnderflowException | TodoTcpException e) {
+            sink.send(error(correlationId, TodoProtocol.MALFORMED, "Malformed request payload"));
+        } catch (IllegalArgumentException e) {
+            sink.send(error(correlationId, TodoProtocol.INVALID, e.getMessage()));
+        } catch (RuntimeException e) {
+            sink.send(error(correlationId, TodoProtocol.FAILED, "Internal error"));
+        }
+    }
+
+    /**
+     * Checks the payload was read to its end, so a request with trailing bytes is malformed.
+     */
+    private static <T> T end(ByteBuffer payload, T request) {
+        if (payload.hasRemaining()) {
+            throw new TodoTcpException("Unexpected bytes after the request");
+        }
+        return request;
+    }
+
+    private static ByteBuffer todo(int correlationId, String id, String title, String description, boolean completed,
+                                   LocalDateTime createdAt, LocalDateTime updatedAt) {
+        ByteBuffer frame = TodoProtocol.frame(correlationId, TodoProtocol.OK,
+                TodoPayload.maxSize(id, title, description));
+        TodoPayload.put(frame, id, title, description, completed, createdAt, updatedAt);
+        return TodoProtocol.finish(frame);
+    }
+
+    private static ByteBuffer found(int correlationId, Optional<FindTodoByIdResponse> found) {
+        if (found.isEmpty()) {
+            return TodoProtocol.finish(TodoProtocol.frame(correlationId, TodoProtocol.OK, 1).put((byte) 0));
+        }
+        FindTodoByIdResponse todo = found.get();
+        ByteBuffer frame = TodoProtocol.frame(correlationId, TodoProtocol.OK,
+                1 + TodoPayload.maxSize(todo.id(), todo.title(), todo.description()));
+        frame.put((byte) 1);
+        TodoPayload.put(frame, todo.id(), todo.title(), todo.description(), todo.completed(),
+                todo.createdAt(), todo.updatedAt());
+        return TodoProtocol.finish(frame);
+    }
+
+    static ByteBuffer error(int correlationId, byte status, String message) {
+        ByteBuffer frame = TodoProtocol.frame(correlationId, status, TodoProtocol.maxStringSize(message));
+        TodoProtocol.putString(frame, message);
+        return TodoProtocol.finish(frame);
+    }
+
+    /**
+     * Packs todos into CONTINUED frames of about LIST_FRAME_SIZE bytes, then a final OK frame.
+     */
+    private static final class ListWriter {
+
+        private final int correlationId;
+        private final FrameSink sink;
+        private ByteBuffer frame;
+        private int count;
+
+        private ListWriter(int correlationId, FrameSink sink) {
+            this.correlationId = correlationId;
+            this.sink = sink;
+            this.frame = newFrame(LIST_FRAME_SIZE);
+        }
+
+        private void add(String id, String title, String description, boolean completed,
+                         LocalDateTime createdAt, LocalDateTime updatedAt) {
+            int size = TodoPayload.maxSize(id, title, description);
+            if (frame.remaining() < size) {
+                if (count > 0) {
+                    send(TodoProtocol.CONTINUED);
+                }
+                frame = newFrame(Math.max(LIST_FRAME_SIZE, Integer.BYTES + size));
+            }
+            TodoPayload.put(frame, id, title, description, completed, createdAt, updatedAt);
+            count++;
+        }
+
+        private void finish() {
+            send(TodoProtocol.OK);
+        }
+
+        private void send(byte status) {
+            frame.put(TodoProtocol.HEADER_SIZE - 1, status);
+            frame.putInt(TodoProtocol.HEADER_SIZE, count);
+            sink.send(TodoProtocol.finish(frame));
+            count = 0;
+        }
+
+        private ByteBuffer newFrame(int payloadCapacity) {
+            ByteBuffer list = TodoProtocol.frame(correlationId, TodoProtocol.CONTINUED, payloadCapacity);
+            return list.putInt(0);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.jabaddon.practices.architecture.todos.tcp.server;
+
+import com.jabaddon.practices.architecture.todos.tcp.protocol.TodoProtocol;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * NIO server for the {@link TodoProtocol}, driving a {@link TodoTcpAdapter}.
+ *
+ * One platform thread runs a selector over every connection: it accepts,
+ * reads whatever arrived and cuts it into frames, and hands each request to
+ * its own virtual thread, so a request blocking on storage holds neither the
+ * selector nor the other requests of its connection. Requests of a connection
+ * therefore run concurrently and their responses go out as they complete,
+ * matched by correlation id; a client needing two requests ordered waits for
+ * the first response before sending the second.
+ *
+ * The virtual thread writes its response straight to the non-blocking
+ * channel when nothing is queued before it, which is the common case, and
+ * queues what the socket does not take for the selector to write when the
+ * channel is writable again. Each connection is bounded twice: reading from
+ * it pauses while it has {@link TodoTcpServerOptions#maxInFlight()} requests
+ * running or unwritten, and a request waits to queue more once
+ * {@link TodoTcpServerOptions#maxQueuedBytes()} are queued, so a client
+ * sending without reading cannot make the server buffer without bound.
+ *
+ * A frame over {@link TodoTcpServerOptions#maxFrameSize()} closes the
+ * connection, as the stream cannot be resynchronised after it; a frame that is
+ * read but not understood gets a MALFORMED response.
+ */
+public final class TodoTcpServer implements AutoCloseable {
+
+    private final TodoTcpAdapter adapter;
+    private final TodoTcpServerOptions options;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final ExecutorService requests =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("tcp-request-", 0).factory());
+    private final Set<Connection> open = ConcurrentHashMap.newKeySet();
+    private final Queue<Connection> resumed = new ConcurrentLinkedQueue<>();
+    private final Thread selectorThread;
+    private volatile boolean closed;
+
+    private TodoTcpServer(TodoTcpAdapter adapter, TodoTcpServerOptions options, ServerSocketChannel serverChannel,
+                          Selector selector) {
+        this.adapter = adapter;
+        this.options = options;
+        this.serverChannel = serverChannel;
+        this.selector = selector;
+        this.selectorThread = Thread.ofPlatform().name("tcp-selector").daemon().start(this::select);
+    }
+
+    public static TodoTcpServer start(TodoTcpAdapter adapter, TodoTcpServerOptions options) {
+        try {
+            ServerSocketChannel serverChannel = ServerSocketChannel.open();
+            serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            serverChannel.bind(new InetSocketAddress(options.port()), 1024);
+            serverChannel.configureBlocking(false);
+            Selector selector = Selector.open();
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            return new TodoTcpServer(adapter, options, serverChannel, selector);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen on port " + options.port(), e);
+        }
+    }
+
+    /**
+     * The port listened on, useful when started on port 0.
+     */
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Stops accepting, closes every connection and waits for the running requests to finish.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        open.forEach(Connection::close);
+        closeQuietly(serverChannel);
+        closeQuietly(selector);
+        requests.shutdown();
+        try {
+            requests.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void select() {
+        while (!closed) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                return;
+            }
+            for (Connection connection = resumed.poll(); connection != null; connection = resumed.poll()) {
+                connection.resume();
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+                Connection connection = (Connection) key.attachment();
+                if (key.isWritable()) {
+                    connection.flush();
+                }
+                if (key.isValid() && key.isReadable()) {
+                    connection.read();
+                }
+            }
+        }
+    }
+
+    private void accept() {
+        SocketChannel channel;
+        try {
+            channel = serverChannel.accept();
+        } catch (IOException e) {
+            // Typically out of file descriptors; the selector reports the connection again
+            return;
+        }
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            open.add(connection);
+        } catch (IOException e) {
+            closeQuietly(channel);
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+            // Closing anyway
+        }
+    }
+
+    /**
+     * One client connection. Reads happen on the selector thread only; writes
+     * come from the request threads and the selector under the write lock.
+     */
+    private final class Connection implements FrameSink {
+
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private ByteBuffer in = ByteBuffer.allocate(16 * 1024);
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean paused;
+
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private final Condition drained = writeLock.newCondition();
+        private final ArrayDeque<ByteBuffer> queued = new ArrayDeque<>();
+        private int queuedBytes;
+        private boolean disconnected;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private void read() {
+            int n;
+            try {
+                n = channel.read(in);
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            if (n < 0) {
+                close();
+                return;
+            }
+            dispatchFrames();
+        }
+
+        /**
+         * Hands every complete frame in the input buffer to a request thread,
+         * stopping early when the connection has its maximum of requests in flight.
+         */
+        private void dispatchFrames() {
+            in.flip();
+            try {
+                while (in.remaining() >= Integer.BYTES) {
+                    int length = in.getInt(in.position());
+                    if (length < TodoProtocol.HEADER_SIZE - Integer.BYTES || length > options.maxFrameSize()) {
+                        close();
+                        return;
+                    }
+                    if (in.remaining() < Integer.BYTES + length) {
+                        if (in.capacity() < Integer.BYTES + length) {
+                            in = ByteBuffer.allocate(Math.max(in.capacity() * 2, Integer.BYTES + length)).put(in).flip();
+                        }
+                        break;
+                    }
+                    in.getInt();
+                    int correlationId = in.getInt();
+                    byte code = in.get();
+                    byte[] payload = new byte[length - (TodoProtocol.HEADER_SIZE - Integer.BYTES)];
+                    in.get(payload);
+                    dispatch(correlationId, code, ByteBuffer.wrap(payload));
+                    if (inFlight.get() >= options.maxInFlight()) {
+                        pause();
+                        break;
+                    }
+                }
+            } finally {
+                in.compact();
+            }
+        }
+
+        private void dispatch(int correlationId, byte code, ByteBuffer payload) {
+            inFlight.incrementAndGet();
+            try {
+                requests.execute(() -> adapter.handle(correlationId, code, payload, this));
+            } catch (RuntimeException e) {
+                // Rejected because the server is closing
+                close();
+            }
+        }
+
+        private void pause() {
+            paused = true;
+            key.interestOpsAnd(~SelectionKey.OP_READ);
+            if (inFlight.get() < options.maxInFlight()) {
+                // A request finished before the flag was set and did not ask for a resume
+                resumed.add(this);
+                selector.wakeup();
+            }
+        }
+
+        /**
+         * Reads again after a pause, starting with the frames already buffered. Selector thread only.
+         */
+        private void resume() {
+            if (!paused || !key.isValid() || inFlight.get() >= options.maxInFlight()) {
+                return;
+            }
+            paused = false;
+            key.interestOpsOr(SelectionKey.OP_READ);
+            dispatchFrames();
+        }
+
+        private void completed() {
+            if (inFlight.decrementAndGet() < options.maxInFlight() && paused) {
+                resumed.add(this);
+                selector.wakeup();
+            }
+        }
+
+        @Override
+        public void send(ByteBuffer frame) {
+            boolean last = TodoProtocol.code(frame) != TodoProtocol.CONTINUED;
+            writeLock.lock();
+            try {
+                while (queuedBytes >= options.maxQueuedBytes() && !disconnected) {
+                    drained.await();
+                }
+                if (disconnected) {
+                    return;
+                }
+                if (queued.isEmpty()) {
+                    channel.write(frame);
+                    if (!frame.hasRemaining()) {
+                        if (last) {
+                            completed();
+                        }
+                        return;
+                    }
+                }
+                queued.addLast(frame);
+                queuedBytes += frame.remaining();
+                key.interestOpsOr(SelectionKey.OP_WRITE);
+                selector.wakeup();
+            } catch (IOException e) {
+                close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        /**
+         * Writes what is queued once the channel is writable. Selector thread only.
+         */
+        private void flush() {
+            writeLock.lock();
+            try {
+                while (!queued.isEmpty()) {
+                    ByteBuffer frame = queued.peekFirst();
+                    int before = frame.remaining();
+                    channel.write(frame);
+                    queuedBytes -= before - frame.remaining();
+                    if (frame.hasRemaining()) {
+                        break;
+                    }
+                    queued.pollFirst();
+                    if (TodoProtocol.code(frame) != TodoProtocol.CONTINUED) {
+                        completed();
+                    }
+                }
+                if (queued.isEmpty()) {
+                    key.interestOpsAnd(~SelectionKey.OP_WRITE);
+                }
+                drained.signalAll();
+            } catch (IOException e) {
+                close();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        private void close() {
+            writeLock.lock();
+            try {
+                disconnected = true;
+                queued.clear();
+                queuedBytes = 0;
+                drained.signalAll();
+            } finally {
+                writeLock.unlock();
+            }
+            open.remove(this);
+            if (key != null) {
+                key.cancel();
+            }
+            closeQuietly(channel);
+        }
+    }
+}
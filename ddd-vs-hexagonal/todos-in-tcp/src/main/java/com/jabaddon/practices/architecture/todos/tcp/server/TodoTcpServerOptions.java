@@ -0,0 +1,50 @@
+package com.jabaddon.practices.architecture.todos.tcp.server;
+
+/**
+ * Tuning knobs for {@link TodoTcpServer}.
+ *
+ * @param port           port to listen on, {@code 0} for any free port
+ * @param maxFrameSize   largest accepted request frame in bytes, length prefix excluded;
+ *                       a larger one closes the connection
+ * @param maxInFlight    requests of one connection running or with responses not yet
+ *                       written; reading from it pauses while there are this many
+ * @param maxQueuedBytes response bytes queued per connection before the requests
+ *                       producing them wait for the client to read
+ */
+public record TodoTcpServerOptions(int port, int maxFrameSize, int maxInFlight, int maxQueuedBytes) {
+
+    public TodoTcpServerOptions {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Port must be in [0, 65535]");
+        }
+        if (maxFrameSize < 64) {
+            throw new IllegalArgumentException("Max frame size must be at least 64 bytes");
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Max in flight must be positive");
+        }
+        if (maxQueuedBytes < 1) {
+            throw new IllegalArgumentException("Max queued bytes must be positive");
+        }
+    }
+
+    public static TodoTcpServerOptions defaults() {
+        return new TodoTcpServerOptions(7070, 1024 * 1024, 256, 1024 * 1024);
+    }
+
+    public TodoTcpServerOptions withPort(int port) {
+        return new TodoTcpServerOptions(port, maxFrameSize, maxInFlight, maxQueuedBytes);
+    }
+
+    public TodoTcpServerOptions withMaxFrameSize(int maxFrameSize) {
+        return new TodoTcpServerOptions(port, maxFrameSize, maxInFlight, maxQueuedBytes);
+    }
+
+    public TodoTcpServerOptions withMaxInFlight(int maxInFlight) {
+        return new TodoTcpServerOptions(port, maxFrameSize, maxInFlight, maxQueuedBytes);
+    }
+
+    public TodoTcpServerOptions withMaxQueuedBytes(int maxQueuedBytes) {
+        return new TodoTcpServerOptions(port, maxFrameSize, maxInFlight, maxQueuedBytes);
+    }
+}
@@ -0,0 +1,15 @@
+module com.jabaddon.practices.architecture.todos.tcp {
+    requires com.jabaddon.practices.architecture.todos.clean;
+
+    // Wire format shared by the server and its clients
+    exports com.jabaddon.practices.architecture.todos.tcp.protocol;
+
+    // NIO server driving the input ports of todos-clean
+    exports com.jabaddon.practices.architecture.todos.tcp.server;
+
+    // Client library exposing the same input ports remotely
+    exports com.jabaddon.practices.architecture.todos.tcp.client;
+
+    // Single-flight wrappers to put in front of the input ports the server drives
+    exports com.jabaddon.practices.architecture.todos.tcp.coalescing;
+}
@@ -0,0 +1,175 @@
+package com.jabaddon.practices.architecture.todos.tcp.coalescing;
+
+import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPendingTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPendingTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPendingTodosUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
+import com.jabaddon.practices.architecture.todos.persistence.clean.RecordStoreTodoGateway;
+import com.jabaddon.practices.architecture.todos.persistence.offheap.OffHeapRecordStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CoalescingInputPortsTest {
+
+    private static final int CALLERS = 50;
+
+    private final CoalescingInputPorts ports = new CoalescingInputPorts();
+    private TodoGateway gateway;
+    private String id;
+
+    @BeforeEach
+    void setUp() {
+        gateway = new RecordStoreTodoGateway(new OffHeapRecordStore());
+        id = new CreateTodoUseCase(gateway).execute(new CreateTodoRequest("Shared", null)).id();
+    }
+
+    @Test
+    void shouldShareOneExecutionAmongConcurrentIdenticalReads() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        GetPendingTodosUseCase useCase = new GetPendingTodosUseCase(gateway);
+        GetPendingTodosInputPort pending = ports.coalesce(new GetPendingTodosInputPort() {
+            @Override
+            public GetPendingTodosResponse execute() {
+                executions.incrementAndGet();
+                await(release);
+                return useCase.execute();
+            }
+
+            @Override
+            public void execute(Consumer<GetPendingTodosResponse.TodoItem> presenter) {
+                useCase.execute(presenter);
+            }
+        });
+
+        List<GetPendingTodosResponse> responses = callConcurrently(pending::execute, release);
+
+        assertThat(executions.get(), is(1));
+        assertThat(responses.stream().distinct().toList(), hasSize(1));
+        assertThat(responses.get(0).todos().get(0).title(), is("Shared"));
+        assertThrows(UnsupportedOperationException.class, () -> responses.get(0).todos().clear());
+        CoalescingStats stats = ports.stats();
+        assertThat(stats.calls(), is((long) CALLERS));
+        assertThat(stats.coalesced(), is((long) CALLERS - 1));
+        assertThat(stats.coalescingRatio(), is(closeTo(0.98, 0.001)));
+    }
+
+    @Test
+    void shouldHandEveryCallerTheExceptionOfTheSharedExecution() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FindTodoByIdInputPort failing = ports.coalesce((FindTodoByIdInputPort) request -> {
+            await(release);
+            throw new IllegalArgumentException("Todo not found with id: " + request.id());
+        });
+
+        List<Throwable> failures = new ArrayList<>();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                calls.add(callers.submit(() -> failing.execute(new FindTodoByIdRequest("missing"))));
+            }
+            awaitCalls(CALLERS);
+            release.countDown();
+            for (Future<?> call : calls) {
+                failures.add(assertThrows(ExecutionException.class, call::get).getCause());
+            }
+        }
+
+        assertThat(failures, everyItem(instanceOf(IllegalArgumentException.class)));
+        assertThat(ports.stats().executions(), is(1L));
+        assertThat(ports.stats().coalesced(), is((long) CALLERS - 1));
+    }
+
+    @Test
+    void shouldNotLetReadsStartedAfterAWriteJoinAnEarlierFlight() throws Exception {
+        CountDownLatch readDone = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        FindTodoByIdUseCase useCase = new FindTodoByIdUseCase(gateway);
+        FindTodoByIdInputPort find = ports.coalesce((FindTodoByIdInputPort) request -> {
+            Optional<FindTodoByIdResponse> response = useCase.execute(request);
+            if (executions.incrementAndGet() == 1) {
+                readDone.countDown();
+                await(release);
+            }
+            return response;
+        });
+        CompleteTodoInputPort complete = ports.invalidating(new CompleteTodoUseCase(gateway));
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<FindTodoByIdResponse>> early = callers.submit(
+                    () -> find.execute(new FindTodoByIdRequest(id)));
+            readDone.await();
+            complete.execute(new CompleteTodoRequest(id));
+
+            Optional<FindTodoByIdResponse> late = find.execute(new FindTodoByIdRequest(id));
+            release.countDown();
+
+            assertThat(late.orElseThrow().completed(), is(true));
+            assertThat(early.get().orElseThrow().completed(), is(false));
+        }
+        assertThat(executions.get(), is(2));
+        assertThat(ports.stats().invalidations(), is(1L));
+    }
+
+    private <T> List<T> callConcurrently(Supplier<T> call, CountDownLatch release) throws Exception {
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> calls = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                calls.add(callers.submit(call::get));
+            }
+            awaitCalls(CALLERS);
+            release.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : calls) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Waits until the callers have all entered the coalescing ports, then a little
+     * longer for the last ones to reach the flight they join, so they overlap.
+     */
+    private void awaitCalls(int calls) throws InterruptedException {
+        while (ports.stats().calls() < calls) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(100);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
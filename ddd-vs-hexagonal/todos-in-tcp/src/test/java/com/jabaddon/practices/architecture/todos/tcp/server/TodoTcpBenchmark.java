@@ -0,0 +1,181 @@
+package com.jabaddon.practices.architecture.todos.tcp.server;
+
+import com.jabaddon.practices.architecture.todos.persistence.clean.RecordStoreTodoGateway;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdRequest;
+import com.jabaddon.practices.architecture.todos.hx.application.service.TodoService;
+import com.jabaddon.practices.architecture.todos.persistence.hx.RecordStoreTodoRepository;
+import com.jabaddon.practices.architecture.todos.persistence.offheap.OffHeapRecordStore;
+import com.jabaddon.practices.architecture.todos.tcp.client.TodoTcpClient;
+import com.jabaddon.practices.architecture.todos.tcp.client.TodoTcpClientOptions;
+import com.jabaddon.practices.architecture.todos.web.http.HttpServer;
+import com.jabaddon.practices.architecture.todos.web.http.HttpServerOptions;
+import com.jabaddon.practices.architecture.todos.web.hx.TodoHttpAdapter;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loopback round trips per second of the TCP adapter against the HTTP
+ * adapter, both over use cases backed by an OffHeapRecordStore: one caller
+ * at a time, then many concurrent callers, which share the two connections
+ * of the TCP client but need a keep-alive connection each over HTTP/1.1.
+ *
+ * Not part of the regular build, whose test includes skip it; run it with
+ * <pre>
+ * mvn test -pl todos-in-tcp -am -Dtest=TodoTcpBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+class TodoTcpBenchmark {
+
+    private static final int TODOS = 1_000;
+    private static final int WARMUP = 20_000;
+    private static final int OPERATIONS = 100_000;
+    private static final int CALLERS = 64;
+
+    @Test
+    void compareWithHttp() throws Exception {
+        try (TodoTcpServer tcpServer = TodoTcpServer.start(
+                TodoTcpServerTest.adapter(new RecordStoreTodoGateway(new OffHeapRecordStore())),
+                TodoTcpServerOptions.defaults().withPort(0));
+             TodoTcpClient client = TodoTcpClient.connect("localhost", tcpServer.port(),
+                     TodoTcpClientOptions.defaults())) {
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < TODOS; i++) {
+                ids.add(client.createTodo().execute(new CreateTodoRequest("Todo " + i, "Description " + i)).id());
+            }
+            Call find = n -> client.findTodoById().execute(new FindTodoByIdRequest(ids.get(n % TODOS))).orElseThrow();
+            run("tcp, 1 caller", 1, () -> find);
+            run("tcp, " + CALLERS + " callers", CALLERS, () -> find);
+        }
+
+        try (HttpServer httpServer = HttpServer.start(
+                TodoHttpAdapter.of(new TodoService(new RecordStoreTodoRepository(new OffHeapRecordStore()))),
+                HttpServerOptions.defaults().withPort(0))) {
+            List<String> ids = new ArrayList<>();
+            try (HttpConnection connection = new HttpConnection(httpServer.port())) {
+                for (int i = 0; i < TODOS; i++) {
+                    String body = connection.exchange("POST", "/todos",
+                            "{\"title\":\"Todo " + i + "\",\"description\":\"Description " + i + "\"}");
+                    int start = body.indexOf("\"id\":\"") + 6;
+                    ids.add(body.substring(start, body.indexOf('"', start)));
+                }
+            }
+            run("http, 1 caller", 1, () -> {
+                HttpConnection connection = new HttpConnection(httpServer.port());
+                return n -> connection.exchange("GET", "/todos/" + ids.get(n % TODOS), null);
+            });
+            run("http, " + CALLERS + " callers", CALLERS, () -> {
+                HttpConnection connection = new HttpConnection(httpServer.port());
+                return n -> connection.exchange("GET", "/todos/" + ids.get(n % TODOS), null);
+            });
+        }
+    }
+
+    /**
+     * Splits the warmup and the measured operations across {@code callers}
+     * virtual threads, each calling through what {@code callerSetup} gives it.
+     */
+    private static void run(String name, int callers, CallerSetup callerSetup) throws Exception {
+        long start = 0;
+        for (int round = 0; round < 2; round++) {
+            int operations = (round == 0 ? WARMUP : OPERATIONS) / callers;
+            start = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> done = new ArrayList<>();
+                for (int c = 0; c < callers; c++) {
+                    int offset = c * operations;
+                    done.add(executor.submit(() -> {
+                        Call call = callerSetup.call();
+                        for (int n = 0; n < operations; n++) {
+                            call.run(offset + n);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : done) {
+                    future.get();
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-20s %10.0f ops/s %8.1f us/op per caller%n", name, OPERATIONS / seconds,
+                seconds * 1e6 * callers / OPERATIONS);
+    }
+
+    @FunctionalInterface
+    private interface Call {
+
+        void run(int n) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface CallerSetup {
+
+        Call call() throws IOException;
+    }
+
+    /**
+     * Minimal keep-alive HTTP/1.1 client, reading Content-Length bodies only.
+     */
+    private static final class HttpConnection implements AutoCloseable {
+
+        private final Socket socket;
+        private final OutputStream out;
+        private final InputStream in;
+
+        private HttpConnection(int port) throws IOException {
+            socket = new Socket("localhost", port);
+            socket.setTcpNoDelay(true);
+            out = socket.getOutputStream();
+            in = new BufferedInputStream(socket.getInputStream());
+        }
+
+        private String exchange(String method, String path, String body) throws IOException {
+            byte[] content = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+            String head = method + " " + path + " HTTP/1.1\r\nHost: localhost\r\n"
+                    + (body == null ? "" : "Content-Type: application/json\r\nContent-Length: " + content.length + "\r\n")
+                    + "\r\n";
+            out.write(head.getBytes(StandardCharsets.US_ASCII));
+            out.write(content);
+            out.flush();
+
+            int contentLength = 0;
+            for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+                if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    contentLength = Integer.parseInt(line.substring(15).trim());
+                }
+            }
+            return new String(in.readNBytes(contentLength), StandardCharsets.UTF_8);
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            for (int b = in.read(); b != '\n'; b = in.read()) {
+                if (b < 0) {
+                    throw new UncheckedIOException(new IOException("Connection closed"));
+                }
+                if (b != '\r') {
+                    line.append((char) b);
+                }
+            }
+            return line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.jabaddon.practices.architecture.todos.tcp.server;
+
+import com.jabaddon.practices.architecture.todos.persistence.clean.RecordStoreTodoGateway;
+import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.count.CountTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.count.CountTodosUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.delete.DeleteTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.delete.DeleteTodoUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getall.GetAllTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getall.GetAllTodosUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getcompleted.GetCompletedTodosUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPendingTodosUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
+import com.jabaddon.practices.architecture.todos.clean.usecase.search.SearchTodosRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.search.SearchTodosUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.uncomplete.UncompleteTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.uncomplete.UncompleteTodoUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.update.UpdateTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.update.UpdateTodoUseCase;
+import com.jabaddon.practices.architecture.todos.persistence.offheap.OffHeapRecordStore;
+import com.jabaddon.practices.architecture.todos.tcp.client.TodoTcpClient;
+import com.jabaddon.practices.architecture.todos.tcp.client.TodoTcpClientOptions;
+import com.jabaddon.practices.architecture.todos.tcp.protocol.TodoProtocol;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TodoTcpServerTest {
+
+    private TodoTcpServer server;
+    private TodoTcpClient client;
+
+    @BeforeEach
+    void setUp() {
+        server = TodoTcpServer.start(adapter(new RecordStoreTodoGateway(new OffHeapRecordStore())),
+                TodoTcpServerOptions.defaults().withPort(0).withMaxFrameSize(4096).withMaxInFlight(8));
+        client = TodoTcpClient.connect("localhost", server.port(), TodoTcpClientOptions.defaults());
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    static TodoTcpAdapter adapter(TodoGateway gateway) {
+        return new TodoTcpAdapter(new CreateTodoUseCase(gateway), new UpdateTodoUseCase(gateway),
+                new CompleteTodoUseCase(gateway), new UncompleteTodoUseCase(gateway), new DeleteTodoUseCase(gateway),
+                new FindTodoByIdUseCase(gateway), new GetAllTodosUseCase(gateway),
+                new GetCompletedTodosUseCase(gateway), new GetPendingTodosUseCase(gateway),
+                new SearchTodosUseCase(gateway), new CountTodosUseCase(gateway));
+    }
+
+    @Test
+    void shouldDriveEveryInputPortThroughTheClient() {
+        CreateTodoResponse created = client.createTodo().execute(new CreateTodoRequest("Buy milk", "Oat, 2 litres"));
+        assertThat(created.title(), is("Buy milk"));
+        assertThat(created.completed(), is(false));
+        String other = client.createTodo().execute(new CreateTodoRequest("Café ☕", null)).id();
+
+        assertThat(client.updateTodo().execute(new UpdateTodoRequest(created.id(), "Buy bread", "Rye")).title(),
+                is("Buy bread"));
+        assertThat(client.completeTodo().execute(new CompleteTodoRequest(created.id())).completed(), is(true));
+        assertThat(client.getCompletedTodos().execute().todos(), hasSize(1));
+        assertThat(client.getPendingTodos().execute().todos().get(0).title(), is("Café ☕"));
+        assertThat(client.getPendingTodos().execute().todos().get(0).description(), is(nullValue()));
+        assertThat(client.searchTodos().execute(new SearchTodosRequest("bread", 10)).todos(), hasSize(1));
+        assertThat(client.countTodos().execute(), is(new CountTodosResponse(1, 1)));
+
+        assertThat(client.uncompleteTodo().execute(new UncompleteTodoRequest(created.id())).completed(), is(false));
+        FindTodoByIdResponse found = client.findTodoById().execute(new FindTodoByIdRequest(created.id())).orElseThrow();
+        assertThat(found.description(), is("Rye"));
+        assertThat(found.createdAt(), is(created.createdAt()));
+
+        client.deleteTodo().execute(new DeleteTodoRequest(other));
+        assertThat(client.findTodoById().execute(new FindTodoByIdRequest(other)).isPresent(), is(false));
+        List<String> titles = new ArrayList<>();
+        client.getAllTodos().execute(todo -> titles.add(todo.title()));
+        assertThat(titles, contains("Buy bread"));
+    }
+
+    @Test
+    void shouldRethrowRejectedRequestsAsIllegalArgumentExceptions() {
+        IllegalArgumentException invalid = assertThrows(IllegalArgumentException.class,
+                () -> client.createTodo().execute(new CreateTodoRequest("", "blank")));
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+                () -> client.completeTodo().execute(new CompleteTodoRequest("no-such-id")));
+
+        assertThat(invalid.getMessage(), is(not(emptyOrNullString())));
+        assertThat(missing.getMessage(), is(not(emptyOrNullString())));
+        assertThat(client.countTodos().execute(), is(new CountTodosResponse(0, 0)));
+    }
+
+    @Test
+    void shouldMultiplexConcurrentCallsAndSplitLargeListsIntoFrames() throws Exception {
+        String description = "x".repeat(500);
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> ids = new ArrayList<>();
+            for (int i = 0; i < 1_000; i++) {
+                int n = i;
+                ids.add(callers.submit(() -> client.createTodo()
+                        .execute(new CreateTodoRequest("Todo " + n, description)).id()));
+            }
+            Set<String> unique = new HashSet<>();
+            for (Future<String> id : ids) {
+                unique.add(id.get());
+            }
+            assertThat(unique, hasSize(1_000));
+        }
+
+        GetAllTodosResponse all = client.getAllTodos().execute();
+        assertThat(all.todos(), hasSize(1_000));
+        assertThat(all.todos().stream().allMatch(todo -> todo.description().equals(description)), is(true));
+    }
+
+    @Test
+    void shouldAnswerUnknownCodesAndCloseOnOversizedFrames() throws IOException {
+        try (Socket socket = new Socket("localhost", server.port())) {
+            OutputStream out = socket.getOutputStream();
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            ByteBuffer unknown = TodoProtocol.finish(TodoProtocol.frame(42, (byte) 99, 0));
+            out.write(unknown.array(), 0, unknown.limit());
+            int length = in.readInt();
+            assertThat(in.readInt(), is(42));
+            assertThat(in.readByte(), is(TodoProtocol.MALFORMED));
+            byte[] payload = new byte[length - 5];
+            in.readFully(payload);
+            assertThat(TodoProtocol.getString(ByteBuffer.wrap(payload)), is("Unknown request code: 99"));
+
+            out.write(ByteBuffer.allocate(Integer.BYTES).putInt(1 << 20).array());
+            assertThat(readToEnd(socket.getInputStream()), is(-1));
+        }
+    }
+
+    private static int readToEnd(InputStream in) throws IOException {
+        int read;
+        do {
+            read = in.read();
+        } while (read >= 0);
+        return read;
+    }
+}
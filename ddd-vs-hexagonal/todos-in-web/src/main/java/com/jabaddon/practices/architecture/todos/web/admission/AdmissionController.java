@@ -0,0 +1,223 @@
+package com.jabaddon.practices.architecture.todos.web.admission;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Limits how many requests run at once, adapting the limit to their latency.
+ *
+ * A request runs right away while fewer than the limit are in flight and no
+ * request of the same or higher priority is waiting. Otherwise it waits in a
+ * bounded queue. When the queue is full, a newcomer takes the place of the
+ * newest waiter of lower priority, which is shed. With no such waiter the
+ * newcomer is rejected on the spot. Freed permits go to the highest-priority
+ * waiter, first come first served within a priority. A waiter that gets no
+ * permit within the maximum wait is shed too. Rejected and shed requests fail
+ * with an {@link AdmissionRejectedException} and never run.
+ *
+ * The limit follows AIMD, additive increase and multiplicative decrease, as
+ * TCP congestion control does. A request slower than the latency target
+ * multiplies the limit by the backoff ratio. Requests admitted before that
+ * backoff do not back off again, so one burst of slow requests backs off once.
+ * Requests within the target add {@code 1 / limit}, about one more permit per
+ * full window. They only add when at least half the permits are in use, so an
+ * idle service keeps its limit instead of growing it without evidence.
+ *
+ * Blocking waits use a {@link ReentrantLock}, so waiting virtual threads do not pin their carrier.
+ */
+public final class AdmissionController {
+
+    private static final int WAITING = 0;
+    private static final int ADMITTED = 1;
+    private static final int SHED = 2;
+
+    private final AdmissionOptions options;
+    private final long latencyTargetNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter>[] queues;
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private long lastBackoff = System.nanoTime();
+    private long admitted;
+    private long rejected;
+    private long shed;
+
+    @SuppressWarnings("unchecked")
+    public AdmissionController(AdmissionOptions options) {
+        this.options = options;
+        this.latencyTargetNanos = options.latencyTarget().toNanos();
+        this.limit = Math.max(options.minLimit(), Math.min(options.maxLimit(), options.initialLimit()));
+        this.queues = new ArrayDeque[Priority.values().length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Runs the work once admitted and returns its result.
+     *
+     * @throws AdmissionRejectedException when the work was not admitted
+     */
+    public <T> T call(Priority priority, Supplier<T> work) {
+        acquire(priority);
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            release(start);
+        }
+    }
+
+    /**
+     * Runs the work once admitted.
+     *
+     * @throws AdmissionRejectedException when the work was not admitted
+     */
+    public void run(Priority priority, Runnable work) {
+        acquire(priority);
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            release(start);
+        }
+    }
+
+    public AdmissionMetrics metrics() {
+        lock.lock();
+        try {
+            return new AdmissionMetrics((int) limit, inFlight, queued, admitted, rejected, shed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire(Priority priority) {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit && !waitingAtOrAbove(priority)) {
+                inFlight++;
+                admitted++;
+                return;
+            }
+            if (queued >= options.maxQueued() && !shedBelow(priority)) {
+                rejected++;
+                throw new AdmissionRejectedException(AdmissionRejectedException.Reason.LIMITED, priority);
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            queues[priority.ordinal()].addLast(waiter);
+            queued++;
+            await(waiter, priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void await(Waiter waiter, Priority priority) {
+        long remaining = options.maxWait().toNanos();
+        try {
+            while (waiter.state == WAITING && remaining > 0) {
+                remaining = waiter.signal.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (waiter.state == ADMITTED) {
+                // Admitted while being interrupted: hand the permit on
+                inFlight--;
+                admitted--;
+                dispatch();
+            }
+            dequeue(waiter, priority);
+            throw new AdmissionRejectedException(AdmissionRejectedException.Reason.SHED, priority);
+        }
+        dequeue(waiter, priority);
+        if (waiter.state != ADMITTED) {
+            throw new AdmissionRejectedException(AdmissionRejectedException.Reason.SHED, priority);
+        }
+    }
+
+    /**
+     * Sheds the waiter if it is still queued.
+     */
+    private void dequeue(Waiter waiter, Priority priority) {
+        if (waiter.state == WAITING && queues[priority.ordinal()].remove(waiter)) {
+            queued--;
+            shed++;
+            waiter.state = SHED;
+        }
+    }
+
+    private void release(long start) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            inFlight--;
+            if (now - start > latencyTargetNanos) {
+                if (start - lastBackoff >= 0) {
+                    limit = Math.max(options.minLimit(), limit * options.backoffRatio());
+                    lastBackoff = now;
+                }
+            } else if ((inFlight + 1) * 2 >= (int) limit) {
+                limit = Math.min(options.maxLimit(), limit + 1 / limit);
+            }
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands free permits to the waiters, highest priority first.
+     */
+    private void dispatch() {
+        for (int p = queues.length - 1; p >= 0 && inFlight < (int) limit; p--) {
+            while (inFlight < (int) limit && !queues[p].isEmpty()) {
+                Waiter waiter = queues[p].pollFirst();
+                queued--;
+                inFlight++;
+                admitted++;
+                waiter.state = ADMITTED;
+                waiter.signal.signal();
+            }
+        }
+    }
+
+    private boolean waitingAtOrAbove(Priority priority) {
+        for (int p = priority.ordinal(); p < queues.length; p++) {
+            if (!queues[p].isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sheds the newest waiter below the priority to make room; {@code false} when there is none.
+     */
+    private boolean shedBelow(Priority priority) {
+        for (int p = 0; p < priority.ordinal(); p++) {
+            Waiter victim = queues[p].pollLast();
+            if (victim != null) {
+                queued--;
+                shed++;
+                victim.state = SHED;
+                victim.signal.signal();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Waiter {
+
+        private final Condition signal;
+        private int state = WAITING;
+
+        private Waiter(Condition signal) {
+            this.signal = signal;
+        }
+    }
+}
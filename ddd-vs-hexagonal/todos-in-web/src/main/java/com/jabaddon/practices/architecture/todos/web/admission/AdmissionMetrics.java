@@ -0,0 +1,14 @@
+package com.jabaddon.practices.architecture.todos.web.admission;
+
+/**
+ * Snapshot of an {@link AdmissionController}.
+ *
+ * @param limit    current concurrency limit
+ * @param inFlight requests running
+ * @param queued   requests waiting for a permit
+ * @param admitted requests let through since the start
+ * @param rejected requests turned away on arrival, see {@link AdmissionRejectedException.Reason#LIMITED}
+ * @param shed     queued requests dropped, see {@link AdmissionRejectedException.Reason#SHED}
+ */
+public record AdmissionMetrics(int limit, int inFlight, int queued, long admitted, long rejected, long shed) {
+}
@@ -0,0 +1,71 @@
+package com.jabaddon.practices.architecture.todos.web.admission;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for {@link AdmissionController}.
+ *
+ * @param initialLimit  concurrency limit to start from, brought within [minLimit, maxLimit]
+ * @param minLimit      the limit never backs off below this
+ * @param maxLimit      the limit never grows above this
+ * @param latencyTarget requests slower than this make the limit back off
+ * @param backoffRatio  factor the limit is multiplied by when backing off, in (0, 1)
+ * @param maxQueued     requests allowed to wait for a permit, all priorities together
+ * @param maxWait       how long a queued request waits before it is shed
+ */
+public record AdmissionOptions(int initialLimit, int minLimit, int maxLimit, Duration latencyTarget,
+                               double backoffRatio, int maxQueued, Duration maxWait) {
+
+    public AdmissionOptions {
+        if (minLimit < 1) {
+            throw new IllegalArgumentException("Min limit must be positive");
+        }
+        if (maxLimit < minLimit) {
+            throw new IllegalArgumentException("Max limit must not be below the min limit");
+        }
+        if (latencyTarget.isNegative() || latencyTarget.isZero()) {
+            throw new IllegalArgumentException("Latency target must be positive");
+        }
+        if (!(backoffRatio > 0 && backoffRatio < 1)) {
+            throw new IllegalArgumentException("Backoff ratio must be in (0, 1)");
+        }
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException("Max queued must not be negative");
+        }
+        if (maxWait.isNegative()) {
+            throw new IllegalArgumentException("Max wait must not be negative");
+        }
+    }
+
+    public static AdmissionOptions defaults() {
+        return new AdmissionOptions(20, 2, 1000, Duration.ofMillis(250), 0.9, 200, Duration.ofSeconds(1));
+    }
+
+    public AdmissionOptions withInitialLimit(int initialLimit) {
+        return new AdmissionOptions(initialLimit, minLimit, maxLimit, latencyTarget, backoffRatio, maxQueued, maxWait);
+    }
+
+    public AdmissionOptions withMinLimit(int minLimit) {
+        return new AdmissionOptions(initialLimit, minLimit, maxLimit, latencyTarget, backoffRatio, maxQueued, maxWait);
+    }
+
+    public AdmissionOptions withMaxLimit(int maxLimit) {
+        return new AdmissionOptions(initialLimit, minLimit, maxLimit, latencyTarget, backoffRatio, maxQueued, maxWait);
+    }
+
+    public AdmissionOptions withLatencyTarget(Duration latencyTarget) {
+        return new AdmissionOptions(initialLimit, minLimit, maxLimit, latencyTarget, backoffRatio, maxQueued, maxWait);
+    }
+
+    public AdmissionOptions withBackoffRatio(double backoffRatio) {
+        return new AdmissionOptions(initialLimit, minLimit, maxLimit, latencyTarget, backoffRatio, maxQueued, maxWait);
+    }
+
+    public AdmissionOptions withMaxQueued(int maxQueued) {
+        return new AdmissionOptions(initialLimit, minLimit, maxLimit, latencyTarget, backoffRatio, maxQueued, maxWait);
+    }
+
+    public AdmissionOptions withMaxWait(Duration maxWait) {
+        return new AdmissionOptions(initialLimit, minLimit, maxLimit, latencyTarget, backoffRatio, maxQueued, maxWait);
+    }
+}
@@ -0,0 +1,42 @@
+package com.jabaddon.practices.architecture.todos.web.admission;
+
+/**
+ * Thrown instead of running a request the {@link AdmissionController} has no capacity for.
+ *
+ * Nothing was executed, so the request can safely be retried later.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    public enum Reason {
+
+        /**
+         * Every permit was in use and the wait queue had no room: rejected on arrival.
+         */
+        LIMITED,
+
+        /**
+         * Queued, then dropped for a request of higher priority or after waiting too long.
+         */
+        SHED
+    }
+
+    private final Reason reason;
+    private final Priority priority;
+
+    public AdmissionRejectedException(Reason reason, Priority priority) {
+        super(switch (reason) {
+            case LIMITED -> "Too many concurrent requests";
+            case SHED -> "Server overloaded, request shed";
+        });
+        this.reason = reason;
+        this.priority = priority;
+    }
+
+    public Reason reason() {
+        return reason;
+    }
+
+    public Priority priority() {
+        return priority;
+    }
+}
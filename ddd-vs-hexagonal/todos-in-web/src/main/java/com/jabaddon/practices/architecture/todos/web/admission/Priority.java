@@ -0,0 +1,22 @@
+package com.jabaddon.practices.architecture.todos.web.admission;
+
+/**
+ * How much a request matters when capacity runs out; lower priorities are shed first.
+ */
+public enum Priority {
+
+    /**
+     * Reads that may be large and can be retried later, such as listing or searching todos.
+     */
+    LOW,
+
+    /**
+     * Cheap reads of one todo or of the counts.
+     */
+    NORMAL,
+
+    /**
+     * Writes, which users are waiting on.
+     */
+    HIGH
+}
@@ -0,0 +1,107 @@
+package com.jabaddon.practices.architecture.todos.web.clean;
+
+import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.count.CountTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.delete.DeleteTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getall.GetAllTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getall.GetAllTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getcompleted.GetCompletedTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getcompleted.GetCompletedTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPendingTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPendingTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.search.SearchTodosInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.uncomplete.UncompleteTodoInputPort;
+import com.jabaddon.practices.architecture.todos.clean.usecase.update.UpdateTodoInputPort;
+import com.jabaddon.practices.architecture.todos.web.admission.AdmissionController;
+import com.jabaddon.practices.architecture.todos.web.admission.Priority;
+
+import java.util.function.Consumer;
+
+/**
+ * Clean Architecture input ports behind an {@link AdmissionController}, one wrapper per port.
+ *
+ * Priorities follow {@code AdmittedTodoPorts} of the hexagonal adapter:
+ * commands run at {@link Priority#HIGH}, finding one todo and counting at
+ * {@link Priority#NORMAL}, listing and searching at {@link Priority#LOW}.
+ */
+public final class AdmittedInputPorts {
+
+    private AdmittedInputPorts() {
+    }
+
+    public static CreateTodoInputPort admit(CreateTodoInputPort port, AdmissionController admission) {
+        return request -> admission.call(Priority.HIGH, () -> port.execute(request));
+    }
+
+    public static UpdateTodoInputPort admit(UpdateTodoInputPort port, AdmissionController admission) {
+        return request -> admission.call(Priority.HIGH, () -> port.execute(request));
+    }
+
+    public static CompleteTodoInputPort admit(CompleteTodoInputPort port, AdmissionController admission) {
+        return request -> admission.call(Priority.HIGH, () -> port.execute(request));
+    }
+
+    public static UncompleteTodoInputPort admit(UncompleteTodoInputPort port, AdmissionController admission) {
+        return request -> admission.call(Priority.HIGH, () -> port.execute(request));
+    }
+
+    public static DeleteTodoInputPort admit(DeleteTodoInputPort port, AdmissionController admission) {
+        return request -> admission.run(Priority.HIGH, () -> port.execute(request));
+    }
+
+    public static FindTodoByIdInputPort admit(FindTodoByIdInputPort port, AdmissionController admission) {
+        return request -> admission.call(Priority.NORMAL, () -> port.execute(request));
+    }
+
+    public static CountTodosInputPort admit(CountTodosInputPort port, AdmissionController admission) {
+        return () -> admission.call(Priority.NORMAL, port::execute);
+    }
+
+    public static SearchTodosInputPort admit(SearchTodosInputPort port, AdmissionController admission) {
+        return request -> admission.call(Priority.LOW, () -> port.execute(request));
+    }
+
+    public static GetAllTodosInputPort admit(GetAllTodosInputPort port, AdmissionController admission) {
+        return new GetAllTodosInputPort() {
+            @Override
+            public GetAllTodosResponse execute() {
+                return admission.call(Priority.LOW, () -> port.execute());
+            }
+
+            @Override
+            public void execute(Consumer<GetAllTodosResponse.TodoItem> presenter) {
+                admission.run(Priority.LOW, () -> port.execute(presenter));
+            }
+        };
+    }
+
+    public static GetCompletedTodosInputPort admit(GetCompletedTodosInputPort port, AdmissionController admission) {
+        return new GetCompletedTodosInputPort() {
+            @Override
+            public GetCompletedTodosResponse execute() {
+                return admission.call(Priority.LOW, () -> port.execute());
+            }
+
+            @Override
+            public void execute(Consumer<GetCompletedTodosResponse.TodoItem> presenter) {
+                admission.run(Priority.LOW, () -> port.execute(presenter));
+            }
+        };
+    }
+
+    public static GetPendingTodosInputPort admit(GetPendingTodosInputPort port, AdmissionController admission) {
+        return new GetPendingTodosInputPort() {
+            @Override
+            public GetPendingTodosResponse execute() {
+                return admission.call(Priority.LOW, () -> port.execute());
+            }
+
+            @Override
+            public void execute(Consumer<GetPendingTodosResponse.TodoItem> presenter) {
+                admission.run(Priority.LOW, () -> port.execute(presenter));
+            }
+        };
+    }
+}
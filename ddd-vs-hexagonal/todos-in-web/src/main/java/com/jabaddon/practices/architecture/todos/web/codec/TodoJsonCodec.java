@@ -0,0 +1,239 @@
+package com.jabaddon.practices.architecture.todos.web.codec;
+
+import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.count.CountTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getall.GetAllTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getcompleted.GetCompletedTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPendingTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.search.SearchTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.uncomplete.UncompleteTodoResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.update.UpdateTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.update.UpdateTodoResponse;
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoCountsDTO;
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
+import com.jabaddon.practices.architecture.todos.transcript.TodoData;
+import com.jabaddon.practices.architecture.todos.web.json.JsonBuffer;
+import com.jabaddon.practices.architecture.todos.web.json.JsonException;
+import com.jabaddon.practices.architecture.todos.web.json.JsonReader;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * JSON encoder and decoder written by hand for the todo types of every architecture module.
+ *
+ * Encoders write into a caller-owned {@link JsonBuffer} with the member names
+ * pre-encoded, so encoding a todo into a reused buffer allocates nothing. The
+ * todo records share one shape,
+ * <pre>
+ * {"id":..,"title":..,"description":..,"completed":..,"createdAt":..,"updatedAt":..}
+ * </pre>
+ * except the DDD TodoDTO, which carries its {@code "status"} name instead of
+ * {@code "completed"}. Clean list responses keep their record shape,
+ * {@code {"todos":[..]}}; plain lists go through {@link #encodeArray}.
+ *
+ * Decoders read create and update bodies in place with a {@link JsonReader}:
+ * a required string title and an optional string or null description, other
+ * members ignored. Malformed bodies raise a {@link JsonException}.
+ */
+public final class TodoJsonCodec {
+
+    private static final byte[] ID = member('{', "id");
+    private static final byte[] TITLE = member(',', "title");
+    private static final byte[] DESCRIPTION = member(',', "description");
+    private static final byte[] COMPLETED = member(',', "completed");
+    private static final byte[] STATUS = member(',', "status");
+    private static final byte[] CREATED_AT = member(',', "createdAt");
+    private static final byte[] UPDATED_AT = member(',', "updatedAt");
+    private static final byte[] PENDING = member('{', "pending");
+    private static final byte[] COMPLETED_COUNT = member(',', "completed");
+    private static final byte[] TODOS = member('{', "todos");
+
+    private static final byte[][] FIELD_NAMES = {JsonBuffer.name("title"), JsonBuffer.name("description")};
+    private static final int FIELD_TITLE = 0;
+    private static final int FIELD_DESCRIPTION = 1;
+
+    private TodoJsonCodec() {
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, TodoDTO todo) {
+        return todo(json, todo.id(), todo.title(), todo.description(), todo.completed(),
+                todo.createdAt(), todo.updatedAt());
+    }
+
+    public static JsonBuffer encode(JsonBuffer json,
+                                    com.jabaddon.practices.architecture.todos.ddd.application.dto.TodoDTO todo) {
+        json.raw(ID).string(todo.id());
+        json.raw(TITLE).string(todo.title());
+        json.raw(DESCRIPTION).string(todo.description());
+        json.raw(STATUS).string(todo.status());
+        json.raw(CREATED_AT).timestamp(todo.createdAt());
+        return json.raw(UPDATED_AT).timestamp(todo.updatedAt()).raw('}');
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, TodoData todo) {
+        return todo(json, todo.getId(), todo.getTitle(), todo.getDescription(), todo.isCompleted(),
+                todo.getCreatedAt(), todo.getUpdatedAt());
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, CreateTodoResponse todo) {
+        return todo(json, todo.id(), todo.title(), todo.description(), todo.completed(),
+                todo.createdAt(), todo.updatedAt());
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, UpdateTodoResponse todo) {
+        return todo(json, todo.id(), todo.title(), todo.description(), todo.completed(),
+                todo.createdAt(), todo.updatedAt());
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, CompleteTodoResponse todo) {
+        return todo(json, todo.id(), todo.title(), todo.description(), todo.completed(),
+                todo.createdAt(), todo.updatedAt());
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, UncompleteTodoResponse todo) {
+        return todo(json, todo.id(), todo.title(), todo.description(), todo.completed(),
+                todo.createdAt(), todo.updatedAt());
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, FindTodoByIdResponse todo) {
+        return todo(json, todo.id(), todo.title(), todo.description(), todo.completed(),
+                todo.createdAt(), todo.updatedAt());
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, GetAllTodosResponse.TodoItem todo) {
+        return todo(json, todo.id(), todo.title(), todo.description(), todo.completed(),
+                todo.createdAt(), todo.updatedAt());
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, GetCompletedTodosResponse.TodoItem todo) {
+        return todo(json, todo.id(), todo.title(), todo.description(), todo.completed(),
+                todo.createdAt(), todo.updatedAt());
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, GetPendingTodosResponse.TodoItem todo) {
+        return todo(json, todo.id(), todo.title(), todo.description(), todo.completed(),
+                todo.createdAt(), todo.updatedAt());
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, SearchTodosResponse.TodoItem todo) {
+        return todo(json, todo.id(), todo.title(), todo.description(), todo.completed(),
+                todo.createdAt(), todo.updatedAt());
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, GetAllTodosResponse response) {
+        return todos(json, response.todos(), TodoJsonCodec::encode);
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, GetCompletedTodosResponse response) {
+        return todos(json, response.todos(), TodoJsonCodec::encode);
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, GetPendingTodosResponse response) {
+        return todos(json, response.todos(), TodoJsonCodec::encode);
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, SearchTodosResponse response) {
+        return todos(json, response.todos(), TodoJsonCodec::encode);
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, TodoCountsDTO counts) {
+        return counts(json, counts.pending(), counts.completed());
+    }
+
+    public static JsonBuffer encode(JsonBuffer json,
+                                    com.jabaddon.practices.architecture.todos.ddd.application.dto.TodoCountsDTO counts) {
+        return counts(json, counts.pending(), counts.completed());
+    }
+
+    public static JsonBuffer encode(JsonBuffer json, CountTodosResponse counts) {
+        return counts(json, counts.pending(), counts.completed());
+    }
+
+    /**
+     * Writes the values as a JSON array, each with the given encoder, such as
+     * {@code TodoJsonCodec::encode}.
+     */
+    public static <T> JsonBuffer encodeArray(JsonBuffer json, List<T> values, BiConsumer<JsonBuffer, T> encoder) {
+        json.raw('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                json.raw(',');
+            }
+            encoder.accept(json, values.get(i));
+        }
+        return json.raw(']');
+    }
+
+    public static CreateTodoRequest decodeCreateRequest(byte[] json, int offset, int length) {
+        return decodeFields(json, offset, length, CreateTodoRequest::new);
+    }
+
+    public static UpdateTodoRequest decodeUpdateRequest(String id, byte[] json, int offset, int length) {
+        return decodeFields(json, offset, length, (title, description) -> new UpdateTodoRequest(id, title, description));
+    }
+
+    /**
+     * Reads the title and description of a create or update body into any request type.
+     */
+    public static <T> T decodeFields(byte[] json, int offset, int length,
+                                     BiFunction<String, String, T> fields) {
+        JsonReader reader = new JsonReader(json, offset, length);
+        String title = null;
+        String description = null;
+        reader.beginObject();
+        while (reader.nextMember()) {
+            switch (reader.memberName(FIELD_NAMES)) {
+                case FIELD_TITLE -> {
+                    if (!reader.peekString()) {
+                        throw new JsonException("A string title is required");
+                    }
+                    title = reader.string();
+                }
+                case FIELD_DESCRIPTION -> {
+                    if (!reader.peekString() && !reader.peekNull()) {
+                        throw new JsonException("The description must be a string or null");
+                    }
+                    description = reader.stringOrNull();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endDocument();
+        if (title == null) {
+            throw new JsonException("A string title is required");
+        }
+        return fields.apply(title, description);
+    }
+
+    private static JsonBuffer todo(JsonBuffer json, String id, String title, String description, boolean completed,
+                                   LocalDateTime createdAt, LocalDateTime updatedAt) {
+        json.raw(ID).string(id);
+        json.raw(TITLE).string(title);
+        json.raw(DESCRIPTION).string(description);
+        json.raw(COMPLETED).bool(completed);
+        json.raw(CREATED_AT).timestamp(createdAt);
+        return json.raw(UPDATED_AT).timestamp(updatedAt).raw('}');
+    }
+
+    private static <T> JsonBuffer todos(JsonBuffer json, List<T> todos, BiConsumer<JsonBuffer, T> encoder) {
+        return encodeArray(json.raw(TODOS), todos, encoder).raw('}');
+    }
+
+    private static JsonBuffer counts(JsonBuffer json, long pending, long completed) {
+        return json.raw(PENDING).number(pending).raw(COMPLETED_COUNT).number(completed).raw('}');
+    }
+
+    private static byte[] member(char prefix, String name) {
+        byte[] encoded = JsonBuffer.name(name);
+        byte[] member = new byte[encoded.length + 1];
+        member[0] = (byte) prefix;
+        System.arraycopy(encoded, 0, member, 1, encoded.length);
+        return member;
+    }
+}
@@ -0,0 +1,43 @@
+package com.jabaddon.practices.architecture.todos.web.events;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for {@link TodoChangeFeed}.
+ *
+ * @param capacity          changes kept for subscribers to catch up on; one further
+ *                          behind is resynced
+ * @param heartbeatInterval how long a subscriber may go without bytes before a
+ *                          keep-alive comment is sent, which also finds dead clients
+ * @param maxSubscribers    subscribers served at once; more get 503
+ */
+public record ChangeFeedOptions(int capacity, Duration heartbeatInterval, int maxSubscribers) {
+
+    public ChangeFeedOptions {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if (heartbeatInterval.isNegative() || heartbeatInterval.isZero()) {
+            throw new IllegalArgumentException("Heartbeat interval must be positive");
+        }
+        if (maxSubscribers < 1) {
+            throw new IllegalArgumentException("Max subscribers must be positive");
+        }
+    }
+
+    public static ChangeFeedOptions defaults() {
+        return new ChangeFeedOptions(1024, Duration.ofSeconds(15), 50_000);
+    }
+
+    public ChangeFeedOptions withCapacity(int capacity) {
+        return new ChangeFeedOptions(capacity, heartbeatInterval, maxSubscribers);
+    }
+
+    public ChangeFeedOptions withHeartbeatInterval(Duration heartbeatInterval) {
+        return new ChangeFeedOptions(capacity, heartbeatInterval, maxSubscribers);
+    }
+
+    public ChangeFeedOptions withMaxSubscribers(int maxSubscribers) {
+        return new ChangeFeedOptions(capacity, heartbeatInterval, maxSubscribers);
+    }
+}
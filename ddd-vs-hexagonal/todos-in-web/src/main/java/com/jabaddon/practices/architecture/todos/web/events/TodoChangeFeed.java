@@ -0,0 +1,264 @@
+package com.jabaddon.practices.architecture.todos.web.events;
+
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoChangeDTO;
+import com.jabaddon.practices.architecture.todos.web.codec.TodoJsonCodec;
+import com.jabaddon.practices.architecture.todos.web.http.HttpException;
+import com.jabaddon.practices.architecture.todos.web.http.HttpHandler;
+import com.jabaddon.practices.architecture.todos.web.http.HttpRequest;
+import com.jabaddon.practices.architecture.todos.web.http.HttpResponse;
+import com.jabaddon.practices.architecture.todos.web.json.JsonBuffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-sent events feed of todo changes, fed by the application services of
+ * todos-hx and todos-ddd through their change publishers.
+ *
+ * Each change is encoded once, when it is published, into a ready-to-send
+ * frame,
+ * <pre>
+ * id: &lt;feed&gt;-&lt;sequence&gt;
+ * event: created|updated|completed|uncompleted|deleted
+ * data: &lt;the todo as JSON, or {"id": ..} once deleted&gt;
+ * </pre>
+ * and put in a ring of the last {@code capacity} frames shared by every
+ * subscriber. Publishing costs the same whatever the number of subscribers:
+ * each one keeps a cursor into the ring and copies the frames past it when it
+ * wakes up. That bounds what a subscriber can have pending to the ring. A slow
+ * consumer that falls further behind has its backlog dropped and gets a single
+ * {@code resync} event instead, telling it to reload the todos before reading
+ * on. Clients reconnecting with a Last-Event-ID still in the ring pick up where
+ * they left off; older ids, or ids of another feed such as one from before a
+ * restart, get a {@code resync} first.
+ *
+ * Subscribers wait on a {@link ReentrantLock} condition, so the virtual
+ * thread of an idle connection parks without pinning its carrier and tens of
+ * thousands of them cost little more than their sockets. A keep-alive comment
+ * goes out after each heartbeat interval without changes.
+ * {@link #close()} ends every stream, which lets the server shut down promptly.
+ */
+public final class TodoChangeFeed implements HttpHandler,
+        com.jabaddon.practices.architecture.todos.hx.application.port.out.TodoChangePublisher,
+        com.jabaddon.practices.architecture.todos.ddd.application.TodoChangePublisher {
+
+    private static final byte[] CONNECTED = ": connected\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEARTBEAT = ": keep-alive\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DELETED_ID = "{\"id\":".getBytes(StandardCharsets.US_ASCII);
+
+    private final ChangeFeedOptions options;
+    private final String feedId = Long.toString(System.currentTimeMillis(), 36);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private final byte[][] ring;
+    private long sequence;
+    private int subscribers;
+    private volatile boolean closed;
+
+    public TodoChangeFeed(ChangeFeedOptions options) {
+        this.options = options;
+        this.ring = new byte[options.capacity()][];
+    }
+
+    @Override
+    public void publish(TodoChangeDTO change) {
+        JsonBuffer data = data(change.type().name());
+        append(change.todo() == null ? deleted(data, change.id()) : TodoJsonCodec.encode(data, change.todo()));
+    }
+
+    @Override
+    public void publish(com.jabaddon.practices.architecture.todos.ddd.application.dto.TodoChangeDTO change) {
+        JsonBuffer data = data(change.type().name());
+        append(change.todo() == null ? deleted(data, change.id()) : TodoJsonCodec.encode(data, change.todo()));
+    }
+
+    /**
+     * {@code GET} handler streaming the changes as {@code text/event-stream},
+     * from the request's Last-Event-ID on when it has one.
+     */
+    @Override
+    public HttpResponse handle(HttpRequest request) {
+        String lastEventId = request.header("Last-Event-ID").orElse(null);
+        return HttpResponse.stream(200, "text/event-stream", out -> {
+            // Subscribing before any byte is written still lets a refusal go out as a 503
+            try (Subscription subscription = subscribe(lastEventId)) {
+                stream(subscription, out);
+            } catch (IllegalStateException e) {
+                throw new HttpException(503, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }).withHeader("Cache-Control", "no-cache");
+    }
+
+    /**
+     * Subscribes to the changes published from now on, or to those after
+     * {@code lastEventId} when it is given and still in the ring.
+     *
+     * @throws IllegalStateException when the feed is closed or has its maximum of subscribers
+     */
+    public Subscription subscribe(String lastEventId) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Change feed closed");
+            }
+            if (subscribers >= options.maxSubscribers()) {
+                throw new IllegalStateException("Too many change feed subscribers");
+            }
+            subscribers++;
+            return new Subscription(lastEventId == null ? sequence : cursorAfter(lastEventId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int subscribers() {
+        lock.lock();
+        try {
+            return subscribers;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Refuses new subscribers and ends every stream once it has sent what is pending.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void stream(Subscription subscription, OutputStream out) throws IOException, InterruptedException {
+        out.write(CONNECTED);
+        out.flush();
+        while (true) {
+            List<byte[]> frames = subscription.poll(options.heartbeatInterval());
+            if (frames.isEmpty()) {
+                if (closed) {
+                    return;
+                }
+                out.write(HEARTBEAT);
+            }
+            for (byte[] frame : frames) {
+                out.write(frame);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * The cursor matching a Last-Event-ID, or one more than a ring behind,
+     * which resyncs, when the id is not one of this feed's recent ones.
+     */
+    private long cursorAfter(String lastEventId) {
+        long resync = sequence - ring.length - 1;
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash != feedId.length() || !lastEventId.startsWith(feedId)) {
+            return resync;
+        }
+        long id;
+        try {
+            id = Long.parseLong(lastEventId, dash + 1, lastEventId.length(), 10);
+        } catch (NumberFormatException e) {
+            return resync;
+        }
+        return id > sequence || id < sequence - ring.length ? resync : id;
+    }
+
+    private static JsonBuffer data(String type) {
+        JsonBuffer data = new JsonBuffer(320);
+        return data.raw("event: ").raw(type.toLowerCase(Locale.ROOT)).raw("\ndata: ");
+    }
+
+    private static JsonBuffer deleted(JsonBuffer data, String id) {
+        return data.raw(DELETED_ID).string(id).raw('}');
+    }
+
+    private void append(JsonBuffer data) {
+        data.raw("\n\n");
+        lock.lock();
+        try {
+            sequence++;
+            ring[(int) (sequence % ring.length)] = frame(sequence, data);
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] frame(long id, JsonBuffer body) {
+        return new JsonBuffer(body.size() + 32).raw("id: ").raw(feedId).raw('-').number(id).raw('\n')
+                .raw(body.array(), 0, body.size()).toByteArray();
+    }
+
+    /**
+     * One subscriber's position in the feed; close it to unsubscribe.
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private long cursor;
+        private boolean unsubscribed;
+
+        private Subscription(long cursor) {
+            this.cursor = cursor;
+        }
+
+        /**
+         * Waits up to the timeout for changes and returns their frames, oldest
+         * first. Returns a single {@code resync} frame when more changes were
+         * published since the last poll than the ring holds, and nothing on
+         * timeout or once the feed is closed with nothing left to send.
+         */
+        public List<byte[]> poll(Duration timeout) throws InterruptedException {
+            lock.lock();
+            try {
+                long remaining = timeout.toNanos();
+                while (cursor == sequence && remaining > 0 && !closed) {
+                    remaining = published.awaitNanos(remaining);
+                }
+                if (cursor == sequence) {
+                    return List.of();
+                }
+                if (sequence - cursor > ring.length) {
+                    cursor = sequence;
+                    return List.of(frame(sequence, data("resync").raw("{}\n\n")));
+                }
+                List<byte[]> frames = new ArrayList<>((int) (sequence - cursor));
+                while (cursor < sequence) {
+                    cursor++;
+                    frames.add(ring[(int) (cursor % ring.length)]);
+                }
+                return frames;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (!unsubscribed) {
+                    unsubscribed = true;
+                    subscribers--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
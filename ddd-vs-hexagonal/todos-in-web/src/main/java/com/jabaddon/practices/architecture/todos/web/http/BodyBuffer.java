@@ -0,0 +1,58 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response body written in full before the response is sent.
+ *
+ * For bodies produced while holding something a slow client must not hold
+ * up, such as an admission permit or a store's lock: the handler writes the
+ * body here and returns it as the {@link StreamingBody} of its response, so
+ * nothing is sent until the producer is done. Bytes are kept in chunks of
+ * {@link ChunkedOutputStream#CHUNK_SIZE}, so a large body is never copied to
+ * grow and goes out as it was gathered.
+ */
+public final class BodyBuffer extends OutputStream implements StreamingBody {
+
+    private final List<byte[]> chunks = new ArrayList<>();
+    private byte[] current;
+    private int count;
+
+    @Override
+    public void write(int b) {
+        if (current == null || count == current.length) {
+            next();
+        }
+        current[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        while (length > 0) {
+            if (current == null || count == current.length) {
+                next();
+            }
+            int copied = Math.min(length, current.length - count);
+            System.arraycopy(bytes, offset, current, count, copied);
+            count += copied;
+            offset += copied;
+            length -= copied;
+        }
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        for (int i = 0; i < chunks.size(); i++) {
+            out.write(chunks.get(i), 0, i == chunks.size() - 1 ? count : ChunkedOutputStream.CHUNK_SIZE);
+        }
+    }
+
+    private void next() {
+        current = new byte[ChunkedOutputStream.CHUNK_SIZE];
+        chunks.add(current);
+        count = 0;
+    }
+}
@@ -0,0 +1,93 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Frames what is written as HTTP/1.1 chunks of up to {@link #CHUNK_SIZE} bytes.
+ *
+ * {@link #finish()} sends the last chunk; the underlying stream is never
+ * closed, since the connection may be kept alive.
+ */
+final class ChunkedOutputStream extends OutputStream {
+
+    static final int CHUNK_SIZE = 8 * 1024;
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[CHUNK_SIZE];
+    private int count;
+    private boolean finished;
+
+    ChunkedOutputStream(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == buffer.length) {
+            writeChunk();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            if (count == buffer.length) {
+                writeChunk();
+            }
+            int copied = Math.min(length, buffer.length - count);
+            System.arraycopy(bytes, offset, buffer, count, copied);
+            count += copied;
+            offset += copied;
+            length -= copied;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        writeChunk();
+        out.flush();
+    }
+
+    /**
+     * Sends the buffered bytes and the last chunk; further writes fail.
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        writeChunk();
+        out.write(LAST_CHUNK);
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    private void writeChunk() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        out.write(Integer.toHexString(count).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+        out.write(buffer, 0, count);
+        out.write(CRLF);
+        count = 0;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (finished) {
+            throw new IOException("Response body already finished");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * If-None-Match and If-Modified-Since for GET handlers, as in RFC 9110 section 13.
+ *
+ * A handler works out the validators of what it would send, asks
+ * {@link #isNotModified} and answers {@link #notModified} when the client's
+ * copy is current, before building the body. Responses carrying validators
+ * also get {@code Cache-Control: no-cache}, so clients revalidate every time
+ * instead of guessing a freshness lifetime from Last-Modified.
+ */
+public final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * A strong entity tag with the given opaque value, which must not contain quotes.
+     */
+    public static String strongTag(String opaque) {
+        return '"' + opaque + '"';
+    }
+
+    /**
+     * Whether the client already has the representation with these validators.
+     * If-None-Match decides when present, comparing weakly as the RFC requires;
+     * If-Modified-Since is only looked at otherwise, at second precision, and
+     * ignored when unparseable.
+     *
+     * @param etag         entity tag of the current representation, {@code null} for none
+     * @param lastModified modification time of the current representation, {@code null} for none
+     */
+    public static boolean isNotModified(HttpRequest request, String etag, Instant lastModified) {
+        String noneMatch = request.header("If-None-Match").orElse(null);
+        if (noneMatch != null) {
+            return etag != null && matches(noneMatch, etag);
+        }
+        String modifiedSince = request.header("If-Modified-Since").orElse(null);
+        if (modifiedSince == null || lastModified == null) {
+            return false;
+        }
+        try {
+            Instant since = ZonedDateTime.parse(modifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return lastModified.getEpochSecond() <= since.getEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    public static HttpResponse notModified(String etag, Instant lastModified) {
+        return withValidators(HttpResponse.notModified(), etag, lastModified);
+    }
+
+    /**
+     * Adds ETag and Last-Modified, those not {@code null}, to the response.
+     */
+    public static HttpResponse withValidators(HttpResponse response, String etag, Instant lastModified) {
+        if (etag == null && lastModified == null) {
+            return response;
+        }
+        HttpResponse validated = response.withHeader("Cache-Control", "no-cache");
+        if (etag != null) {
+            validated = validated.withHeader("ETag", etag);
+        }
+        if (lastModified != null) {
+            validated = validated.withHeader("Last-Modified", httpDate(lastModified));
+        }
+        return validated;
+    }
+
+    public static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atOffset(ZoneOffset.UTC).withNano(0));
+    }
+
+    /**
+     * Whether the If-None-Match list holds {@code *} or a tag equal to {@code etag}, ignoring W/ prefixes.
+     */
+    private static boolean matches(String noneMatch, String etag) {
+        String opaque = opaque(etag);
+        int from = 0;
+        while (from < noneMatch.length()) {
+            int to = noneMatch.indexOf(',', from);
+            if (to < 0) {
+                to = noneMatch.length();
+            }
+            String candidate = noneMatch.substring(from, to).trim();
+            if (candidate.equals("*") || opaque(candidate).equals(opaque)) {
+                return true;
+            }
+            from = to + 1;
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,461 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+import com.jabaddon.practices.architecture.todos.web.json.Json;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One client connection: reads requests off the socket, dispatches them and writes the responses.
+ *
+ * Input goes through a byte buffer sized by the request line and header
+ * limits; a line longer than its limit is rejected as soon as that many
+ * bytes are buffered, without waiting for its end.
+ */
+final class HttpConnection {
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] CONTINUE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int INITIAL_BUFFER = 4096;
+    private static final int MAX_LEADING_EMPTY_LINES = 8;
+    private static final int LINGER_MILLIS = 500;
+    private static final int LINGER_BYTES = 64 * 1024;
+    private static volatile CachedDate date = new CachedDate(0, new byte[0]);
+
+    private final Socket socket;
+    private final HttpHandler handler;
+    private final HttpServerOptions options;
+    private final int maxBuffer;
+    private InputStream in;
+    private OutputStream out;
+    private volatile StallTrackingOutputStream socketOut;
+    private byte[] buffer = new byte[INITIAL_BUFFER];
+    private int start;
+    private int end;
+
+    HttpConnection(Socket socket, HttpHandler handler, HttpServerOptions options) {
+        this.socket = socket;
+        this.handler = handler;
+        this.options = options;
+        this.maxBuffer = Math.max(options.maxRequestLineLength(), options.maxHeaderSize()) + 2;
+    }
+
+    /**
+     * Whether a write to the client has been blocked for longer than {@code timeoutNanos}.
+     */
+    boolean writeStalled(long now, long timeoutNanos) {
+        StallTrackingOutputStream tracked = socketOut;
+        return tracked != null && tracked.stalled(now, timeoutNanos);
+    }
+
+    void run() {
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, options.idleTimeout().toMillis()));
+            in = socket.getInputStream();
+            socketOut = new StallTrackingOutputStream(socket.getOutputStream());
+            out = new BufferedOutputStream(socketOut, 16 * 1024);
+            while (true) {
+                HttpRequest request;
+                try {
+                    request = readRequest();
+                } catch (HttpException e) {
+                    write(error(e), false);
+                    closeGracefully();
+                    return;
+                }
+                if (request == null) {
+                    out.flush();
+                    return;
+                }
+                boolean keepAlive = request.keepAlive();
+                HttpResponse response = dispatch(request);
+                if (response.streamingBody() == null) {
+                    write(response, keepAlive);
+                } else {
+                    // HTTP/1.0 has no chunked encoding: the end of the body is the end of the connection
+                    boolean chunked = request.version().equals("HTTP/1.1");
+                    keepAlive &= chunked;
+                    if (!writeStreaming(response, keepAlive, chunked)) {
+                        return;
+                    }
+                }
+                if (!keepAlive) {
+                    out.flush();
+                    return;
+                }
+                if (start == end) {
+                    // Nothing pipelined behind this request: the client waits for the answer
+                    out.flush();
+                }
+            }
+        } catch (SocketTimeoutException e) {
+            // Idle connection, dropped without a response
+        } catch (IOException e) {
+            // Client went away or the server is closing
+        }
+    }
+
+    /**
+     * Flushes, then reads what the client still sends for a moment before the socket is closed:
+     * closing with unread input resets the connection, which may discard the response in flight.
+     */
+    private void closeGracefully() throws IOException {
+        out.flush();
+        socket.shutdownOutput();
+        socket.setSoTimeout(LINGER_MILLIS);
+        byte[] discard = new byte[4096];
+        long budget = LINGER_BYTES;
+        int n;
+        while (budget > 0 && (n = in.read(discard)) >= 0) {
+            budget -= n;
+        }
+    }
+
+    private HttpResponse dispatch(HttpRequest request) {
+        try {
+            return handler.handle(request);
+        } catch (RuntimeException e) {
+            return error(e);
+        }
+    }
+
+    /**
+     * @return the next request, or {@code null} when the client closed the connection between requests
+     */
+    private HttpRequest readRequest() throws IOException {
+        String requestLine = "";
+        for (int i = 0; requestLine.isEmpty(); i++) {
+            if (i > MAX_LEADING_EMPTY_LINES) {
+                throw new HttpException(400, "Missing request line");
+            }
+            requestLine = readLine(options.maxRequestLineLength(), 414, "Request line too long");
+            if (requestLine == null) {
+                return null;
+            }
+        }
+        int firstSpace = requestLine.indexOf(' ');
+        int lastSpace = requestLine.lastIndexOf(' ');
+        if (firstSpace <= 0 || lastSpace == firstSpace) {
+            throw new HttpException(400, "Malformed request line");
+        }
+        String method = requestLine.substring(0, firstSpace);
+        if (!isToken(method)) {
+            throw new HttpException(400, "Malformed method");
+        }
+        String target = requestLine.substring(firstSpace + 1, lastSpace);
+        String version = requestLine.substring(lastSpace + 1);
+        if (!version.equals("HTTP/1.1") && !version.equals("HTTP/1.0")) {
+            throw new HttpException(505, "Unsupported version " + version);
+        }
+        if (!target.startsWith("/") || target.indexOf(' ') >= 0) {
+            throw new HttpException(400, "Malformed request target");
+        }
+        int question = target.indexOf('?');
+        String path = question >= 0 ? target.substring(0, question) : target;
+        String query = question >= 0 ? target.substring(question + 1) : null;
+
+        Map<String, String> headers = readHeaders();
+        return new HttpRequest(method, path, query, version, headers, readBody(headers), Map.of());
+    }
+
+    private Map<String, String> readHeaders() throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        int budget = options.maxHeaderSize();
+        int count = 0;
+        while (true) {
+            String line = readLine(budget, 431, "Request headers too large");
+            if (line == null) {
+                throw new HttpException(400, "Connection closed inside the headers");
+            }
+            if (line.isEmpty()) {
+                return headers;
+            }
+            budget -= line.length() + 2;
+            if (++count > options.maxHeaders()) {
+                throw new HttpException(431, "Too many request headers");
+            }
+            char first = line.charAt(0);
+            if (first == ' ' || first == '\t') {
+                throw new HttpException(400, "Folded headers are not supported");
+            }
+            int colon = line.indexOf(':');
+            String name = colon > 0 ? line.substring(0, colon) : "";
+            if (!isToken(name)) {
+                throw new HttpException(400, "Malformed header");
+            }
+            name = name.toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).strip();
+            headers.merge(name, value, (previous, next) -> previous + ", " + next);
+        }
+    }
+
+    private byte[] readBody(Map<String, String> headers) throws IOException {
+        if (headers.containsKey("transfer-encoding")) {
+            throw new HttpException(411, "Chunked request bodies are not supported, send a Content-Length");
+        }
+        String contentLength = headers.get("content-length");
+        if (contentLength == null) {
+            return EMPTY;
+        }
+        long length;
+        try {
+            length = Long.parseLong(contentLength);
+        } catch (NumberFormatException e) {
+            throw new HttpException(400, "Invalid Content-Length");
+        }
+        if (length < 0) {
+            throw new HttpException(400, "Invalid Content-Length");
+        }
+        if (length > options.maxBodySize()) {
+            throw new HttpException(413, "Request body larger than " + options.maxBodySize() + " bytes");
+        }
+        byte[] body = new byte[(int) length];
+        int buffered = Math.min(body.length, end - start);
+        System.arraycopy(buffer, start, body, 0, buffered);
+        start += buffered;
+        int read = buffered;
+        if (read < body.length && "100-continue".equalsIgnoreCase(headers.get("expect"))) {
+            out.write(CONTINUE);
+            out.flush();
+        }
+        while (read < body.length) {
+            int n = in.read(body, read, body.length - read);
+            if (n < 0) {
+                throw new HttpException(400, "Connection closed inside the body");
+            }
+            read += n;
+        }
+        return body;
+    }
+
+    /**
+     * Reads a line ending in LF, dropping the CR before it.
+     *
+     * @return the line decoded as ISO-8859-1, or {@code null} on end of stream before any byte of it
+     */
+    private String readLine(int limit, int status, String message) throws IOException {
+        int scanned = 0;
+        while (true) {
+            for (int i = start + scanned; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    int lineEnd = i > start && buffer[i - 1] == '\r' ? i - 1 : i;
+                    if (lineEnd - start > limit) {
+                        throw new HttpException(status, message);
+                    }
+                    String line = new String(buffer, start, lineEnd - start, StandardCharsets.ISO_8859_1);
+                    start = i + 1;
+                    return line;
+                }
+            }
+            scanned = end - start;
+            if (scanned > limit + 1) {
+                throw new HttpException(status, message);
+            }
+            if (!fill()) {
+                if (scanned == 0) {
+                    return null;
+                }
+                throw new HttpException(400, "Connection closed inside a line");
+            }
+        }
+    }
+
+    private static boolean isToken(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c <= ' ' || c >= 0x7F || "\"(),/:;<=>?@[\\]{}".indexOf(c) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean fill() throws IOException {
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+        }
+        if (end == buffer.length) {
+            if (buffer.length >= maxBuffer) {
+                // Only reachable with a line over its limit, which readLine reports
+                return true;
+            }
+            byte[] grown = new byte[Math.min(maxBuffer, buffer.length * 2)];
+            System.arraycopy(buffer, 0, grown, 0, end);
+            buffer = grown;
+        }
+        int n = in.read(buffer, end, buffer.length - end);
+        if (n < 0) {
+            return false;
+        }
+        end += n;
+        return true;
+    }
+
+    private void write(HttpResponse response, boolean keepAlive) throws IOException {
+        writeHead(response, keepAlive);
+        if (response.status() != 204 && response.status() != 304) {
+            writeAscii("Content-Length: ");
+            writeAscii(Integer.toString(response.body().length));
+            out.write(CRLF);
+        }
+        out.write(CRLF);
+        out.write(response.body());
+    }
+
+    /**
+     * Lets the body write itself through a chunked stream. The head goes out
+     * with the first bytes, so a body failing before writing anything, say
+     * because its use case turned the request away, still gets a regular
+     * error response.
+     *
+     * @return {@code false} when the body failed midway; the response is cut short
+     *         and the connection must be dropped so the client sees it incomplete
+     */
+    private boolean writeStreaming(HttpResponse response, boolean keepAlive, boolean chunked) throws IOException {
+        StreamingOutput body = new StreamingOutput(response, keepAlive, chunked);
+        try {
+            response.streamingBody().writeTo(body);
+        } catch (RuntimeException e) {
+            if (!body.started) {
+                write(error(e), keepAlive);
+                return true;
+            }
+            out.flush();
+            return false;
+        }
+        body.finish();
+        return true;
+    }
+
+    private void writeHead(HttpResponse response, boolean keepAlive) throws IOException {
+        out.write(StatusLine.of(response.status()));
+        for (Map.Entry<String, String> header : response.headers().entrySet()) {
+            writeAscii(header.getKey());
+            out.write(':');
+            out.write(' ');
+            writeAscii(header.getValue());
+            out.write(CRLF);
+        }
+        out.write(currentDate());
+        if (!keepAlive) {
+            writeAscii("Connection: close\r\n");
+        }
+    }
+
+    private void writeAscii(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            out.write(value.charAt(i));
+        }
+    }
+
+    private static HttpResponse error(RuntimeException failure) {
+        return error(failure instanceof HttpException e ? e : new HttpException(500, "Internal server error"));
+    }
+
+    private static HttpResponse error(HttpException e) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        Json.writeString(json, e.getMessage()).append('}');
+        HttpResponse response = HttpResponse.json(e.status(), json.toString());
+        if (e instanceof Router.MethodNotAllowedException notAllowed) {
+            response = response.withHeader("Allow", notAllowed.allow());
+        }
+        return response;
+    }
+
+    /**
+     * The Date header line, formatted at most once per second for all connections.
+     */
+    private static byte[] currentDate() {
+        long second = System.currentTimeMillis() / 1000;
+        CachedDate cached = date;
+        if (cached.second() != second) {
+            String formatted = DateTimeFormatter.RFC_1123_DATE_TIME
+                    .format(ZonedDateTime.now(ZoneOffset.UTC).withNano(0));
+            cached = new CachedDate(second, ("Date: " + formatted + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            date = cached;
+        }
+        return cached.line();
+    }
+
+    private record CachedDate(long second, byte[] line) {
+    }
+
+    /**
+     * Body stream of a streaming response, writing the head before the first byte.
+     */
+    private final class StreamingOutput extends OutputStream {
+
+        private final HttpResponse response;
+        private final boolean keepAlive;
+        private final boolean chunked;
+        private OutputStream target;
+        private boolean started;
+
+        private StreamingOutput(HttpResponse response, boolean keepAlive, boolean chunked) {
+            this.response = response;
+            this.keepAlive = keepAlive;
+            this.chunked = chunked;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            start().write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length > 0) {
+                start().write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            start().flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        void finish() throws IOException {
+            start();
+            if (target instanceof ChunkedOutputStream chunks) {
+                chunks.finish();
+            }
+        }
+
+        private OutputStream start() throws IOException {
+            if (!started) {
+                started = true;
+                writeHead(response, keepAlive);
+                if (chunked) {
+                    writeAscii("Transfer-Encoding: chunked\r\n");
+                }
+                out.write(CRLF);
+                // Without chunks, HTTP/1.0, the body goes out as is and ends with the connection
+                target = chunked ? new ChunkedOutputStream(out) : out;
+            }
+            return target;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+/**
+ * Exception carrying the HTTP status to answer with.
+ *
+ * Thrown by the request parser for malformed or oversized requests, and by
+ * handlers to reject a request; the server turns it into an error response.
+ */
+public class HttpException extends RuntimeException {
+
+    private final int status;
+
+    public HttpException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int status() {
+        return status;
+    }
+}
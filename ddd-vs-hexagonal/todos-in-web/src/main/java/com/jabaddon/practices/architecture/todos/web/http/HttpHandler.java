@@ -0,0 +1,11 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+/**
+ * Turns a request into a response. Called on the virtual thread of the connection,
+ * so blocking is fine; may throw {@link HttpException} to answer with an error.
+ */
+@FunctionalInterface
+public interface HttpHandler {
+
+    HttpResponse handle(HttpRequest request);
+}
@@ -0,0 +1,118 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A parsed HTTP/1.1 request.
+ *
+ * @param method         request method, as sent
+ * @param path           path of the request target, still percent-encoded
+ * @param query          query string without the {@code ?}, {@code null} when absent
+ * @param version        {@code HTTP/1.1} or {@code HTTP/1.0}
+ * @param headers        header values by lower-case name; repeated headers are joined with {@code ", "}
+ * @param body           request body, empty when there is none
+ * @param pathParameters values of the {@code {name}} segments of the matched route, decoded
+ */
+public record HttpRequest(String method, String path, String query, String version,
+                          Map<String, String> headers, byte[] body, Map<String, String> pathParameters) {
+
+    /**
+     * The value of the header, whatever the case of {@code name}.
+     */
+    public Optional<String> header(String name) {
+        return Optional.ofNullable(headers.get(name.toLowerCase(Locale.ROOT)));
+    }
+
+    public String pathParameter(String name) {
+        String value = pathParameters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("No path parameter " + name);
+        }
+        return value;
+    }
+
+    /**
+     * The decoded value of the first query parameter with this name.
+     */
+    public Optional<String> queryParameter(String name) {
+        if (query == null) {
+            return Optional.empty();
+        }
+        int from = 0;
+        while (from <= query.length()) {
+            int to = query.indexOf('&', from);
+            if (to < 0) {
+                to = query.length();
+            }
+            int equals = query.indexOf('=', from);
+            int nameEnd = equals >= 0 && equals < to ? equals : to;
+            if (decode(query.substring(from, nameEnd), true).equals(name)) {
+                return Optional.of(nameEnd < to ? decode(query.substring(nameEnd + 1, to), true) : "");
+            }
+            from = to + 1;
+        }
+        return Optional.empty();
+    }
+
+    public String bodyText() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether the connection stays open after the response, per the version and the Connection header.
+     */
+    public boolean keepAlive() {
+        String connection = headers.get("connection");
+        if (version.equals("HTTP/1.0")) {
+            return connection != null && hasToken(connection, "keep-alive");
+        }
+        return connection == null || !hasToken(connection, "close");
+    }
+
+    HttpRequest withPathParameters(Map<String, String> pathParameters) {
+        return new HttpRequest(method, path, query, version, headers, body, pathParameters);
+    }
+
+    /**
+     * Decodes %XX escapes and raw bytes as UTF-8, and {@code +} as a space when {@code form} is set.
+     */
+    static String decode(String value, boolean form) {
+        if (value.indexOf('%') < 0 && (!form || value.indexOf('+') < 0)) {
+            return value;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' && i + 2 < value.length()) {
+                int high = Character.digit(value.charAt(i + 1), 16);
+                int low = Character.digit(value.charAt(i + 2), 16);
+                if (high < 0 || low < 0) {
+                    throw new HttpException(400, "Malformed percent-encoding");
+                }
+                bytes.write(high << 4 | low);
+                i += 2;
+            } else if (c == '%') {
+                throw new HttpException(400, "Malformed percent-encoding");
+            } else if (c == '+' && form) {
+                bytes.write(' ');
+            } else {
+                // The request line is read as ISO-8859-1, so every char is one raw byte
+                bytes.write(c);
+            }
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private static boolean hasToken(String header, String token) {
+        for (String part : header.split(",")) {
+            if (part.trim().equalsIgnoreCase(token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,57 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Response to write back. Content-Length or Transfer-Encoding, Date and Connection are added by the server;
+ * 204 and 304 responses get no Content-Length, as they never have content.
+ *
+ * @param status        status code
+ * @param headers       header values by name, written in order
+ * @param body          response body, empty for none
+ * @param streamingBody body produced while it is sent in chunks, {@code null} to send {@code body}
+ */
+public record HttpResponse(int status, Map<String, String> headers, byte[] body, StreamingBody streamingBody) {
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final String JSON = "application/json";
+
+    public HttpResponse(int status, Map<String, String> headers, byte[] body) {
+        this(status, headers, body, null);
+    }
+
+    public static HttpResponse of(int status, String contentType, byte[] body) {
+        return new HttpResponse(status, Map.of("Content-Type", contentType), body);
+    }
+
+    public static HttpResponse json(int status, String json) {
+        return of(status, JSON, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static HttpResponse json(int status, byte[] json) {
+        return of(status, JSON, json);
+    }
+
+    /**
+     * Response whose body is written by {@code body} as it is sent, with chunked transfer encoding.
+     */
+    public static HttpResponse stream(int status, String contentType, StreamingBody body) {
+        return new HttpResponse(status, Map.of("Content-Type", contentType), EMPTY, body);
+    }
+
+    public static HttpResponse noContent() {
+        return new HttpResponse(204, Map.of(), EMPTY);
+    }
+
+    public static HttpResponse notModified() {
+        return new HttpResponse(304, Map.of(), EMPTY);
+    }
+
+    public HttpResponse withHeader(String name, String value) {
+        Map<String, String> copy = new LinkedHashMap<>(headers);
+        copy.put(name, value);
+        return new HttpResponse(status, copy, body, streamingBody);
+    }
+}
@@ -0,0 +1,164 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dependency-free HTTP/1.1 server running one virtual thread per connection.
+ *
+ * A platform thread accepts connections and hands each to its own virtual
+ * thread, which reads requests, calls the {@link HttpHandler} and writes the
+ * responses with plain blocking I/O; a handler blocking on storage parks the
+ * virtual thread, not a carrier. Connections are kept alive between requests
+ * unless the client asks otherwise or stays idle past
+ * {@link HttpServerOptions#idleTimeout()}, and pipelined requests are answered
+ * in order with a single flush once the input buffered so far is used up.
+ *
+ * Request lines, headers and bodies are bounded by {@link HttpServerOptions},
+ * so a client cannot make the server buffer more than those limits. Requests
+ * breaking them, or not valid HTTP/1.1, get a 4xx response and the connection
+ * is closed. Request bodies need a Content-Length; chunked ones get 411.
+ *
+ * Responses with a {@link StreamingBody} are sent with chunked transfer
+ * encoding as they are produced, so their size does not need to fit in memory;
+ * HTTP/1.0 clients get them delimited by the end of the connection instead.
+ * A client that stops reading is dropped once a write to it has been blocked
+ * for {@link HttpServerOptions#writeTimeout()}, so it cannot hold its virtual
+ * thread, or whatever the handler holds while writing, indefinitely.
+ */
+public final class HttpServer implements AutoCloseable {
+
+    private final HttpHandler handler;
+    private final HttpServerOptions options;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-connection-", 0).factory());
+    private final Map<Socket, HttpConnection> open = new ConcurrentHashMap<>();
+    private final Thread acceptor;
+    private final Thread writeWatchdog;
+    private volatile boolean closed;
+
+    private HttpServer(HttpHandler handler, HttpServerOptions options, ServerSocket serverSocket) {
+        this.handler = handler;
+        this.options = options;
+        this.serverSocket = serverSocket;
+        this.acceptor = Thread.ofPlatform().name("http-acceptor").daemon().start(this::accept);
+        this.writeWatchdog = Thread.ofPlatform().name("http-write-watchdog").daemon().start(this::watchWrites);
+    }
+
+    public static HttpServer start(HttpHandler handler, HttpServerOptions options) {
+        try {
+            ServerSocket serverSocket = new ServerSocket();
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(new InetSocketAddress(options.port()), 1024);
+            return new HttpServer(handler, options, serverSocket);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen on port " + options.port(), e);
+        }
+    }
+
+    /**
+     * The port listened on, useful when started on port 0.
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+                // Typically out of file descriptors; give connections a moment to close
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                continue;
+            }
+            HttpConnection connection = new HttpConnection(socket, handler, options);
+            open.put(socket, connection);
+            try {
+                connections.execute(() -> serve(socket, connection));
+            } catch (RuntimeException e) {
+                // Rejected because the server is closing
+                open.remove(socket);
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private void serve(Socket socket, HttpConnection connection) {
+        try {
+            connection.run();
+        } finally {
+            open.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Closes the sockets of connections whose write has been blocked past the
+     * write timeout, checking a few times per timeout and at least every second.
+     */
+    private void watchWrites() {
+        long timeout = options.writeTimeout().toNanos();
+        long interval = Math.clamp(options.writeTimeout().toMillis() / 4, 10, 1000);
+        while (!closed) {
+            try {
+                Thread.sleep(interval);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long now = System.nanoTime();
+            open.forEach((socket, connection) -> {
+                if (connection.writeStalled(now, timeout)) {
+                    closeQuietly(socket);
+                }
+            });
+        }
+    }
+
+    /**
+     * Stops accepting, closes every open connection and waits for their threads to finish.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closeQuietly(serverSocket);
+        open.keySet().forEach(HttpServer::closeQuietly);
+        connections.shutdown();
+        writeWatchdog.interrupt();
+        try {
+            acceptor.join();
+            writeWatchdog.join();
+            connections.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+            // Nothing left to do with it
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for {@link HttpServer}.
+ *
+ * @param port                 port to listen on, {@code 0} for any free port
+ * @param maxRequestLineLength longest accepted request line in bytes; longer ones get 414
+ * @param maxHeaderSize        bytes accepted for all header lines of a request together; more get 431
+ * @param maxHeaders           header lines accepted per request; more get 431
+ * @param maxBodySize          largest accepted request body in bytes; larger ones get 413
+ * @param idleTimeout          how long a kept-alive connection may wait for its next request
+ * @param writeTimeout         how long one write may stay blocked on a client that stops reading
+ *                             before its connection is dropped
+ */
+public record HttpServerOptions(int port, int maxRequestLineLength, int maxHeaderSize, int maxHeaders,
+                                int maxBodySize, Duration idleTimeout, Duration writeTimeout) {
+
+    public HttpServerOptions {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Port must be in [0, 65535]");
+        }
+        if (maxRequestLineLength < 64) {
+            throw new IllegalArgumentException("Max request line length must be at least 64 bytes");
+        }
+        if (maxHeaderSize < 256) {
+            throw new IllegalArgumentException("Max header size must be at least 256 bytes");
+        }
+        if (maxHeaders < 1) {
+            throw new IllegalArgumentException("Max headers must be positive");
+        }
+        if (maxBodySize < 0) {
+            throw new IllegalArgumentException("Max body size must not be negative");
+        }
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Idle timeout must be positive");
+        }
+        if (writeTimeout.isNegative() || writeTimeout.isZero()) {
+            throw new IllegalArgumentException("Write timeout must be positive");
+        }
+    }
+
+    public static HttpServerOptions defaults() {
+        return new HttpServerOptions(8080, 8 * 1024, 16 * 1024, 100, 1024 * 1024, Duration.ofSeconds(30),
+                Duration.ofSeconds(30));
+    }
+
+    public HttpServerOptions withPort(int port) {
+        return new HttpServerOptions(port, maxRequestLineLength, maxHeaderSize, maxHeaders, maxBodySize,
+                idleTimeout, writeTimeout);
+    }
+
+    public HttpServerOptions withMaxRequestLineLength(int maxRequestLineLength) {
+        return new HttpServerOptions(port, maxRequestLineLength, maxHeaderSize, maxHeaders, maxBodySize,
+                idleTimeout, writeTimeout);
+    }
+
+    public HttpServerOptions withMaxHeaderSize(int maxHeaderSize) {
+        return new HttpServerOptions(port, maxRequestLineLength, maxHeaderSize, maxHeaders, maxBodySize,
+                idleTimeout, writeTimeout);
+    }
+
+    public HttpServerOptions withMaxHeaders(int maxHeaders) {
+        return new HttpServerOptions(port, maxRequestLineLength, maxHeaderSize, maxHeaders, maxBodySize,
+                idleTimeout, writeTimeout);
+    }
+
+    public HttpServerOptions withMaxBodySize(int maxBodySize) {
+        return new HttpServerOptions(port, maxRequestLineLength, maxHeaderSize, maxHeaders, maxBodySize,
+                idleTimeout, writeTimeout);
+    }
+
+    public HttpServerOptions withIdleTimeout(Duration idleTimeout) {
+        return new HttpServerOptions(port, maxRequestLineLength, maxHeaderSize, maxHeaders, maxBodySize,
+                idleTimeout, writeTimeout);
+    }
+
+    public HttpServerOptions withWriteTimeout(Duration writeTimeout) {
+        return new HttpServerOptions(port, maxRequestLineLength, maxHeaderSize, maxHeaders, maxBodySize,
+                idleTimeout, writeTimeout);
+    }
+}
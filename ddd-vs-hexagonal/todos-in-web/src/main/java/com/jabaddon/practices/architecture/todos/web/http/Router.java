@@ -0,0 +1,100 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dispatches requests by method and path pattern.
+ *
+ * Patterns are made of literal segments and {@code {name}} segments matching
+ * any single segment, e.g. {@code /todos/{id}/complete}. Routes are tried in
+ * registration order, so literal routes registered first win over patterns
+ * overlapping them. A path no route matches gets 404; a path matched for
+ * other methods only gets 405 with an Allow header.
+ */
+public final class Router implements HttpHandler {
+
+    private final List<Route> routes = new ArrayList<>();
+
+    public Router route(String method, String pattern, HttpHandler handler) {
+        if (!pattern.startsWith("/")) {
+            throw new IllegalArgumentException("Pattern must start with /: " + pattern);
+        }
+        routes.add(new Route(method, segments(pattern), handler));
+        return this;
+    }
+
+    @Override
+    public HttpResponse handle(HttpRequest request) {
+        String[] path = segments(request.path());
+        Set<String> allowed = new LinkedHashSet<>();
+        for (Route route : routes) {
+            Map<String, String> parameters = route.match(path);
+            if (parameters == null) {
+                continue;
+            }
+            if (route.method().equals(request.method())) {
+                return route.handler().handle(request.withPathParameters(parameters));
+            }
+            allowed.add(route.method());
+        }
+        if (allowed.isEmpty()) {
+            throw new HttpException(404, "No route for " + request.path());
+        }
+        throw new MethodNotAllowedException(String.join(", ", allowed));
+    }
+
+    private static String[] segments(String path) {
+        String trimmed = path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+        return trimmed.equals("/") ? new String[0] : trimmed.substring(1).split("/", -1);
+    }
+
+    private record Route(String method, String[] pattern, HttpHandler handler) {
+
+        /**
+         * @return the decoded parameters when the path matches, {@code null} otherwise
+         */
+        Map<String, String> match(String[] path) {
+            if (path.length != pattern.length) {
+                return null;
+            }
+            Map<String, String> parameters = Map.of();
+            for (int i = 0; i < pattern.length; i++) {
+                String segment = pattern[i];
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    if (path[i].isEmpty()) {
+                        return null;
+                    }
+                    if (parameters.isEmpty()) {
+                        parameters = new HashMap<>(4);
+                    }
+                    parameters.put(segment.substring(1, segment.length() - 1), HttpRequest.decode(path[i], false));
+                } else if (!segment.equals(path[i])) {
+                    return null;
+                }
+            }
+            return parameters;
+        }
+    }
+
+    /**
+     * 405 remembering the methods to list in the Allow header.
+     */
+    static final class MethodNotAllowedException extends HttpException {
+
+        private final String allow;
+
+        MethodNotAllowedException(String allow) {
+            super(405, "Method not allowed, use " + allow);
+            this.allow = allow;
+        }
+
+        String allow() {
+            return allow;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Socket output noting when its write in progress began.
+ *
+ * A blocking socket write has no timeout of its own: it waits as long as the
+ * client keeps its receive window full. {@link HttpServer} asks every
+ * connection whether its current write has been blocked longer than
+ * {@link HttpServerOptions#writeTimeout()} and closes the socket of those
+ * that have, which fails the write.
+ */
+final class StallTrackingOutputStream extends OutputStream {
+
+    private final OutputStream out;
+    private volatile boolean writing;
+    private volatile long writeStart;
+
+    StallTrackingOutputStream(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        begin();
+        try {
+            out.write(b);
+        } finally {
+            writing = false;
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        begin();
+        try {
+            out.write(bytes, offset, length);
+        } finally {
+            writing = false;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        begin();
+        try {
+            out.flush();
+        } finally {
+            writing = false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Whether the write in progress, if any, began more than {@code timeoutNanos} before {@code now}.
+     */
+    boolean stalled(long now, long timeoutNanos) {
+        return writing && now - writeStart > timeoutNanos;
+    }
+
+    private void begin() {
+        writeStart = System.nanoTime();
+        writing = true;
+    }
+}
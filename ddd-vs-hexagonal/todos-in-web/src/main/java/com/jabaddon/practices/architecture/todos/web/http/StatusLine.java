@@ -0,0 +1,52 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pre-encoded status lines, so writing one is a single array copy.
+ */
+final class StatusLine {
+
+    private static final byte[][] LINES = new byte[600][];
+
+    static {
+        reason(200, "OK");
+        reason(201, "Created");
+        reason(202, "Accepted");
+        reason(204, "No Content");
+        reason(304, "Not Modified");
+        reason(400, "Bad Request");
+        reason(404, "Not Found");
+        reason(405, "Method Not Allowed");
+        reason(409, "Conflict");
+        reason(411, "Length Required");
+        reason(412, "Precondition Failed");
+        reason(413, "Content Too Large");
+        reason(414, "URI Too Long");
+        reason(415, "Unsupported Media Type");
+        reason(429, "Too Many Requests");
+        reason(431, "Request Header Fields Too Large");
+        reason(500, "Internal Server Error");
+        reason(503, "Service Unavailable");
+        reason(505, "HTTP Version Not Supported");
+    }
+
+    private StatusLine() {
+    }
+
+    static byte[] of(int status) {
+        if (status < 100 || status >= LINES.length) {
+            throw new IllegalArgumentException("Invalid status " + status);
+        }
+        byte[] line = LINES[status];
+        return line != null ? line : encode(status, "");
+    }
+
+    private static void reason(int status, String reason) {
+        LINES[status] = encode(status, reason);
+    }
+
+    private static byte[] encode(int status, String reason) {
+        return ("HTTP/1.1 " + status + " " + reason + "\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+}
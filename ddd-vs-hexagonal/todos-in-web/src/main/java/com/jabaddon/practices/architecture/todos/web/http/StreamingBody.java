@@ -0,0 +1,17 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Response body produced while it is sent, for bodies too large or too slow to build up front.
+ *
+ * The stream sends what is written in chunks as its buffer fills; {@link OutputStream#flush()}
+ * sends what is buffered right away. Closing it is not required. Once the first chunk is out the
+ * status can no longer change, so an exception thrown here aborts the connection instead.
+ */
+@FunctionalInterface
+public interface StreamingBody {
+
+    void writeTo(OutputStream out) throws IOException;
+}
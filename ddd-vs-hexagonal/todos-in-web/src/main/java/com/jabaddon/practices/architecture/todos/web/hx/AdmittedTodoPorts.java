@@ -0,0 +1,166 @@
+package com.jabaddon.practices.architecture.todos.web.hx;
+
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoCountsDTO;
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
+import com.jabaddon.practices.architecture.todos.hx.application.port.in.*;
+import com.jabaddon.practices.architecture.todos.web.admission.AdmissionController;
+import com.jabaddon.practices.architecture.todos.web.admission.Priority;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+
+/**
+ * Input ports of todos-hx behind an {@link AdmissionController}.
+ *
+ * Writes run at {@link Priority#HIGH}, reads of one todo and the counts at
+ * {@link Priority#NORMAL}, and listing and searching at {@link Priority#LOW},
+ * so those are shed first. A streamed list holds its permit, and counts as
+ * service time, until its consumer returns from the last todo, so consumers
+ * should gather the list rather than write it to a client. List versions are
+ * read without a permit: they cost no more than a counter read, and answering
+ * 304 from them is what sheds load.
+ * Requests without capacity fail with an
+ * {@link com.jabaddon.practices.architecture.todos.web.admission.AdmissionRejectedException}
+ * before reaching the ports.
+ */
+public final class AdmittedTodoPorts implements CreateTodoUseCase, UpdateTodoUseCase, CompleteTodoUseCase,
+        UncompleteTodoUseCase, DeleteTodoUseCase, FindTodoByIdUseCase, GetAllTodosUseCase, GetCompletedTodosUseCase,
+        GetIncompleteTodosUseCase, SearchTodosUseCase, CountTodosByStatusUseCase {
+
+    private final CreateTodoUseCase createTodo;
+    private final UpdateTodoUseCase updateTodo;
+    private final CompleteTodoUseCase completeTodo;
+    private final UncompleteTodoUseCase uncompleteTodo;
+    private final DeleteTodoUseCase deleteTodo;
+    private final FindTodoByIdUseCase findTodoById;
+    private final GetAllTodosUseCase getAllTodos;
+    private final GetCompletedTodosUseCase getCompletedTodos;
+    private final GetIncompleteTodosUseCase getIncompleteTodos;
+    private final SearchTodosUseCase searchTodos;
+    private final CountTodosByStatusUseCase countTodos;
+    private final AdmissionController admission;
+
+    public AdmittedTodoPorts(CreateTodoUseCase createTodo,
+                             UpdateTodoUseCase updateTodo,
+                             CompleteTodoUseCase completeTodo,
+                             UncompleteTodoUseCase uncompleteTodo,
+                             DeleteTodoUseCase deleteTodo,
+                             FindTodoByIdUseCase findTodoById,
+                             GetAllTodosUseCase getAllTodos,
+                             GetCompletedTodosUseCase getCompletedTodos,
+                             GetIncompleteTodosUseCase getIncompleteTodos,
+                             SearchTodosUseCase searchTodos,
+                             CountTodosByStatusUseCase countTodos,
+                             AdmissionController admission) {
+        this.createTodo = createTodo;
+        this.updateTodo = updateTodo;
+        this.completeTodo = completeTodo;
+        this.uncompleteTodo = uncompleteTodo;
+        this.deleteTodo = deleteTodo;
+        this.findTodoById = findTodoById;
+        this.getAllTodos = getAllTodos;
+        this.getCompletedTodos = getCompletedTodos;
+        this.getIncompleteTodos = getIncompleteTodos;
+        this.searchTodos = searchTodos;
+        this.countTodos = countTodos;
+        this.admission = admission;
+    }
+
+    /**
+     * Wraps one object implementing every port, such as TodoService.
+     */
+    public static <P extends CreateTodoUseCase & UpdateTodoUseCase & CompleteTodoUseCase & UncompleteTodoUseCase
+            & DeleteTodoUseCase & FindTodoByIdUseCase & GetAllTodosUseCase & GetCompletedTodosUseCase
+            & GetIncompleteTodosUseCase & SearchTodosUseCase & CountTodosByStatusUseCase> AdmittedTodoPorts of(
+            P ports, AdmissionController admission) {
+        return new AdmittedTodoPorts(ports, ports, ports, ports, ports, ports, ports, ports, ports, ports, ports,
+                admission);
+    }
+
+    @Override
+    public TodoDTO createTodo(String title, String description) {
+        return admission.call(Priority.HIGH, () -> createTodo.createTodo(title, description));
+    }
+
+    @Override
+    public TodoDTO updateTodo(String id, String title, String description) {
+        return admission.call(Priority.HIGH, () -> updateTodo.updateTodo(id, title, description));
+    }
+
+    @Override
+    public TodoDTO completeTodo(String id) {
+        return admission.call(Priority.HIGH, () -> completeTodo.completeTodo(id));
+    }
+
+    @Override
+    public TodoDTO uncompleteTodo(String id) {
+        return admission.call(Priority.HIGH, () -> uncompleteTodo.uncompleteTodo(id));
+    }
+
+    @Override
+    public void deleteTodo(String id) {
+        admission.run(Priority.HIGH, () -> deleteTodo.deleteTodo(id));
+    }
+
+    @Override
+    public Optional<TodoDTO> findTodoById(String id) {
+        return admission.call(Priority.NORMAL, () -> findTodoById.findTodoById(id));
+    }
+
+    @Override
+    public TodoCountsDTO countTodosByStatus() {
+        return admission.call(Priority.NORMAL, countTodos::countTodosByStatus);
+    }
+
+    @Override
+    public List<TodoDTO> getAllTodos() {
+        return admission.call(Priority.LOW, getAllTodos::getAllTodos);
+    }
+
+    @Override
+    public void streamAllTodos(Consumer<TodoDTO> consumer) {
+        admission.run(Priority.LOW, () -> getAllTodos.streamAllTodos(consumer));
+    }
+
+    @Override
+    public OptionalLong allTodosVersion() {
+        return getAllTodos.allTodosVersion();
+    }
+
+    @Override
+    public List<TodoDTO> getCompletedTodos() {
+        return admission.call(Priority.LOW, getCompletedTodos::getCompletedTodos);
+    }
+
+    @Override
+    public void streamCompletedTodos(Consumer<TodoDTO> consumer) {
+        admission.run(Priority.LOW, () -> getCompletedTodos.streamCompletedTodos(consumer));
+    }
+
+    @Override
+    public OptionalLong completedTodosVersion() {
+        return getCompletedTodos.completedTodosVersion();
+    }
+
+    @Override
+    public List<TodoDTO> getIncompleteTodos() {
+        return admission.call(Priority.LOW, getIncompleteTodos::getIncompleteTodos);
+    }
+
+    @Override
+    public void streamIncompleteTodos(Consumer<TodoDTO> consumer) {
+        admission.run(Priority.LOW, () -> getIncompleteTodos.streamIncompleteTodos(consumer));
+    }
+
+    @Override
+    public OptionalLong incompleteTodosVersion() {
+        return getIncompleteTodos.incompleteTodosVersion();
+    }
+
+    @Override
+    public List<TodoDTO> searchTodos(String query, int limit) {
+        return admission.call(Priority.LOW, () -> searchTodos.searchTodos(query, limit));
+    }
+}
@@ -0,0 +1,279 @@
+package com.jabaddon.practices.architecture.todos.web.hx;
+
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
+import com.jabaddon.practices.architecture.todos.hx.application.port.in.*;
+import com.jabaddon.practices.architecture.todos.hx.application.service.TodoNotFoundException;
+import com.jabaddon.practices.architecture.todos.web.http.BodyBuffer;
+import com.jabaddon.practices.architecture.todos.web.http.ConditionalRequests;
+import com.jabaddon.practices.architecture.todos.web.http.HttpException;
+import com.jabaddon.practices.architecture.todos.web.http.HttpHandler;
+import com.jabaddon.practices.architecture.todos.web.http.HttpRequest;
+import com.jabaddon.practices.architecture.todos.web.http.HttpResponse;
+import com.jabaddon.practices.architecture.todos.web.http.Router;
+import com.jabaddon.practices.architecture.todos.web.admission.AdmissionRejectedException;
+import com.jabaddon.practices.architecture.todos.web.codec.TodoJsonCodec;
+import com.jabaddon.practices.architecture.todos.web.events.TodoChangeFeed;
+import com.jabaddon.practices.architecture.todos.web.json.JsonArrayStream;
+import com.jabaddon.practices.architecture.todos.web.json.JsonBuffer;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * HTTP adapter driving the input ports of todos-hx.
+ *
+ * Depends on the use case interfaces only, one per route:
+ * <pre>
+ * GET    /todos                   all todos; ?status=completed|pending filters, ?q=..&amp;limit=.. searches
+ * POST   /todos                   {"title": .., "description": ..}, 201 with a Location header
+ * GET    /todos/counts            {"pending": .., "completed": ..}
+ * GET    /todos/events            server-sent events of every change, when given a {@link TodoChangeFeed}
+ * GET    /todos/{id}
+ * PUT    /todos/{id}              {"title": .., "description": ..}
+ * DELETE /todos/{id}              204
+ * POST   /todos/{id}/complete
+ * POST   /todos/{id}/uncomplete
+ * </pre>
+ * Unknown ids get 404 and invalid input 400, with an {@code {"error": ..}} body.
+ * Behind {@link AdmittedTodoPorts}, requests turned away by admission control
+ * get 429 when rejected on arrival and 503 when shed from the queue.
+ *
+ * Listing all, completed or pending todos goes through the streaming variants
+ * of the list use cases: each todo is encoded as it is read, with no list of
+ * DTOs built, and the encoded array is sent in chunks once the use case is
+ * done, so a client reading slowly holds neither an admission permit nor the
+ * store.
+ *
+ * Reads answer conditional requests with 304. A todo's strong ETag and
+ * Last-Modified come from its updatedAt, which every change moves. A list's
+ * ETag comes from the version its use case reports, read before the list, so
+ * If-None-Match on an unchanged list is answered without loading any todo;
+ * searches use the version of all todos, whose contents decide their results.
+ * List tags also hold a random value drawn per adapter, since versions restart
+ * with the storage. Lists have no Last-Modified: a delete changes a list
+ * without leaving an updatedAt behind, so If-Modified-Since is not honoured
+ * for them. A use case reporting no version gets plain 200 responses.
+ */
+public final class TodoHttpAdapter implements HttpHandler {
+
+    static final int DEFAULT_SEARCH_LIMIT = 20;
+
+    private final CreateTodoUseCase createTodo;
+    private final UpdateTodoUseCase updateTodo;
+    private final CompleteTodoUseCase completeTodo;
+    private final UncompleteTodoUseCase uncompleteTodo;
+    private final DeleteTodoUseCase deleteTodo;
+    private final FindTodoByIdUseCase findTodoById;
+    private final GetAllTodosUseCase getAllTodos;
+    private final GetCompletedTodosUseCase getCompletedTodos;
+    private final GetIncompleteTodosUseCase getIncompleteTodos;
+    private final SearchTodosUseCase searchTodos;
+    private final CountTodosByStatusUseCase countTodos;
+    private final String listTagPrefix = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final Router router = new Router();
+
+    public TodoHttpAdapter(CreateTodoUseCase createTodo,
+                           UpdateTodoUseCase updateTodo,
+                           CompleteTodoUseCase completeTodo,
+                           UncompleteTodoUseCase uncompleteTodo,
+                           DeleteTodoUseCase deleteTodo,
+                           FindTodoByIdUseCase findTodoById,
+                           GetAllTodosUseCase getAllTodos,
+                           GetCompletedTodosUseCase getCompletedTodos,
+                           GetIncompleteTodosUseCase getIncompleteTodos,
+                           SearchTodosUseCase searchTodos,
+                           CountTodosByStatusUseCase countTodos) {
+        this(createTodo, updateTodo, completeTodo, uncompleteTodo, deleteTodo, findTodoById, getAllTodos,
+                getCompletedTodos, getIncompleteTodos, searchTodos, countTodos, null);
+    }
+
+    /**
+     * Adapter also serving the changes of {@code changes}, which should be the
+     * change publisher of the service behind the ports; {@code null} for none.
+     */
+    public TodoHttpAdapter(CreateTodoUseCase createTodo,
+                           UpdateTodoUseCase updateTodo,
+                           CompleteTodoUseCase completeTodo,
+                           UncompleteTodoUseCase uncompleteTodo,
+                           DeleteTodoUseCase deleteTodo,
+                           FindTodoByIdUseCase findTodoById,
+                           GetAllTodosUseCase getAllTodos,
+                           GetCompletedTodosUseCase getCompletedTodos,
+                           GetIncompleteTodosUseCase getIncompleteTodos,
+                           SearchTodosUseCase searchTodos,
+                           CountTodosByStatusUseCase countTodos,
+                           TodoChangeFeed changes) {
+        this.createTodo = createTodo;
+        this.updateTodo = updateTodo;
+        this.completeTodo = completeTodo;
+        this.uncompleteTodo = uncompleteTodo;
+        this.deleteTodo = deleteTodo;
+        this.findTodoById = findTodoById;
+        this.getAllTodos = getAllTodos;
+        this.getCompletedTodos = getCompletedTodos;
+        this.getIncompleteTodos = getIncompleteTodos;
+        this.searchTodos = searchTodos;
+        this.countTodos = countTodos;
+        router.route("GET", "/todos", this::list)
+                .route("POST", "/todos", this::create)
+                .route("GET", "/todos/counts", this::counts);
+        if (changes != null) {
+            router.route("GET", "/todos/events", changes);
+        }
+        router.route("GET", "/todos/{id}", this::find)
+                .route("PUT", "/todos/{id}", this::update)
+                .route("DELETE", "/todos/{id}", this::delete)
+                .route("POST", "/todos/{id}/complete", this::complete)
+                .route("POST", "/todos/{id}/uncomplete", this::uncomplete);
+    }
+
+    /**
+     * Adapter over one object implementing every port, such as TodoService.
+     */
+    public static <P extends CreateTodoUseCase & UpdateTodoUseCase & CompleteTodoUseCase & UncompleteTodoUseCase
+            & DeleteTodoUseCase & FindTodoByIdUseCase & GetAllTodosUseCase & GetCompletedTodosUseCase
+            & GetIncompleteTodosUseCase & SearchTodosUseCase & CountTodosByStatusUseCase> TodoHttpAdapter of(P ports) {
+        return of(ports, null);
+    }
+
+    /**
+     * Adapter over one object implementing every port, also serving the changes of {@code changes}.
+     */
+    public static <P extends CreateTodoUseCase & UpdateTodoUseCase & CompleteTodoUseCase & UncompleteTodoUseCase
+            & DeleteTodoUseCase & FindTodoByIdUseCase & GetAllTodosUseCase & GetCompletedTodosUseCase
+            & GetIncompleteTodosUseCase & SearchTodosUseCase & CountTodosByStatusUseCase> TodoHttpAdapter of(
+            P ports, TodoChangeFeed changes) {
+        return new TodoHttpAdapter(ports, ports, ports, ports, ports, ports, ports, ports, ports, ports, ports,
+                changes);
+    }
+
+    @Override
+    public HttpResponse handle(HttpRequest request) {
+        try {
+            return router.handle(request);
+        } catch (TodoNotFoundException e) {
+            throw new HttpException(404, e.getMessage());
+        } catch (AdmissionRejectedException e) {
+            throw rejected(e);
+        } catch (IllegalArgumentException e) {
+            throw new HttpException(400, e.getMessage());
+        }
+    }
+
+    /**
+     * Answers a request turned away by admission control: 429 when it was
+     * rejected on arrival, 503 when it was shed after queueing.
+     */
+    private static HttpException rejected(AdmissionRejectedException e) {
+        return new HttpException(e.reason() == AdmissionRejectedException.Reason.LIMITED ? 429 : 503, e.getMessage());
+    }
+
+    private HttpResponse list(HttpRequest request) {
+        Optional<String> query = request.queryParameter("q");
+        Optional<String> status = request.queryParameter("status");
+        if (query.isPresent() && status.isPresent()) {
+            throw new HttpException(400, "Use either q or status");
+        }
+        if (query.isPresent()) {
+            int limit = limit(request);
+            String etag = listTag('s', getAllTodos.allTodosVersion());
+            if (ConditionalRequests.isNotModified(request, etag, null)) {
+                return ConditionalRequests.notModified(etag, null);
+            }
+            return ConditionalRequests.withValidators(
+                    HttpResponse.json(200, TodoJson.write(searchTodos.searchTodos(query.get(), limit))), etag, null);
+        }
+        Consumer<Consumer<TodoDTO>> todos = status.isEmpty() ? getAllTodos::streamAllTodos : switch (status.get()) {
+            case "completed" -> getCompletedTodos::streamCompletedTodos;
+            case "pending" -> getIncompleteTodos::streamIncompleteTodos;
+            default -> throw new HttpException(400, "Status must be completed or pending");
+        };
+        String etag = status.isEmpty() ? listTag('a', getAllTodos.allTodosVersion())
+                : status.get().equals("completed") ? listTag('c', getCompletedTodos.completedTodosVersion())
+                : listTag('p', getIncompleteTodos.incompleteTodosVersion());
+        if (ConditionalRequests.isNotModified(request, etag, null)) {
+            return ConditionalRequests.notModified(etag, null);
+        }
+        // Encoded in full before anything is sent, so a client reading slowly holds neither
+        // the admission permit nor the store while its response goes out
+        BodyBuffer body = new BodyBuffer();
+        JsonBuffer element = new JsonBuffer(TodoJson.TODO_SIZE);
+        JsonArrayStream array = new JsonArrayStream(body);
+        todos.accept(todo -> array.element(TodoJsonCodec.encode(element.reset(), todo)));
+        array.close();
+        return ConditionalRequests.withValidators(HttpResponse.stream(200, "application/json", body), etag, null);
+    }
+
+    /**
+     * The ETag of a list given its version, {@code null} without one.
+     */
+    private String listTag(char list, OptionalLong version) {
+        if (version.isEmpty()) {
+            return null;
+        }
+        return ConditionalRequests.strongTag(listTagPrefix + "-" + list + Long.toString(version.getAsLong(), 36));
+    }
+
+    private HttpResponse create(HttpRequest request) {
+        TodoJson.TodoFields fields = TodoJson.readFields(request.body());
+        TodoDTO created = createTodo.createTodo(fields.title(), fields.description());
+        return HttpResponse.json(201, TodoJson.write(created))
+                .withHeader("Location", "/todos/" + created.id());
+    }
+
+    private HttpResponse counts(HttpRequest request) {
+        return HttpResponse.json(200, TodoJson.write(countTodos.countTodosByStatus()));
+    }
+
+    private HttpResponse find(HttpRequest request) {
+        String id = request.pathParameter("id");
+        TodoDTO todo = findTodoById.findTodoById(id)
+                .orElseThrow(() -> new HttpException(404, "Todo not found with id: " + id));
+        LocalDateTime updatedAt = todo.updatedAt();
+        String etag = ConditionalRequests.strongTag(Long.toString(updatedAt.toEpochSecond(ZoneOffset.UTC), 36)
+                + "." + Integer.toString(updatedAt.getNano(), 36));
+        // The todo modules take their timestamps from the system clock in the default zone
+        Instant lastModified = updatedAt.atZone(ZoneId.systemDefault()).toInstant();
+        if (ConditionalRequests.isNotModified(request, etag, lastModified)) {
+            return ConditionalRequests.notModified(etag, lastModified);
+        }
+        return ConditionalRequests.withValidators(HttpResponse.json(200, TodoJson.write(todo)), etag, lastModified);
+    }
+
+    private HttpResponse update(HttpRequest request) {
+        TodoJson.TodoFields fields = TodoJson.readFields(request.body());
+        TodoDTO updated = updateTodo.updateTodo(request.pathParameter("id"), fields.title(), fields.description());
+        return HttpResponse.json(200, TodoJson.write(updated));
+    }
+
+    private HttpResponse delete(HttpRequest request) {
+        deleteTodo.deleteTodo(request.pathParameter("id"));
+        return HttpResponse.noContent();
+    }
+
+    private HttpResponse complete(HttpRequest request) {
+        return HttpResponse.json(200, TodoJson.write(completeTodo.completeTodo(request.pathParameter("id"))));
+    }
+
+    private HttpResponse uncomplete(HttpRequest request) {
+        return HttpResponse.json(200, TodoJson.write(uncompleteTodo.uncompleteTodo(request.pathParameter("id"))));
+    }
+
+    private static int limit(HttpRequest request) {
+        Optional<String> limit = request.queryParameter("limit");
+        if (limit.isEmpty()) {
+            return DEFAULT_SEARCH_LIMIT;
+        }
+        try {
+            return Integer.parseInt(limit.get());
+        } catch (NumberFormatException e) {
+            throw new HttpException(400, "Limit must be an integer");
+        }
+    }
+}
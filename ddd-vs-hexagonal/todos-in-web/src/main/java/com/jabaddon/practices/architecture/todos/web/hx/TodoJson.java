@@ -0,0 +1,48 @@
+package com.jabaddon.practices.architecture.todos.web.hx;
+
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoCountsDTO;
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
+import com.jabaddon.practices.architecture.todos.web.codec.TodoJsonCodec;
+import com.jabaddon.practices.architecture.todos.web.http.HttpException;
+import com.jabaddon.practices.architecture.todos.web.json.JsonBuffer;
+import com.jabaddon.practices.architecture.todos.web.json.JsonException;
+
+import java.util.List;
+
+/**
+ * JSON representations of the hexagonal DTOs, through {@link TodoJsonCodec}.
+ */
+final class TodoJson {
+
+    static final int TODO_SIZE = 256;
+
+    private TodoJson() {
+    }
+
+    static byte[] write(TodoDTO todo) {
+        return TodoJsonCodec.encode(new JsonBuffer(TODO_SIZE), todo).toByteArray();
+    }
+
+    static byte[] write(List<TodoDTO> todos) {
+        JsonBuffer json = new JsonBuffer(2 + todos.size() * TODO_SIZE);
+        return TodoJsonCodec.encodeArray(json, todos, TodoJsonCodec::encode).toByteArray();
+    }
+
+    static byte[] write(TodoCountsDTO counts) {
+        return TodoJsonCodec.encode(new JsonBuffer(64), counts).toByteArray();
+    }
+
+    /**
+     * Reads the title and description of a create or update body.
+     */
+    static TodoFields readFields(byte[] body) {
+        try {
+            return TodoJsonCodec.decodeFields(body, 0, body.length, TodoFields::new);
+        } catch (JsonException e) {
+            throw new HttpException(400, "Invalid JSON body: " + e.getMessage());
+        }
+    }
+
+    record TodoFields(String title, String description) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.jabaddon.practices.architecture.todos.web.json;
+
+/**
+ * Minimal JSON support for the web adapters, without dependencies.
+ *
+ * Documents are read by {@link JsonReader} and written by {@link JsonBuffer};
+ * this class holds what they share, and string escaping for the odd
+ * response assembled in a StringBuilder.
+ */
+public final class Json {
+
+    /**
+     * Deepest nesting a reader accepts, so hostile input cannot exhaust the stack.
+     */
+    public static final int MAX_DEPTH = 64;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Json() {
+    }
+
+    /**
+     * Appends the value as a quoted JSON string, or {@code null}.
+     */
+    public static StringBuilder writeString(StringBuilder target, String value) {
+        if (value == null) {
+            return target.append("null");
+        }
+        target.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> target.append("\\\"");
+                case '\\' -> target.append("\\\\");
+                case '\n' -> target.append("\\n");
+                case '\r' -> target.append("\\r");
+                case '\t' -> target.append("\\t");
+                default -> {
+                    // Line and paragraph separators are escaped too, for JavaScript consumers
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                        target.append("\\u").append(HEX[c >> 12 & 0xF]).append(HEX[c >> 8 & 0xF])
+                                .append(HEX[c >> 4 & 0xF]).append(HEX[c & 0xF]);
+                    } else {
+                        target.append(c);
+                    }
+                }
+            }
+        }
+        return target.append('"');
+    }
+}
@@ -0,0 +1,85 @@
+package com.jabaddon.practices.architecture.todos.web.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes a JSON array one element at a time, so a large array never has to be held in memory.
+ *
+ * Elements are gathered in a small {@link JsonBuffer} and written out as it
+ * fills. The first element is flushed as soon as it is written, so the client
+ * sees the response start while the rest is produced.
+ * Methods throw {@link UncheckedIOException} so elements can be written from a
+ * {@code Consumer}.
+ */
+public final class JsonArrayStream implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final JsonBuffer buffer = new JsonBuffer(BUFFER_SIZE);
+    private int elements;
+
+    public JsonArrayStream(OutputStream out) {
+        this.out = out;
+        buffer.raw('[');
+    }
+
+    /**
+     * Appends an element, already encoded as JSON.
+     */
+    public void element(CharSequence json) {
+        separate();
+        buffer.raw(json);
+        written();
+    }
+
+    /**
+     * Appends an element encoded into the given buffer.
+     */
+    public void element(JsonBuffer json) {
+        separate();
+        buffer.raw(json.array(), 0, json.size());
+        written();
+    }
+
+    public int elements() {
+        return elements;
+    }
+
+    /**
+     * Ends the array and flushes; the underlying stream stays open.
+     */
+    @Override
+    public void close() {
+        buffer.raw(']');
+        try {
+            buffer.writeTo(out);
+            buffer.reset();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void separate() {
+        if (elements > 0) {
+            buffer.raw(',');
+        }
+    }
+
+    private void written() {
+        try {
+            if (elements++ == 0 || buffer.size() >= BUFFER_SIZE) {
+                buffer.writeTo(out);
+                buffer.reset();
+                if (elements == 1) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.jabaddon.practices.architecture.todos.web.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Growable UTF-8 buffer JSON is written into, meant to be reset and reused.
+ *
+ * Values are encoded straight to bytes: strings are escaped and UTF-8 encoded
+ * character by character, numbers are written digit by digit and timestamps
+ * field by field, so once the buffer has grown to its working size writing
+ * allocates nothing. Timestamps come out as {@link LocalDateTime#toString()}
+ * does. Punctuation and member names are written with {@link #raw}; callers
+ * keep their names pre-encoded, see {@link #name(String)}.
+ *
+ * Strings are escaped as {@link Json#writeString} does; unpaired surrogates
+ * are escaped too so the output is always valid UTF-8.
+ */
+public final class JsonBuffer {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] LONG_MIN = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] bytes;
+    private int size;
+
+    public JsonBuffer(int initialCapacity) {
+        this.bytes = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    /**
+     * Encodes a member name with its quotes and colon, for use with {@link #raw(byte[])}.
+     */
+    public static byte[] name(String name) {
+        JsonBuffer buffer = new JsonBuffer(name.length() + 3);
+        buffer.string(name).raw(':');
+        return buffer.toByteArray();
+    }
+
+    public JsonBuffer reset() {
+        size = 0;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The backing array, valid up to {@link #size()} until the next write.
+     */
+    public byte[] array() {
+        return bytes;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    public JsonBuffer raw(char ascii) {
+        ensure(1);
+        bytes[size++] = (byte) ascii;
+        return this;
+    }
+
+    public JsonBuffer raw(byte[] encoded) {
+        return raw(encoded, 0, encoded.length);
+    }
+
+    public JsonBuffer raw(byte[] encoded, int offset, int length) {
+        ensure(length);
+        System.arraycopy(encoded, offset, bytes, size, length);
+        size += length;
+        return this;
+    }
+
+    /**
+     * Appends JSON text already encoded as characters, such as a fragment built elsewhere.
+     */
+    public JsonBuffer raw(CharSequence json) {
+        ensure(json.length() * 6);
+        for (int i = 0; i < json.length(); i++) {
+            i = utf8(json, i);
+        }
+        return this;
+    }
+
+    public JsonBuffer nullValue() {
+        return raw(NULL);
+    }
+
+    public JsonBuffer bool(boolean value) {
+        return raw(value ? TRUE : FALSE);
+    }
+
+    public JsonBuffer number(long value) {
+        if (value == Long.MIN_VALUE) {
+            return raw(LONG_MIN);
+        }
+        ensure(20);
+        if (value < 0) {
+            bytes[size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = size + digits - 1; i >= size; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+        return this;
+    }
+
+    /**
+     * Appends the value as a quoted JSON string, or {@code null}.
+     */
+    public JsonBuffer string(String value) {
+        if (value == null) {
+            return nullValue();
+        }
+        // Six bytes per character covers the longest escape, so the loop never checks capacity
+        ensure(2 + value.length() * 6);
+        bytes[size++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                bytes[size++] = (byte) c;
+                continue;
+            }
+            switch (c) {
+                case '"' -> escape('"');
+                case '\\' -> escape('\\');
+                case '\n' -> escape('n');
+                case '\r' -> escape('r');
+                case '\t' -> escape('t');
+                default -> {
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                        unicodeEscape(c);
+                    } else {
+                        i = utf8(value, i);
+                    }
+                }
+            }
+        }
+        bytes[size++] = '"';
+        return this;
+    }
+
+    /**
+     * Appends the timestamp as a quoted ISO-8601 local date-time, or {@code null}.
+     */
+    public JsonBuffer timestamp(LocalDateTime value) {
+        if (value == null) {
+            return nullValue();
+        }
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            // Signed or five-digit years are rare enough to go through toString
+            return raw('"').raw(value.toString()).raw('"');
+        }
+        ensure(31);
+        bytes[size++] = '"';
+        digits(year, 4);
+        bytes[size++] = '-';
+        digits(value.getMonthValue(), 2);
+        bytes[size++] = '-';
+        digits(value.getDayOfMonth(), 2);
+        bytes[size++] = 'T';
+        digits(value.getHour(), 2);
+        bytes[size++] = ':';
+        digits(value.getMinute(), 2);
+        int second = value.getSecond();
+        int nano = value.getNano();
+        if (second > 0 || nano > 0) {
+            bytes[size++] = ':';
+            digits(second, 2);
+            if (nano > 0) {
+                bytes[size++] = '.';
+                if (nano % 1_000_000 == 0) {
+                    digits(nano / 1_000_000, 3);
+                } else if (nano % 1_000 == 0) {
+                    digits(nano / 1_000, 6);
+                } else {
+                    digits(nano, 9);
+                }
+            }
+        }
+        bytes[size++] = '"';
+        return this;
+    }
+
+    private void digits(int value, int count) {
+        for (int i = size + count - 1; i >= size; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += count;
+    }
+
+    private void escape(char escaped) {
+        bytes[size++] = '\\';
+        bytes[size++] = (byte) escaped;
+    }
+
+    private void unicodeEscape(char c) {
+        bytes[size++] = '\\';
+        bytes[size++] = 'u';
+        bytes[size++] = HEX[c >> 12 & 0xF];
+        bytes[size++] = HEX[c >> 8 & 0xF];
+        bytes[size++] = HEX[c >> 4 & 0xF];
+        bytes[size++] = HEX[c & 0xF];
+    }
+
+    /**
+     * Encodes the character at the index, and the low surrogate after it when
+     * they form a pair. Returns the index of the last character consumed.
+     * Callers ensure six bytes of capacity per character.
+     */
+    private int utf8(CharSequence text, int index) {
+        char c = text.charAt(index);
+        if (c < 0x80) {
+            bytes[size++] = (byte) c;
+        } else if (c < 0x800) {
+            bytes[size++] = (byte) (0xC0 | c >> 6);
+            bytes[size++] = (byte) (0x80 | c & 0x3F);
+        } else if (!Character.isSurrogate(c)) {
+            bytes[size++] = (byte) (0xE0 | c >> 12);
+            bytes[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+            bytes[size++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c) && index + 1 < text.length()
+                && Character.isLowSurrogate(text.charAt(index + 1))) {
+            int code = Character.toCodePoint(c, text.charAt(++index));
+            bytes[size++] = (byte) (0xF0 | code >> 18);
+            bytes[size++] = (byte) (0x80 | code >> 12 & 0x3F);
+            bytes[size++] = (byte) (0x80 | code >> 6 & 0x3F);
+            bytes[size++] = (byte) (0x80 | code & 0x3F);
+        } else {
+            unicodeEscape(c);
+        }
+        return index;
+    }
+
+    private void ensure(int additional) {
+        if (size + additional > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+        }
+    }
+}
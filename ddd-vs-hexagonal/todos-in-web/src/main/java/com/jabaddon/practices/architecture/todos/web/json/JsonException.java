@@ -0,0 +1,11 @@
+package com.jabaddon.practices.architecture.todos.web.json;
+
+/**
+ * Exception thrown for text that is not valid JSON.
+ */
+public class JsonException extends RuntimeException {
+
+    public JsonException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,369 @@
+package com.jabaddon.practices.architecture.todos.web.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Pull parser reading a UTF-8 JSON document in place, without building a tree.
+ *
+ * Callers walk an object member by member and either read a value or skip
+ * it. Member names are matched against pre-encoded candidates, see
+ * {@link JsonBuffer#name(String)}, so only the string values actually read
+ * are allocated. Skipped values are still checked to be valid JSON, nested at
+ * most {@link Json#MAX_DEPTH} levels. Errors are {@link JsonException}s
+ * carrying the offset.
+ * <pre>
+ * reader.beginObject();
+ * while (reader.nextMember()) {
+ *     switch (reader.memberName(NAMES)) {
+ *         case 0 -> title = reader.string();
+ *         default -> reader.skipValue();
+ *     }
+ * }
+ * reader.endDocument();
+ * </pre>
+ */
+public final class JsonReader {
+
+    private final byte[] bytes;
+    private final int end;
+    private int position;
+    private boolean first;
+
+    public JsonReader(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.position = offset;
+        this.end = offset + length;
+    }
+
+    public void beginObject() {
+        skipWhitespace();
+        expect('{');
+        first = true;
+    }
+
+    /**
+     * Moves to the next member of the current object; {@code false} past its closing brace.
+     */
+    public boolean nextMember() {
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return false;
+        }
+        if (!first) {
+            expect(',');
+            skipWhitespace();
+        }
+        first = false;
+        return true;
+    }
+
+    /**
+     * Reads the name of the member and its colon.
+     *
+     * @param names candidates, each encoded as by {@link JsonBuffer#name(String)}
+     * @return the index of the matching candidate, -1 for any other name
+     */
+    public int memberName(byte[][] names) {
+        if (peek() != '"') {
+            throw error("Expected a member name");
+        }
+        int start = position;
+        boolean escaped = skipString();
+        int quotedEnd = position;
+        skipWhitespace();
+        expect(':');
+        if (escaped) {
+            // Rare enough to decode and compare as strings
+            String name = decode(start + 1, quotedEnd - start - 2);
+            for (int i = 0; i < names.length; i++) {
+                if (name.equals(new String(names[i], 1, names[i].length - 3, StandardCharsets.UTF_8))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        for (int i = 0; i < names.length; i++) {
+            // Candidates are the quoted name followed by a colon
+            if (Arrays.equals(bytes, start, quotedEnd, names[i], 0, names[i].length - 1)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean peekString() {
+        skipWhitespace();
+        return position < end && bytes[position] == '"';
+    }
+
+    public boolean peekNull() {
+        skipWhitespace();
+        return position < end && bytes[position] == 'n';
+    }
+
+    public String string() {
+        if (!peekString()) {
+            throw error("Expected a string");
+        }
+        int start = position;
+        boolean escaped = skipString();
+        if (!escaped) {
+            return new String(bytes, start + 1, position - start - 2, StandardCharsets.UTF_8);
+        }
+        return decode(start + 1, position - start - 2);
+    }
+
+    /**
+     * Reads a string or {@code null}.
+     */
+    public String stringOrNull() {
+        if (peekNull()) {
+            literal("null");
+            return null;
+        }
+        return string();
+    }
+
+    public void skipValue() {
+        skipValue(0);
+    }
+
+    /**
+     * Checks that only whitespace is left.
+     */
+    public void endDocument() {
+        skipWhitespace();
+        if (position != end) {
+            throw error("Unexpected trailing content");
+        }
+    }
+
+    private void skipValue(int depth) {
+        if (depth > Json.MAX_DEPTH) {
+            throw error("Nesting deeper than " + Json.MAX_DEPTH);
+        }
+        skipWhitespace();
+        byte c = peek();
+        switch (c) {
+            case '{' -> {
+                position++;
+                skipWhitespace();
+                if (peek() == '}') {
+                    position++;
+                    return;
+                }
+                while (true) {
+                    skipWhitespace();
+                    if (peek() != '"') {
+                        throw error("Expected a member name");
+                    }
+                    skipString();
+                    skipWhitespace();
+                    expect(':');
+                    skipValue(depth + 1);
+                    skipWhitespace();
+                    byte next = peek();
+                    position++;
+                    if (next == '}') {
+                        return;
+                    }
+                    if (next != ',') {
+                        throw error("Expected ',' or '}'");
+                    }
+                }
+            }
+            case '[' -> {
+                position++;
+                skipWhitespace();
+                if (peek() == ']') {
+                    position++;
+                    return;
+                }
+                while (true) {
+                    skipValue(depth + 1);
+                    skipWhitespace();
+                    byte next = peek();
+                    position++;
+                    if (next == ']') {
+                        return;
+                    }
+                    if (next != ',') {
+                        throw error("Expected ',' or ']'");
+                    }
+                }
+            }
+            case '"' -> skipString();
+            case 't' -> literal("true");
+            case 'f' -> literal("false");
+            case 'n' -> literal("null");
+            default -> {
+                if (c != '-' && (c < '0' || c > '9')) {
+                    throw error("Unexpected character '" + (char) c + "'");
+                }
+                skipNumber();
+            }
+        }
+    }
+
+    /**
+     * Moves past the string at the position, checking its escapes.
+     *
+     * @return whether it contains escapes
+     */
+    private boolean skipString() {
+        position++;
+        boolean escaped = false;
+        while (true) {
+            if (position >= end) {
+                throw error("Unterminated string");
+            }
+            int c = bytes[position] & 0xFF;
+            if (c == '"') {
+                position++;
+                return escaped;
+            }
+            if (c < 0x20) {
+                throw error("Unescaped control character in string");
+            }
+            if (c != '\\') {
+                position++;
+                continue;
+            }
+            escaped = true;
+            if (position + 1 >= end) {
+                throw error("Unterminated escape");
+            }
+            byte next = bytes[position + 1];
+            position += 2;
+            switch (next) {
+                case '"', '\\', '/', 'b', 'f', 'n', 'r', 't' -> {
+                }
+                case 'u' -> {
+                    if (position + 4 > end) {
+                        throw error("Truncated unicode escape");
+                    }
+                    for (int i = 0; i < 4; i++) {
+                        if (Character.digit(bytes[position + i], 16) < 0) {
+                            throw error("Invalid unicode escape");
+                        }
+                    }
+                    position += 4;
+                }
+                default -> throw error("Invalid escape '\\" + (char) next + "'");
+            }
+        }
+    }
+
+    /**
+     * Decodes string content already checked by {@link #skipString()}.
+     */
+    private String decode(int offset, int length) {
+        StringBuilder result = new StringBuilder(length);
+        int segment = offset;
+        int i = offset;
+        int limit = offset + length;
+        while (i < limit) {
+            if (bytes[i] != '\\') {
+                i++;
+                continue;
+            }
+            // A backslash is never part of a multi-byte sequence, so segments split cleanly
+            result.append(new String(bytes, segment, i - segment, StandardCharsets.UTF_8));
+            byte escaped = bytes[i + 1];
+            i += 2;
+            switch (escaped) {
+                case 'b' -> result.append('\b');
+                case 'f' -> result.append('\f');
+                case 'n' -> result.append('\n');
+                case 'r' -> result.append('\r');
+                case 't' -> result.append('\t');
+                case 'u' -> {
+                    int code = 0;
+                    for (int j = 0; j < 4; j++) {
+                        code = code << 4 | Character.digit(bytes[i + j], 16);
+                    }
+                    result.append((char) code);
+                    i += 4;
+                }
+                default -> result.append((char) escaped);
+            }
+            segment = i;
+        }
+        return result.append(new String(bytes, segment, limit - segment, StandardCharsets.UTF_8)).toString();
+    }
+
+    private void skipNumber() {
+        if (bytes[position] == '-') {
+            position++;
+        }
+        int digits = digits();
+        if (digits == 0 || (digits > 1 && bytes[position - digits] == '0')) {
+            throw error("Invalid number");
+        }
+        if (position < end && bytes[position] == '.') {
+            position++;
+            if (digits() == 0) {
+                throw error("Invalid number");
+            }
+        }
+        if (position < end && (bytes[position] == 'e' || bytes[position] == 'E')) {
+            position++;
+            if (position < end && (bytes[position] == '+' || bytes[position] == '-')) {
+                position++;
+            }
+            if (digits() == 0) {
+                throw error("Invalid number");
+            }
+        }
+    }
+
+    private int digits() {
+        int start = position;
+        while (position < end && bytes[position] >= '0' && bytes[position] <= '9') {
+            position++;
+        }
+        return position - start;
+    }
+
+    private void literal(String literal) {
+        if (position + literal.length() > end) {
+            throw error("Invalid literal");
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (bytes[position + i] != literal.charAt(i)) {
+                throw error("Invalid literal");
+            }
+        }
+        position += literal.length();
+    }
+
+    private void expect(char expected) {
+        if (peek() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+        position++;
+    }
+
+    private byte peek() {
+        if (position >= end) {
+            throw error("Unexpected end of input");
+        }
+        return bytes[position];
+    }
+
+    private void skipWhitespace() {
+        while (position < end) {
+            byte c = bytes[position];
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private JsonException error(String message) {
+        return new JsonException(message + " at offset " + position);
+    }
+}
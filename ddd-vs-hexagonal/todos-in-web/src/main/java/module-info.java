@@ -0,0 +1,23 @@
+module com.jabaddon.practices.architecture.todos.web {
+    requires com.jabaddon.practices.architecture.todos.hx;
+    requires com.jabaddon.practices.architecture.todos.ddd;
+    requires com.jabaddon.practices.architecture.todos.transcript;
+    requires com.jabaddon.practices.architecture.todos.clean;
+
+    // HTTP/1.1 server and JSON support, usable by any adapter
+    exports com.jabaddon.practices.architecture.todos.web.http;
+    exports com.jabaddon.practices.architecture.todos.web.json;
+
+    // JSON codec for the todo types of every architecture module
+    exports com.jabaddon.practices.architecture.todos.web.codec;
+
+    // Admission control in front of the input ports
+    exports com.jabaddon.practices.architecture.todos.web.admission;
+
+    // Server-sent events feed of todo changes, fed by the application services
+    exports com.jabaddon.practices.architecture.todos.web.events;
+
+    // Adapters driving the input ports of the architecture modules
+    exports com.jabaddon.practices.architecture.todos.web.hx;
+    exports com.jabaddon.practices.architecture.todos.web.clean;
+}
@@ -0,0 +1,139 @@
+package com.jabaddon.practices.architecture.todos.web.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdmissionControllerTest {
+
+    @Test
+    void shouldShedLowPriorityWaitersBeforeWrites() throws Exception {
+        AdmissionController admission = new AdmissionController(AdmissionOptions.defaults()
+                .withInitialLimit(1).withMinLimit(1).withMaxLimit(1)
+                .withLatencyTarget(Duration.ofMinutes(1))
+                .withMaxQueued(2)
+                .withMaxWait(Duration.ofSeconds(10)));
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> ran = new CopyOnWriteArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> blocker = executor.submit(() -> admission.run(Priority.HIGH, () -> await(release)));
+            waitUntil(() -> admission.metrics().inFlight() == 1);
+            Future<?> firstList = executor.submit(() -> admission.run(Priority.LOW, () -> ran.add("first list")));
+            waitUntil(() -> admission.metrics().queued() == 1);
+            Future<?> secondList = executor.submit(() -> admission.run(Priority.LOW, () -> ran.add("second list")));
+            waitUntil(() -> admission.metrics().queued() == 2);
+
+            Future<?> write = executor.submit(() -> admission.run(Priority.HIGH, () -> ran.add("write")));
+            assertThat(rejection(secondList), is(AdmissionRejectedException.Reason.SHED));
+            Future<?> read = executor.submit(() -> admission.run(Priority.NORMAL, () -> ran.add("read")));
+            assertThat(rejection(firstList), is(AdmissionRejectedException.Reason.SHED));
+            AdmissionRejectedException limited = assertThrows(AdmissionRejectedException.class,
+                    () -> admission.run(Priority.LOW, () -> ran.add("third list")));
+            assertThat(limited.reason(), is(AdmissionRejectedException.Reason.LIMITED));
+
+            release.countDown();
+            blocker.get();
+            write.get();
+            read.get();
+        }
+
+        assertThat(ran, contains("write", "read"));
+        assertThat(admission.metrics(), is(new AdmissionMetrics(1, 0, 0, 3, 1, 2)));
+    }
+
+    @Test
+    void shouldShedWaitersThatWaitTooLong() throws Exception {
+        AdmissionController admission = new AdmissionController(AdmissionOptions.defaults()
+                .withInitialLimit(1).withMinLimit(1)
+                .withLatencyTarget(Duration.ofMinutes(1))
+                .withMaxWait(Duration.ofMillis(50)));
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> blocker = executor.submit(() -> admission.run(Priority.HIGH, () -> await(release)));
+            waitUntil(() -> admission.metrics().inFlight() == 1);
+
+            AdmissionRejectedException shed = assertThrows(AdmissionRejectedException.class,
+                    () -> admission.call(Priority.HIGH, () -> "never runs"));
+            assertThat(shed.reason(), is(AdmissionRejectedException.Reason.SHED));
+
+            release.countDown();
+            blocker.get();
+        }
+        assertThat(admission.call(Priority.LOW, () -> "runs"), is("runs"));
+        assertThat(admission.metrics().queued(), is(0));
+    }
+
+    @Test
+    void shouldBackOffOncePerBurstOfSlowRequestsAndGrowOnlyUnderLoad() throws Exception {
+        AdmissionController admission = new AdmissionController(AdmissionOptions.defaults()
+                .withInitialLimit(10).withMinLimit(2).withMaxLimit(20)
+                .withLatencyTarget(Duration.ofMillis(20))
+                .withBackoffRatio(0.5));
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> slow = List.of(
+                    executor.submit(() -> admission.run(Priority.LOW, () -> await(release))),
+                    executor.submit(() -> admission.run(Priority.LOW, () -> await(release))),
+                    executor.submit(() -> admission.run(Priority.LOW, () -> await(release))));
+            waitUntil(() -> admission.metrics().inFlight() == 3);
+            Thread.sleep(40);
+            release.countDown();
+            for (Future<?> future : slow) {
+                future.get();
+            }
+        }
+        assertThat(admission.metrics().limit(), is(5));
+
+        for (int i = 0; i < 50; i++) {
+            admission.run(Priority.NORMAL, () -> { });
+        }
+        assertThat("Idle requests do not grow the limit", admission.metrics().limit(), is(5));
+
+        CountDownLatch done = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> admission.run(Priority.HIGH, () -> await(done)));
+            executor.submit(() -> admission.run(Priority.HIGH, () -> await(done)));
+            waitUntil(() -> admission.metrics().inFlight() == 2);
+            for (int i = 0; i < 50; i++) {
+                admission.run(Priority.NORMAL, () -> { });
+            }
+            assertThat(admission.metrics().limit(), is(both(greaterThan(5)).and(lessThanOrEqualTo(20))));
+            done.countDown();
+        }
+    }
+
+    private static AdmissionRejectedException.Reason rejection(Future<?> future) throws InterruptedException {
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        return ((AdmissionRejectedException) e.getCause()).reason();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not reached");
+            }
+            Thread.sleep(1);
+        }
+    }
+}
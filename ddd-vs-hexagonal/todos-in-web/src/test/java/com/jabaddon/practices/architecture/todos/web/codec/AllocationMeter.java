@@ -0,0 +1,47 @@
+package com.jabaddon.practices.architecture.todos.web.codec;
+
+import java.lang.reflect.Method;
+
+/**
+ * Bytes allocated by the current thread, as counted by HotSpot.
+ *
+ * Goes through reflection so the module does not need to read the management
+ * modules; reading the counter itself allocates a few bytes for the boxed result.
+ */
+final class AllocationMeter {
+
+    private static final Object THREADS;
+    private static final Method ALLOCATED_BYTES;
+
+    static {
+        try {
+            THREADS = Class.forName("java.lang.management.ManagementFactory").getMethod("getThreadMXBean").invoke(null);
+            ALLOCATED_BYTES = Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getCurrentThreadAllocatedBytes");
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private AllocationMeter() {
+    }
+
+    static long allocatedBytes() {
+        try {
+            return (Long) ALLOCATED_BYTES.invoke(THREADS);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Average bytes allocated per run of the task.
+     */
+    static double bytesPerOperation(int operations, Runnable task) {
+        long before = allocatedBytes();
+        for (int i = 0; i < operations; i++) {
+            task.run();
+        }
+        return (double) (allocatedBytes() - before) / operations;
+    }
+}
@@ -0,0 +1,70 @@
+package com.jabaddon.practices.architecture.todos.web.codec;
+
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
+import com.jabaddon.practices.architecture.todos.web.json.Json;
+import com.jabaddon.practices.architecture.todos.web.json.JsonBuffer;
+import com.jabaddon.practices.architecture.todos.web.json.JsonTree;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Time and allocation per todo of {@link TodoJsonCodec} against the tree and
+ * StringBuilder based {@link Json} path it replaces.
+ *
+ * Not part of the regular build, whose test includes skip it; run it with
+ * <pre>
+ * mvn test -pl todos-in-web -am -Dtest=TodoJsonCodecBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+class TodoJsonCodecBenchmark {
+
+    private static final int WARMUP = 200_000;
+    private static final int OPERATIONS = 1_000_000;
+
+    private static final TodoDTO TODO = new TodoDTO("0b9f2c1e-4d0a-4f6b-9a53-2f1c7d8e9a10", "Buy groceries",
+            "Milk, eggs and \"bread\" from the corner shop", false, LocalDateTime.now(), LocalDateTime.now());
+    private static final byte[] BODY = "{\"title\":\"Buy groceries\",\"description\":\"Milk, eggs and bread\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private long sink;
+
+    @Test
+    void compareEncodingAndDecoding() {
+        JsonBuffer buffer = new JsonBuffer(256);
+        run("encode, codec into reused buffer", () -> sink += TodoJsonCodec.encode(buffer.reset(), TODO).size());
+        run("encode, codec to byte[]", () -> sink += TodoJsonCodec.encode(buffer.reset(), TODO).toByteArray().length);
+        run("encode, StringBuilder to byte[]", () -> sink += encodeWithStringBuilder(TODO).length);
+        run("decode, codec", () -> sink += TodoJsonCodec.decodeFields(BODY, 0, BODY.length,
+                (title, description) -> title).length());
+        run("decode, Json tree", () -> sink += ((String) decodeWithTree(BODY).get("title")).length());
+        System.out.println("(" + sink + ")");
+    }
+
+    private static void run(String name, Runnable operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long start = System.nanoTime();
+        double bytes = AllocationMeter.bytesPerOperation(OPERATIONS, operation);
+        double nanos = (double) (System.nanoTime() - start) / OPERATIONS;
+        System.out.printf("%-36s %8.1f ns/op %8.1f B/op%n", name, nanos, bytes);
+    }
+
+    private static byte[] encodeWithStringBuilder(TodoDTO todo) {
+        StringBuilder json = new StringBuilder(192).append("{\"id\":");
+        Json.writeString(json, todo.id()).append(",\"title\":");
+        Json.writeString(json, todo.title()).append(",\"description\":");
+        Json.writeString(json, todo.description());
+        json.append(",\"completed\":").append(todo.completed());
+        json.append(",\"createdAt\":\"").append(todo.createdAt());
+        json.append("\",\"updatedAt\":\"").append(todo.updatedAt()).append("\"}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Object> decodeWithTree(byte[] body) {
+        return JsonTree.parseObject(new String(body, StandardCharsets.UTF_8));
+    }
+}
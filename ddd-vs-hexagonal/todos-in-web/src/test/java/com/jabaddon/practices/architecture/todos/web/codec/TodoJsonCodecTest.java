@@ -0,0 +1,117 @@
+package com.jabaddon.practices.architecture.todos.web.codec;
+
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getall.GetAllTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.update.UpdateTodoRequest;
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
+import com.jabaddon.practices.architecture.todos.transcript.TodoData;
+import com.jabaddon.practices.architecture.todos.web.json.Json;
+import com.jabaddon.practices.architecture.todos.web.json.JsonBuffer;
+import com.jabaddon.practices.architecture.todos.web.json.JsonException;
+import com.jabaddon.practices.architecture.todos.web.json.JsonTree;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TodoJsonCodecTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 3, 9, 7, 5, 0, 123_456_000);
+
+    @Test
+    void shouldEncodeEveryTodoTypeAsValidJson() {
+        String text = "Quote \" backslash \\ tab \t bell \u0007 é 中 \uD83D\uDE00 separator \u2028";
+        JsonBuffer json = new JsonBuffer(16);
+
+        TodoJsonCodec.encode(json, new TodoDTO("1", text, null, true, CREATED, CREATED.plusSeconds(1)));
+        Map<String, Object> hx = JsonTree.parseObject(utf8(json));
+        assertThat(hx.get("title"), is(text));
+        assertThat(hx.get("description"), is(nullValue()));
+        assertThat(hx.get("completed"), is(true));
+        assertThat(hx.get("createdAt"), is(CREATED.toString()));
+        assertThat(hx.get("updatedAt"), is(CREATED.plusSeconds(1).toString()));
+
+        TodoJsonCodec.encode(json.reset(), new com.jabaddon.practices.architecture.todos.ddd.application.dto.TodoDTO(
+                "2", "DDD", "d", "COMPLETED", CREATED, CREATED));
+        assertThat(JsonTree.parseObject(utf8(json)).get("status"), is("COMPLETED"));
+
+        TodoJsonCodec.encode(json.reset(), new TodoData("3", "Script", "s", false, CREATED, CREATED));
+        assertThat(JsonTree.parseObject(utf8(json)).get("completed"), is(false));
+
+        GetAllTodosResponse all = new GetAllTodosResponse(List.of(
+                new GetAllTodosResponse.TodoItem("4", "a", null, false, CREATED, CREATED),
+                new GetAllTodosResponse.TodoItem("5", "b", null, true, CREATED, CREATED)));
+        TodoJsonCodec.encode(json.reset(), all);
+        assertThat((List<?>) JsonTree.parseObject(utf8(json)).get("todos"), hasSize(2));
+
+        TodoJsonCodec.encodeArray(json.reset(), List.<TodoDTO>of(), TodoJsonCodec::encode);
+        assertThat(utf8(json), is("[]"));
+    }
+
+    @Test
+    void shouldFormatTimestampsAndNumbersLikeTheJdk() {
+        JsonBuffer json = new JsonBuffer(16);
+        for (LocalDateTime time : List.of(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(999, 12, 31, 23, 59, 1),
+                LocalDateTime.of(2024, 1, 1, 0, 0, 0, 1),
+                LocalDateTime.of(2024, 1, 1, 0, 0, 0, 5_000_000),
+                LocalDateTime.of(2024, 1, 1, 0, 0, 0, 70_000),
+                LocalDateTime.of(-5, 6, 7, 8, 9, 10),
+                LocalDateTime.of(12024, 6, 7, 8, 9, 10))) {
+            assertThat(utf8(json.reset().timestamp(time)), is("\"" + time + "\""));
+        }
+        for (long value : new long[]{0, 7, -7, 1_000_000_007L, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertThat(utf8(json.reset().number(value)), is(Long.toString(value)));
+        }
+        assertThat(utf8(json.reset().string("lone \uD83D high")), is("\"lone \\ud83d high\""));
+    }
+
+    @Test
+    void shouldDecodeRequestBodiesAndRejectInvalidOnes() {
+        byte[] body = bytes("{ \"ignored\": [1, {\"x\": -2.5e3}, null, true], \"description\" : \"Milk \\\"fresh\\\" \\u00e9t\u00e9\","
+                + " \"t\\u0069tle\": \"Buy\" }");
+        CreateTodoRequest create = TodoJsonCodec.decodeCreateRequest(body, 0, body.length);
+        assertThat(create, is(new CreateTodoRequest("Buy", "Milk \"fresh\" été")));
+
+        byte[] padded = bytes("xx{\"title\":\"Walk\",\"description\":null}yy");
+        assertThat(TodoJsonCodec.decodeUpdateRequest("7", padded, 2, padded.length - 4),
+                is(new UpdateTodoRequest("7", "Walk", null)));
+
+        for (String invalid : List.of("", "[]", "{\"title\":", "{\"title\":\"a\"} x", "{\"title\":1}",
+                "{\"description\":\"no title\"}", "{\"title\":\"a\",\"description\":false}",
+                "{\"title\":\"a\",\"x\":01}", "{\"title\":\"a\" \"x\":1}", "{\"title\":\"a\\q\"}",
+                "{\"x\":" + "[".repeat(Json.MAX_DEPTH + 2) + "}")) {
+            byte[] bytes = bytes(invalid);
+            assertThrows(JsonException.class, () -> TodoJsonCodec.decodeCreateRequest(bytes, 0, bytes.length), invalid);
+        }
+    }
+
+    @Test
+    void shouldEncodeIntoAReusedBufferWithoutAllocating() {
+        TodoDTO todo = new TodoDTO("0b9f2c1e-4d0a-4f6b-9a53-2f1c7d8e9a10", "Buy groceries", "Milk, eggs and \"bread\"",
+                false, LocalDateTime.now(), LocalDateTime.now());
+        JsonBuffer json = new JsonBuffer(256);
+        for (int i = 0; i < 20_000; i++) {
+            TodoJsonCodec.encode(json.reset(), todo);
+        }
+
+        double bytesPerTodo = AllocationMeter.bytesPerOperation(100_000, () -> TodoJsonCodec.encode(json.reset(), todo));
+
+        assertThat(bytesPerTodo, is(lessThan(1.0)));
+    }
+
+    private static String utf8(JsonBuffer json) {
+        return new String(json.array(), 0, json.size(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
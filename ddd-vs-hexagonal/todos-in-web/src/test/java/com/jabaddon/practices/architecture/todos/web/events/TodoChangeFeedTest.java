@@ -0,0 +1,149 @@
+package com.jabaddon.practices.architecture.todos.web.events;
+
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoChangeDTO;
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
+import com.jabaddon.practices.architecture.todos.hx.application.service.TodoService;
+import com.jabaddon.practices.architecture.todos.web.http.HttpServer;
+import com.jabaddon.practices.architecture.todos.web.http.HttpServerOptions;
+import com.jabaddon.practices.architecture.todos.web.http.RawHttpClient;
+import com.jabaddon.practices.architecture.todos.web.hx.InMemoryTodoRepository;
+import com.jabaddon.practices.architecture.todos.web.hx.TodoHttpAdapter;
+import com.jabaddon.practices.architecture.todos.web.json.JsonTree;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TodoChangeFeedTest {
+
+    private static final Duration NO_WAIT = Duration.ZERO;
+
+    @Test
+    void shouldStreamChangesMadeThroughTheServiceAsServerSentEvents() throws Exception {
+        TodoChangeFeed feed = new TodoChangeFeed(ChangeFeedOptions.defaults().withMaxSubscribers(1));
+        TodoService service = new TodoService(new InMemoryTodoRepository(), feed);
+        HttpServer server = HttpServer.start(TodoHttpAdapter.of(service, feed), HttpServerOptions.defaults().withPort(0));
+        try (RawHttpClient events = new RawHttpClient(server.port());
+             RawHttpClient client = new RawHttpClient(server.port())) {
+            events.send("GET", "/todos/events", null);
+            RawHttpClient.Response head = events.readHead();
+            assertThat(head.status(), is(200));
+            assertThat(head.header("Content-Type"), is("text/event-stream"));
+            assertThat(head.header("Cache-Control"), is("no-cache"));
+            assertThat(events.readChunk(), is(": connected\n\n"));
+            assertThat(client.request("GET", "/todos/events", null).status(), is(503));
+
+            String id = (String) JsonTree.parseObject(
+                    client.request("POST", "/todos", "{\"title\":\"Walk the dog\"}").body()).get("id");
+            client.request("DELETE", "/todos/" + id, null);
+
+            String created = readUntil(events, "event: deleted");
+            assertThat(created, startsWith("id: "));
+            assertThat(created, containsString("event: created\ndata: {\"id\":\"" + id + "\",\"title\":\"Walk the dog\""));
+            assertThat(created, endsWith("event: deleted\ndata: {\"id\":\"" + id + "\"}\n\n"));
+
+            feed.close();
+            assertThat(events.readChunk(), is(nullValue()));
+            assertThat(feed.subscribers(), is(0));
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    void shouldReplayTheChangesAfterTheLastEventIdOfAReconnectingClient() throws Exception {
+        TodoChangeFeed feed = new TodoChangeFeed(ChangeFeedOptions.defaults());
+        TodoService service = new TodoService(new InMemoryTodoRepository(), feed);
+        HttpServer server = HttpServer.start(TodoHttpAdapter.of(service, feed), HttpServerOptions.defaults().withPort(0));
+        try (RawHttpClient client = new RawHttpClient(server.port())) {
+            String lastEventId;
+            try (RawHttpClient events = new RawHttpClient(server.port())) {
+                events.send("GET", "/todos/events", null);
+                assertThat(events.readHead().status(), is(200));
+                assertThat(events.readChunk(), is(": connected\n\n"));
+                client.request("POST", "/todos", "{\"title\":\"Seen\"}");
+                lastEventId = eventId(readUntil(events, "event: created"));
+            }
+            client.request("POST", "/todos", "{\"title\":\"Missed\"}");
+
+            try (RawHttpClient events = new RawHttpClient(server.port())) {
+                events.sendRaw("GET /todos/events HTTP/1.1\r\nHost: localhost\r\nLast-Event-ID: " + lastEventId + "\r\n\r\n");
+                assertThat(events.readHead().status(), is(200));
+                String replayed = readUntil(events, "event: created");
+                assertThat(replayed, not(containsString("event: resync")));
+                assertThat(replayed, not(containsString("\"Seen\"")));
+                assertThat(replayed, containsString("\"title\":\"Missed\""));
+            }
+        } finally {
+            feed.close();
+            server.close();
+        }
+    }
+
+    @Test
+    void shouldResyncSubscribersFallingBehindTheRingAndReplayFromLastEventId() throws Exception {
+        TodoChangeFeed feed = new TodoChangeFeed(ChangeFeedOptions.defaults().withCapacity(4));
+        TodoChangeFeed.Subscription slow = feed.subscribe(null);
+        publish(feed, 2);
+
+        List<String> caughtUp = frames(slow.poll(NO_WAIT));
+        assertThat(caughtUp, hasSize(2));
+        String second = eventId(caughtUp.get(1));
+
+        publish(feed, 6);
+        List<String> resynced = frames(slow.poll(NO_WAIT));
+        assertThat(resynced, hasSize(1));
+        assertThat(resynced.get(0), containsString("event: resync\n"));
+        assertThat(slow.poll(NO_WAIT), is(empty()));
+
+        String feedId = second.substring(0, second.indexOf('-'));
+        assertThat(frames(feed.subscribe(second).poll(NO_WAIT)).get(0), containsString("event: resync\n"));
+        assertThat(frames(feed.subscribe("elsewhere-7").poll(NO_WAIT)).get(0), containsString("event: resync\n"));
+        List<String> replayed = frames(feed.subscribe(feedId + "-6").poll(NO_WAIT));
+        assertThat(replayed.stream().map(TodoChangeFeedTest::eventId).toList(), contains(feedId + "-7", feedId + "-8"));
+
+        feed.publish(new com.jabaddon.practices.architecture.todos.ddd.application.dto.TodoChangeDTO(
+                com.jabaddon.practices.architecture.todos.ddd.application.dto.TodoChangeDTO.Type.DELETED, "d1", null));
+        assertThat(frames(slow.poll(NO_WAIT)).get(0), endsWith("event: deleted\ndata: {\"id\":\"d1\"}\n\n"));
+        assertThat(feed.subscribers(), is(4));
+
+        slow.close();
+        slow.close();
+        feed.close();
+        assertThat(feed.subscribers(), is(3));
+        assertThat(slow.poll(Duration.ofSeconds(5)), is(empty()));
+        assertThrows(IllegalStateException.class, () -> feed.subscribe(null));
+    }
+
+    private static void publish(TodoChangeFeed feed, int count) {
+        for (int i = 0; i < count; i++) {
+            LocalDateTime now = LocalDateTime.now();
+            TodoDTO todo = new TodoDTO("t" + i, "Task " + i, null, false, now, now);
+            feed.publish(new TodoChangeDTO(TodoChangeDTO.Type.CREATED, todo.id(), todo));
+        }
+    }
+
+    private static String readUntil(RawHttpClient events, String text) throws Exception {
+        StringBuilder received = new StringBuilder();
+        while (!received.toString().contains(text)) {
+            String chunk = events.readChunk();
+            assertThat("stream ended before " + text, chunk, is(notNullValue()));
+            received.append(chunk);
+        }
+        return received.toString();
+    }
+
+    private static List<String> frames(List<byte[]> frames) {
+        return frames.stream().map(frame -> new String(frame, StandardCharsets.UTF_8)).toList();
+    }
+
+    private static String eventId(String frame) {
+        return frame.substring("id: ".length(), frame.indexOf('\n'));
+    }
+}
@@ -0,0 +1,181 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HttpServerTest {
+
+    private static final HttpServerOptions OPTIONS = HttpServerOptions.defaults()
+            .withPort(0)
+            .withMaxRequestLineLength(256)
+            .withMaxHeaderSize(1024)
+            .withMaxHeaders(10)
+            .withMaxBodySize(64)
+            .withIdleTimeout(Duration.ofSeconds(5))
+            .withWriteTimeout(Duration.ofMillis(300));
+
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() {
+        Router router = new Router()
+                .route("GET", "/items/{id}", request -> HttpResponse.json(200,
+                        "{\"id\":\"" + request.pathParameter("id") + "\",\"q\":\""
+                                + request.queryParameter("q").orElse("") + "\"}"))
+                .route("POST", "/echo", request -> HttpResponse.json(200, request.body()))
+                .route("GET", "/header", request -> HttpResponse.json(200,
+                        "\"" + request.header("X-Trace-ID").orElse("") + "\""))
+                .route("GET", "/fail", request -> {
+                    throw new IllegalStateException("boom");
+                })
+                .route("GET", "/stream/{count}", request -> HttpResponse.stream(200, "text/plain", out -> {
+                    int count = Integer.parseInt(request.pathParameter("count"));
+                    for (int i = 0; i < count; i++) {
+                        out.write(("line " + i + "\n").getBytes(StandardCharsets.US_ASCII));
+                    }
+                    if (request.queryParameter("fail").isPresent()) {
+                        throw new IllegalStateException("failed midway");
+                    }
+                }));
+        server = HttpServer.start(router, OPTIONS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void shouldServeKeptAliveAndPipelinedRequestsInOrder() throws IOException {
+        try (RawHttpClient client = new RawHttpClient(server.port())) {
+            RawHttpClient.Response first = client.request("GET", "/items/a%20b?q=x+y%26z", null);
+            assertThat(first.status(), is(200));
+            assertThat(first.body(), is("{\"id\":\"a b\",\"q\":\"x y&z\"}"));
+            assertThat(first.header("Date"), is(notNullValue()));
+            assertThat(first.header("Connection"), is(nullValue()));
+            assertThat(client.requestRaw("GET /header HTTP/1.1\r\nHost: x\r\nx-trace-id: t1\r\n\r\n").body(),
+                    is("\"t1\""));
+
+            client.sendRaw("GET /items/1 HTTP/1.1\r\nHost: x\r\n\r\n"
+                    + "POST /echo HTTP/1.1\r\nHost: x\r\nContent-Length: 7\r\n\r\n{\"a\":1}"
+                    + "GET /fail HTTP/1.1\r\nHost: x\r\n\r\n"
+                    + "DELETE /items/3 HTTP/1.1\r\nHost: x\r\n\r\n"
+                    + "GET /missing HTTP/1.1\r\nHost: x\r\nConnection: close\r\n\r\n");
+            assertThat(client.read().body(), is("{\"id\":\"1\",\"q\":\"\"}"));
+            assertThat(client.read().body(), is("{\"a\":1}"));
+            assertThat(client.read().status(), is(500));
+            RawHttpClient.Response notAllowed = client.read();
+            assertThat(notAllowed.status(), is(405));
+            assertThat(notAllowed.header("Allow"), is("GET"));
+            RawHttpClient.Response notFound = client.read();
+            assertThat(notFound.status(), is(404));
+            assertThat(notFound.header("Connection"), is("close"));
+            assertThat(client.closedByServer(), is(true));
+        }
+    }
+
+    @Test
+    void shouldStreamChunkedBodiesAndCutFailedOnesShort() throws IOException {
+        String expected = lines(5_000);
+        try (RawHttpClient client = new RawHttpClient(server.port())) {
+            RawHttpClient.Response streamed = client.request("GET", "/stream/5000", null);
+            assertThat(streamed.header("Transfer-Encoding"), is("chunked"));
+            assertThat(streamed.header("Content-Length"), is(nullValue()));
+            assertThat(streamed.body(), is(expected));
+
+            assertThat(client.request("GET", "/stream/0", null).body(), is(""));
+            assertThat(client.request("GET", "/items/1", null).status(), is(200));
+
+            client.send("GET", "/stream/5000?fail", null);
+            assertThrows(IOException.class, client::read);
+        }
+        try (RawHttpClient client = new RawHttpClient(server.port())) {
+            RawHttpClient.Response closeDelimited = client.requestRaw("GET /stream/5000 HTTP/1.0\r\n\r\n");
+            assertThat(closeDelimited.header("Transfer-Encoding"), is(nullValue()));
+            assertThat(closeDelimited.header("Connection"), is("close"));
+            assertThat(closeDelimited.body(), is(expected));
+        }
+    }
+
+    @Test
+    void shouldDropClientsThatStopReading() throws Exception {
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(4096);
+            socket.connect(new InetSocketAddress("localhost", server.port()));
+            // About 90 MB of lines, far more than the socket buffers between client and server hold
+            socket.getOutputStream().write("GET /stream/6000000 HTTP/1.1\r\nHost: x\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            Thread.sleep(OPTIONS.writeTimeout().multipliedBy(5).toMillis());
+
+            socket.setSoTimeout(5_000);
+            long received = 0;
+            try {
+                InputStream in = socket.getInputStream();
+                byte[] buffer = new byte[64 * 1024];
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                    received += read;
+                }
+            } catch (SocketException reset) {
+                // Dropped with part of the response still unread
+            }
+            assertThat(received, is(lessThan(16L * 1024 * 1024)));
+        }
+        try (RawHttpClient client = new RawHttpClient(server.port())) {
+            assertThat(client.request("GET", "/items/1", null).status(), is(200));
+        }
+    }
+
+    @Test
+    void shouldRejectOversizedRequestsAndCloseTheConnection() throws IOException {
+        assertRejected("GET /items/" + "x".repeat(300) + " HTTP/1.1\r\nHost: x\r\n\r\n", 414);
+        assertRejected("GET /items/1 HTTP/1.1\r\nX-Big: " + "x".repeat(2000) + "\r\n\r\n", 431);
+        assertRejected("GET /items/1 HTTP/1.1\r\n" + "X-Header: 1\r\n".repeat(11) + "\r\n", 431);
+        assertRejected("POST /echo HTTP/1.1\r\nContent-Length: 65\r\n\r\n", 413);
+        assertRejected("POST /echo HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n", 411);
+        assertRejected("GET /items/1 HTTP/2.0\r\n\r\n", 505);
+        assertRejected("GET /items/1 HTTP/1.1\r\nBad Header: 1\r\n\r\n", 400);
+        assertRejected("GARBAGE\r\n\r\n", 400);
+    }
+
+    @Test
+    void shouldRejectOversizedHeadersWithoutWaitingForTheirEnd() throws IOException {
+        try (RawHttpClient client = new RawHttpClient(server.port())) {
+            client.sendRaw("GET /items/1 HTTP/1.1\r\nX-Endless: " + "x".repeat(4000));
+
+            assertThat(client.read().status(), is(431));
+            assertThat(client.closedByServer(), is(true));
+        }
+    }
+
+    private static String lines(int count) {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            lines.append("line ").append(i).append('\n');
+        }
+        return lines.toString();
+    }
+
+    private void assertRejected(String request, int status) throws IOException {
+        try (RawHttpClient client = new RawHttpClient(server.port())) {
+            client.sendRaw(request);
+
+            RawHttpClient.Response response = client.read();
+            assertThat(request, response.status(), is(status));
+            assertThat(response.header("Connection"), is("close"));
+            assertThat(client.closedByServer(), is(true));
+        }
+    }
+}
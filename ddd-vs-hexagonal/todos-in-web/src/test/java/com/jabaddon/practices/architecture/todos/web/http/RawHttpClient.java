@@ -0,0 +1,152 @@
+package com.jabaddon.practices.architecture.todos.web.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Socket-level HTTP/1.1 client for tests, so requests can be sent byte for byte,
+ * pipelined or malformed, over one kept-alive connection.
+ */
+public final class RawHttpClient implements AutoCloseable {
+
+    private final Socket socket;
+    private final OutputStream out;
+    private final InputStream in;
+
+    public RawHttpClient(int port) throws IOException {
+        socket = new Socket("localhost", port);
+        socket.setSoTimeout(5_000);
+        out = socket.getOutputStream();
+        in = socket.getInputStream();
+    }
+
+    public Response request(String method, String path, String body) throws IOException {
+        send(method, path, body);
+        return read();
+    }
+
+    public void send(String method, String path, String body) throws IOException {
+        byte[] bytes = body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        String head = method + " " + path + " HTTP/1.1\r\nHost: localhost\r\n"
+                + (body != null ? "Content-Type: application/json\r\nContent-Length: " + bytes.length + "\r\n" : "")
+                + "\r\n";
+        out.write(head.getBytes(StandardCharsets.ISO_8859_1));
+        out.write(bytes);
+        out.flush();
+    }
+
+    public void sendRaw(String raw) throws IOException {
+        out.write(raw.getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+
+    public Response read() throws IOException {
+        Response head = readHead();
+        Map<String, String> headers = head.headers();
+        byte[] body;
+        if (head.status() == 204 || head.status() == 304) {
+            body = new byte[0];
+        } else if ("chunked".equals(headers.get("transfer-encoding"))) {
+            body = readChunks();
+        } else if (headers.containsKey("content-length")) {
+            body = in.readNBytes(Integer.parseInt(headers.get("content-length")));
+        } else {
+            body = in.readAllBytes();
+        }
+        return new Response(head.status(), headers, new String(body, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the status line and headers only, for bodies read as they come with {@link #readChunk()}.
+     */
+    public Response readHead() throws IOException {
+        String statusLine = readLine();
+        if (statusLine == null) {
+            throw new IOException("Connection closed");
+        }
+        int status = Integer.parseInt(statusLine.split(" ")[1]);
+        Map<String, String> headers = new HashMap<>();
+        for (String line = readLine(); line != null && !line.isEmpty(); line = readLine()) {
+            int colon = line.indexOf(':');
+            headers.put(line.substring(0, colon).toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+        }
+        return new Response(status, headers, "");
+    }
+
+    /**
+     * Reads the next chunk of a chunked body, {@code null} for the last one.
+     */
+    public String readChunk() throws IOException {
+        byte[] chunk = readChunkBytes();
+        return chunk == null ? null : new String(chunk, StandardCharsets.UTF_8);
+    }
+
+    private byte[] readChunkBytes() throws IOException {
+        String sizeLine = readLine();
+        if (sizeLine == null) {
+            throw new IOException("Connection closed before the last chunk");
+        }
+        int size = Integer.parseInt(sizeLine, 16);
+        byte[] chunk = in.readNBytes(size);
+        if (chunk.length < size || readLine() == null) {
+            throw new IOException("Connection closed within a chunk");
+        }
+        return size == 0 ? null : chunk;
+    }
+
+    /**
+     * Sends the raw request and reads its response.
+     */
+    public Response requestRaw(String raw) throws IOException {
+        sendRaw(raw);
+        return read();
+    }
+
+    /**
+     * Whether the server closed the connection, waiting for it up to the socket timeout.
+     */
+    public boolean closedByServer() throws IOException {
+        return in.read() < 0;
+    }
+
+    /**
+     * Reads a chunked body; a connection closed before the last chunk is an incomplete response.
+     */
+    private byte[] readChunks() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (byte[] chunk = readChunkBytes(); chunk != null; chunk = readChunkBytes()) {
+            body.write(chunk);
+        }
+        return body.toByteArray();
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) >= 0 && b != '\n') {
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return b < 0 && line.size() == 0 ? null : line.toString(StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    public record Response(int status, Map<String, String> headers, String body) {
+
+        public String header(String name) {
+            return headers.get(name.toLowerCase(Locale.ROOT));
+        }
+    }
+}
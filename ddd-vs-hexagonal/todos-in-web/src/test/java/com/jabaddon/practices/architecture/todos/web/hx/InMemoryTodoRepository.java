@@ -0,0 +1,112 @@
+package com.jabaddon.practices.architecture.todos.web.hx;
+
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
+import com.jabaddon.practices.architecture.todos.hx.application.port.out.TodoRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+public class InMemoryTodoRepository implements TodoRepository {
+
+    private final Map<String, TodoDTO> storage = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    @Override
+    public TodoDTO save(TodoDTO todo) {
+        storage.put(todo.id(), todo);
+        version.incrementAndGet();
+        return todo;
+    }
+
+    @Override
+    public Optional<TodoDTO> findById(String id) {
+        return Optional.ofNullable(storage.get(id));
+    }
+
+    @Override
+    public List<TodoDTO> findAll() {
+        return new ArrayList<>(storage.values());
+    }
+
+    @Override
+    public List<TodoDTO> findByCompleted(boolean completed) {
+        return storage.values().stream()
+                .filter(todo -> todo.completed() == completed)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long countByCompleted(boolean completed) {
+        return findByCompleted(completed).size();
+    }
+
+    @Override
+    public List<TodoDTO> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return storage.values().stream()
+                .filter(todo -> !todo.createdAt().isBefore(from) && todo.createdAt().isBefore(to))
+                .sorted(Comparator.comparing(TodoDTO::createdAt))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TodoDTO> findByCreatedAtAfter(LocalDateTime afterCreatedAt, String afterId, LocalDateTime to, int limit) {
+        return storage.values().stream()
+                .filter(todo -> todo.createdAt().isBefore(to) && (todo.createdAt().isAfter(afterCreatedAt)
+                        || todo.createdAt().isEqual(afterCreatedAt) && todo.id().compareTo(afterId) > 0))
+                .sorted(Comparator.comparing(TodoDTO::createdAt).thenComparing(TodoDTO::id))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TodoDTO> findRecentlyUpdated(int limit) {
+        return storage.values().stream()
+                .sorted(Comparator.comparing(TodoDTO::updatedAt).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TodoDTO> search(String query, int limit) {
+        String term = query.toLowerCase(Locale.ROOT);
+        return storage.values().stream()
+                .filter(todo -> todo.title().toLowerCase(Locale.ROOT).contains(term))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public OptionalLong version() {
+        return OptionalLong.of(version.get());
+    }
+
+    /**
+     * The store version, which changes at least as often as the version of either status.
+     */
+    @Override
+    public OptionalLong versionByCompleted(boolean completed) {
+        return version();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        if (storage.remove(id) != null) {
+            version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return storage.containsKey(id);
+    }
+}
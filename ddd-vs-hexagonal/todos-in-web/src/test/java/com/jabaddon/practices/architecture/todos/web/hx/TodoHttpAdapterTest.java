@@ -0,0 +1,178 @@
+package com.jabaddon.practices.architecture.todos.web.hx;
+
+import com.jabaddon.practices.architecture.todos.hx.application.service.TodoService;
+import com.jabaddon.practices.architecture.todos.web.admission.AdmissionController;
+import com.jabaddon.practices.architecture.todos.web.admission.AdmissionOptions;
+import com.jabaddon.practices.architecture.todos.web.admission.Priority;
+import com.jabaddon.practices.architecture.todos.web.http.HttpServer;
+import com.jabaddon.practices.architecture.todos.web.http.HttpServerOptions;
+import com.jabaddon.practices.architecture.todos.web.http.RawHttpClient;
+import com.jabaddon.practices.architecture.todos.web.json.JsonTree;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class TodoHttpAdapterTest {
+
+    private HttpServer server;
+    private RawHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        TodoService service = new TodoService(new InMemoryTodoRepository());
+        server = HttpServer.start(TodoHttpAdapter.of(service), HttpServerOptions.defaults().withPort(0));
+        client = new RawHttpClient(server.port());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void shouldDriveEveryUseCaseOverOneConnection() throws IOException {
+        RawHttpClient.Response created = client.request("POST", "/todos",
+                "{\"title\":\"Buy groceries\",\"description\":\"Milk, \\\"fresh\\\"\"}");
+        assertThat(created.status(), is(201));
+        Map<String, Object> todo = JsonTree.parseObject(created.body());
+        String id = (String) todo.get("id");
+        assertThat(created.header("Location"), is("/todos/" + id));
+        assertThat(todo.get("description"), is("Milk, \"fresh\""));
+        assertThat(todo.get("completed"), is(false));
+        client.request("POST", "/todos", "{\"title\":\"Walk the dog\",\"description\":null}");
+
+        assertThat(JsonTree.parseObject(client.request("GET", "/todos/" + id, null).body()).get("title"),
+                is("Buy groceries"));
+        RawHttpClient.Response updated = client.request("PUT", "/todos/" + id, "{\"title\":\"Buy food\"}");
+        assertThat(JsonTree.parseObject(updated.body()).get("description"), is(nullValue()));
+        assertThat(JsonTree.parseObject(client.request("POST", "/todos/" + id + "/complete", null).body())
+                .get("completed"), is(true));
+
+        assertThat(titles(client.request("GET", "/todos?status=completed", null)), contains("Buy food"));
+        assertThat(titles(client.request("GET", "/todos?status=pending", null)), contains("Walk the dog"));
+        assertThat(titles(client.request("GET", "/todos?q=walk&limit=5", null)), contains("Walk the dog"));
+        assertThat(titles(client.request("GET", "/todos", null)), hasSize(2));
+        assertThat(client.request("GET", "/todos/counts", null).body(), is("{\"pending\":1,\"completed\":1}"));
+
+        assertThat(JsonTree.parseObject(client.request("POST", "/todos/" + id + "/uncomplete", null).body())
+                .get("completed"), is(false));
+        assertThat(client.request("DELETE", "/todos/" + id, null).status(), is(204));
+        assertThat(client.request("GET", "/todos/" + id, null).status(), is(404));
+    }
+
+    @Test
+    void shouldAnswerErrorsWithStatusAndKeepTheConnection() throws IOException {
+        assertThat(client.request("DELETE", "/todos/missing", null).status(), is(404));
+        assertThat(client.request("POST", "/todos/missing/complete", null).status(), is(404));
+        assertThat(client.request("POST", "/todos", "{\"title\":").status(), is(400));
+        assertThat(client.request("POST", "/todos", "{\"description\":\"no title\"}").status(), is(400));
+        assertThat(client.request("GET", "/todos?q=x&limit=0", null).status(), is(400));
+        assertThat(client.request("GET", "/todos?status=done", null).status(), is(400));
+        RawHttpClient.Response error = client.request("PATCH", "/todos/1", null);
+        assertThat(error.status(), is(405));
+        assertThat(JsonTree.parseObject(error.body()).get("error"), is(notNullValue()));
+
+        assertThat(client.request("GET", "/todos", null).status(), is(200));
+    }
+
+    @Test
+    void shouldAnswerConditionalReadsWithNotModified() throws IOException {
+        String id = (String) JsonTree.parseObject(client.request("POST", "/todos", "{\"title\":\"Read a book\"}").body())
+                .get("id");
+        RawHttpClient.Response todo = client.request("GET", "/todos/" + id, null);
+        String etag = todo.header("ETag");
+        String lastModified = todo.header("Last-Modified");
+        assertThat(etag, matchesPattern("\"[0-9a-z.]+\""));
+        assertThat(lastModified, endsWith(" GMT"));
+        assertThat(todo.header("Cache-Control"), is("no-cache"));
+
+        RawHttpClient.Response notModified = conditional("/todos/" + id, "If-None-Match: \"other\", W/" + etag);
+        assertThat(notModified.status(), is(304));
+        assertThat(notModified.body(), is(""));
+        assertThat(notModified.header("ETag"), is(etag));
+        assertThat(notModified.header("Content-Length"), is(nullValue()));
+        assertThat(conditional("/todos/" + id, "If-Modified-Since: " + lastModified).status(), is(304));
+        assertThat(conditional("/todos/" + id, "If-None-Match: \"other\"\r\nIf-Modified-Since: " + lastModified)
+                .status(), is(200));
+        client.request("PUT", "/todos/" + id, "{\"title\":\"Read two books\"}");
+        assertThat(conditional("/todos/" + id, "If-None-Match: " + etag).status(), is(200));
+
+        String all = client.request("GET", "/todos", null).header("ETag");
+        String pending = client.request("GET", "/todos?status=pending", null).header("ETag");
+        String search = client.request("GET", "/todos?q=read", null).header("ETag");
+        assertThat(List.of(all, pending, search), everyItem(is(notNullValue())));
+        assertThat(conditional("/todos", "If-None-Match: " + all).status(), is(304));
+        assertThat(conditional("/todos?status=pending", "If-None-Match: *").status(), is(304));
+        assertThat(conditional("/todos?q=read", "If-None-Match: " + search).status(), is(304));
+        assertThat(conditional("/todos?status=pending", "If-None-Match: " + all).status(), is(200));
+
+        client.request("DELETE", "/todos/" + id, null);
+        RawHttpClient.Response changed = conditional("/todos", "If-None-Match: " + all);
+        assertThat(changed.status(), is(200));
+        assertThat(changed.body(), is("[]"));
+        assertThat(changed.header("ETag"), is(not(all)));
+    }
+
+    @Test
+    void shouldAnswerRequestsTurnedAwayByAdmissionControlWith429() throws Exception {
+        AdmissionController admission = new AdmissionController(AdmissionOptions.defaults()
+                .withInitialLimit(1).withMinLimit(1).withMaxLimit(1)
+                .withLatencyTarget(Duration.ofMinutes(1))
+                .withMaxQueued(0));
+        TodoService service = new TodoService(new InMemoryTodoRepository());
+        TodoHttpAdapter adapter = TodoHttpAdapter.of(AdmittedTodoPorts.of(service, admission));
+        CountDownLatch release = new CountDownLatch(1);
+        try (HttpServer admitted = HttpServer.start(adapter, HttpServerOptions.defaults().withPort(0));
+             RawHttpClient admittedClient = new RawHttpClient(admitted.port());
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            assertThat(admittedClient.request("POST", "/todos", "{\"title\":\"Admitted\"}").status(), is(201));
+
+            Future<?> busy = executor.submit(() -> admission.run(Priority.HIGH, () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            while (admission.metrics().inFlight() == 0) {
+                Thread.sleep(1);
+            }
+            RawHttpClient.Response rejected = admittedClient.request("POST", "/todos", "{\"title\":\"Rejected\"}");
+            assertThat(rejected.status(), is(429));
+            assertThat(JsonTree.parseObject(rejected.body()).get("error"), is("Too many concurrent requests"));
+            RawHttpClient.Response streamed = admittedClient.request("GET", "/todos", null);
+            assertThat(streamed.status(), is(429));
+            assertThat(streamed.header("Transfer-Encoding"), is(nullValue()));
+
+            release.countDown();
+            busy.get();
+            assertThat(titles(admittedClient.request("GET", "/todos", null)), contains("Admitted"));
+            assertThat(admission.metrics().rejected(), is(2L));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private RawHttpClient.Response conditional(String path, String headers) throws IOException {
+        return client.requestRaw("GET " + path + " HTTP/1.1\r\nHost: localhost\r\n" + headers + "\r\n\r\n");
+    }
+
+    private static List<Object> titles(RawHttpClient.Response response) {
+        assertThat(response.status(), is(200));
+        return ((List<Object>) JsonTree.parse(response.body())).stream()
+                .map(todo -> ((Map<String, Object>) todo).get("title"))
+                .toList();
+    }
+}
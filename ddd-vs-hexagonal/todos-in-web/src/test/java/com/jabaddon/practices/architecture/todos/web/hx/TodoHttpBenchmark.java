@@ -0,0 +1,160 @@
+package com.jabaddon.practices.architecture.todos.web.hx;
+
+import com.jabaddon.practices.architecture.todos.hx.application.service.TodoService;
+import com.jabaddon.practices.architecture.todos.web.http.HttpServer;
+import com.jabaddon.practices.architecture.todos.web.http.HttpServerOptions;
+import com.jabaddon.practices.architecture.todos.web.http.RawHttpClient;
+import com.jabaddon.practices.architecture.todos.web.json.JsonTree;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Requests per second of cached reads by id through {@link TodoHttpAdapter},
+ * with the todos held in memory and the load generated in the same JVM:
+ * one request at a time per keep-alive connection, then pipelined in bursts
+ * of {@value #DEPTH}, then pipelined revalidations answered with 304.
+ *
+ * Not part of the regular build, whose test includes skip it; run it with
+ * <pre>
+ * mvn test -pl todos-in-web -am -Dtest=TodoHttpBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+class TodoHttpBenchmark {
+
+    private static final int TODOS = 1_000;
+    private static final int WARMUP = 100_000;
+    private static final int REQUESTS = 500_000;
+    private static final int CONNECTIONS = 64;
+    private static final int DEPTH = 16;
+
+    @Test
+    void measureReadsById() throws Exception {
+        try (HttpServer server = HttpServer.start(TodoHttpAdapter.of(new TodoService(new InMemoryTodoRepository())),
+                HttpServerOptions.defaults().withPort(0))) {
+            byte[][] reads = new byte[TODOS][];
+            byte[][] revalidations = new byte[TODOS][];
+            try (RawHttpClient client = new RawHttpClient(server.port())) {
+                for (int i = 0; i < TODOS; i++) {
+                    String body = client.request("POST", "/todos",
+                            "{\"title\":\"Todo " + i + "\",\"description\":\"Description " + i + "\"}").body();
+                    String path = "/todos/" + JsonTree.parseObject(body).get("id");
+                    String etag = client.request("GET", path, null).header("ETag");
+                    reads[i] = get(path, "");
+                    revalidations[i] = get(path, "If-None-Match: " + etag + "\r\n");
+                }
+            }
+            run("keep-alive, " + CONNECTIONS + " connections", server.port(), 1, n -> reads[n % TODOS]);
+            run("pipelined x" + DEPTH + ", " + CONNECTIONS + " connections", server.port(), DEPTH,
+                    n -> reads[n % TODOS]);
+            run("revalidated x" + DEPTH + ", " + CONNECTIONS + " connections", server.port(), DEPTH,
+                    n -> revalidations[n % TODOS]);
+        }
+    }
+
+    private static byte[] get(String path, String headers) {
+        return ("GET " + path + " HTTP/1.1\r\nHost: localhost\r\n" + headers + "\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Splits the warmup and the measured requests across one virtual thread
+     * per connection, each writing {@code depth} requests at once and then
+     * reading their responses.
+     */
+    private static void run(String name, int port, int depth, IntFunction<byte[]> request) throws Exception {
+        long start = 0;
+        for (int round = 0; round < 2; round++) {
+            int bursts = (round == 0 ? WARMUP : REQUESTS) / CONNECTIONS / depth;
+            start = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> done = new ArrayList<>();
+                for (int c = 0; c < CONNECTIONS; c++) {
+                    int offset = c * bursts * depth;
+                    done.add(executor.submit(() -> {
+                        try (Connection connection = new Connection(port)) {
+                            for (int b = 0; b < bursts; b++) {
+                                connection.exchange(offset + b * depth, depth, request);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : done) {
+                    future.get();
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int requests = REQUESTS / CONNECTIONS / depth * CONNECTIONS * depth;
+        System.out.printf("%-36s %10.0f req/s %8.1f us/req per connection%n", name, requests / seconds,
+                seconds * 1e6 * CONNECTIONS / requests);
+    }
+
+    /**
+     * Keep-alive connection that pipelines GETs and skips their responses,
+     * reading Content-Length bodies only.
+     */
+    private static final class Connection implements AutoCloseable {
+
+        private final Socket socket;
+        private final OutputStream out;
+        private final InputStream in;
+
+        private Connection(int port) throws IOException {
+            socket = new Socket("localhost", port);
+            socket.setTcpNoDelay(true);
+            out = socket.getOutputStream();
+            in = new BufferedInputStream(socket.getInputStream());
+        }
+
+        private void exchange(int first, int count, IntFunction<byte[]> request) throws IOException {
+            for (int n = first; n < first + count; n++) {
+                out.write(request.apply(n));
+            }
+            out.flush();
+            for (int i = 0; i < count; i++) {
+                String status = readLine();
+                if (!status.startsWith("HTTP/1.1 200") && !status.startsWith("HTTP/1.1 304")) {
+                    throw new IOException("Unexpected response: " + status);
+                }
+                int contentLength = 0;
+                for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+                    if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                        contentLength = Integer.parseInt(line.substring(15).trim());
+                    }
+                }
+                in.skipNBytes(contentLength);
+            }
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            for (int b = in.read(); b != '\n'; b = in.read()) {
+                if (b < 0) {
+                    throw new IOException("Connection closed");
+                }
+                if (b != '\r') {
+                    line.append((char) b);
+                }
+            }
+            return line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.jabaddon.practices.architecture.todos.web.json;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON tree parser for tests, which inspect responses without binding them to a type.
+ *
+ * {@link #parse(String)} maps objects to {@code Map<String, Object>} in
+ * document order, arrays to {@code List<Object>}, strings to String, numbers
+ * to Long when integral and in range or BigDecimal otherwise, booleans to
+ * Boolean and null to {@code null}. Nesting is limited to
+ * {@link Json#MAX_DEPTH} levels.
+ */
+public final class JsonTree {
+
+    private final String text;
+    private int position;
+
+    private JsonTree(String text) {
+        this.text = text;
+    }
+
+    public static Object parse(String text) {
+        JsonTree parser = new JsonTree(text);
+        Object value = parser.value(0);
+        parser.skipWhitespace();
+        if (parser.position != text.length()) {
+            throw parser.error("Unexpected trailing content");
+        }
+        return value;
+    }
+
+    /**
+     * Parses a document that must be an object.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        if (parse(text) instanceof Map<?, ?> object) {
+            return (Map<String, Object>) object;
+        }
+        throw new JsonException("Expected a JSON object");
+    }
+
+    private Object value(int depth) {
+        if (depth > Json.MAX_DEPTH) {
+            throw error("Nesting deeper than " + Json.MAX_DEPTH);
+        }
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        char c = text.charAt(position);
+        return switch (c) {
+            case '{' -> object(depth);
+            case '[' -> array(depth);
+            case '"' -> string();
+            case 't' -> literal("true", Boolean.TRUE);
+            case 'f' -> literal("false", Boolean.FALSE);
+            case 'n' -> literal("null", null);
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    yield number();
+                }
+                throw error("Unexpected character '" + c + "'");
+            }
+        };
+    }
+
+    private Map<String, Object> object(int depth) {
+        Map<String, Object> object = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Expected a member name");
+            }
+            String name = string();
+            skipWhitespace();
+            expect(':');
+            object.put(name, value(depth + 1));
+            skipWhitespace();
+            char next = peek();
+            position++;
+            if (next == '}') {
+                return object;
+            }
+            if (next != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private List<Object> array(int depth) {
+        List<Object> array = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return array;
+        }
+        while (true) {
+            array.add(value(depth + 1));
+            skipWhitespace();
+            char next = peek();
+            position++;
+            if (next == ']') {
+                return array;
+            }
+            if (next != ',') {
+                throw error("Expected ',' or ']'");
+            }
+        }
+    }
+
+    private String string() {
+        position++;
+        StringBuilder result = null;
+        int start = position;
+        while (true) {
+            if (position >= text.length()) {
+                throw error("Unterminated string");
+            }
+            char c = text.charAt(position);
+            if (c == '"') {
+                String tail = text.substring(start, position++);
+                return result == null ? tail : result.append(tail).toString();
+            }
+            if (c < 0x20) {
+                throw error("Unescaped control character in string");
+            }
+            if (c != '\\') {
+                position++;
+                continue;
+            }
+            if (result == null) {
+                result = new StringBuilder();
+            }
+            result.append(text, start, position);
+            if (position + 1 >= text.length()) {
+                throw error("Unterminated escape");
+            }
+            char escaped = text.charAt(position + 1);
+            position += 2;
+            switch (escaped) {
+                case '"', '\\', '/' -> result.append(escaped);
+                case 'b' -> result.append('\b');
+                case 'f' -> result.append('\f');
+                case 'n' -> result.append('\n');
+                case 'r' -> result.append('\r');
+                case 't' -> result.append('\t');
+                case 'u' -> {
+                    if (position + 4 > text.length()) {
+                        throw error("Truncated unicode escape");
+                    }
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(text.charAt(position + i), 16);
+                        if (digit < 0) {
+                            throw error("Invalid unicode escape");
+                        }
+                        code = code << 4 | digit;
+                    }
+                    result.append((char) code);
+                    position += 4;
+                }
+                default -> throw error("Invalid escape '\\" + escaped + "'");
+            }
+            start = position;
+        }
+    }
+
+    private Object number() {
+        int start = position;
+        if (peek() == '-') {
+            position++;
+        }
+        boolean integral = true;
+        int digits = digits();
+        if (digits == 0 || (digits > 1 && text.charAt(position - digits) == '0')) {
+            throw error("Invalid number");
+        }
+        if (position < text.length() && text.charAt(position) == '.') {
+            integral = false;
+            position++;
+            if (digits() == 0) {
+                throw error("Invalid number");
+            }
+        }
+        if (position < text.length() && (text.charAt(position) == 'e' || text.charAt(position) == 'E')) {
+            integral = false;
+            position++;
+            if (position < text.length() && (text.charAt(position) == '+' || text.charAt(position) == '-')) {
+                position++;
+            }
+            if (digits() == 0) {
+                throw error("Invalid number");
+            }
+        }
+        String literal = text.substring(start, position);
+        if (integral && digits < 19) {
+            return Long.parseLong(literal);
+        }
+        return new BigDecimal(literal);
+    }
+
+    private int digits() {
+        int start = position;
+        while (position < text.length() && text.charAt(position) >= '0' && text.charAt(position) <= '9') {
+            position++;
+        }
+        return position - start;
+    }
+
+    private Object literal(String literal, Object value) {
+        if (!text.startsWith(literal, position)) {
+            throw error("Invalid literal");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private void expect(char expected) {
+        if (peek() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+        position++;
+    }
+
+    private char peek() {
+        if (position >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        return text.charAt(position);
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private JsonException error(String message) {
+        return new JsonException(message + " at offset " + position);
+    }
+}
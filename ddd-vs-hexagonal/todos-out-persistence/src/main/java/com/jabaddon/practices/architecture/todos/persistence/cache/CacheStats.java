@@ -0,0 +1,17 @@
+package com.jabaddon.practices.architecture.todos.persistence.cache;
+
+/**
+ * Counters of a {@link TinyLfuCache}.
+ *
+ * @param size      entries currently cached
+ * @param hits      lookups served from the cache
+ * @param misses    lookups that found nothing
+ * @param evictions entries dropped to respect the maximum size, rejected candidates included
+ */
+public record CacheStats(long size, long hits, long misses, long evictions) {
+
+    public double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
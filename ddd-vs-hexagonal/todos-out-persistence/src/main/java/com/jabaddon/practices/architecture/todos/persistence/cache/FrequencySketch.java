@@ -0,0 +1,71 @@
+package com.jabaddon.practices.architecture.todos.persistence.cache;
+
+/**
+ * Count-min sketch estimating how often each key was accessed recently.
+ *
+ * Counters are 4 bits, sixteen to a long, with four counters per key, so
+ * the sketch costs about 8 bytes per cached entry whatever the key space.
+ * Once as many accesses as ten times the capacity were recorded, every
+ * counter is halved: old popularity fades and the cache adapts to shifts in
+ * the workload.
+ *
+ * Not thread-safe; the cache guards it with its policy lock.
+ */
+final class FrequencySketch {
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long[] SEEDS = {
+            0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L
+    };
+
+    private final long[] table;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 8) - 1) << 1;
+        this.table = new long[size];
+        this.sampleSize = 10 * Math.max(capacity, 1);
+    }
+
+    void increment(int hash) {
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(hash, i);
+            int offset = counterOffset(hash, i);
+            if (((table[index] >>> offset) & 0xF) < 15) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    int frequency(int hash) {
+        int frequency = 15;
+        for (int i = 0; i < SEEDS.length; i++) {
+            frequency = Math.min(frequency, (int) (table[indexOf(hash, i)] >>> counterOffset(hash, i)) & 0xF);
+        }
+        return frequency;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int depth) {
+        long mixed = (hash + SEEDS[depth]) * SEEDS[depth];
+        mixed += mixed >>> 32;
+        return (int) mixed & (table.length - 1);
+    }
+
+    private static int counterOffset(int hash, int depth) {
+        // Each depth uses its own quarter of the long, so the four counters of a key never overlap
+        return (depth << 4) + (((hash >>> (depth << 3)) & 3) << 2);
+    }
+}
@@ -0,0 +1,271 @@
+package com.jabaddon.practices.architecture.todos.persistence.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded concurrent cache with W-TinyLFU eviction.
+ *
+ * New entries enter a small LRU window (1% of the capacity). An entry
+ * pushed out of the window only makes it into the main space, a segmented
+ * LRU of probation and protected entries, if the {@link FrequencySketch}
+ * says it was accessed more often than the main space's next victim;
+ * otherwise it is the one evicted. A burst of keys read once, such as a
+ * scan, therefore cannot flush the frequently used entries, while the
+ * window still gives new keys a chance to build up their frequency.
+ *
+ * Lookups read a {@link ConcurrentHashMap} without locking. Recording the
+ * access in the policy needs the policy lock; a lookup that finds it held
+ * skips the bookkeeping rather than waiting, so under contention some
+ * accesses are not counted. Writes always take the lock.
+ */
+public final class TinyLfuCache<K, V> {
+
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+
+    private final int maximumSize;
+    private final int maxWindow;
+    private final int maxProtected;
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final FrequencySketch sketch;
+    private final AccessOrder<K, V> window = new AccessOrder<>();
+    private final AccessOrder<K, V> probation = new AccessOrder<>();
+    private final AccessOrder<K, V> protectedSegment = new AccessOrder<>();
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TinyLfuCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.maxWindow = Math.max(1, maximumSize / 100);
+        this.maxProtected = (int) ((maximumSize - maxWindow) * 0.8);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * The cached value, or {@code null} when the key is not cached.
+     */
+    public V getIfPresent(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            if (policyLock.tryLock()) {
+                try {
+                    sketch.increment(spread(key));
+                } finally {
+                    policyLock.unlock();
+                }
+            }
+            return null;
+        }
+        hits.increment();
+        if (policyLock.tryLock()) {
+            try {
+                onAccess(node);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    public void put(K key, V value) {
+        policyLock.lock();
+        try {
+            Node<K, V> node = data.get(key);
+            if (node != null) {
+                node.value = value;
+                onAccess(node);
+                return;
+            }
+            node = new Node<>(key, value);
+            data.put(key, node);
+            sketch.increment(spread(key));
+            window.addLast(node);
+            evict();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        policyLock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node != null) {
+                segmentOf(node).remove(node);
+                node.removed = true;
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        policyLock.lock();
+        try {
+            data.values().forEach(node -> node.removed = true);
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public long size() {
+        return data.size();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(data.size(), hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private void onAccess(Node<K, V> node) {
+        if (node.removed) {
+            // Evicted or invalidated between the lock-free lookup and taking the lock
+            return;
+        }
+        sketch.increment(spread(node.key));
+        switch (node.segment) {
+            case WINDOW -> window.moveToEnd(node);
+            case PROBATION -> {
+                probation.remove(node);
+                node.segment = PROTECTED;
+                protectedSegment.addLast(node);
+                while (protectedSegment.size > maxProtected) {
+                    Node<K, V> demoted = protectedSegment.removeFirst();
+                    demoted.segment = PROBATION;
+                    probation.addLast(demoted);
+                }
+            }
+            default -> protectedSegment.moveToEnd(node);
+        }
+    }
+
+    /**
+     * Moves the window overflow to probation, then lets each candidate compete with the main space's victim.
+     */
+    private void evict() {
+        while (window.size > maxWindow) {
+            Node<K, V> candidate = window.removeFirst();
+            candidate.segment = PROBATION;
+            probation.addLast(candidate);
+            if (data.size() <= maximumSize) {
+                continue;
+            }
+            Node<K, V> victim = probation.first != candidate ? probation.first : protectedSegment.first;
+            if (victim != null && sketch.frequency(spread(candidate.key)) > sketch.frequency(spread(victim.key))) {
+                evict(victim);
+            } else {
+                evict(candidate);
+            }
+        }
+        while (data.size() > maximumSize) {
+            Node<K, V> victim = probation.first != null ? probation.first
+                    : protectedSegment.first != null ? protectedSegment.first
+                    : window.first;
+            evict(victim);
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        segmentOf(node).remove(node);
+        node.removed = true;
+        data.remove(node.key, node);
+        evictions.increment();
+    }
+
+    private AccessOrder<K, V> segmentOf(Node<K, V> node) {
+        return switch (node.segment) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            default -> protectedSegment;
+        };
+    }
+
+    private static int spread(Object key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Node<K, V> {
+
+        private final K key;
+        private volatile V value;
+        private byte segment = WINDOW;
+        private boolean removed;
+        private Node<K, V> previous;
+        private Node<K, V> next;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list, least recently used first.
+     */
+    private static final class AccessOrder<K, V> {
+
+        private Node<K, V> first;
+        private Node<K, V> last;
+        private int size;
+
+        void addLast(Node<K, V> node) {
+            node.previous = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+            size++;
+        }
+
+        Node<K, V> removeFirst() {
+            Node<K, V> node = first;
+            remove(node);
+            return node;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.previous == null) {
+                first = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToEnd(Node<K, V> node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            first = null;
+            last = null;
+            size = 0;
+        }
+    }
+}
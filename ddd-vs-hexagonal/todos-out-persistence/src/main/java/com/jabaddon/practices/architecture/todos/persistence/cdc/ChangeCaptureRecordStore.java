@@ -0,0 +1,226 @@
+package com.jabaddon.practices.architecture.todos.persistence.cdc;
+
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordQuery;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordReader;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordVisitor;
+import com.jabaddon.practices.architecture.todos.persistence.store.StripedLocks;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * RecordStore decorator that logs every write to a {@link ChangeLog} ahead of applying it.
+ *
+ * Wrapping the store handed to a TodoGateway, TodoDao or TodoRepository
+ * adapter gives each of their inserts, updates and deletes a sequence
+ * number. Writes to the same id are serialized through striped locks, so
+ * their changes are logged in the order they are applied.
+ *
+ * The log is written first, so a crash between the two writes leaves a
+ * change the store missed rather than one the consumers missed. On
+ * {@link #open}, the last logged change of every id is compared with the
+ * store and redone where they differ. A redo writes the logged record, or
+ * deletes it, so it is safe to repeat. A write the store rejects is
+ * followed by a change stating what the store holds for that id instead.
+ * Consumers may therefore see a change shortly before the store serves it.
+ */
+public final class ChangeCaptureRecordStore implements RecordStore {
+
+    private static final int REDO_BATCH = 1024;
+
+    private final RecordStore delegate;
+    private final ChangeLog changes;
+    private final StripedLocks stripes = new StripedLocks();
+
+    private ChangeCaptureRecordStore(RecordStore delegate, ChangeLog changes) {
+        this.delegate = delegate;
+        this.changes = changes;
+    }
+
+    /**
+     * Captures the writes to the store, after redoing the logged changes it missed.
+     * That costs one pass over the changes still in the log, holding their ids.
+     */
+    public static ChangeCaptureRecordStore open(RecordStore delegate, ChangeLog changes) {
+        ChangeCaptureRecordStore store = new ChangeCaptureRecordStore(delegate, changes);
+        store.redo();
+        return store;
+    }
+
+    @Override
+    public void put(String id, ByteBuffer record) {
+        synchronized (stripes.lockFor(id)) {
+            boolean existed = delegate.contains(id);
+            changes.append(existed ? ChangeType.UPDATE : ChangeType.INSERT, id, record.duplicate());
+            try {
+                delegate.put(id, record);
+            } catch (RuntimeException e) {
+                restate(id, e);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public boolean delete(String id) {
+        synchronized (stripes.lockFor(id)) {
+            if (!delegate.contains(id)) {
+                return false;
+            }
+            changes.append(ChangeType.DELETE, id, null);
+            try {
+                return delegate.delete(id);
+            } catch (RuntimeException e) {
+                restate(id, e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Logs a change per id, then hands the batch to the store under the locks
+     * of all its ids. Deletes of ids the store does not hold are dropped, as
+     * {@link #delete} logs nothing for them. When the store fails part way,
+     * every batch id is restated.
+     */
+    @Override
+    public void writeAll(Map<String, ByteBuffer> records, Collection<String> deletedIds) {
+        Set<String> ids = new LinkedHashSet<>(records.keySet());
+        ids.addAll(deletedIds);
+        stripes.runLocked(ids, () -> {
+            List<String> deletes = new ArrayList<>(deletedIds.size());
+            for (String id : deletedIds) {
+                if (records.containsKey(id) || delegate.contains(id)) {
+                    deletes.add(id);
+                }
+            }
+            records.forEach((id, record) -> changes.append(
+                    delegate.contains(id) ? ChangeType.UPDATE : ChangeType.INSERT, id, record.duplicate()));
+            deletes.forEach(id -> changes.append(ChangeType.DELETE, id, null));
+            try {
+                delegate.writeAll(records, deletes);
+            } catch (RuntimeException e) {
+                ids.forEach(id -> restate(id, e));
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public <T> Optional<T> read(String id, RecordReader<T> reader) {
+        return delegate.read(id, reader);
+    }
+
+    @Override
+    public <T> List<T> readAll(RecordReader<T> reader) {
+        return delegate.readAll(reader);
+    }
+
+    @Override
+    public void forEach(RecordVisitor visitor) {
+        delegate.forEach(visitor);
+    }
+
+    @Override
+    public <T> List<T> query(RecordQuery query, RecordReader<T> reader) {
+        return delegate.query(query, reader);
+    }
+
+    @Override
+    public long count(RecordQuery query) {
+        return delegate.count(query);
+    }
+
+    @Override
+    public OptionalLong version() {
+        return delegate.version();
+    }
+
+    @Override
+    public OptionalLong version(RecordQuery query) {
+        return delegate.version(query);
+    }
+
+    @Override
+    public boolean contains(String id) {
+        return delegate.contains(id);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    public ChangeLog changes() {
+        return changes;
+    }
+
+    /**
+     * Closes the store; the change log is left to its owner, as consumers may still read it.
+     */
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Logs what the store holds for the id after it rejected a write already logged,
+     * so consumers end up with the store's state rather than the write's.
+     */
+    private void restate(String id, RuntimeException failure) {
+        try {
+            boolean present = delegate.read(id, record -> {
+                changes.append(ChangeType.UPDATE, id, record);
+                return true;
+            }).orElse(false);
+            if (!present) {
+                changes.append(ChangeType.DELETE, id, null);
+            }
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Applies the last logged change of every id the store does not reflect.
+     * Only those can be missing: a write logs and applies its change under
+     * the lock of its id, so the next change of that id waits for it.
+     */
+    private void redo() {
+        Map<String, Long> last = new HashMap<>();
+        replay(change -> last.put(change.id(), change.sequence()));
+        replay(change -> {
+            if (last.get(change.id()) == change.sequence() && !reflects(change)) {
+                if (change.type() == ChangeType.DELETE) {
+                    delegate.delete(change.id());
+                } else {
+                    delegate.put(change.id(), change.record());
+                }
+            }
+        });
+    }
+
+    private boolean reflects(ChangeEvent change) {
+        if (change.type() == ChangeType.DELETE) {
+            return !delegate.contains(change.id());
+        }
+        return delegate.read(change.id(), record -> record.equals(change.record())).orElse(false);
+    }
+
+    private void replay(Consumer<ChangeEvent> action) {
+        ChangeCursor cursor = changes.cursor(changes.firstSequence() - 1, REDO_BATCH);
+        for (List<ChangeEvent> batch = cursor.poll(); !batch.isEmpty(); batch = cursor.poll()) {
+            batch.forEach(action);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.jabaddon.practices.architecture.todos.persistence.cdc;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A consumer's position in a {@link ChangeLog}.
+ *
+ * Each poll returns the next batch and moves the position past it. A
+ * consumer that saves {@link #position()} once it has processed a batch can
+ * resume after a restart with {@link ChangeLog#cursor(long, int)}, receiving
+ * every later change exactly once. Not thread-safe; use one cursor per
+ * consumer thread.
+ */
+public final class ChangeCursor {
+
+    private final ChangeLog log;
+    private final int batchSize;
+    private long position;
+
+    ChangeCursor(ChangeLog log, long after, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        if (after < 0) {
+            throw new IllegalArgumentException("Position cannot be negative");
+        }
+        this.log = log;
+        this.position = after;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the changes available right now, up to the batch size, possibly none.
+     */
+    public List<ChangeEvent> poll() {
+        List<ChangeEvent> batch = log.read(position, batchSize);
+        if (!batch.isEmpty()) {
+            position = batch.get(batch.size() - 1).sequence();
+        }
+        return batch;
+    }
+
+    /**
+     * Like {@link #poll()}, waiting up to the timeout for a change when none is available.
+     */
+    public List<ChangeEvent> poll(Duration timeout) throws InterruptedException {
+        List<ChangeEvent> batch = poll();
+        if (batch.isEmpty() && log.awaitAfter(position, timeout)) {
+            batch = poll();
+        }
+        return batch;
+    }
+
+    /**
+     * Sequence of the last change returned, the position to save and resume from.
+     */
+    public long position() {
+        return position;
+    }
+}
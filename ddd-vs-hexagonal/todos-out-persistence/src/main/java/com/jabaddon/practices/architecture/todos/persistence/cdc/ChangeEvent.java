@@ -0,0 +1,14 @@
+package com.jabaddon.practices.architecture.todos.persistence.cdc;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One write read back from a {@link ChangeLog}.
+ *
+ * @param sequence position of the change in the log, starting at 1 and increasing by one per change
+ * @param type     kind of write
+ * @param id       id of the written record
+ * @param record   read-only copy of the record as written, or {@code null} for a delete
+ */
+public record ChangeEvent(long sequence, ChangeType type, String id, ByteBuffer record) {
+}
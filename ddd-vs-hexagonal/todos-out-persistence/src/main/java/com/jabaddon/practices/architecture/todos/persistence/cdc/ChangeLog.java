@@ -0,0 +1,200 @@
+package com.jabaddon.practices.architecture.todos.persistence.cdc;
+
+import com.jabaddon.practices.architecture.todos.persistence.store.StoreException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Durable, append-only log of record changes, numbered by a gapless sequence.
+ *
+ * Changes are appended to memory-mapped {@link ChangeSegment} files named
+ * after their first sequence, and read back in batches straight from the
+ * mappings, so a consumer holds at most one batch in memory however far
+ * behind it is. Consumers keep their own position, the last sequence they
+ * processed, and resume from it through a {@link ChangeCursor}; old segments
+ * are only dropped by {@link #truncateBefore}.
+ *
+ * Appends are serialized; reads need no lock. Segments are forced to disk
+ * on roll and close, like store segments without group commit.
+ */
+public final class ChangeLog implements AutoCloseable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ConcurrentNavigableMap<Long, ChangeSegment> segments = new ConcurrentSkipListMap<>();
+    private ChangeSegment active;
+    private volatile long lastSequence;
+    private volatile boolean closed;
+
+    private ChangeLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(ChangeSegment::isSegmentFile)
+                    .map(ChangeSegment::open)
+                    .forEach(segment -> segments.put(segment.firstSequence(), segment));
+        } catch (IOException e) {
+            throw new StoreException("Cannot list change log directory " + directory, e);
+        }
+        if (!segments.isEmpty()) {
+            active = segments.lastEntry().getValue();
+            lastSequence = active.lastSequence();
+        }
+    }
+
+    public static ChangeLog open(Path directory) {
+        return open(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public static ChangeLog open(Path directory, int segmentSize) {
+        if (segmentSize < 4096) {
+            throw new IllegalArgumentException("Segment size must be at least 4096 bytes");
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new StoreException("Cannot create change log directory " + directory, e);
+        }
+        return new ChangeLog(directory, segmentSize);
+    }
+
+    /**
+     * Appends a change and wakes up the consumers waiting for it.
+     *
+     * @param record the record as written, or {@code null} for a delete
+     * @return the sequence assigned to the change
+     */
+    public synchronized long append(ChangeType type, String id, ByteBuffer record) {
+        ensureOpen();
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        long sequence = lastSequence + 1;
+        if (active == null || !active.append(sequence, type, key, record)) {
+            if (active != null) {
+                active.force();
+            }
+            active = ChangeSegment.create(directory, sequence, segmentSize);
+            segments.put(sequence, active);
+            if (!active.append(sequence, type, key, record)) {
+                throw new StoreException("Change of " + id + " does not fit in a change segment");
+            }
+        }
+        lastSequence = sequence;
+        notifyAll();
+        return sequence;
+    }
+
+    /**
+     * Reads up to {@code limit} changes following the given position.
+     *
+     * @param after the last sequence already processed, 0 to read from the start
+     * @throws StoreException when changes right after the position were already truncated
+     */
+    public List<ChangeEvent> read(long after, int limit) {
+        ensureOpen();
+        long last = lastSequence;
+        List<ChangeEvent> batch = new ArrayList<>(Math.min(limit, 256));
+        if (after >= last) {
+            return batch;
+        }
+        long first = firstSequence();
+        if (after + 1 < first) {
+            throw new StoreException("Changes after " + after + " were truncated, the log starts at " + first);
+        }
+        long next = after + 1;
+        Map.Entry<Long, ChangeSegment> entry = segments.floorEntry(next);
+        while (entry != null && next <= last && batch.size() < limit) {
+            entry.getValue().read(next, last, limit, batch);
+            next = batch.isEmpty() ? next : batch.get(batch.size() - 1).sequence() + 1;
+            entry = segments.higherEntry(entry.getKey());
+        }
+        return batch;
+    }
+
+    /**
+     * Blocks until a change after the given position is appended, the timeout expires or the log closes.
+     *
+     * @return whether such a change exists
+     */
+    public synchronized boolean awaitAfter(long after, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (lastSequence <= after && !closed) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining / 1_000_000, (int) (remaining % 1_000_000));
+        }
+        return lastSequence > after;
+    }
+
+    /**
+     * Starts consuming the changes that follow the given position.
+     *
+     * @param after     the last sequence already processed, 0 to read from the start
+     * @param batchSize the most changes returned by one poll
+     */
+    public ChangeCursor cursor(long after, int batchSize) {
+        return new ChangeCursor(this, after, batchSize);
+    }
+
+    /**
+     * Deletes the sealed segments holding only changes before the given sequence.
+     */
+    public synchronized void truncateBefore(long sequence) {
+        ensureOpen();
+        for (Map.Entry<Long, ChangeSegment> entry : segments.entrySet()) {
+            ChangeSegment segment = entry.getValue();
+            if (segment == active || segment.lastSequence() >= sequence) {
+                break;
+            }
+            segments.remove(entry.getKey());
+            segment.delete();
+        }
+    }
+
+    /**
+     * Sequence of the latest change, 0 when none was ever appended.
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Oldest sequence still readable.
+     */
+    public long firstSequence() {
+        Map.Entry<Long, ChangeSegment> first = segments.firstEntry();
+        return first == null ? lastSequence + 1 : first.getKey();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (active != null) {
+            active.force();
+        }
+        notifyAll();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Change log is closed");
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.jabaddon.practices.architecture.todos.persistence.cdc;
+
+import com.jabaddon.practices.architecture.todos.persistence.store.StoreException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * One append-only, memory-mapped file of a {@link ChangeLog}, holding consecutive sequences.
+ *
+ * Entry layout:
+ * <pre>
+ * [int length][int crc32c][long sequence][byte type][short idLength][id bytes][record bytes]
+ * </pre>
+ * As in the store segments, the length is written last so a torn entry ends
+ * the segment. The offset of every {@value #SPARSE_INTERVAL}th entry is kept
+ * in memory, so finding a sequence skips at most that many entries.
+ */
+final class ChangeSegment {
+
+    static final int HEADER_SIZE = 4 + 4 + 8 + 1 + 2;
+
+    private static final int CRC_OFFSET = 4;
+    private static final int SEQUENCE_OFFSET = 8;
+    private static final int TYPE_OFFSET = 16;
+    private static final int ID_LENGTH_OFFSET = 17;
+    private static final int SPARSE_INTERVAL = 64;
+    private static final String PREFIX = "changes-";
+    private static final String SUFFIX = ".log";
+
+    private final long firstSequence;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private volatile int[] sparseOffsets = new int[16];
+    private volatile int entryCount;
+    private int writePosition;
+
+    private ChangeSegment(long firstSequence, Path path, MappedByteBuffer buffer) {
+        this.firstSequence = firstSequence;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    static ChangeSegment create(Path directory, long firstSequence, int size) {
+        return map(firstSequence, directory.resolve(String.format(PREFIX + "%020d" + SUFFIX, firstSequence)), size);
+    }
+
+    /**
+     * Maps an existing segment and positions it after its last intact entry.
+     */
+    static ChangeSegment open(Path path) {
+        String name = path.getFileName().toString();
+        long firstSequence = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        try {
+            ChangeSegment segment = map(firstSequence, path, (int) Files.size(path));
+            segment.recover();
+            return segment;
+        } catch (IOException e) {
+            throw new StoreException("Cannot open change segment " + path, e);
+        }
+    }
+
+    static boolean isSegmentFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static ChangeSegment map(long firstSequence, Path path, int size) {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new ChangeSegment(firstSequence, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException e) {
+            throw new StoreException("Cannot map change segment " + path, e);
+        }
+    }
+
+    private void recover() {
+        int offset = 0;
+        while (offset + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length < HEADER_SIZE || offset + length > buffer.capacity()
+                    || buffer.getInt(offset + CRC_OFFSET) != checksum(offset, length)
+                    || buffer.getLong(offset + SEQUENCE_OFFSET) != firstSequence + entryCount) {
+                break;
+            }
+            track(offset);
+            offset += length;
+        }
+        writePosition = offset;
+    }
+
+    /**
+     * Appends the change, which must carry the next sequence of the segment.
+     * Callers serialize appends.
+     *
+     * @return whether it fit in the segment
+     */
+    boolean append(long sequence, ChangeType type, byte[] id, ByteBuffer record) {
+        int recordLength = record == null ? 0 : record.remaining();
+        int length = HEADER_SIZE + id.length + recordLength;
+        int offset = writePosition;
+        if (offset + length + 4 > buffer.capacity()) {
+            return false;
+        }
+        buffer.putLong(offset + SEQUENCE_OFFSET, sequence);
+        buffer.put(offset + TYPE_OFFSET, type.code());
+        buffer.putShort(offset + ID_LENGTH_OFFSET, (short) id.length);
+        buffer.put(offset + HEADER_SIZE, id);
+        if (record != null) {
+            buffer.put(offset + HEADER_SIZE + id.length, record, record.position(), recordLength);
+        }
+        buffer.putInt(offset + CRC_OFFSET, checksum(offset, length));
+        buffer.putInt(offset, length);
+        writePosition = offset + length;
+        track(offset);
+        return true;
+    }
+
+    private void track(int offset) {
+        int count = entryCount;
+        if (count % SPARSE_INTERVAL == 0) {
+            int slot = count / SPARSE_INTERVAL;
+            int[] offsets = sparseOffsets;
+            if (slot == offsets.length) {
+                offsets = Arrays.copyOf(offsets, slot * 2);
+            }
+            offsets[slot] = offset;
+            sparseOffsets = offsets;
+        }
+        entryCount = count + 1;
+    }
+
+    /**
+     * Adds the entries from {@code sequence} on to the batch, up to {@code last} and the batch limit.
+     */
+    void read(long sequence, long last, int limit, List<ChangeEvent> batch) {
+        int count = entryCount;
+        long index = sequence - firstSequence;
+        if (index < 0 || index >= count) {
+            return;
+        }
+        int[] offsets = sparseOffsets;
+        int offset = offsets[(int) (index / SPARSE_INTERVAL)];
+        for (long skip = index % SPARSE_INTERVAL; skip > 0; skip--) {
+            offset += buffer.getInt(offset);
+        }
+        for (long current = sequence; current < firstSequence + count && current <= last && batch.size() < limit;
+             current++) {
+            int length = buffer.getInt(offset);
+            int idLength = Short.toUnsignedInt(buffer.getShort(offset + ID_LENGTH_OFFSET));
+            byte[] id = new byte[idLength];
+            buffer.get(offset + HEADER_SIZE, id);
+            ChangeType type = ChangeType.of(buffer.get(offset + TYPE_OFFSET));
+            ByteBuffer record = null;
+            if (type != ChangeType.DELETE) {
+                byte[] data = new byte[length - HEADER_SIZE - idLength];
+                buffer.get(offset + HEADER_SIZE + idLength, data);
+                record = ByteBuffer.wrap(data).asReadOnlyBuffer();
+            }
+            batch.add(new ChangeEvent(current, type, new String(id, StandardCharsets.UTF_8), record));
+            offset += length;
+        }
+    }
+
+    private int checksum(int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + SEQUENCE_OFFSET, length - SEQUENCE_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    long firstSequence() {
+        return firstSequence;
+    }
+
+    /**
+     * Sequence of the last entry, or {@code firstSequence - 1} when empty.
+     */
+    long lastSequence() {
+        return firstSequence + entryCount - 1;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new StoreException("Cannot delete change segment " + path, e);
+        }
+    }
+}
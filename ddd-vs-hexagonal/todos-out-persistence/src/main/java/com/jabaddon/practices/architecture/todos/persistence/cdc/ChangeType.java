@@ -0,0 +1,30 @@
+package com.jabaddon.practices.architecture.todos.persistence.cdc;
+
+/**
+ * Kind of write recorded in a {@link ChangeLog}.
+ */
+public enum ChangeType {
+
+    INSERT((byte) 1),
+    UPDATE((byte) 2),
+    DELETE((byte) 3);
+
+    private final byte code;
+
+    ChangeType(byte code) {
+        this.code = code;
+    }
+
+    byte code() {
+        return code;
+    }
+
+    static ChangeType of(byte code) {
+        for (ChangeType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown change type: " + code);
+    }
+}
@@ -0,0 +1,127 @@
+package com.jabaddon.practices.architecture.todos.persistence.clean;
+
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoData;
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.index.CreatedBetweenQuery;
+import com.jabaddon.practices.architecture.todos.persistence.index.RecentlyUpdatedQuery;
+import com.jabaddon.practices.architecture.todos.persistence.index.SearchQuery;
+import com.jabaddon.practices.architecture.todos.persistence.index.StatusQuery;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordStore;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * RecordStore implementation of TodoGateway.
+ *
+ * This is an adapter (Layer 3) that implements the gateway interface
+ * defined in the use case layer (Layer 2). Todos are kept as encoded
+ * records, e.g. off-heap or in the log-structured store, and a TodoData
+ * is only built when a gateway method returns it.
+ */
+public class RecordStoreTodoGateway implements TodoGateway {
+
+    private final RecordStore store;
+
+    public RecordStoreTodoGateway(RecordStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public TodoData save(TodoData todo) {
+        store.put(todo.id(), encode(todo));
+        return todo;
+    }
+
+    @Override
+    public Optional<TodoData> findById(String id) {
+        return store.read(id, RecordStoreTodoGateway::decode);
+    }
+
+    @Override
+    public List<TodoData> findAll() {
+        return store.readAll(RecordStoreTodoGateway::decode);
+    }
+
+    @Override
+    public List<TodoData> findByCompleted(boolean completed) {
+        return store.query(StatusQuery.of(completed), RecordStoreTodoGateway::decode);
+    }
+
+    /**
+     * Decodes one record at a time while the store is visited. Weakly consistent:
+     * writes made during the visit may or may not be seen.
+     */
+    @Override
+    public void forEach(Consumer<TodoData> action) {
+        store.forEach((id, record) -> action.accept(decode(record)));
+    }
+
+    /**
+     * Checks the status byte before decoding, so skipped records cost no allocation.
+     */
+    @Override
+    public void forEachByCompleted(boolean completed, Consumer<TodoData> action) {
+        store.forEach((id, record) -> {
+            if (TodoRecordCodec.isCompleted(TodoRecordCodec.status(record)) == completed) {
+                action.accept(decode(record));
+            }
+        });
+    }
+
+    @Override
+    public long countByCompleted(boolean completed) {
+        return store.count(StatusQuery.of(completed));
+    }
+
+    @Override
+    public List<TodoData> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return store.query(CreatedBetweenQuery.of(from, to, limit), RecordStoreTodoGateway::decode);
+    }
+
+    @Override
+    public List<TodoData> findByCreatedAtAfter(LocalDateTime afterCreatedAt, String afterId, LocalDateTime to, int limit) {
+        return store.query(CreatedBetweenQuery.after(afterCreatedAt, afterId, to, limit),
+                RecordStoreTodoGateway::decode);
+    }
+
+    @Override
+    public List<TodoData> findRecentlyUpdated(int limit) {
+        return store.query(new RecentlyUpdatedQuery(limit), RecordStoreTodoGateway::decode);
+    }
+
+    @Override
+    public List<TodoData> search(String query, int limit) {
+        return store.query(SearchQuery.of(query, limit), RecordStoreTodoGateway::decode);
+    }
+
+    @Override
+    public void delete(String id) {
+        store.delete(id);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return store.contains(id);
+    }
+
+    private static ByteBuffer encode(TodoData todo) {
+        return TodoRecordCodec.encodeToScratch(
+                todo.id(),
+                todo.title(),
+                todo.description(),
+                TodoRecordCodec.statusOf(todo.completed()),
+                todo.createdAt(),
+                todo.updatedAt()
+        );
+    }
+
+    private static TodoData decode(ByteBuffer record) {
+        return TodoRecordCodec.decode(record, (id, title, description, status, createdAt, updatedAt) ->
+                new TodoData(id, title, description, TodoRecordCodec.isCompleted(status), createdAt, updatedAt));
+    }
+}
@@ -0,0 +1,354 @@
+package com.jabaddon.practices.architecture.todos.persistence.codec;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary representation of a todo, shared by every storage, network and export path.
+ *
+ * Layout (big-endian, version 1):
+ * <pre>
+ * offset  size  field
+ *  0      1     version
+ *  1      1     flags (TEXT_ID, NULL_DESCRIPTION)
+ *  2      1     status (0 = pending, 1 = completed)
+ *  3      1     reserved
+ *  4      8     id, most significant bits
+ *  12     8     id, least significant bits
+ *  20     8     createdAt, epoch micros UTC
+ *  28     8     updatedAt, epoch micros UTC
+ *  36     2     id length (TEXT_ID only)
+ *  38     2     title length
+ *  40     2     description length
+ *  42     ...   [id UTF-8 (TEXT_ID only)] [title UTF-8] [description UTF-8]
+ * </pre>
+ * Canonical UUID ids are packed into the 16 id bytes; any other id is stored
+ * as text. Timestamps are truncated to microseconds. Encoding writes straight
+ * into the target buffer and the fixed header lets callers read status and
+ * timestamps without decoding the strings.
+ */
+public final class TodoRecordCodec {
+
+    public static final byte VERSION = 1;
+
+    public static final byte STATUS_PENDING = 0;
+    public static final byte STATUS_COMPLETED = 1;
+
+    public static final int HEADER_SIZE = 42;
+
+    private static final int FLAGS = 1;
+    private static final int STATUS = 2;
+    private static final int ID_MSB = 4;
+    private static final int ID_LSB = 12;
+    private static final int CREATED_AT = 20;
+    private static final int UPDATED_AT = 28;
+    private static final int ID_LENGTH = 36;
+    private static final int TITLE_LENGTH = 38;
+    private static final int DESCRIPTION_LENGTH = 40;
+
+    private static final byte FLAG_TEXT_ID = 1;
+    private static final byte FLAG_NULL_DESCRIPTION = 2;
+
+    private static final int MAX_FIELD_BYTES = 0xFFFF;
+    private static final int UUID_LENGTH = 36;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<ByteBuffer> ENCODE_SCRATCH =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(8192));
+    private static final ThreadLocal<byte[]> DECODE_SCRATCH =
+            ThreadLocal.withInitial(() -> new byte[8192]);
+
+    private TodoRecordCodec() {
+    }
+
+    /**
+     * Upper bound of the encoded size, enough to size a target buffer without encoding twice.
+     */
+    public static int maxEncodedSize(String id, String title, String description) {
+        int idChars = isCanonicalUuid(id) ? 0 : id.length();
+        int descriptionChars = description != null ? description.length() : 0;
+        return HEADER_SIZE + 3 * (idChars + title.length() + descriptionChars);
+    }
+
+    /**
+     * Encodes a todo at the buffer position and advances it past the record.
+     *
+     * @return the number of bytes written
+     */
+    public static int encode(ByteBuffer target, String id, String title, String description, byte status,
+                             LocalDateTime createdAt, LocalDateTime updatedAt) {
+        if (target.remaining() < maxEncodedSize(id, title, description)) {
+            throw new BufferOverflowException();
+        }
+        int base = target.position();
+        boolean uuid = isCanonicalUuid(id);
+        byte flags = 0;
+        if (!uuid) {
+            flags |= FLAG_TEXT_ID;
+        }
+        if (description == null) {
+            flags |= FLAG_NULL_DESCRIPTION;
+        }
+        target.put(base, VERSION);
+        target.put(base + FLAGS, flags);
+        target.put(base + STATUS, status);
+        target.put(base + 3, (byte) 0);
+        target.putLong(base + ID_MSB, uuid ? uuidMostSignificantBits(id) : 0);
+        target.putLong(base + ID_LSB, uuid ? uuidLeastSignificantBits(id) : 0);
+        target.putLong(base + CREATED_AT, toEpochMicros(createdAt));
+        target.putLong(base + UPDATED_AT, toEpochMicros(updatedAt));
+
+        int offset = base + HEADER_SIZE;
+        int idLength = uuid ? 0 : putUtf8(target, offset, id);
+        offset += idLength;
+        int titleLength = putUtf8(target, offset, title);
+        offset += titleLength;
+        int descriptionLength = description != null ? putUtf8(target, offset, description) : 0;
+        offset += descriptionLength;
+
+        target.putShort(base + ID_LENGTH, fieldLength(idLength, "Id"));
+        target.putShort(base + TITLE_LENGTH, fieldLength(titleLength, "Title"));
+        target.putShort(base + DESCRIPTION_LENGTH, fieldLength(descriptionLength, "Description"));
+        target.position(offset);
+        return offset - base;
+    }
+
+    /**
+     * Encodes into a buffer reused by the calling thread. The returned buffer is
+     * ready to read and stays valid until the next call on the same thread.
+     */
+    public static ByteBuffer encodeToScratch(String id, String title, String description, byte status,
+                                             LocalDateTime createdAt, LocalDateTime updatedAt) {
+        ByteBuffer scratch = ENCODE_SCRATCH.get();
+        int required = maxEncodedSize(id, title, description);
+        if (scratch.capacity() < required) {
+            scratch = ByteBuffer.allocate(Integer.highestOneBit(required) << 1);
+            ENCODE_SCRATCH.set(scratch);
+        }
+        scratch.clear();
+        encode(scratch, id, title, description, status, createdAt, updatedAt);
+        return scratch.flip();
+    }
+
+    /**
+     * Decodes the record at the buffer position, leaving the position untouched.
+     */
+    public static <T> T decode(ByteBuffer record, TodoRecordMapper<T> mapper) {
+        int base = record.position();
+        byte version = record.get(base);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported todo record version: " + version);
+        }
+        byte flags = record.get(base + FLAGS);
+        int idLength = Short.toUnsignedInt(record.getShort(base + ID_LENGTH));
+        int titleLength = Short.toUnsignedInt(record.getShort(base + TITLE_LENGTH));
+        int descriptionLength = Short.toUnsignedInt(record.getShort(base + DESCRIPTION_LENGTH));
+
+        int offset = base + HEADER_SIZE;
+        String id = (flags & FLAG_TEXT_ID) != 0
+                ? string(record, offset, idLength)
+                : uuidString(record.getLong(base + ID_MSB), record.getLong(base + ID_LSB));
+        offset += idLength;
+        String title = string(record, offset, titleLength);
+        offset += titleLength;
+        String description = (flags & FLAG_NULL_DESCRIPTION) != 0
+                ? null
+                : string(record, offset, descriptionLength);
+
+        return mapper.map(
+                id,
+                title,
+                description,
+                record.get(base + STATUS),
+                fromEpochMicros(record.getLong(base + CREATED_AT)),
+                fromEpochMicros(record.getLong(base + UPDATED_AT))
+        );
+    }
+
+    /**
+     * Total size of the record at the buffer position.
+     */
+    public static int encodedLength(ByteBuffer record) {
+        int base = record.position();
+        return HEADER_SIZE
+                + Short.toUnsignedInt(record.getShort(base + ID_LENGTH))
+                + Short.toUnsignedInt(record.getShort(base + TITLE_LENGTH))
+                + Short.toUnsignedInt(record.getShort(base + DESCRIPTION_LENGTH));
+    }
+
+    /**
+     * The id of the record at the buffer position, without decoding the other strings.
+     */
+    public static String id(ByteBuffer record) {
+        int base = record.position();
+        return (record.get(base + FLAGS) & FLAG_TEXT_ID) != 0
+                ? string(record, base + HEADER_SIZE, Short.toUnsignedInt(record.getShort(base + ID_LENGTH)))
+                : uuidString(record.getLong(base + ID_MSB), record.getLong(base + ID_LSB));
+    }
+
+    public static byte status(ByteBuffer record) {
+        return record.get(record.position() + STATUS);
+    }
+
+    public static long createdAtMicros(ByteBuffer record) {
+        return record.getLong(record.position() + CREATED_AT);
+    }
+
+    public static long updatedAtMicros(ByteBuffer record) {
+        return record.getLong(record.position() + UPDATED_AT);
+    }
+
+    public static byte statusOf(boolean completed) {
+        return completed ? STATUS_COMPLETED : STATUS_PENDING;
+    }
+
+    public static byte statusOf(String name) {
+        return switch (name) {
+            case "PENDING" -> STATUS_PENDING;
+            case "COMPLETED" -> STATUS_COMPLETED;
+            default -> throw new IllegalArgumentException("Unknown todo status: " + name);
+        };
+    }
+
+    public static String statusName(byte status) {
+        return switch (status) {
+            case STATUS_PENDING -> "PENDING";
+            case STATUS_COMPLETED -> "COMPLETED";
+            default -> throw new IllegalArgumentException("Unknown todo status: " + status);
+        };
+    }
+
+    public static boolean isCompleted(byte status) {
+        return status == STATUS_COMPLETED;
+    }
+
+    public static long toEpochMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    public static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000,
+                ZoneOffset.UTC
+        );
+    }
+
+    private static short fieldLength(int length, String field) {
+        if (length > MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException(field + " exceeds " + MAX_FIELD_BYTES + " encoded bytes");
+        }
+        return (short) length;
+    }
+
+    private static int putUtf8(ByteBuffer target, int index, String value) {
+        int start = index;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                target.put(index++, (byte) c);
+            } else if (c < 0x800) {
+                target.put(index++, (byte) (0xC0 | (c >> 6)));
+                target.put(index++, (byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                target.put(index++, (byte) (0xF0 | (codePoint >> 18)));
+                target.put(index++, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                target.put(index++, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                target.put(index++, (byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced the same way String.getBytes does
+                target.put(index++, (byte) '?');
+            } else {
+                target.put(index++, (byte) (0xE0 | (c >> 12)));
+                target.put(index++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                target.put(index++, (byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        return index - start;
+    }
+
+    private static String string(ByteBuffer record, int offset, int length) {
+        if (record.hasArray()) {
+            return new String(record.array(), record.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] scratch = DECODE_SCRATCH.get();
+        if (scratch.length < length) {
+            scratch = new byte[Integer.highestOneBit(length) << 1];
+            DECODE_SCRATCH.set(scratch);
+        }
+        record.get(offset, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether the id is a lowercase, hyphenated UUID that packs into two longs.
+     */
+    public static boolean isCanonicalUuid(String id) {
+        if (id.length() != UUID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = id.charAt(i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash ? c != '-' : !((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Most significant bits of a canonical UUID id.
+     */
+    public static long uuidMostSignificantBits(String id) {
+        return hexBits(id, 0, 18);
+    }
+
+    /**
+     * Least significant bits of a canonical UUID id.
+     */
+    public static long uuidLeastSignificantBits(String id) {
+        return hexBits(id, 19, UUID_LENGTH);
+    }
+
+    private static long hexBits(String id, int from, int to) {
+        long bits = 0;
+        for (int i = from; i < to; i++) {
+            char c = id.charAt(i);
+            if (c != '-') {
+                bits = (bits << 4) | (c <= '9' ? c - '0' : c - 'a' + 10);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Canonical text form of a UUID id, the inverse of the two bit accessors.
+     */
+    public static String uuidString(long msb, long lsb) {
+        byte[] text = new byte[UUID_LENGTH];
+        writeHex(text, 0, msb >>> 32, 8);
+        text[8] = '-';
+        writeHex(text, 9, msb >>> 16, 4);
+        text[13] = '-';
+        writeHex(text, 14, msb, 4);
+        text[18] = '-';
+        writeHex(text, 19, lsb >>> 48, 4);
+        text[23] = '-';
+        writeHex(text, 24, lsb, 12);
+        return new String(text, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void writeHex(byte[] target, int offset, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            target[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.jabaddon.practices.architecture.todos.persistence.codec;
+
+import java.time.LocalDateTime;
+
+/**
+ * Builds a caller-specific type straight from the decoded fields of a todo record,
+ * so decoding needs no intermediate object.
+ */
+@FunctionalInterface
+public interface TodoRecordMapper<T> {
+
+    T map(String id, String title, String description, byte status,
+          LocalDateTime createdAt, LocalDateTime updatedAt);
+}
@@ -0,0 +1,169 @@
+package com.jabaddon.practices.architecture.todos.persistence.ddd;
+
+import com.jabaddon.practices.architecture.todos.ddd.domain.repository.dao.TodoDao;
+import com.jabaddon.practices.architecture.todos.ddd.domain.repository.dao.TodoPersistenceModel;
+import com.jabaddon.practices.architecture.todos.persistence.cache.CacheStats;
+import com.jabaddon.practices.architecture.todos.persistence.cache.TinyLfuCache;
+import com.jabaddon.practices.architecture.todos.persistence.store.StripedLocks;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * TodoDao decorator caching the persistence models of frequently used todos.
+ *
+ * Every command of TodoApplicationService loads its aggregate by id, so
+ * {@link #findById(String)} and {@link #existsById(String)} are served from a
+ * {@link TinyLfuCache} when possible. Models are immutable records, so the
+ * cached instances are safe to share; the aggregates rebuilt from them are
+ * not cached since the domain mutates them.
+ *
+ * Saves write through to the delegate and then to the cache; deletes and
+ * batched saves invalidate. A miss loads and caches under the same per-id lock as writes,
+ * so a load racing with a save never caches the older model. Queries other
+ * than by id go to the delegate and do not touch the cache.
+ */
+public class CachingTodoDao implements TodoDao {
+
+    private final TodoDao delegate;
+    private final TinyLfuCache<String, TodoPersistenceModel> cache;
+    private final StripedLocks locks = new StripedLocks();
+
+    /**
+     * @param maximumSize todos kept in the cache
+     */
+    public CachingTodoDao(TodoDao delegate, int maximumSize) {
+        this.delegate = delegate;
+        this.cache = new TinyLfuCache<>(maximumSize);
+    }
+
+    @Override
+    public void save(TodoPersistenceModel model) {
+        synchronized (locks.lockFor(model.id())) {
+            try {
+                delegate.save(model);
+            } catch (RuntimeException e) {
+                // The delegate may or may not hold the new model; let the next read find out
+                cache.invalidate(model.id());
+                throw e;
+            }
+            cache.put(model.id(), model);
+        }
+    }
+
+    /**
+     * Passes the batch to the delegate as is. The batch holds no per-id lock
+     * while writing, so a single save may land in between; the saved ids are
+     * invalidated rather than cached to never shadow it.
+     */
+    @Override
+    public void saveAll(List<TodoPersistenceModel> models) {
+        try {
+            delegate.saveAll(models);
+        } finally {
+            models.forEach(model -> invalidate(model.id()));
+        }
+    }
+
+    @Override
+    public Optional<TodoPersistenceModel> findById(String id) {
+        TodoPersistenceModel cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        synchronized (locks.lockFor(id)) {
+            Optional<TodoPersistenceModel> loaded = delegate.findById(id);
+            loaded.ifPresent(model -> cache.put(id, model));
+            return loaded;
+        }
+    }
+
+    @Override
+    public List<TodoPersistenceModel> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<TodoPersistenceModel> findByStatus(String status) {
+        return delegate.findByStatus(status);
+    }
+
+    @Override
+    public long countByStatus(String status) {
+        return delegate.countByStatus(status);
+    }
+
+    @Override
+    public List<TodoPersistenceModel> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return delegate.findByCreatedAtBetween(from, to, limit);
+    }
+
+    @Override
+    public List<TodoPersistenceModel> findByCreatedAtAfter(LocalDateTime afterCreatedAt, String afterId,
+                                                           LocalDateTime to, int limit) {
+        return delegate.findByCreatedAtAfter(afterCreatedAt, afterId, to, limit);
+    }
+
+    @Override
+    public List<TodoPersistenceModel> findRecentlyUpdated(int limit) {
+        return delegate.findRecentlyUpdated(limit);
+    }
+
+    @Override
+    public List<TodoPersistenceModel> search(String query, int limit) {
+        return delegate.search(query, limit);
+    }
+
+    @Override
+    public void delete(String id) {
+        synchronized (locks.lockFor(id)) {
+            try {
+                delegate.delete(id);
+            } finally {
+                cache.invalidate(id);
+            }
+        }
+    }
+
+    @Override
+    public void deleteAll(List<String> ids) {
+        try {
+            delegate.deleteAll(ids);
+        } finally {
+            ids.forEach(this::invalidate);
+        }
+    }
+
+    /**
+     * Passes the batch to the delegate as is, invalidating its ids like {@link #saveAll}.
+     */
+    @Override
+    public void writeAll(List<TodoPersistenceModel> models, List<String> deletedIds) {
+        try {
+            delegate.writeAll(models, deletedIds);
+        } finally {
+            models.forEach(model -> invalidate(model.id()));
+            deletedIds.forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        // A miss asks the delegate without loading the model: deleteTodo checks existence right before deleting
+        return cache.getIfPresent(id) != null || delegate.existsById(id);
+    }
+
+    /**
+     * Hit ratio, evictions and size of the cache; lookups through existsById count too.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private void invalidate(String id) {
+        synchronized (locks.lockFor(id)) {
+            cache.invalidate(id);
+        }
+    }
+}
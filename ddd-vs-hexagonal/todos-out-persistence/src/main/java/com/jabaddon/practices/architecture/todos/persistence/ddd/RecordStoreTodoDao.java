@@ -0,0 +1,137 @@
+package com.jabaddon.practices.architecture.todos.persistence.ddd;
+
+import com.jabaddon.practices.architecture.todos.ddd.domain.repository.dao.TodoDao;
+import com.jabaddon.practices.architecture.todos.ddd.domain.repository.dao.TodoPersistenceModel;
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.index.CreatedBetweenQuery;
+import com.jabaddon.practices.architecture.todos.persistence.index.RecentlyUpdatedQuery;
+import com.jabaddon.practices.architecture.todos.persistence.index.SearchQuery;
+import com.jabaddon.practices.architecture.todos.persistence.index.StatusQuery;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordStore;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * TodoDao adapter backed by a {@link RecordStore}.
+ *
+ * Implements the DAO published by todos-ddd (Open Host Service) without
+ * seeing the domain model; only {@link TodoPersistenceModel} crosses the boundary.
+ * Records are stored in the {@link TodoRecordCodec} format.
+ */
+public class RecordStoreTodoDao implements TodoDao {
+
+    private final RecordStore store;
+
+    public RecordStoreTodoDao(RecordStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void save(TodoPersistenceModel model) {
+        store.put(model.id(), encode(model));
+    }
+
+    @Override
+    public void saveAll(List<TodoPersistenceModel> models) {
+        writeAll(models, List.of());
+    }
+
+    /**
+     * Encodes the models into one buffer and hands them to the store with the
+     * deleted ids as a single batch.
+     */
+    @Override
+    public void writeAll(List<TodoPersistenceModel> models, List<String> deletedIds) {
+        int capacity = 0;
+        for (TodoPersistenceModel model : models) {
+            capacity += TodoRecordCodec.maxEncodedSize(model.id(), model.title(), model.description());
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        Map<String, ByteBuffer> records = new LinkedHashMap<>();
+        for (TodoPersistenceModel model : models) {
+            int start = buffer.position();
+            int length = TodoRecordCodec.encode(buffer, model.id(), model.title(), model.description(),
+                    TodoRecordCodec.statusOf(model.status()), model.createdAt(), model.updatedAt());
+            records.put(model.id(), buffer.slice(start, length));
+        }
+        store.writeAll(records, deletedIds);
+    }
+
+    @Override
+    public Optional<TodoPersistenceModel> findById(String id) {
+        return store.read(id, RecordStoreTodoDao::decode);
+    }
+
+    @Override
+    public List<TodoPersistenceModel> findAll() {
+        return store.readAll(RecordStoreTodoDao::decode);
+    }
+
+    @Override
+    public List<TodoPersistenceModel> findByStatus(String status) {
+        return store.query(StatusQuery.of(status), RecordStoreTodoDao::decode);
+    }
+
+    @Override
+    public long countByStatus(String status) {
+        return store.count(StatusQuery.of(status));
+    }
+
+    @Override
+    public List<TodoPersistenceModel> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return store.query(CreatedBetweenQuery.of(from, to, limit), RecordStoreTodoDao::decode);
+    }
+
+    @Override
+    public List<TodoPersistenceModel> findByCreatedAtAfter(LocalDateTime afterCreatedAt, String afterId, LocalDateTime to, int limit) {
+        return store.query(CreatedBetweenQuery.after(afterCreatedAt, afterId, to, limit),
+                RecordStoreTodoDao::decode);
+    }
+
+    @Override
+    public List<TodoPersistenceModel> findRecentlyUpdated(int limit) {
+        return store.query(new RecentlyUpdatedQuery(limit), RecordStoreTodoDao::decode);
+    }
+
+    @Override
+    public List<TodoPersistenceModel> search(String query, int limit) {
+        return store.query(SearchQuery.of(query, limit), RecordStoreTodoDao::decode);
+    }
+
+    @Override
+    public void delete(String id) {
+        store.delete(id);
+    }
+
+    @Override
+    public void deleteAll(List<String> ids) {
+        store.deleteAll(ids);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return store.contains(id);
+    }
+
+    private static ByteBuffer encode(TodoPersistenceModel model) {
+        return TodoRecordCodec.encodeToScratch(
+                model.id(),
+                model.title(),
+                model.description(),
+                TodoRecordCodec.statusOf(model.status()),
+                model.createdAt(),
+                model.updatedAt()
+        );
+    }
+
+    private static TodoPersistenceModel decode(ByteBuffer record) {
+        return TodoRecordCodec.decode(record, (id, title, description, status, createdAt, updatedAt) ->
+                new TodoPersistenceModel(id, title, description, TodoRecordCodec.statusName(status),
+                        createdAt, updatedAt));
+    }
+}
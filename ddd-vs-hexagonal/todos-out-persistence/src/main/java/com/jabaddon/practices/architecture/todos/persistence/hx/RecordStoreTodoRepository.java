@@ -0,0 +1,136 @@
+package com.jabaddon.practices.architecture.todos.persistence.hx;
+
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
+import com.jabaddon.practices.architecture.todos.hx.application.port.out.TodoRepository;
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.index.CreatedBetweenQuery;
+import com.jabaddon.practices.architecture.todos.persistence.index.RecentlyUpdatedQuery;
+import com.jabaddon.practices.architecture.todos.persistence.index.SearchQuery;
+import com.jabaddon.practices.architecture.todos.persistence.index.StatusQuery;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordStore;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+
+/**
+ * Output adapter implementing the hexagonal {@link TodoRepository} port on a {@link RecordStore}.
+ *
+ * Todos are stored in the {@link TodoRecordCodec} format and a {@link TodoDTO}
+ * is only created when a port method returns it.
+ */
+public class RecordStoreTodoRepository implements TodoRepository {
+
+    private final RecordStore store;
+
+    public RecordStoreTodoRepository(RecordStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public TodoDTO save(TodoDTO todo) {
+        store.put(todo.id(), encode(todo));
+        return todo;
+    }
+
+    @Override
+    public Optional<TodoDTO> findById(String id) {
+        return store.read(id, RecordStoreTodoRepository::decode);
+    }
+
+    @Override
+    public List<TodoDTO> findAll() {
+        return store.readAll(RecordStoreTodoRepository::decode);
+    }
+
+    @Override
+    public List<TodoDTO> findByCompleted(boolean completed) {
+        return store.query(StatusQuery.of(completed), RecordStoreTodoRepository::decode);
+    }
+
+    /**
+     * Decodes one record at a time while the store is visited. Weakly consistent:
+     * writes made during the visit may or may not be seen.
+     */
+    @Override
+    public void forEach(Consumer<TodoDTO> action) {
+        store.forEach((id, record) -> action.accept(decode(record)));
+    }
+
+    /**
+     * Checks the status byte before decoding, so skipped records cost no allocation.
+     */
+    @Override
+    public void forEachByCompleted(boolean completed, Consumer<TodoDTO> action) {
+        store.forEach((id, record) -> {
+            if (TodoRecordCodec.isCompleted(TodoRecordCodec.status(record)) == completed) {
+                action.accept(decode(record));
+            }
+        });
+    }
+
+    @Override
+    public long countByCompleted(boolean completed) {
+        return store.count(StatusQuery.of(completed));
+    }
+
+    @Override
+    public OptionalLong version() {
+        return store.version();
+    }
+
+    @Override
+    public OptionalLong versionByCompleted(boolean completed) {
+        return store.version(StatusQuery.of(completed));
+    }
+
+    @Override
+    public List<TodoDTO> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return store.query(CreatedBetweenQuery.of(from, to, limit), RecordStoreTodoRepository::decode);
+    }
+
+    @Override
+    public List<TodoDTO> findByCreatedAtAfter(LocalDateTime afterCreatedAt, String afterId, LocalDateTime to, int limit) {
+        return store.query(CreatedBetweenQuery.after(afterCreatedAt, afterId, to, limit),
+                RecordStoreTodoRepository::decode);
+    }
+
+    @Override
+    public List<TodoDTO> findRecentlyUpdated(int limit) {
+        return store.query(new RecentlyUpdatedQuery(limit), RecordStoreTodoRepository::decode);
+    }
+
+    @Override
+    public List<TodoDTO> search(String query, int limit) {
+        return store.query(SearchQuery.of(query, limit), RecordStoreTodoRepository::decode);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        store.delete(id);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return store.contains(id);
+    }
+
+    private static ByteBuffer encode(TodoDTO todo) {
+        return TodoRecordCodec.encodeToScratch(
+                todo.id(),
+                todo.title(),
+                todo.description(),
+                TodoRecordCodec.statusOf(todo.completed()),
+                todo.createdAt(),
+                todo.updatedAt()
+        );
+    }
+
+    private static TodoDTO decode(ByteBuffer record) {
+        return TodoRecordCodec.decode(record, (id, title, description, status, createdAt, updatedAt) ->
+                new TodoDTO(id, title, description, TodoRecordCodec.isCompleted(status), createdAt, updatedAt));
+    }
+}
@@ -0,0 +1,229 @@
+package com.jabaddon.practices.architecture.todos.persistence.index;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints, in the style of a Roaring bitmap.
+ *
+ * Values are grouped by their high 16 bits into containers. A sparse
+ * container is a sorted array of the low 16 bits; once it would exceed 4096
+ * values (8 KiB) it becomes a plain 65536-bit bitmap of the same size, and
+ * turns back into an array when it shrinks again. Memory therefore follows
+ * the number of values rather than the largest one, and iteration costs
+ * time proportional to the cardinality. Not thread-safe.
+ */
+final class CompressedBitmap {
+
+    private static final int ARRAY_LIMIT = 4096;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int containerCount;
+    private long cardinality;
+
+    /**
+     * @return whether the value was not already present
+     */
+    boolean add(int value) {
+        char key = (char) (value >>> 16);
+        int index = Arrays.binarySearch(keys, 0, containerCount, key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key, new ArrayContainer());
+        }
+        Container container = containers[index];
+        if (!container.add((char) value)) {
+            return false;
+        }
+        if (container instanceof ArrayContainer array && array.size > ARRAY_LIMIT) {
+            containers[index] = array.toBitmap();
+        }
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * @return whether the value was present
+     */
+    boolean remove(int value) {
+        char key = (char) (value >>> 16);
+        int index = Arrays.binarySearch(keys, 0, containerCount, key);
+        if (index < 0 || !containers[index].remove((char) value)) {
+            return false;
+        }
+        Container container = containers[index];
+        if (container.size() == 0) {
+            removeContainer(index);
+        } else if (container instanceof BitmapContainer bitmap && bitmap.size <= ARRAY_LIMIT) {
+            containers[index] = bitmap.toArray();
+        }
+        cardinality--;
+        return true;
+    }
+
+    boolean contains(int value) {
+        int index = Arrays.binarySearch(keys, 0, containerCount, (char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    long cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Visits the values in ascending order.
+     */
+    void forEach(IntConsumer consumer) {
+        for (int i = 0; i < containerCount; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (containerCount == keys.length) {
+            keys = Arrays.copyOf(keys, containerCount * 2);
+            containers = Arrays.copyOf(containers, containerCount * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, containerCount - index);
+        System.arraycopy(containers, index, containers, index + 1, containerCount - index);
+        keys[index] = key;
+        containers[index] = container;
+        containerCount++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, containerCount - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, containerCount - index - 1);
+        containers[--containerCount] = null;
+    }
+
+    private sealed interface Container permits ArrayContainer, BitmapContainer {
+
+        boolean add(char low);
+
+        boolean remove(char low);
+
+        boolean contains(char low);
+
+        int size();
+
+        void forEach(int high, IntConsumer consumer);
+    }
+
+    private static final class ArrayContainer implements Container {
+
+        private char[] values = new char[4];
+        private int size;
+
+        @Override
+        public boolean add(char low) {
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index >= 0) {
+                return false;
+            }
+            index = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = low;
+            size++;
+            return true;
+        }
+
+        @Override
+        public boolean remove(char low) {
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void forEach(int high, IntConsumer consumer) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(high | values[i]);
+            }
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < size; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+
+        private final long[] words = new long[1024];
+        private int size;
+
+        @Override
+        public boolean add(char low) {
+            long bit = 1L << low;
+            long word = words[low >>> 6];
+            if ((word & bit) != 0) {
+                return false;
+            }
+            words[low >>> 6] = word | bit;
+            size++;
+            return true;
+        }
+
+        @Override
+        public boolean remove(char low) {
+            long bit = 1L << low;
+            long word = words[low >>> 6];
+            if ((word & bit) == 0) {
+                return false;
+            }
+            words[low >>> 6] = word & ~bit;
+            size--;
+            return true;
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void forEach(int high, IntConsumer consumer) {
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    consumer.accept(high | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private ArrayContainer toArray() {
+            ArrayContainer array = new ArrayContainer();
+            array.values = new char[size];
+            forEach(0, value -> array.values[array.size++] = (char) value);
+            return array;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.jabaddon.practices.architecture.todos.persistence.index;
+
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordQuery;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+/**
+ * Todos created in {@code [fromMicros, toMicros)}, oldest first and ties broken by id,
+ * answered by a {@link TimeOrderedIndex} when present.
+ *
+ * With an {@code afterId}, the range starts right after the todo
+ * {@code (fromMicros, afterId)} instead, exclusively. That is the keyset
+ * cursor of the page following one that ended with this todo: no todo is
+ * repeated or skipped, however many share a createdAt.
+ *
+ * @param afterId id of the last todo already read, {@code null} to start at {@code fromMicros}
+ */
+public record CreatedBetweenQuery(long fromMicros, String afterId, long toMicros, int limit) implements RecordQuery {
+
+    public CreatedBetweenQuery {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+    }
+
+    public static CreatedBetweenQuery of(LocalDateTime from, LocalDateTime to, int limit) {
+        return new CreatedBetweenQuery(TodoRecordCodec.toEpochMicros(from), null, TodoRecordCodec.toEpochMicros(to), limit);
+    }
+
+    /**
+     * Todos created before {@code to} that come after the todo {@code (afterCreatedAt, afterId)}.
+     */
+    public static CreatedBetweenQuery after(LocalDateTime afterCreatedAt, String afterId, LocalDateTime to, int limit) {
+        if (afterId == null) {
+            throw new IllegalArgumentException("Cursor id cannot be null");
+        }
+        return new CreatedBetweenQuery(TodoRecordCodec.toEpochMicros(afterCreatedAt), afterId,
+                TodoRecordCodec.toEpochMicros(to), limit);
+    }
+
+    @Override
+    public boolean matches(ByteBuffer record) {
+        long createdAt = TodoRecordCodec.createdAtMicros(record);
+        if (createdAt >= toMicros || createdAt < fromMicros) {
+            return false;
+        }
+        // Only todos sharing the cursor's createdAt need their id read
+        return afterId == null || createdAt > fromMicros || TodoRecordCodec.id(record).compareTo(afterId) > 0;
+    }
+
+    @Override
+    public boolean ordered() {
+        return true;
+    }
+
+    @Override
+    public long orderKey(ByteBuffer record) {
+        return TodoRecordCodec.createdAtMicros(record);
+    }
+}
@@ -0,0 +1,271 @@
+package com.jabaddon.practices.architecture.todos.persistence.index;
+
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordQuery;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over the title and description tokens of each todo.
+ *
+ * Every term maps to a posting list of row numbers sorted for binary search,
+ * with the term frequency of each row; title tokens count twice. Terms are
+ * kept sorted so a search term also matches every term it prefixes, found
+ * with one range lookup. A search ranks the rows containing all its terms by
+ * BM25, exact matches weighing twice as much as prefix matches, and keeps the
+ * best {@code limit} of them in a bounded heap.
+ *
+ * Each row remembers its term frequencies, so an update only touches the
+ * posting lists of the terms whose frequency changed.
+ */
+public final class FullTextIndex implements RecordIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_WEIGHT = 0.5;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final Map<String, Integer> rows = new HashMap<>();
+    private String[] ids = new String[1024];
+    private Map<String, Integer>[] terms = newTermsArray(1024);
+    private int[] lengths = new int[1024];
+    private int[] freeRows = new int[16];
+    private int freeCount;
+    private int nextRow;
+    private long totalLength;
+
+    @Override
+    public void onPut(String id, ByteBuffer record) {
+        Map<String, Integer> frequencies = TodoRecordCodec.decode(record,
+                (recordId, title, description, status, createdAt, updatedAt) -> frequencies(title, description));
+        int length = 0;
+        for (int frequency : frequencies.values()) {
+            length += frequency;
+        }
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            Integer row = rows.get(id);
+            Map<String, Integer> previous = Map.of();
+            if (row == null) {
+                row = allocateRow();
+                rows.put(id, row);
+                ids[row] = id;
+            } else {
+                previous = terms[row];
+                totalLength -= lengths[row];
+            }
+            for (Map.Entry<String, Integer> term : previous.entrySet()) {
+                if (!frequencies.containsKey(term.getKey())) {
+                    removePosting(term.getKey(), row);
+                }
+            }
+            for (Map.Entry<String, Integer> term : frequencies.entrySet()) {
+                if (!term.getValue().equals(previous.get(term.getKey()))) {
+                    postings.computeIfAbsent(term.getKey(), key -> new Postings()).put(row, term.getValue());
+                }
+            }
+            terms[row] = frequencies;
+            lengths[row] = length;
+            totalLength += length;
+        } finally {
+            write.unlock();
+        }
+    }
+
+    @Override
+    public void onDelete(String id) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            Integer row = rows.remove(id);
+            if (row == null) {
+                return;
+            }
+            for (String term : terms[row].keySet()) {
+                removePosting(term, row);
+            }
+            totalLength -= lengths[row];
+            ids[row] = null;
+            terms[row] = null;
+            lengths[row] = 0;
+            if (freeCount == freeRows.length) {
+                freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+            }
+            freeRows[freeCount++] = row;
+        } finally {
+            write.unlock();
+        }
+    }
+
+    @Override
+    public boolean supports(RecordQuery query) {
+        return query instanceof SearchQuery;
+    }
+
+    @Override
+    public List<String> ids(RecordQuery query) {
+        SearchQuery search = (SearchQuery) query;
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            Map<Integer, Double> scores = scores(search.terms());
+            PriorityQueue<Map.Entry<Integer, Double>> best = new PriorityQueue<>(
+                    Comparator.<Map.Entry<Integer, Double>>comparingDouble(Map.Entry::getValue)
+                            .thenComparing(entry -> ids[entry.getKey()], Comparator.reverseOrder()));
+            for (Map.Entry<Integer, Double> score : scores.entrySet()) {
+                if (best.size() < search.limit()) {
+                    best.add(score);
+                } else if (!best.isEmpty() && best.comparator().compare(score, best.peek()) > 0) {
+                    best.poll();
+                    best.add(score);
+                }
+            }
+            String[] result = new String[best.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = ids[best.poll().getKey()];
+            }
+            return Arrays.asList(result);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public long count(RecordQuery query) {
+        SearchQuery search = (SearchQuery) query;
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return Math.min(scores(search.terms()).size(), search.limit());
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * BM25 score of every row containing all the terms, each term contributing its best matching index term.
+     */
+    private Map<Integer, Double> scores(List<String> searchTerms) {
+        if (searchTerms.isEmpty() || rows.isEmpty()) {
+            return Map.of();
+        }
+        double averageLength = Math.max(1.0, (double) totalLength / rows.size());
+        Map<Integer, Double> scores = null;
+        for (String searchTerm : searchTerms) {
+            Map<Integer, Double> termScores = new HashMap<>();
+            for (Map.Entry<String, Postings> entry : postings.subMap(searchTerm, true,
+                    searchTerm + Character.MAX_VALUE, true).entrySet()) {
+                Postings list = entry.getValue();
+                double weight = entry.getKey().equals(searchTerm) ? 1.0 : PREFIX_WEIGHT;
+                double idf = Math.log(1 + (rows.size() - list.size + 0.5) / (list.size + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int row = list.rows[i];
+                    if (scores != null && !scores.containsKey(row)) {
+                        continue;
+                    }
+                    int frequency = list.frequencies[i];
+                    double score = weight * idf * frequency * (K1 + 1)
+                            / (frequency + K1 * (1 - B + B * lengths[row] / averageLength));
+                    termScores.merge(row, score, Math::max);
+                }
+            }
+            if (scores != null) {
+                Map<Integer, Double> previous = scores;
+                termScores.replaceAll((row, score) -> score + previous.get(row));
+            }
+            scores = termScores;
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    private static Map<String, Integer> frequencies(String title, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : Tokenizer.tokens(title)) {
+            frequencies.merge(token, 2, Integer::sum);
+        }
+        for (String token : Tokenizer.tokens(description)) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    private void removePosting(String term, int row) {
+        Postings list = postings.get(term);
+        if (list != null && list.remove(row) && list.size == 0) {
+            postings.remove(term);
+        }
+    }
+
+    private int allocateRow() {
+        if (freeCount > 0) {
+            return freeRows[--freeCount];
+        }
+        if (nextRow == ids.length) {
+            ids = Arrays.copyOf(ids, nextRow * 2);
+            terms = Arrays.copyOf(terms, nextRow * 2);
+            lengths = Arrays.copyOf(lengths, nextRow * 2);
+        }
+        return nextRow++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Integer>[] newTermsArray(int length) {
+        return (Map<String, Integer>[]) new Map[length];
+    }
+
+    /**
+     * Rows containing a term, sorted, with the term frequency in each.
+     */
+    private static final class Postings {
+
+        private int[] rows = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        private void put(int row, int frequency) {
+            int index = Arrays.binarySearch(rows, 0, size, row);
+            if (index >= 0) {
+                frequencies[index] = frequency;
+                return;
+            }
+            index = -index - 1;
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(rows, index, rows, index + 1, size - index);
+            System.arraycopy(frequencies, index, frequencies, index + 1, size - index);
+            rows[index] = row;
+            frequencies[index] = frequency;
+            size++;
+        }
+
+        private boolean remove(int row) {
+            int index = Arrays.binarySearch(rows, 0, size, row);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(rows, index + 1, rows, index, size - index - 1);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.jabaddon.practices.architecture.todos.persistence.index;
+
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordQuery;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordReader;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordVisitor;
+import com.jabaddon.practices.architecture.todos.persistence.store.StripedLocks;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+
+/**
+ * RecordStore decorator that keeps secondary indexes up to date and answers queries from them.
+ *
+ * Indexes are rebuilt from the wrapped store on construction and then
+ * updated after each write. Writes to the same id are serialized through
+ * striped locks so an index always ends up agreeing with the store; writes
+ * to different ids stay concurrent, which keeps group commit batching
+ * intact. Query results are re-checked against the record actually read, so
+ * a write racing with a query never yields a non-matching record.
+ */
+public final class IndexedRecordStore implements RecordStore {
+
+    private final RecordStore delegate;
+    private final List<RecordIndex> indexes;
+    private final StripedLocks stripes = new StripedLocks();
+
+    public IndexedRecordStore(RecordStore delegate, RecordIndex... indexes) {
+        this.delegate = delegate;
+        this.indexes = List.of(indexes);
+        delegate.forEach((id, record) -> {
+            for (RecordIndex index : this.indexes) {
+                index.onPut(id, record);
+            }
+        });
+    }
+
+    @Override
+    public void put(String id, ByteBuffer record) {
+        synchronized (stripes.lockFor(id)) {
+            ByteBuffer indexed = record.duplicate();
+            delegate.put(id, record);
+            for (RecordIndex index : indexes) {
+                index.onPut(id, indexed);
+            }
+        }
+    }
+
+    /**
+     * Hands the batch to the wrapped store under the locks of all its ids.
+     * When the wrapped store fails part way, the indexes of the batch ids are
+     * rebuilt from what it holds.
+     */
+    @Override
+    public void writeAll(Map<String, ByteBuffer> records, Collection<String> deletedIds) {
+        Set<String> ids = new LinkedHashSet<>(records.keySet());
+        ids.addAll(deletedIds);
+        stripes.runLocked(ids, () -> {
+            Map<String, ByteBuffer> indexed = new LinkedHashMap<>();
+            records.forEach((id, record) -> indexed.put(id, record.duplicate()));
+            try {
+                delegate.writeAll(records, deletedIds);
+            } catch (RuntimeException e) {
+                ids.forEach(this::reindex);
+                throw e;
+            }
+            indexed.forEach((id, record) -> {
+                for (RecordIndex index : indexes) {
+                    index.onPut(id, record);
+                }
+            });
+            for (String id : deletedIds) {
+                for (RecordIndex index : indexes) {
+                    index.onDelete(id);
+                }
+            }
+        });
+    }
+
+    @Override
+    public <T> Optional<T> read(String id, RecordReader<T> reader) {
+        return delegate.read(id, reader);
+    }
+
+    @Override
+    public <T> List<T> readAll(RecordReader<T> reader) {
+        return delegate.readAll(reader);
+    }
+
+    @Override
+    public void forEach(RecordVisitor visitor) {
+        delegate.forEach(visitor);
+    }
+
+    @Override
+    public <T> List<T> query(RecordQuery query, RecordReader<T> reader) {
+        RecordIndex index = indexFor(query);
+        if (index == null) {
+            return delegate.query(query, reader);
+        }
+        List<String> ids = index.ids(query);
+        List<T> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            delegate.read(id, record -> query.matches(record) ? reader.read(record) : null)
+                    .ifPresent(result::add);
+        }
+        return result;
+    }
+
+    @Override
+    public long count(RecordQuery query) {
+        RecordIndex index = indexFor(query);
+        return index == null ? delegate.count(query) : index.count(query);
+    }
+
+    @Override
+    public OptionalLong version() {
+        return delegate.version();
+    }
+
+    @Override
+    public OptionalLong version(RecordQuery query) {
+        return delegate.version(query);
+    }
+
+    @Override
+    public boolean delete(String id) {
+        synchronized (stripes.lockFor(id)) {
+            boolean deleted = delegate.delete(id);
+            if (deleted) {
+                for (RecordIndex index : indexes) {
+                    index.onDelete(id);
+                }
+            }
+            return deleted;
+        }
+    }
+
+    @Override
+    public boolean contains(String id) {
+        return delegate.contains(id);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private void reindex(String id) {
+        boolean present = delegate.read(id, record -> {
+            for (RecordIndex index : indexes) {
+                index.onPut(id, record);
+            }
+            return true;
+        }).orElse(false);
+        if (!present) {
+            for (RecordIndex index : indexes) {
+                index.onDelete(id);
+            }
+        }
+    }
+
+    private RecordIndex indexFor(RecordQuery query) {
+        for (RecordIndex index : indexes) {
+            if (index.supports(query)) {
+                return index;
+            }
+        }
+        return null;
+    }
+}
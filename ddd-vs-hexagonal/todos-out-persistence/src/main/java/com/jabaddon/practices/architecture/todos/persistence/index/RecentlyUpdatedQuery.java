@@ -0,0 +1,38 @@
+package com.jabaddon.practices.architecture.todos.persistence.index;
+
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordQuery;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The {@code limit} most recently updated todos, newest first, answered by a {@link TimeOrderedIndex} when present.
+ */
+public record RecentlyUpdatedQuery(int limit) implements RecordQuery {
+
+    public RecentlyUpdatedQuery {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+    }
+
+    @Override
+    public boolean matches(ByteBuffer record) {
+        return true;
+    }
+
+    @Override
+    public boolean ordered() {
+        return true;
+    }
+
+    @Override
+    public long orderKey(ByteBuffer record) {
+        return TodoRecordCodec.updatedAtMicros(record);
+    }
+
+    @Override
+    public boolean descending() {
+        return true;
+    }
+}
@@ -0,0 +1,32 @@
+package com.jabaddon.practices.architecture.todos.persistence.index;
+
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordQuery;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Secondary index maintained by an {@link IndexedRecordStore}.
+ *
+ * The store calls {@link #onPut} and {@link #onDelete} after every write,
+ * never concurrently for the same id, and routes each query to the first
+ * index that {@link #supports} it. Implementations must be thread-safe.
+ */
+public interface RecordIndex {
+
+    void onPut(String id, ByteBuffer record);
+
+    void onDelete(String id);
+
+    boolean supports(RecordQuery query);
+
+    /**
+     * Ids of the records matching a supported query, in result order.
+     */
+    List<String> ids(RecordQuery query);
+
+    /**
+     * Number of records matching a supported query.
+     */
+    long count(RecordQuery query);
+}
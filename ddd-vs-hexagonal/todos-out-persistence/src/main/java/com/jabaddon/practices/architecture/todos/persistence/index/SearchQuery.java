@@ -0,0 +1,70 @@
+package com.jabaddon.practices.architecture.todos.persistence.index;
+
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordQuery;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Todos whose title or description has a token starting with every search term,
+ * best matches first, answered by a {@link FullTextIndex} when present.
+ *
+ * The index ranks by BM25; a scan can only rank by the number of matching
+ * tokens, title tokens counting twice.
+ */
+public record SearchQuery(List<String> terms, int limit) implements RecordQuery {
+
+    public SearchQuery {
+        terms = List.copyOf(terms);
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+    }
+
+    /**
+     * Tokenizes the text the same way the index tokenizes todos.
+     */
+    public static SearchQuery of(String text, int limit) {
+        return new SearchQuery(Tokenizer.tokens(text), limit);
+    }
+
+    @Override
+    public boolean matches(ByteBuffer record) {
+        return !terms.isEmpty() && orderKey(record) > 0;
+    }
+
+    @Override
+    public boolean ordered() {
+        return true;
+    }
+
+    /**
+     * Number of matching tokens, or 0 when some term matches none.
+     */
+    @Override
+    public long orderKey(ByteBuffer record) {
+        return TodoRecordCodec.decode(record, (id, title, description, status, createdAt, updatedAt) -> {
+            List<String> titleTokens = Tokenizer.tokens(title);
+            List<String> descriptionTokens = Tokenizer.tokens(description);
+            long score = 0;
+            for (String term : terms) {
+                long matches = 2 * prefixMatches(titleTokens, term) + prefixMatches(descriptionTokens, term);
+                if (matches == 0) {
+                    return 0L;
+                }
+                score += matches;
+            }
+            return score;
+        });
+    }
+
+    @Override
+    public boolean descending() {
+        return true;
+    }
+
+    private static long prefixMatches(List<String> tokens, String term) {
+        return tokens.stream().filter(token -> token.startsWith(term)).count();
+    }
+}
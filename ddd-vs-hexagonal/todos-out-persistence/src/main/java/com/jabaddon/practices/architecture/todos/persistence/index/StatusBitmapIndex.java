@@ -0,0 +1,132 @@
+package com.jabaddon.practices.architecture.todos.persistence.index;
+
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordQuery;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Status index: one {@link CompressedBitmap} of row numbers per todo status.
+ *
+ * Every id gets a dense row number, reused after deletes, so the bitmaps
+ * stay compact. A status query walks only the bits of its bitmap and a count
+ * is the bitmap's cardinality, both independent of the store size.
+ */
+public final class StatusBitmapIndex implements RecordIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> rows = new HashMap<>();
+    private final CompressedBitmap[] bitmaps = new CompressedBitmap[256];
+    private String[] ids = new String[1024];
+    private byte[] statuses = new byte[1024];
+    private int[] freeRows = new int[16];
+    private int freeCount;
+    private int nextRow;
+
+    @Override
+    public void onPut(String id, ByteBuffer record) {
+        byte status = TodoRecordCodec.status(record);
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            Integer row = rows.get(id);
+            if (row == null) {
+                row = allocateRow();
+                rows.put(id, row);
+                ids[row] = id;
+            } else if (statuses[row] == status) {
+                return;
+            } else {
+                bitmaps[statuses[row] & 0xFF].remove(row);
+            }
+            statuses[row] = status;
+            bitmap(status).add(row);
+        } finally {
+            write.unlock();
+        }
+    }
+
+    @Override
+    public void onDelete(String id) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            Integer row = rows.remove(id);
+            if (row == null) {
+                return;
+            }
+            bitmaps[statuses[row] & 0xFF].remove(row);
+            ids[row] = null;
+            if (freeCount == freeRows.length) {
+                freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+            }
+            freeRows[freeCount++] = row;
+        } finally {
+            write.unlock();
+        }
+    }
+
+    @Override
+    public boolean supports(RecordQuery query) {
+        return query instanceof StatusQuery;
+    }
+
+    @Override
+    public List<String> ids(RecordQuery query) {
+        byte status = ((StatusQuery) query).status();
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            CompressedBitmap bitmap = bitmaps[status & 0xFF];
+            if (bitmap == null) {
+                return List.of();
+            }
+            List<String> result = new ArrayList<>((int) bitmap.cardinality());
+            bitmap.forEach(row -> result.add(ids[row]));
+            return result;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public long count(RecordQuery query) {
+        byte status = ((StatusQuery) query).status();
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            CompressedBitmap bitmap = bitmaps[status & 0xFF];
+            return bitmap == null ? 0 : bitmap.cardinality();
+        } finally {
+            read.unlock();
+        }
+    }
+
+    private int allocateRow() {
+        if (freeCount > 0) {
+            return freeRows[--freeCount];
+        }
+        if (nextRow == ids.length) {
+            ids = Arrays.copyOf(ids, nextRow * 2);
+            statuses = Arrays.copyOf(statuses, nextRow * 2);
+        }
+        return nextRow++;
+    }
+
+    private CompressedBitmap bitmap(byte status) {
+        CompressedBitmap bitmap = bitmaps[status & 0xFF];
+        if (bitmap == null) {
+            bitmap = new CompressedBitmap();
+            bitmaps[status & 0xFF] = bitmap;
+        }
+        return bitmap;
+    }
+}
@@ -0,0 +1,196 @@
+package com.jabaddon.practices.architecture.todos.persistence.index;
+
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordQuery;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordReader;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordVisitor;
+import com.jabaddon.practices.architecture.todos.persistence.store.StripedLocks;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RecordStore decorator keeping a running count of todos per status.
+ *
+ * Each status has a {@link LongAdder}, adjusted on every insert, delete and
+ * status change, so {@link #count(RecordQuery)} for a {@link StatusQuery} is
+ * a sum over a few cells: no scan, no lock, no allocation, whatever the
+ * store size. Other queries go to the wrapped store.
+ *
+ * It also keeps versions, for the whole store and per status, answering
+ * {@link #version()} and {@link #version(RecordQuery)} for a StatusQuery.
+ * A write bumps the store version and those of the statuses it replaced and
+ * wrote, once the wrapped store has it, so a caller reading a version before
+ * the records it covers never pairs a version with older records.
+ *
+ * The counters are reconciled with the wrapped store on construction by
+ * counting what it already holds. Writes to the same id are serialized
+ * through striped locks, so the status replaced by a write is always the one
+ * the counters saw.
+ */
+public final class StatusCountingRecordStore implements RecordStore {
+
+    private final RecordStore delegate;
+    private final LongAdder[] counters = new LongAdder[256];
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLongArray statusVersions = new AtomicLongArray(256);
+    private final StripedLocks stripes = new StripedLocks();
+
+    public StatusCountingRecordStore(RecordStore delegate) {
+        this.delegate = delegate;
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        delegate.forEach((id, record) -> counter(TodoRecordCodec.status(record)).increment());
+    }
+
+    @Override
+    public void put(String id, ByteBuffer record) {
+        byte status = TodoRecordCodec.status(record);
+        synchronized (stripes.lockFor(id)) {
+            Optional<Byte> previous = delegate.read(id, TodoRecordCodec::status);
+            delegate.put(id, record);
+            if (previous.isEmpty()) {
+                counter(status).increment();
+            } else if (previous.get() != status) {
+                counter(previous.get()).decrement();
+                counter(status).increment();
+                statusVersions.incrementAndGet(previous.get() & 0xFF);
+            }
+            statusVersions.incrementAndGet(status & 0xFF);
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Hands the batch to the wrapped store under the locks of all its ids and
+     * bumps the versions once. When the wrapped store fails part way, the
+     * counters follow what it holds for the batch ids.
+     */
+    @Override
+    public void writeAll(Map<String, ByteBuffer> records, Collection<String> deletedIds) {
+        Set<String> ids = new LinkedHashSet<>(records.keySet());
+        ids.addAll(deletedIds);
+        stripes.runLocked(ids, () -> {
+            Map<String, Optional<Byte>> previous = new HashMap<>();
+            for (String id : ids) {
+                previous.put(id, delegate.read(id, TodoRecordCodec::status));
+            }
+            try {
+                delegate.writeAll(records, deletedIds);
+            } catch (RuntimeException e) {
+                previous.forEach((id, status) -> recount(status, delegate.read(id, TodoRecordCodec::status)));
+                version.incrementAndGet();
+                throw e;
+            }
+            Set<String> deleted = new HashSet<>(deletedIds);
+            previous.forEach((id, status) -> recount(status, deleted.contains(id)
+                    ? Optional.empty()
+                    : Optional.of(TodoRecordCodec.status(records.get(id)))));
+            version.incrementAndGet();
+        });
+    }
+
+    @Override
+    public <T> Optional<T> read(String id, RecordReader<T> reader) {
+        return delegate.read(id, reader);
+    }
+
+    @Override
+    public <T> List<T> readAll(RecordReader<T> reader) {
+        return delegate.readAll(reader);
+    }
+
+    @Override
+    public void forEach(RecordVisitor visitor) {
+        delegate.forEach(visitor);
+    }
+
+    @Override
+    public <T> List<T> query(RecordQuery query, RecordReader<T> reader) {
+        return delegate.query(query, reader);
+    }
+
+    @Override
+    public long count(RecordQuery query) {
+        if (query instanceof StatusQuery status) {
+            return counter(status.status()).sum();
+        }
+        return delegate.count(query);
+    }
+
+    @Override
+    public OptionalLong version() {
+        return OptionalLong.of(version.get());
+    }
+
+    /**
+     * The version of the status for a {@link StatusQuery}, what the wrapped store says otherwise.
+     */
+    @Override
+    public OptionalLong version(RecordQuery query) {
+        if (query instanceof StatusQuery status) {
+            return OptionalLong.of(statusVersions.get(status.status() & 0xFF));
+        }
+        return delegate.version(query);
+    }
+
+    @Override
+    public boolean delete(String id) {
+        synchronized (stripes.lockFor(id)) {
+            Optional<Byte> previous = delegate.read(id, TodoRecordCodec::status);
+            boolean deleted = delegate.delete(id);
+            if (deleted && previous.isPresent()) {
+                counter(previous.get()).decrement();
+                statusVersions.incrementAndGet(previous.get() & 0xFF);
+                version.incrementAndGet();
+            }
+            return deleted;
+        }
+    }
+
+    @Override
+    public boolean contains(String id) {
+        return delegate.contains(id);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Moves an id from the status it had to the one it has; either is empty when the id is absent.
+     */
+    private void recount(Optional<Byte> previous, Optional<Byte> current) {
+        previous.ifPresent(status -> {
+            counter(status).decrement();
+            statusVersions.incrementAndGet(status & 0xFF);
+        });
+        current.ifPresent(status -> {
+            counter(status).increment();
+            statusVersions.incrementAndGet(status & 0xFF);
+        });
+    }
+
+    private LongAdder counter(byte status) {
+        return counters[status & 0xFF];
+    }
+}
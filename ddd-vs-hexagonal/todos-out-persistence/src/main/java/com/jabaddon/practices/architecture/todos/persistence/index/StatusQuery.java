@@ -0,0 +1,25 @@
+package com.jabaddon.practices.architecture.todos.persistence.index;
+
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordQuery;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Todos with the given {@link TodoRecordCodec} status, answered by a {@link StatusBitmapIndex} when present.
+ */
+public record StatusQuery(byte status) implements RecordQuery {
+
+    public static StatusQuery of(boolean completed) {
+        return new StatusQuery(TodoRecordCodec.statusOf(completed));
+    }
+
+    public static StatusQuery of(String status) {
+        return new StatusQuery(TodoRecordCodec.statusOf(status));
+    }
+
+    @Override
+    public boolean matches(ByteBuffer record) {
+        return TodoRecordCodec.status(record) == status;
+    }
+}
@@ -0,0 +1,182 @@
+package com.jabaddon.practices.architecture.todos.persistence.log;
+
+import com.jabaddon.practices.architecture.todos.persistence.store.StoreException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Blocked Bloom filter over the ids written to one {@link Segment}.
+ *
+ * Every id sets {@link #PROBES} bits inside a single 512-bit block, so a
+ * lookup touches one cache line per filter. The filter is sized for one id
+ * per {@link #BYTES_PER_ID} bytes of segment at {@link #BITS_PER_ID} bits
+ * each, about 1% false positives when full.
+ *
+ * File layout, written next to the segment:
+ * <pre>
+ * [int magic][int blocks][int position][long ids][long setBits] blocks x 8 x [long word]
+ * </pre>
+ * where position is the segment offset up to which every written id was added.
+ *
+ * One writer at a time; readers need no lock.
+ */
+final class BloomFilter {
+
+    static final int BYTES_PER_ID = 128;
+    static final int BITS_PER_ID = 10;
+    static final int PROBES = 6;
+
+    private static final int MAGIC = 0x424C4F4D;
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 8 + 8;
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BLOCK_BITS = WORDS_PER_BLOCK * Long.SIZE;
+
+    private final long[] words;
+    private final int blocks;
+    private volatile long ids;
+    private volatile long setBits;
+
+    private BloomFilter(long[] words, long ids, long setBits) {
+        this.words = words;
+        this.blocks = words.length / WORDS_PER_BLOCK;
+        this.ids = ids;
+        this.setBits = setBits;
+    }
+
+    static BloomFilter forSegment(int segmentSize) {
+        long bits = (long) segmentSize / BYTES_PER_ID * BITS_PER_ID;
+        int blocks = (int) Math.max(1, (bits + BLOCK_BITS - 1) / BLOCK_BITS);
+        return new BloomFilter(new long[blocks * WORDS_PER_BLOCK], 0, 0);
+    }
+
+    /**
+     * Hash shared by every filter, so a lookup hashes the id once whatever the number of segments.
+     */
+    static long hash(String id) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash = (hash ^ id.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    void add(long hash) {
+        int base = block(hash) * WORDS_PER_BLOCK;
+        long probes = mix(hash + 0x9E3779B97F4A7C15L);
+        int added = 0;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (int) (probes >>> (i * 9)) & (BLOCK_BITS - 1);
+            int word = base + (bit >>> 6);
+            long mask = 1L << bit;
+            if ((words[word] & mask) == 0) {
+                words[word] |= mask;
+                added++;
+            }
+        }
+        ids++;
+        setBits += added;
+    }
+
+    boolean mightContain(long hash) {
+        int base = block(hash) * WORDS_PER_BLOCK;
+        long probes = mix(hash + 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (int) (probes >>> (i * 9)) & (BLOCK_BITS - 1);
+            if ((words[base + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Chance that an id never added passes this filter, from the fraction of bits set.
+     */
+    double estimatedFalsePositiveRate() {
+        return Math.pow((double) setBits / bits(), PROBES);
+    }
+
+    long bits() {
+        return (long) words.length * Long.SIZE;
+    }
+
+    long ids() {
+        return ids;
+    }
+
+    BloomFilter copy() {
+        return new BloomFilter(words.clone(), ids, setBits);
+    }
+
+    /**
+     * Writes the filter through a temporary file, so a crash leaves either the old or the new file.
+     */
+    void save(Path path, int position) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + words.length * Long.BYTES);
+        buffer.putInt(MAGIC).putInt(blocks).putInt(position).putLong(ids).putLong(setBits);
+        buffer.asLongBuffer().put(words);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new StoreException("Cannot write bloom filter " + path, e);
+        }
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new StoreException("Cannot install bloom filter " + path, e);
+        }
+    }
+
+    /**
+     * Reads a filter saved for a segment of the given size.
+     *
+     * @return the filter and the position it covers, or {@code null} when the file is missing or unusable
+     */
+    static Loaded load(Path path, int segmentSize) {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        BloomFilter expected = forSegment(segmentSize);
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        } catch (IOException e) {
+            return null;
+        }
+        if (buffer.remaining() != HEADER_SIZE + expected.words.length * Long.BYTES
+                || buffer.getInt() != MAGIC || buffer.getInt() != expected.blocks) {
+            return null;
+        }
+        int position = buffer.getInt();
+        long ids = buffer.getLong();
+        long setBits = buffer.getLong();
+        buffer.asLongBuffer().get(expected.words);
+        return new Loaded(new BloomFilter(expected.words, ids, setBits), position);
+    }
+
+    private int block(long hash) {
+        return (int) (((hash >>> 32) * blocks) >>> 32);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    record Loaded(BloomFilter filter, int position) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.jabaddon.practices.architecture.todos.persistence.log;
+
+/**
+ * Segment filters of a {@link LogStructuredRecordStore}.
+ *
+ * An id that is not stored passes the filters either because of a false
+ * positive or because it was deleted and its tombstone has not been
+ * compacted away yet; both count as false positives here.
+ *
+ * @param filters                    one per segment
+ * @param bits                       memory held by the filters, in bits
+ * @param ids                        ids added to the filters, superseded writes included
+ * @param estimatedFalsePositiveRate chance that an id never stored passes some filter, from the bits set
+ * @param lookups                    lookups by id that went through the filters
+ * @param filteredLookups            lookups answered as absent by the filters alone
+ * @param falsePositives             lookups that passed the filters and found no record
+ */
+public record BloomFilterStats(int filters, long bits, long ids, double estimatedFalsePositiveRate,
+                               long lookups, long filteredLookups, long falsePositives) {
+
+    /**
+     * Fraction of lookups of absent ids that the filters could not answer.
+     */
+    public double observedFalsePositiveRate() {
+        long absent = filteredLookups + falsePositives;
+        return absent == 0 ? 0 : (double) falsePositives / absent;
+    }
+}
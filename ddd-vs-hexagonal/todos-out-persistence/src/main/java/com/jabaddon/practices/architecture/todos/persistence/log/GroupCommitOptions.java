@@ -0,0 +1,26 @@
+package com.jabaddon.practices.architecture.todos.persistence.log;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for group commit.
+ *
+ * @param flushInterval how long the committer waits for more writes to join a batch
+ *                      before forcing it; zero commits whatever is already queued
+ * @param maxBatchSize  upper bound of writes made durable by a single force
+ */
+public record GroupCommitOptions(Duration flushInterval, int maxBatchSize) {
+
+    public GroupCommitOptions {
+        if (flushInterval.isNegative()) {
+            throw new IllegalArgumentException("Flush interval cannot be negative");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Max batch size must be at least 1");
+        }
+    }
+
+    public static GroupCommitOptions defaults() {
+        return new GroupCommitOptions(Duration.ZERO, 1024);
+    }
+}
@@ -0,0 +1,22 @@
+package com.jabaddon.practices.architecture.todos.persistence.log;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of group commit activity.
+ *
+ * Commit latency is measured per write, from submission until the batch
+ * holding it was forced to disk and the caller released.
+ */
+public record GroupCommitStats(
+        long batches,
+        long writes,
+        int maxBatchSize,
+        Duration averageCommitLatency,
+        Duration maxCommitLatency
+) {
+
+    public double averageBatchSize() {
+        return batches == 0 ? 0 : (double) writes / batches;
+    }
+}
@@ -0,0 +1,194 @@
+package com.jabaddon.practices.architecture.todos.persistence.log;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Group commit: makes concurrent writes durable with one force per batch.
+ *
+ * Callers hand their write to {@link #submit} and block. A single committer
+ * thread drains the queue into a batch (up to the max batch size, waiting at
+ * most the flush interval for stragglers), applies every write under the
+ * store lock, forces once and only then releases all callers of the batch.
+ */
+final class GroupCommitWriter implements AutoCloseable {
+
+    private static final long POLL_MILLIS = 10;
+
+    private final GroupCommitOptions options;
+    private final Object lock;
+    private final Runnable force;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread committer;
+    private volatile boolean closed;
+
+    private long batches;
+    private long writes;
+    private int maxBatchSize;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+
+    GroupCommitWriter(GroupCommitOptions options, Object lock, Runnable force) {
+        this.options = options;
+        this.lock = lock;
+        this.force = force;
+        this.committer = new Thread(this::run, "log-store-group-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Queues a write and waits until the batch holding it is durable.
+     *
+     * @return the value returned by the write
+     */
+    boolean submit(BooleanSupplier write) {
+        if (closed) {
+            throw new IllegalStateException("Store is closed");
+        }
+        PendingWrite pending = new PendingWrite(write);
+        queue.add(pending);
+        if (closed && queue.remove(pending)) {
+            throw new IllegalStateException("Store is closed");
+        }
+        try {
+            return pending.done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(options.maxBatchSize());
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+            } catch (InterruptedException e) {
+                // Keep committing; close() is signalled through the closed flag
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<PendingWrite> batch) throws InterruptedException {
+        int max = options.maxBatchSize();
+        queue.drainTo(batch, max - batch.size());
+        long deadline = System.nanoTime() + options.flushInterval().toNanos();
+        while (batch.size() < max) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, max - batch.size());
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        synchronized (lock) {
+            for (PendingWrite pending : batch) {
+                try {
+                    pending.result = pending.write.getAsBoolean();
+                } catch (RuntimeException e) {
+                    pending.failure = e;
+                }
+            }
+            try {
+                force.run();
+            } catch (RuntimeException e) {
+                for (PendingWrite pending : batch) {
+                    if (pending.failure == null) {
+                        pending.failure = e;
+                    }
+                }
+            }
+        }
+        long now = System.nanoTime();
+        long batchLatency = 0;
+        long batchMaxLatency = 0;
+        for (PendingWrite pending : batch) {
+            long latency = now - pending.submittedAt;
+            batchLatency += latency;
+            batchMaxLatency = Math.max(batchMaxLatency, latency);
+        }
+        // Stats first, so a released caller always observes its own write in them
+        record(batch.size(), batchLatency, batchMaxLatency);
+        for (PendingWrite pending : batch) {
+            if (pending.failure != null) {
+                pending.done.completeExceptionally(pending.failure);
+            } else {
+                pending.done.complete(pending.result);
+            }
+        }
+    }
+
+    private synchronized void record(int batchSize, long latencyNanos, long batchMaxLatencyNanos) {
+        batches++;
+        writes += batchSize;
+        maxBatchSize = Math.max(maxBatchSize, batchSize);
+        totalLatencyNanos += latencyNanos;
+        maxLatencyNanos = Math.max(maxLatencyNanos, batchMaxLatencyNanos);
+    }
+
+    synchronized GroupCommitStats stats() {
+        return new GroupCommitStats(
+                batches,
+                writes,
+                maxBatchSize,
+                Duration.ofNanos(writes == 0 ? 0 : totalLatencyNanos / writes),
+                Duration.ofNanos(maxLatencyNanos)
+        );
+    }
+
+    /**
+     * Stops accepting writes, commits everything already queued and stops the committer.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingWrite pending;
+        while ((pending = queue.poll()) != null) {
+            pending.done.completeExceptionally(new IllegalStateException("Store is closed"));
+        }
+    }
+
+    private static final class PendingWrite {
+
+        private final BooleanSupplier write;
+        private final long submittedAt = System.nanoTime();
+        private final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        private boolean result;
+        private RuntimeException failure;
+
+        private PendingWrite(BooleanSupplier write) {
+            this.write = write;
+        }
+    }
+}
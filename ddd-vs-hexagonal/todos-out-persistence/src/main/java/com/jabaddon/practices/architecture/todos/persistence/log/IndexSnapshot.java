@@ -0,0 +1,289 @@
+package com.jabaddon.practices.architecture.todos.persistence.log;
+
+import com.jabaddon.practices.architecture.todos.persistence.store.StoreException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checkpointed copy of the id index, stored as one memory-mapped file.
+ *
+ * Entries are sorted by the unsigned bytes of their UTF-8 key and located
+ * through an offset table, so a lookup is a binary search over the mapping and
+ * opening a snapshot reads only its header and footer; pages are faulted in
+ * as lookups touch them. File layout:
+ * <pre>
+ * [int magic][int version][int checkpointSegmentId][int checkpointOffset]
+ * entries:  [short keyLength][key bytes][int segmentId][int offset][int length] ...
+ * table:    [int entryOffset] ...
+ * segments: [int id][int writePosition][long garbageBytes] ...
+ * [int entryCount][int tableOffset][int segmentCount][int segmentsOffset][int magic]
+ * </pre>
+ * The checkpoint position is the end of the log covered by the snapshot;
+ * recovery replays only what was written after it. A snapshot is limited to
+ * 2 GiB, roughly thirty million UUID-keyed entries.
+ */
+final class IndexSnapshot {
+
+    static final String FILE_NAME = "index.snapshot";
+
+    private static final int MAGIC = 0x544e5350;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int FOOTER_SIZE = 20;
+    private static final int POINTER_SIZE = 12;
+    private static final int SEGMENT_STATE_SIZE = 16;
+
+    private final MappedByteBuffer buffer;
+    private final int checkpointSegmentId;
+    private final int checkpointOffset;
+    private final int entryCount;
+    private final int tableOffset;
+    private final int segmentCount;
+    private final int segmentsOffset;
+
+    private IndexSnapshot(Path file, MappedByteBuffer buffer) {
+        int footer = buffer.capacity() - FOOTER_SIZE;
+        if (buffer.capacity() < HEADER_SIZE + FOOTER_SIZE
+                || buffer.getInt(0) != MAGIC || buffer.getInt(footer + 16) != MAGIC) {
+            throw new StoreException("Corrupt index snapshot " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new StoreException("Unsupported index snapshot version " + buffer.getInt(4) + " in " + file);
+        }
+        this.buffer = buffer;
+        this.checkpointSegmentId = buffer.getInt(8);
+        this.checkpointOffset = buffer.getInt(12);
+        this.entryCount = buffer.getInt(footer);
+        this.tableOffset = buffer.getInt(footer + 4);
+        this.segmentCount = buffer.getInt(footer + 8);
+        this.segmentsOffset = buffer.getInt(footer + 12);
+    }
+
+    /**
+     * Maps the snapshot in the given directory, or returns {@code null} when none was written yet.
+     */
+    static IndexSnapshot load(Path directory) {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new StoreException("Index snapshot " + file + " exceeds 2 GiB");
+            }
+            return new IndexSnapshot(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new StoreException("Cannot map index snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Writes a new snapshot made of the previous one overlaid with the frozen changes,
+     * atomically replaces the old file and maps the result.
+     *
+     * @param previous the snapshot being superseded, or {@code null}
+     * @param changes  pointers and tombstones written since the previous checkpoint
+     */
+    static IndexSnapshot write(Path directory, int checkpointSegmentId, int checkpointOffset,
+                               IndexSnapshot previous, Map<String, RecordPointer> changes,
+                               List<SegmentState> segments) {
+        Path file = directory.resolve(FILE_NAME);
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        List<Change> sortedChanges = new ArrayList<>(changes.size());
+        changes.forEach((key, pointer) -> sortedChanges.add(new Change(key.getBytes(StandardCharsets.UTF_8), pointer)));
+        sortedChanges.sort((left, right) -> Arrays.compareUnsigned(left.key(), right.key()));
+
+        int previousCount = previous == null ? 0 : previous.entryCount;
+        int[] offsets = new int[previousCount + sortedChanges.size()];
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(checkpointSegmentId);
+            out.writeInt(checkpointOffset);
+
+            int next = 0;
+            int change = 0;
+            while (next < previousCount || change < sortedChanges.size()) {
+                int order = next == previousCount ? 1
+                        : change == sortedChanges.size() ? -1
+                        : previous.compareKey(next, sortedChanges.get(change).key());
+                if (order < 0) {
+                    offsets[count++] = checkedSize(out);
+                    previous.copyEntry(next++, out);
+                    continue;
+                }
+                if (order == 0) {
+                    next++;
+                }
+                Change current = sortedChanges.get(change++);
+                if (!current.pointer().tombstone()) {
+                    offsets[count++] = checkedSize(out);
+                    writeEntry(out, current.key(), current.pointer());
+                }
+            }
+
+            int table = checkedSize(out);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(offsets[i]);
+            }
+            int segmentTable = checkedSize(out);
+            for (SegmentState segment : segments) {
+                out.writeInt(segment.id());
+                out.writeInt(segment.writePosition());
+                out.writeLong(segment.garbageBytes());
+            }
+            out.writeInt(count);
+            out.writeInt(table);
+            out.writeInt(segments.size());
+            out.writeInt(segmentTable);
+            out.writeInt(MAGIC);
+            out.flush();
+            checkedSize(out);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new StoreException("Cannot write index snapshot " + temporary, e);
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new StoreException("Cannot install index snapshot " + file, e);
+        }
+        return load(directory);
+    }
+
+    private static int checkedSize(DataOutputStream out) {
+        if (out.size() == Integer.MAX_VALUE) {
+            throw new StoreException("Index snapshot exceeds 2 GiB");
+        }
+        return out.size();
+    }
+
+    private static void writeEntry(DataOutputStream out, byte[] key, RecordPointer pointer) throws IOException {
+        out.writeShort(key.length);
+        out.write(key);
+        out.writeInt(pointer.segmentId());
+        out.writeInt(pointer.offset());
+        out.writeInt(pointer.length());
+    }
+
+    /**
+     * Pointer stored for the key, or {@code null}.
+     */
+    RecordPointer find(byte[] key) {
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int order = compareKey(middle, key);
+            if (order < 0) {
+                low = middle + 1;
+            } else if (order > 0) {
+                high = middle - 1;
+            } else {
+                return pointer(entryOffset(middle));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Visits every entry in key order.
+     */
+    void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < entryCount; i++) {
+            int offset = entryOffset(i);
+            int keyLength = Short.toUnsignedInt(buffer.getShort(offset));
+            byte[] key = new byte[keyLength];
+            buffer.get(offset + 2, key);
+            consumer.accept(new String(key, StandardCharsets.UTF_8), pointer(offset));
+        }
+    }
+
+    List<SegmentState> segments() {
+        List<SegmentState> result = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            int offset = segmentsOffset + i * SEGMENT_STATE_SIZE;
+            result.add(new SegmentState(buffer.getInt(offset), buffer.getInt(offset + 4), buffer.getLong(offset + 8)));
+        }
+        return result;
+    }
+
+    int checkpointSegmentId() {
+        return checkpointSegmentId;
+    }
+
+    int checkpointOffset() {
+        return checkpointOffset;
+    }
+
+    int entryCount() {
+        return entryCount;
+    }
+
+    private int entryOffset(int index) {
+        return buffer.getInt(tableOffset + index * 4);
+    }
+
+    private RecordPointer pointer(int entryOffset) {
+        int pointerOffset = entryOffset + 2 + Short.toUnsignedInt(buffer.getShort(entryOffset));
+        return RecordPointer.put(buffer.getInt(pointerOffset), buffer.getInt(pointerOffset + 4),
+                buffer.getInt(pointerOffset + 8));
+    }
+
+    private int compareKey(int index, byte[] key) {
+        int offset = entryOffset(index);
+        int keyLength = Short.toUnsignedInt(buffer.getShort(offset));
+        int common = Math.min(keyLength, key.length);
+        for (int i = 0; i < common; i++) {
+            int order = Byte.compareUnsigned(buffer.get(offset + 2 + i), key[i]);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Integer.compare(keyLength, key.length);
+    }
+
+    private void copyEntry(int index, DataOutputStream out) throws IOException {
+        int offset = entryOffset(index);
+        int length = 2 + Short.toUnsignedInt(buffer.getShort(offset)) + POINTER_SIZE;
+        byte[] entry = new byte[length];
+        buffer.get(offset, entry);
+        out.write(entry);
+    }
+
+    /**
+     * Size and garbage of a segment at checkpoint time, so sealed segments need no scan on restart.
+     */
+    record SegmentState(int id, int writePosition, long garbageBytes) {
+
+        static SegmentState of(Segment segment) {
+            return new SegmentState(segment.id(), segment.writePosition(), segment.garbageBytes());
+        }
+    }
+
+    private record Change(byte[] key, RecordPointer pointer) {
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer {
+
+        void accept(String key, RecordPointer pointer);
+    }
+}
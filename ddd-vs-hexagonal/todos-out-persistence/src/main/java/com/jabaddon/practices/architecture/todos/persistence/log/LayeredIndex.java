@@ -0,0 +1,115 @@
+package com.jabaddon.practices.architecture.todos.persistence.log;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Id index made of up to three layers, newest first: the active map holding
+ * every change since the last checkpoint, the frozen map being written out by
+ * a running checkpoint, and the memory-mapped {@link IndexSnapshot}.
+ *
+ * Changes only ever go to the active layer; tombstones hide deleted ids that
+ * are still present in a lower layer. Callers serialize writes and layer
+ * swaps; readers take the current layers once per lookup and need no lock.
+ */
+final class LayeredIndex {
+
+    private volatile Layers layers;
+
+    LayeredIndex(ConcurrentHashMap<String, RecordPointer> active, IndexSnapshot snapshot) {
+        this.layers = new Layers(active, null, snapshot);
+    }
+
+    /**
+     * Pointer to the live record for the id, or {@code null} when absent or deleted.
+     */
+    RecordPointer get(String key) {
+        Layers current = layers;
+        RecordPointer pointer = current.active().get(key);
+        if (pointer == null && current.frozen() != null) {
+            pointer = current.frozen().get(key);
+        }
+        if (pointer == null && current.snapshot() != null) {
+            pointer = current.snapshot().find(key.getBytes(StandardCharsets.UTF_8));
+        }
+        return pointer == null || pointer.tombstone() ? null : pointer;
+    }
+
+    void put(String key, RecordPointer pointer) {
+        layers.active().put(key, pointer);
+    }
+
+    /**
+     * Visits every live id once, newest layer first.
+     */
+    void forEach(IndexSnapshot.EntryConsumer consumer) {
+        Layers current = layers;
+        Map<String, RecordPointer> active = current.active();
+        Map<String, RecordPointer> frozen = current.frozen();
+        active.forEach((key, pointer) -> {
+            if (!pointer.tombstone()) {
+                consumer.accept(key, pointer);
+            }
+        });
+        if (frozen != null) {
+            frozen.forEach((key, pointer) -> {
+                if (!pointer.tombstone() && !active.containsKey(key)) {
+                    consumer.accept(key, pointer);
+                }
+            });
+        }
+        if (current.snapshot() != null) {
+            current.snapshot().forEach((key, pointer) -> {
+                if (!active.containsKey(key) && (frozen == null || !frozen.containsKey(key))) {
+                    consumer.accept(key, pointer);
+                }
+            });
+        }
+    }
+
+    /**
+     * Starts a checkpoint: the active layer becomes the frozen one and new changes go to a fresh map.
+     *
+     * @return the frozen changes to merge into the next snapshot
+     */
+    Map<String, RecordPointer> freeze() {
+        Layers current = layers;
+        if (current.frozen() != null) {
+            throw new IllegalStateException("A checkpoint is already running");
+        }
+        layers = new Layers(new ConcurrentHashMap<>(), current.active(), current.snapshot());
+        return current.active();
+    }
+
+    /**
+     * Completes a checkpoint by replacing the frozen layer and the old snapshot with the new one.
+     */
+    void install(IndexSnapshot snapshot) {
+        layers = new Layers(layers.active(), null, snapshot);
+    }
+
+    /**
+     * Abandons a failed checkpoint, folding the frozen changes back into the active layer.
+     */
+    void unfreeze() {
+        Layers current = layers;
+        if (current.frozen() == null) {
+            return;
+        }
+        current.frozen().forEach(current.active()::putIfAbsent);
+        layers = new Layers(current.active(), null, current.snapshot());
+    }
+
+    boolean hasChanges() {
+        return !layers.active().isEmpty();
+    }
+
+    IndexSnapshot snapshot() {
+        return layers.snapshot();
+    }
+
+    private record Layers(ConcurrentHashMap<String, RecordPointer> active, Map<String, RecordPointer> frozen,
+                          IndexSnapshot snapshot) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.jabaddon.practices.architecture.todos.persistence.log;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for {@link LogStructuredRecordStore}.
+ *
+ * @param segmentSize         size in bytes of every segment file
+ * @param compactionThreshold fraction of garbage that makes a sealed segment eligible for compaction
+ * @param compactionInterval  how often the background compactor runs
+ * @param checkpointInterval  how often the index is checkpointed to a snapshot file, bounding how much
+ *                            of the log has to be replayed on the next start
+ * @param groupCommit         when set, every write blocks until it is forced to disk as part of a
+ *                            group commit; when {@code null}, segments are only forced on roll and close
+ */
+public record LogStoreOptions(int segmentSize, double compactionThreshold, Duration compactionInterval,
+                              Duration checkpointInterval, GroupCommitOptions groupCommit) {
+
+    public LogStoreOptions {
+        if (segmentSize < 4096) {
+            throw new IllegalArgumentException("Segment size must be at least 4096 bytes");
+        }
+        if (compactionThreshold <= 0 || compactionThreshold > 1) {
+            throw new IllegalArgumentException("Compaction threshold must be in (0, 1]");
+        }
+        if (compactionInterval.isNegative() || compactionInterval.isZero()) {
+            throw new IllegalArgumentException("Compaction interval must be positive");
+        }
+        if (checkpointInterval.isNegative() || checkpointInterval.isZero()) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+    }
+
+    public static LogStoreOptions defaults() {
+        return new LogStoreOptions(64 * 1024 * 1024, 0.5, Duration.ofSeconds(30), Duration.ofMinutes(5), null);
+    }
+
+    public LogStoreOptions withSegmentSize(int segmentSize) {
+        return new LogStoreOptions(segmentSize, compactionThreshold, compactionInterval, checkpointInterval,
+                groupCommit);
+    }
+
+    public LogStoreOptions withCompactionThreshold(double compactionThreshold) {
+        return new LogStoreOptions(segmentSize, compactionThreshold, compactionInterval, checkpointInterval,
+                groupCommit);
+    }
+
+    public LogStoreOptions withCompactionInterval(Duration compactionInterval) {
+        return new LogStoreOptions(segmentSize, compactionThreshold, compactionInterval, checkpointInterval,
+                groupCommit);
+    }
+
+    public LogStoreOptions withCheckpointInterval(Duration checkpointInterval) {
+        return new LogStoreOptions(segmentSize, compactionThreshold, compactionInterval, checkpointInterval,
+                groupCommit);
+    }
+
+    public LogStoreOptions withGroupCommit(GroupCommitOptions groupCommit) {
+        return new LogStoreOptions(segmentSize, compactionThreshold, compactionInterval, checkpointInterval,
+                groupCommit);
+    }
+}
@@ -0,0 +1,627 @@
+package com.jabaddon.practices.architecture.todos.persistence.log;
+
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordReader;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordVisitor;
+import com.jabaddon.practices.architecture.todos.persistence.store.StoreException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Log-structured record store (Bitcask style).
+ *
+ * Every write is appended to the active memory-mapped segment and an in-memory
+ * index maps each id to the offset of its latest record, so a lookup is one
+ * hash probe plus a slice of the mapping. Superseded records and deletes are
+ * reclaimed by a background compactor that copies the live records out of
+ * mostly-garbage segments and drops the old files.
+ *
+ * The index is periodically checkpointed to a memory-mapped
+ * {@link IndexSnapshot}; only the changes made since then stay on the heap.
+ * On open, the snapshot is mapped without being read and the log written
+ * after its checkpoint position is replayed, one segment per task in
+ * parallel, so restart time depends on the checkpoint interval rather than on
+ * the number of stored records. See {@link #recoveryReport()}.
+ *
+ * Every segment keeps a {@link BloomFilter} over the ids written to it, so
+ * most lookups of an id that was never stored, common for existence checks,
+ * are answered from memory without probing the snapshot. A filter is saved
+ * next to its segment when the segment is sealed or checkpointed, and goes
+ * away with the segment once compaction moved its live records, whose ids
+ * then land in the filter of the segment they were copied to. See
+ * {@link #filterStats()}.
+ *
+ * With {@link LogStoreOptions#groupCommit()} set, writes go through a
+ * {@link GroupCommitWriter} and return only once they are forced to disk.
+ */
+public final class LogStructuredRecordStore implements RecordStore {
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final Path directory;
+    private final LogStoreOptions options;
+    private final ConcurrentNavigableMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private final AtomicLong liveRecords = new AtomicLong();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder filteredLookups = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final ScheduledExecutorService compactor;
+    private final Object writeLock = new Object();
+    private final GroupCommitWriter groupCommit;
+    private final RecoveryReport recoveryReport;
+    private LayeredIndex index;
+    private Segment active;
+    private volatile int checkpointSegmentId = -1;
+    private volatile boolean closed;
+
+    private LogStructuredRecordStore(Path directory, LogStoreOptions options) {
+        this.directory = directory;
+        this.options = options;
+        this.recoveryReport = recover();
+        this.groupCommit = options.groupCommit() != null
+                ? new GroupCommitWriter(options.groupCommit(), writeLock, () -> active.force())
+                : null;
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-store-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = options.compactionInterval().toMillis();
+        compactor.scheduleWithFixedDelay(this::compactQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        long checkpointInterval = options.checkpointInterval().toMillis();
+        compactor.scheduleWithFixedDelay(this::checkpointQuietly, checkpointInterval, checkpointInterval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public static LogStructuredRecordStore open(Path directory) {
+        return open(directory, LogStoreOptions.defaults());
+    }
+
+    public static LogStructuredRecordStore open(Path directory, LogStoreOptions options) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new StoreException("Cannot create store directory " + directory, e);
+        }
+        return new LogStructuredRecordStore(directory, options);
+    }
+
+    private RecoveryReport recover() {
+        long started = System.nanoTime();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.toList()) {
+                if (Segment.isSegmentFile(path)) {
+                    Segment segment = Segment.open(path, Segment.parseId(path));
+                    segments.put(segment.id(), segment);
+                } else if (Segment.isFilterFile(path) && !Files.exists(segmentPathOf(path))) {
+                    // Left over by a segment deleted before its filter, or by an interrupted save
+                    Files.delete(path);
+                }
+            }
+        } catch (IOException e) {
+            throw new StoreException("Cannot list store directory " + directory, e);
+        }
+        IndexSnapshot snapshot = IndexSnapshot.load(directory);
+        int fromSegment = 0;
+        int fromOffset = 0;
+        if (snapshot != null) {
+            fromSegment = snapshot.checkpointSegmentId();
+            fromOffset = snapshot.checkpointOffset();
+            checkpointSegmentId = fromSegment;
+            for (IndexSnapshot.SegmentState state : snapshot.segments()) {
+                Segment segment = segments.get(state.id());
+                if (segment != null && state.id() <= fromSegment) {
+                    segment.restore(state.writePosition(), state.garbageBytes());
+                }
+            }
+            for (Segment segment : segments.headMap(fromSegment).values()) {
+                if (segment.writePosition() == 0) {
+                    // Not described by the snapshot; only its size is needed, its records are covered
+                    segment.scan((type, key, offset, length) -> { });
+                }
+            }
+        }
+        rebuildFilters(snapshot, fromSegment, fromOffset);
+        long loaded = System.nanoTime();
+
+        int checkpointSegment = fromSegment;
+        int checkpointOffset = fromOffset;
+        List<SegmentReplay> replays = segments.tailMap(fromSegment, true).values().parallelStream()
+                .map(segment -> SegmentReplay.of(segment, segment.id() == checkpointSegment ? checkpointOffset : 0))
+                .toList();
+        long replayed = System.nanoTime();
+
+        ConcurrentHashMap<String, RecordPointer> changes = new ConcurrentHashMap<>();
+        long live = snapshot == null ? 0 : snapshot.entryCount();
+        long records = 0;
+        for (SegmentReplay replay : replays) {
+            records += replay.records;
+            for (Map.Entry<String, RecordPointer> entry : replay.latest.entrySet()) {
+                RecordPointer previous = changes.put(entry.getKey(), entry.getValue());
+                if (previous == null && snapshot != null) {
+                    previous = snapshot.find(entry.getKey().getBytes(StandardCharsets.UTF_8));
+                    if (previous != null) {
+                        live--;
+                    }
+                }
+                if (previous != null && !previous.tombstone()) {
+                    addGarbage(previous);
+                }
+            }
+        }
+        for (RecordPointer pointer : changes.values()) {
+            if (!pointer.tombstone()) {
+                live++;
+            }
+        }
+        liveRecords.set(live);
+        index = new LayeredIndex(changes, snapshot);
+        active = segments.isEmpty()
+                ? newSegment(0)
+                : segments.lastEntry().getValue();
+        long built = System.nanoTime();
+
+        return new RecoveryReport(
+                Duration.ofNanos(loaded - started),
+                Duration.ofNanos(replayed - loaded),
+                Duration.ofNanos(built - replayed),
+                snapshot == null ? 0 : snapshot.entryCount(),
+                records,
+                replays.size()
+        );
+    }
+
+    private static Path segmentPathOf(Path filterPath) {
+        String name = filterPath.getFileName().toString();
+        return filterPath.resolveSibling(name.substring(0, name.indexOf('.')) + ".log");
+    }
+
+    /**
+     * Drops the saved filters that miss ids the replay will not add back, and refills them from the snapshot.
+     */
+    private void rebuildFilters(IndexSnapshot snapshot, int fromSegment, int fromOffset) {
+        Map<Integer, Segment> stale = new HashMap<>();
+        for (Segment segment : segments.values()) {
+            int replayedFrom = segment.id() > fromSegment ? 0
+                    : segment.id() == fromSegment ? fromOffset
+                    : segment.writePosition();
+            if (segment.filterPosition() < replayedFrom) {
+                segment.resetFilter();
+                stale.put(segment.id(), segment);
+            }
+        }
+        if (!stale.isEmpty() && snapshot != null) {
+            snapshot.forEach((key, pointer) -> {
+                Segment segment = stale.get(pointer.segmentId());
+                if (segment != null) {
+                    segment.filter().add(BloomFilter.hash(key));
+                }
+            });
+        }
+    }
+
+    private void addGarbage(RecordPointer pointer) {
+        Segment segment = segments.get(pointer.segmentId());
+        if (segment != null) {
+            segment.addGarbage(pointer.length());
+        }
+    }
+
+    @Override
+    public void put(String id, ByteBuffer record) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        if (groupCommit != null) {
+            groupCommit.submit(() -> putNow(id, key, record));
+            return;
+        }
+        synchronized (writeLock) {
+            putNow(id, key, record);
+        }
+    }
+
+    /**
+     * Appends the records and the tombstones under one acquisition of the write
+     * lock; with group commit they are a single queued write, so the batch
+     * costs one force.
+     */
+    @Override
+    public void writeAll(Map<String, ByteBuffer> records, Collection<String> deletedIds) {
+        if (groupCommit != null) {
+            groupCommit.submit(() -> writeAllNow(records, deletedIds));
+            return;
+        }
+        synchronized (writeLock) {
+            writeAllNow(records, deletedIds);
+        }
+    }
+
+    private boolean writeAllNow(Map<String, ByteBuffer> records, Collection<String> deletedIds) {
+        records.forEach((id, record) -> putNow(id, id.getBytes(StandardCharsets.UTF_8), record));
+        for (String id : deletedIds) {
+            deleteNow(id, id.getBytes(StandardCharsets.UTF_8));
+        }
+        return true;
+    }
+
+    private boolean putNow(String id, byte[] key, ByteBuffer record) {
+        ensureOpen();
+        RecordPointer previous = find(id);
+        index.put(id, append(Segment.PUT, id, key, record));
+        if (previous != null) {
+            addGarbage(previous);
+        } else {
+            liveRecords.incrementAndGet();
+        }
+        return previous == null;
+    }
+
+    @Override
+    public <T> Optional<T> read(String id, RecordReader<T> reader) {
+        RecordPointer pointer = find(id);
+        while (true) {
+            if (pointer == null) {
+                return Optional.empty();
+            }
+            Segment segment = segments.get(pointer.segmentId());
+            if (segment != null) {
+                return Optional.ofNullable(reader.read(segment.value(pointer.offset())));
+            }
+            // The segment was compacted away after the index lookup; the id now points elsewhere
+            RecordPointer moved = index.get(id);
+            if (pointer.equals(moved)) {
+                throw new StoreException("Record for " + id + " points to missing segment " + pointer.segmentId());
+            }
+            pointer = moved;
+        }
+    }
+
+    @Override
+    public <T> List<T> readAll(RecordReader<T> reader) {
+        List<T> result = new ArrayList<>((int) Math.min(size(), Integer.MAX_VALUE));
+        index.forEach((id, pointer) -> {
+            Segment segment = segments.get(pointer.segmentId());
+            if (segment != null) {
+                result.add(reader.read(segment.value(pointer.offset())));
+            } else {
+                read(id, reader).ifPresent(result::add);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void forEach(RecordVisitor visitor) {
+        index.forEach((id, pointer) -> {
+            Segment segment = segments.get(pointer.segmentId());
+            if (segment != null) {
+                visitor.visit(id, segment.value(pointer.offset()));
+            } else {
+                read(id, record -> {
+                    visitor.visit(id, record);
+                    return null;
+                });
+            }
+        });
+    }
+
+    @Override
+    public boolean delete(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        if (groupCommit != null) {
+            return groupCommit.submit(() -> deleteNow(id, key));
+        }
+        synchronized (writeLock) {
+            return deleteNow(id, key);
+        }
+    }
+
+    private boolean deleteNow(String id, byte[] key) {
+        ensureOpen();
+        RecordPointer previous = find(id);
+        if (previous == null) {
+            return false;
+        }
+        RecordPointer tombstone = append(Segment.DELETE, id, key, EMPTY.duplicate());
+        index.put(id, tombstone);
+        addGarbage(previous);
+        addGarbage(tombstone);
+        liveRecords.decrementAndGet();
+        return true;
+    }
+
+    @Override
+    public boolean contains(String id) {
+        return find(id) != null;
+    }
+
+    /**
+     * Index lookup behind the segment filters: an id no filter may contain is absent without probing the index.
+     */
+    private RecordPointer find(String id) {
+        lookups.increment();
+        long hash = BloomFilter.hash(id);
+        boolean mayExist = false;
+        for (Segment segment : segments.values()) {
+            if (segment.filter().mightContain(hash)) {
+                mayExist = true;
+                break;
+            }
+        }
+        if (!mayExist) {
+            filteredLookups.increment();
+            return null;
+        }
+        RecordPointer pointer = index.get(id);
+        if (pointer == null) {
+            falsePositives.increment();
+        }
+        return pointer;
+    }
+
+    @Override
+    public long size() {
+        return liveRecords.get();
+    }
+
+    private RecordPointer append(byte type, String id, byte[] key, ByteBuffer value) {
+        int length = Segment.recordLength(key, value.remaining());
+        if (length + 4 > options.segmentSize()) {
+            throw new IllegalArgumentException("Record of " + length + " bytes does not fit in a segment");
+        }
+        int offset = active.append(type, key, value);
+        if (offset < 0) {
+            Segment sealed = active;
+            sealed.force();
+            sealed.saveFilter(sealed.filter(), sealed.writePosition());
+            active = newSegment(sealed.id() + 1);
+            offset = active.append(type, key, value);
+        }
+        // Added before the index points at the record, so a reader that sees the id also passes the filter
+        active.filter().add(BloomFilter.hash(id));
+        return type == Segment.PUT
+                ? RecordPointer.put(active.id(), offset, length)
+                : RecordPointer.tombstone(active.id(), offset, length);
+    }
+
+    private Segment newSegment(int id) {
+        Segment segment = Segment.create(directory, id, options.segmentSize());
+        segments.put(id, segment);
+        return segment;
+    }
+
+    /**
+     * Rewrites the live records of every sealed segment whose garbage ratio
+     * reached the configured threshold, then deletes those segments.
+     */
+    public synchronized void compact() {
+        int activeId;
+        synchronized (writeLock) {
+            activeId = active.id();
+        }
+        for (Segment segment : segments.headMap(activeId).values()) {
+            if (segment.garbageRatio() >= options.compactionThreshold()) {
+                compact(segment);
+            }
+        }
+    }
+
+    private void compact(Segment segment) {
+        // A delete before the checkpoint is already reflected in the snapshot and is never replayed.
+        // Later ones, and all of them while there is no snapshot, must outlive the puts they hide.
+        int checkpointed = checkpointSegmentId;
+        boolean keepTombstones = segment.id() >= checkpointed
+                && (checkpointed >= 0 || segments.firstKey() < segment.id());
+        segment.scan((type, key, offset, length) -> {
+            synchronized (writeLock) {
+                if (closed) {
+                    return;
+                }
+                byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+                if (type == Segment.PUT) {
+                    RecordPointer current = index.get(key);
+                    if (current != null && current.segmentId() == segment.id() && current.offset() == offset) {
+                        index.put(key, append(Segment.PUT, key, keyBytes, segment.value(offset)));
+                    }
+                } else if (keepTombstones && index.get(key) == null) {
+                    RecordPointer tombstone = append(Segment.DELETE, key, keyBytes, EMPTY.duplicate());
+                    addGarbage(tombstone);
+                }
+            }
+        });
+        synchronized (writeLock) {
+            if (closed) {
+                return;
+            }
+            active.force();
+            segments.remove(segment.id());
+        }
+        segment.delete();
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            // Compaction is retried on the next run; the log itself is still consistent
+        }
+    }
+
+    /**
+     * Writes the index to a new snapshot so the next open only replays the log written after this point.
+     *
+     * Writers are blocked only while the current changes are frozen; the
+     * snapshot itself is merged and written in the background of the write path.
+     */
+    public synchronized void checkpoint() {
+        int segmentId;
+        int offset;
+        List<IndexSnapshot.SegmentState> states;
+        Map<String, RecordPointer> changes;
+        IndexSnapshot previous;
+        Segment checkpointed;
+        BloomFilter filter;
+        synchronized (writeLock) {
+            if (closed) {
+                return;
+            }
+            previous = index.snapshot();
+            if (!index.hasChanges() && previous != null && previous.checkpointSegmentId() == active.id()
+                    && previous.checkpointOffset() == active.writePosition()) {
+                return;
+            }
+            active.force();
+            segmentId = active.id();
+            offset = active.writePosition();
+            states = segments.headMap(segmentId, true).values().stream()
+                    .map(IndexSnapshot.SegmentState::of)
+                    .toList();
+            changes = index.freeze();
+            checkpointed = active;
+            filter = active.filter().copy();
+        }
+        IndexSnapshot snapshot;
+        try {
+            snapshot = IndexSnapshot.write(directory, segmentId, offset, previous, changes, states);
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                index.unfreeze();
+            }
+            throw e;
+        }
+        boolean stillActive;
+        synchronized (writeLock) {
+            index.install(snapshot);
+            checkpointSegmentId = segmentId;
+            stillActive = active == checkpointed;
+        }
+        if (stillActive) {
+            try {
+                checkpointed.saveFilter(filter, offset);
+            } catch (RuntimeException e) {
+                // The next open rebuilds the filter from the snapshot instead
+            }
+        }
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (RuntimeException e) {
+            // The changes stay on the heap and in the log; the next checkpoint picks them up
+        }
+    }
+
+    /**
+     * Size and effectiveness of the segment filters.
+     */
+    public BloomFilterStats filterStats() {
+        int filters = 0;
+        long bits = 0;
+        long ids = 0;
+        double passAll = 1;
+        for (Segment segment : segments.values()) {
+            BloomFilter filter = segment.filter();
+            filters++;
+            bits += filter.bits();
+            ids += filter.ids();
+            passAll *= 1 - filter.estimatedFalsePositiveRate();
+        }
+        return new BloomFilterStats(filters, bits, ids, 1 - passAll, lookups.sum(), filteredLookups.sum(),
+                falsePositives.sum());
+    }
+
+    /**
+     * Timings of the recovery performed when this store was opened.
+     */
+    public RecoveryReport recoveryReport() {
+        return recoveryReport;
+    }
+
+    /**
+     * Batch sizes and commit latency of the group commit writer, if enabled.
+     */
+    public Optional<GroupCommitStats> groupCommitStats() {
+        return Optional.ofNullable(groupCommit).map(GroupCommitWriter::stats);
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Store is closed");
+        }
+    }
+
+    @Override
+    public void close() {
+        compactor.shutdownNow();
+        if (groupCommit != null) {
+            groupCommit.close();
+        }
+        checkpointQuietly();
+        synchronized (writeLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            active.force();
+        }
+    }
+
+    /**
+     * Latest record per id within one segment, from the checkpoint position onwards.
+     */
+    private static final class SegmentReplay {
+
+        private final Segment segment;
+        private final Map<String, RecordPointer> latest = new HashMap<>();
+        private long garbage;
+        private long records;
+
+        private SegmentReplay(Segment segment) {
+            this.segment = segment;
+        }
+
+        static SegmentReplay of(Segment segment, int from) {
+            SegmentReplay replay = new SegmentReplay(segment);
+            segment.scan(from, replay::visit);
+            segment.addGarbage(replay.garbage);
+            return replay;
+        }
+
+        private void visit(byte type, String key, int offset, int length) {
+            records++;
+            if (offset >= segment.filterPosition()) {
+                segment.filter().add(BloomFilter.hash(key));
+            }
+            RecordPointer pointer = type == Segment.PUT
+                    ? RecordPointer.put(segment.id(), offset, length)
+                    : RecordPointer.tombstone(segment.id(), offset, length);
+            RecordPointer previous = latest.put(key, pointer);
+            if (previous != null && !previous.tombstone()) {
+                garbage += previous.length();
+            }
+            if (pointer.tombstone()) {
+                garbage += length;
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.jabaddon.practices.architecture.todos.persistence.log;
+
+/**
+ * Location of the latest record for an id: segment, offset and total record length.
+ * A tombstone pointer marks an id deleted after the last checkpoint.
+ */
+record RecordPointer(int segmentId, int offset, int length, boolean tombstone) {
+
+    static RecordPointer put(int segmentId, int offset, int length) {
+        return new RecordPointer(segmentId, offset, length, false);
+    }
+
+    static RecordPointer tombstone(int segmentId, int offset, int length) {
+        return new RecordPointer(segmentId, offset, length, true);
+    }
+
+    boolean isAfter(int otherSegmentId, int otherOffset) {
+        return segmentId > otherSegmentId || (segmentId == otherSegmentId && offset >= otherOffset);
+    }
+}
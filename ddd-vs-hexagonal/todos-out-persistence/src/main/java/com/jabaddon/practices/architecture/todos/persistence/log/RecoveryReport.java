@@ -0,0 +1,21 @@
+package com.jabaddon.practices.architecture.todos.persistence.log;
+
+import java.time.Duration;
+
+/**
+ * Where the time went when a {@link LogStructuredRecordStore} was opened.
+ *
+ * @param snapshotLoad     mapping the index snapshot and restoring the sealed segments it describes
+ * @param replay           scanning, in parallel, the segments written after the checkpoint
+ * @param indexBuild       merging the replayed records into the index
+ * @param snapshotEntries  ids loaded from the snapshot
+ * @param replayedRecords  log records read after the checkpoint
+ * @param replayedSegments segments scanned after the checkpoint
+ */
+public record RecoveryReport(Duration snapshotLoad, Duration replay, Duration indexBuild,
+                             long snapshotEntries, long replayedRecords, int replayedSegments) {
+
+    public Duration total() {
+        return snapshotLoad.plus(replay).plus(indexBuild);
+    }
+}
@@ -0,0 +1,244 @@
+package com.jabaddon.practices.architecture.todos.persistence.log;
+
+import com.jabaddon.practices.architecture.todos.persistence.store.StoreException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * One append-only, memory-mapped segment file.
+ *
+ * Record layout:
+ * <pre>
+ * [int length][int crc32c][byte type][short keyLength][key bytes][value bytes]
+ * </pre>
+ * The length is written last, so a record torn by a crash reads as length 0
+ * and marks the end of the segment.
+ */
+final class Segment {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    static final int HEADER_SIZE = 4 + 4 + 1 + 2;
+
+    private static final int CRC_OFFSET = 4;
+    private static final int TYPE_OFFSET = 8;
+    private static final int KEY_LENGTH_OFFSET = 9;
+
+    private final int id;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final AtomicLong garbageBytes = new AtomicLong();
+    private volatile int writePosition;
+    private volatile BloomFilter filter;
+    private int filterPosition;
+
+    private Segment(int id, Path path, MappedByteBuffer buffer) {
+        this.id = id;
+        this.path = path;
+        this.buffer = buffer;
+        BloomFilter.Loaded saved = BloomFilter.load(filterPath(path), buffer.capacity());
+        this.filter = saved != null ? saved.filter() : BloomFilter.forSegment(buffer.capacity());
+        this.filterPosition = saved != null ? saved.position() : 0;
+    }
+
+    static Segment create(Path directory, int id, int size) {
+        return map(id, directory.resolve(fileName(id)), size);
+    }
+
+    static Segment open(Path path, int id) {
+        try {
+            return map(id, path, (int) Files.size(path));
+        } catch (IOException e) {
+            throw new StoreException("Cannot open segment " + path, e);
+        }
+    }
+
+    private static Segment map(int id, Path path, int size) {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException e) {
+            throw new StoreException("Cannot map segment " + path, e);
+        }
+    }
+
+    static String fileName(int id) {
+        return String.format("segment-%010d.log", id);
+    }
+
+    static int parseId(Path path) {
+        String name = path.getFileName().toString();
+        return Integer.parseInt(name.substring("segment-".length(), name.length() - ".log".length()));
+    }
+
+    static boolean isSegmentFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith("segment-") && name.endsWith(".log");
+    }
+
+    static boolean isFilterFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith("segment-") && (name.endsWith(".bloom") || name.endsWith(".bloom.tmp"));
+    }
+
+    private static Path filterPath(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        return segmentPath.resolveSibling(name.substring(0, name.length() - ".log".length()) + ".bloom");
+    }
+
+    static int recordLength(byte[] key, int valueLength) {
+        return HEADER_SIZE + key.length + valueLength;
+    }
+
+    /**
+     * Appends a record and returns its offset, or -1 when the segment has no room left.
+     * Callers serialize appends.
+     */
+    int append(byte type, byte[] key, ByteBuffer value) {
+        int valueLength = value.remaining();
+        int length = recordLength(key, valueLength);
+        int offset = writePosition;
+        if (offset + length + 4 > buffer.capacity()) {
+            return -1;
+        }
+        buffer.put(offset + TYPE_OFFSET, type);
+        buffer.putShort(offset + KEY_LENGTH_OFFSET, (short) key.length);
+        buffer.put(offset + HEADER_SIZE, key);
+        buffer.put(offset + HEADER_SIZE + key.length, value, value.position(), valueLength);
+        buffer.putInt(offset + CRC_OFFSET, checksum(offset, length));
+        buffer.putInt(offset, length);
+        writePosition = offset + length;
+        return offset;
+    }
+
+    /**
+     * Read-only view over the value of the record at the given offset.
+     */
+    ByteBuffer value(int offset) {
+        int length = buffer.getInt(offset);
+        int keyLength = buffer.getShort(offset + KEY_LENGTH_OFFSET);
+        int valueOffset = offset + HEADER_SIZE + keyLength;
+        return buffer.slice(valueOffset, length - HEADER_SIZE - keyLength).asReadOnlyBuffer();
+    }
+
+    /**
+     * Visits every intact record in write order and positions the segment after the last one.
+     */
+    void scan(EntryVisitor visitor) {
+        scan(0, visitor);
+    }
+
+    /**
+     * Like {@link #scan(EntryVisitor)}, starting at a record boundary instead of the beginning.
+     */
+    void scan(int from, EntryVisitor visitor) {
+        int offset = from;
+        while (offset + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length < HEADER_SIZE || offset + length > buffer.capacity()
+                    || buffer.getInt(offset + CRC_OFFSET) != checksum(offset, length)) {
+                break;
+            }
+            byte type = buffer.get(offset + TYPE_OFFSET);
+            int keyLength = buffer.getShort(offset + KEY_LENGTH_OFFSET);
+            byte[] key = new byte[keyLength];
+            buffer.get(offset + HEADER_SIZE, key);
+            visitor.visit(type, new String(key, StandardCharsets.UTF_8), offset, length);
+            offset += length;
+        }
+        writePosition = offset;
+    }
+
+    private int checksum(int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + TYPE_OFFSET, length - TYPE_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    void addGarbage(long bytes) {
+        garbageBytes.addAndGet(bytes);
+    }
+
+    long garbageBytes() {
+        return garbageBytes.get();
+    }
+
+    /**
+     * Positions a sealed segment from checkpointed metadata instead of scanning it.
+     */
+    void restore(int writePosition, long garbageBytes) {
+        this.writePosition = writePosition;
+        this.garbageBytes.set(garbageBytes);
+    }
+
+    double garbageRatio() {
+        int written = writePosition;
+        return written == 0 ? 0 : (double) garbageBytes.get() / written;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Filter over every id written to this segment, put or delete.
+     */
+    BloomFilter filter() {
+        return filter;
+    }
+
+    /**
+     * Offset up to which the filter loaded from disk covers the segment; 0 for a new filter.
+     */
+    int filterPosition() {
+        return filterPosition;
+    }
+
+    /**
+     * Drops a filter loaded from disk that does not cover enough of the segment, during recovery.
+     */
+    void resetFilter() {
+        filter = BloomFilter.forSegment(buffer.capacity());
+        filterPosition = 0;
+    }
+
+    /**
+     * Saves a filter covering the segment up to the given offset, so the next open need not rebuild it.
+     */
+    void saveFilter(BloomFilter saved, int position) {
+        saved.save(filterPath(path), position);
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(filterPath(path));
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new StoreException("Cannot delete segment " + path, e);
+        }
+    }
+
+    int id() {
+        return id;
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    @FunctionalInterface
+    interface EntryVisitor {
+
+        void visit(byte type, String key, int offset, int length);
+    }
+}
@@ -0,0 +1,351 @@
+package com.jabaddon.practices.architecture.todos.persistence.mvcc;
+
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordReader;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordVisitor;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory multi-version record store.
+ *
+ * Every id maps to a chain of versions, newest first, each stamped with the
+ * store version that committed it; a delete appends a tombstone. A
+ * {@link MvccSnapshot} pins the current store version and sees, for every id,
+ * the newest version at or below it, so a scan is consistent however long it
+ * runs and never blocks writers. Writers only serialize among themselves to
+ * stamp and publish their version.
+ *
+ * Scans made through the {@link RecordStore} methods ({@link #forEach},
+ * {@link #readAll}, queries and counts) run on a snapshot of their own.
+ * A background collector drops the versions that neither the current state
+ * nor any open snapshot can see, and the ids whose newest such version is a
+ * tombstone.
+ */
+public final class MvccRecordStore implements RecordStore {
+
+    private static final Duration DEFAULT_COLLECTION_INTERVAL = Duration.ofSeconds(1);
+
+    private final Map<String, Version> chains = new ConcurrentHashMap<>();
+    private final TreeMap<Long, Integer> pins = new TreeMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicLong liveRecords = new AtomicLong();
+    private final AtomicLong collectedVersions = new AtomicLong();
+    private final ScheduledExecutorService collector;
+    private volatile long currentVersion;
+    private volatile boolean closed;
+
+    public MvccRecordStore() {
+        this(DEFAULT_COLLECTION_INTERVAL);
+    }
+
+    public MvccRecordStore(Duration collectionInterval) {
+        this.collector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mvcc-store-collector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = collectionInterval.toMillis();
+        collector.scheduleWithFixedDelay(this::collectGarbage, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void put(String id, ByteBuffer record) {
+        byte[] data = new byte[record.remaining()];
+        record.get(record.position(), data);
+        commit(id, data);
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return commit(id, null);
+    }
+
+    /**
+     * Commits the whole batch under one store version, so a snapshot sees
+     * either all of it or none of it.
+     */
+    @Override
+    public void writeAll(Map<String, ByteBuffer> records, Collection<String> deletedIds) {
+        Map<String, byte[]> copies = new LinkedHashMap<>();
+        records.forEach((id, record) -> {
+            byte[] data = new byte[record.remaining()];
+            record.get(record.position(), data);
+            copies.put(id, data);
+        });
+        writeLock.lock();
+        try {
+            ensureOpen();
+            long version = currentVersion + 1;
+            copies.forEach((id, data) -> stamp(id, data, version));
+            boolean deleted = false;
+            for (String id : deletedIds) {
+                deleted |= stamp(id, null, version);
+            }
+            if (!copies.isEmpty() || deleted) {
+                currentVersion = version;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Stamps the write with the next store version and publishes it.
+     *
+     * @return whether the id was live before the write
+     */
+    private boolean commit(String id, byte[] data) {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            long version = currentVersion + 1;
+            boolean wasLive = stamp(id, data, version);
+            if (data != null || wasLive) {
+                currentVersion = version;
+            }
+            return wasLive;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Links a version of the id stamped with the given store version, which
+     * snapshots only see once it is published as the current one. A delete
+     * of an id that is not live links nothing. Called holding the write lock.
+     *
+     * @return whether the id was live before the write
+     */
+    private boolean stamp(String id, byte[] data, long version) {
+        Version head = chains.get(id);
+        boolean wasLive = head != null && !head.tombstone();
+        if (data == null && !wasLive) {
+            return false;
+        }
+        chains.put(id, new Version(version, data, head));
+        if (data != null && !wasLive) {
+            liveRecords.incrementAndGet();
+        } else if (data == null) {
+            liveRecords.decrementAndGet();
+        }
+        return wasLive;
+    }
+
+    /**
+     * The store version of the last commit.
+     */
+    @Override
+    public OptionalLong version() {
+        return OptionalLong.of(currentVersion);
+    }
+
+    /**
+     * Pins the current version; the snapshot must be closed for its versions to be collected.
+     */
+    public MvccSnapshot snapshot() {
+        ensureOpen();
+        synchronized (pins) {
+            long version = currentVersion;
+            pins.merge(version, 1, Integer::sum);
+            return new MvccSnapshot(this, version);
+        }
+    }
+
+    void release(long version) {
+        synchronized (pins) {
+            pins.computeIfPresent(version, (pinned, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    /**
+     * Newest version of the id committed at or before the given store version, or {@code null}.
+     */
+    byte[] visible(String id, long version) {
+        return visible(chains.get(id), version);
+    }
+
+    void forEachVisible(long version, RecordVisitor visitor) {
+        ensureOpen();
+        chains.forEach((id, head) -> {
+            byte[] data = visible(head, version);
+            if (data != null) {
+                visitor.visit(id, ByteBuffer.wrap(data).asReadOnlyBuffer());
+            }
+        });
+    }
+
+    private static byte[] visible(Version head, long version) {
+        for (Version current = head; current != null; current = current.older) {
+            if (current.version <= version) {
+                return current.data;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public <T> Optional<T> read(String id, RecordReader<T> reader) {
+        ensureOpen();
+        Version head = chains.get(id);
+        if (head == null || head.tombstone()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(reader.read(ByteBuffer.wrap(head.data).asReadOnlyBuffer()));
+    }
+
+    @Override
+    public <T> List<T> readAll(RecordReader<T> reader) {
+        try (MvccSnapshot snapshot = snapshot()) {
+            return snapshot.readAll(reader);
+        }
+    }
+
+    @Override
+    public void forEach(RecordVisitor visitor) {
+        try (MvccSnapshot snapshot = snapshot()) {
+            snapshot.forEach(visitor);
+        }
+    }
+
+    @Override
+    public boolean contains(String id) {
+        ensureOpen();
+        Version head = chains.get(id);
+        return head != null && !head.tombstone();
+    }
+
+    @Override
+    public long size() {
+        return liveRecords.get();
+    }
+
+    /**
+     * Drops every version that is neither the newest one nor the one some open snapshot sees,
+     * and the ids deleted before every open snapshot. Runs in the background; exposed so that
+     * tests can trigger it.
+     */
+    public synchronized void collectGarbage() {
+        if (closed) {
+            return;
+        }
+        long[] readPoints;
+        synchronized (pins) {
+            readPoints = new long[pins.size() + 1];
+            readPoints[0] = currentVersion;
+            int next = 1;
+            for (long pinned : pins.descendingKeySet()) {
+                readPoints[next++] = pinned;
+            }
+        }
+        chains.forEach((id, head) -> {
+            collectedVersions.addAndGet(prune(head, readPoints));
+            if (head.tombstone() && head.version <= readPoints[readPoints.length - 1]
+                    && chains.remove(id, head)) {
+                collectedVersions.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Relinks the chain so it only holds, besides the head, the newest version at or below each
+     * read point. Versions committed after the read points were taken are kept, as snapshots
+     * pinned since then may need them. Readers walking the chain meanwhile still reach the
+     * version they need, since only versions no read point sees are skipped.
+     *
+     * @param readPoints versions that may still be read, in descending order
+     * @return how many versions were unlinked
+     */
+    private static int prune(Version head, long[] readPoints) {
+        int point = 0;
+        while (point < readPoints.length && readPoints[point] >= head.version) {
+            point++;
+        }
+        int unlinked = 0;
+        Version kept = head;
+        for (Version current = head.older; current != null; current = current.older) {
+            if (current.version > readPoints[0]
+                    || point < readPoints.length && current.version <= readPoints[point]) {
+                if (kept.older != current) {
+                    kept.older = current;
+                }
+                kept = current;
+                while (point < readPoints.length && readPoints[point] >= current.version) {
+                    point++;
+                }
+            } else {
+                unlinked++;
+            }
+        }
+        kept.older = null;
+        return unlinked;
+    }
+
+    public MvccStats stats() {
+        long versions = 0;
+        for (Version head : chains.values()) {
+            for (Version current = head; current != null; current = current.older) {
+                versions++;
+            }
+        }
+        int snapshots;
+        synchronized (pins) {
+            snapshots = pins.values().stream().mapToInt(Integer::intValue).sum();
+        }
+        return new MvccStats(liveRecords.get(), versions, currentVersion, snapshots, collectedVersions.get());
+    }
+
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            closed = true;
+            collector.shutdownNow();
+            chains.clear();
+            liveRecords.set(0);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Store is closed");
+        }
+    }
+
+    /**
+     * One committed version of a record; {@code data} is {@code null} for a delete.
+     * Only the link to older versions changes, when they get collected.
+     */
+    private static final class Version {
+
+        private final long version;
+        private final byte[] data;
+        private volatile Version older;
+
+        private Version(long version, byte[] data, Version older) {
+            this.version = version;
+            this.data = data;
+            this.older = older;
+        }
+
+        private boolean tombstone() {
+            return data == null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.jabaddon.practices.architecture.todos.persistence.mvcc;
+
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordReader;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordVisitor;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only view of an {@link MvccRecordStore} as of one store version.
+ *
+ * Writes committed after the snapshot was taken are invisible to it, and
+ * the versions it sees are kept until it is closed.
+ */
+public final class MvccSnapshot implements AutoCloseable {
+
+    private final MvccRecordStore store;
+    private final long version;
+    private boolean closed;
+
+    MvccSnapshot(MvccRecordStore store, long version) {
+        this.store = store;
+        this.version = version;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public <T> Optional<T> read(String id, RecordReader<T> reader) {
+        ensureOpen();
+        byte[] data = store.visible(id, version);
+        return data == null ? Optional.empty() : Optional.ofNullable(reader.read(ByteBuffer.wrap(data).asReadOnlyBuffer()));
+    }
+
+    public <T> List<T> readAll(RecordReader<T> reader) {
+        List<T> result = new ArrayList<>();
+        forEach((id, record) -> result.add(reader.read(record)));
+        return result;
+    }
+
+    public void forEach(RecordVisitor visitor) {
+        ensureOpen();
+        store.forEachVisible(version, visitor);
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            store.release(version);
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Snapshot is closed");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.jabaddon.practices.architecture.todos.persistence.mvcc;
+
+/**
+ * Version bookkeeping of an {@link MvccRecordStore}.
+ *
+ * @param records           live records at the current version
+ * @param versions          versions held, tombstones included
+ * @param currentVersion    version of the last committed write
+ * @param openSnapshots     snapshots not closed yet
+ * @param collectedVersions versions dropped by the collector so far
+ */
+public record MvccStats(long records, long versions, long currentVersion, int openSnapshots,
+                        long collectedVersions) {
+}
@@ -0,0 +1,271 @@
+package com.jabaddon.practices.architecture.todos.persistence.offheap;
+
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordReader;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordVisitor;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory record store that keeps every record in direct memory.
+ *
+ * Records are copied into {@link SlabAllocator} chunks, so the heap holds only
+ * the slab buffers and a primitive {@link UuidIndex} from the id to the chunk,
+ * whatever the number of records: no per-record strings, dates or map entries
+ * for the garbage collector to trace. Ids that are not canonical UUIDs fall
+ * back to a regular map. Objects exist only while a {@link RecordReader}
+ * materializes the record handed to it.
+ *
+ * Reads share a read lock and may run concurrently; writes are exclusive.
+ * {@link #forEach} takes the read lock once per batch of records and never
+ * while its visitor runs.
+ */
+public final class OffHeapRecordStore implements RecordStore {
+
+    private static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int SCAN_BATCH = 256;
+    private static final int SCAN_BUFFER = 64 * 1024;
+
+    private final SlabAllocator allocator;
+    private final UuidIndex uuidIndex;
+    private final Map<String, Long> textIndex = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    public OffHeapRecordStore() {
+        this(DEFAULT_SLAB_SIZE, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param slabSize        bytes per slab, a power of two; also the largest record size
+     * @param initialCapacity records to size the index for
+     */
+    public OffHeapRecordStore(int slabSize, int initialCapacity) {
+        this.allocator = new SlabAllocator(slabSize);
+        this.uuidIndex = new UuidIndex(initialCapacity);
+    }
+
+    @Override
+    public void put(String id, ByteBuffer record) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            ensureOpen();
+            long previous = handle(id);
+            if (previous != UuidIndex.ABSENT && allocator.replace(previous, record)) {
+                return;
+            }
+            long handle = allocator.store(record);
+            if (TodoRecordCodec.isCanonicalUuid(id)) {
+                uuidIndex.put(TodoRecordCodec.uuidMostSignificantBits(id),
+                        TodoRecordCodec.uuidLeastSignificantBits(id), handle);
+            } else {
+                textIndex.put(id, handle);
+            }
+            if (previous != UuidIndex.ABSENT) {
+                allocator.free(previous);
+            }
+        } finally {
+            write.unlock();
+        }
+    }
+
+    @Override
+    public <T> Optional<T> read(String id, RecordReader<T> reader) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            ensureOpen();
+            long handle = handle(id);
+            return handle == UuidIndex.ABSENT
+                    ? Optional.empty()
+                    : Optional.ofNullable(reader.read(allocator.view(handle)));
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public <T> List<T> readAll(RecordReader<T> reader) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            ensureOpen();
+            List<T> result = new ArrayList<>(uuidIndex.size() + textIndex.size());
+            uuidIndex.forEachHandle(handle -> result.add(reader.read(allocator.view(handle))));
+            for (long handle : textIndex.values()) {
+                result.add(reader.read(allocator.view(handle)));
+            }
+            return result;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Snapshots the ids, then copies their records to the heap {@value #SCAN_BATCH}
+     * at a time under the read lock and visits each batch after releasing it, so
+     * a slow visitor never holds up writers. Records deleted after the snapshot
+     * are skipped and records added after it are not visited.
+     */
+    @Override
+    public void forEach(RecordVisitor visitor) {
+        long[] uuids;
+        List<String> texts;
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            ensureOpen();
+            uuids = new long[uuidIndex.size() * 2];
+            int[] next = {0};
+            uuidIndex.forEach((msb, lsb, handle) -> {
+                uuids[next[0]++] = msb;
+                uuids[next[0]++] = lsb;
+            });
+            texts = new ArrayList<>(textIndex.keySet());
+        } finally {
+            read.unlock();
+        }
+        int uuidCount = uuids.length / 2;
+        int total = uuidCount + texts.size();
+        int[] ends = new int[SCAN_BATCH];
+        byte[] bytes = new byte[SCAN_BUFFER];
+        for (int from = 0; from < total; from += SCAN_BATCH) {
+            int to = Math.min(total, from + SCAN_BATCH);
+            int used = 0;
+            read.lock();
+            try {
+                ensureOpen();
+                for (int i = from; i < to; i++) {
+                    long handle = i < uuidCount
+                            ? uuidIndex.get(uuids[2 * i], uuids[2 * i + 1])
+                            : textIndex.getOrDefault(texts.get(i - uuidCount), UuidIndex.ABSENT);
+                    if (handle == UuidIndex.ABSENT) {
+                        ends[i - from] = -1;
+                        continue;
+                    }
+                    ByteBuffer record = allocator.view(handle);
+                    int length = record.remaining();
+                    if (used + length > bytes.length) {
+                        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, used + length));
+                    }
+                    record.get(bytes, used, length);
+                    used += length;
+                    ends[i - from] = used;
+                }
+            } finally {
+                read.unlock();
+            }
+            int start = 0;
+            for (int i = from; i < to; i++) {
+                int end = ends[i - from];
+                if (end < 0) {
+                    continue;
+                }
+                String id = i < uuidCount
+                        ? TodoRecordCodec.uuidString(uuids[2 * i], uuids[2 * i + 1])
+                        : texts.get(i - uuidCount);
+                visitor.visit(id, ByteBuffer.wrap(bytes, start, end - start).slice().asReadOnlyBuffer());
+                start = end;
+            }
+        }
+    }
+
+    @Override
+    public boolean delete(String id) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            ensureOpen();
+            long removed;
+            if (TodoRecordCodec.isCanonicalUuid(id)) {
+                removed = uuidIndex.remove(TodoRecordCodec.uuidMostSignificantBits(id),
+                        TodoRecordCodec.uuidLeastSignificantBits(id));
+            } else {
+                Long handle = textIndex.remove(id);
+                removed = handle != null ? handle : UuidIndex.ABSENT;
+            }
+            if (removed == UuidIndex.ABSENT) {
+                return false;
+            }
+            allocator.free(removed);
+            return true;
+        } finally {
+            write.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(String id) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return !closed && handle(id) != UuidIndex.ABSENT;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return uuidIndex.size() + textIndex.size();
+        } finally {
+            read.unlock();
+        }
+    }
+
+    public OffHeapStats stats() {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return new OffHeapStats(uuidIndex.size() + textIndex.size(), allocator.usedBytes(),
+                    allocator.reservedBytes(), allocator.slabs());
+        } finally {
+            read.unlock();
+        }
+    }
+
+    private long handle(String id) {
+        if (TodoRecordCodec.isCanonicalUuid(id)) {
+            return uuidIndex.get(TodoRecordCodec.uuidMostSignificantBits(id),
+                    TodoRecordCodec.uuidLeastSignificantBits(id));
+        }
+        Long handle = textIndex.get(id);
+        return handle != null ? handle : UuidIndex.ABSENT;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Store is closed");
+        }
+    }
+
+    /**
+     * Drops all records and releases the slabs.
+     */
+    @Override
+    public void close() {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            closed = true;
+            allocator.release();
+        } finally {
+            write.unlock();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.jabaddon.practices.architecture.todos.persistence.offheap;
+
+/**
+ * Memory held by an {@link OffHeapRecordStore}.
+ *
+ * @param records       stored records
+ * @param usedBytes     direct memory held by live chunks
+ * @param reservedBytes direct memory allocated for slabs
+ * @param slabs         allocated slabs
+ */
+public record OffHeapStats(long records, long usedBytes, long reservedBytes, int slabs) {
+}
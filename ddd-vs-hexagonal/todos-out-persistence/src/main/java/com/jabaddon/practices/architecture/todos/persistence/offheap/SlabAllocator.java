@@ -0,0 +1,190 @@
+package com.jabaddon.practices.architecture.todos.persistence.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-size chunk allocator over direct-memory slabs.
+ *
+ * Chunk sizes are powers of two from {@link #MIN_CHUNK_SIZE} up to the slab
+ * size, one size class each. A class grows one slab at a time and recycles
+ * freed chunks through an int stack, so steady-state updates allocate nothing
+ * on the heap. A chunk holds {@code [int length][bytes]}; handles encode the
+ * size class and the chunk number within the class. Callers serialize access.
+ */
+final class SlabAllocator {
+
+    static final int MIN_CHUNK_SIZE = 64;
+
+    private static final int LENGTH_SIZE = 4;
+
+    private final int slabSize;
+    private final SizeClass[] classes;
+
+    SlabAllocator(int slabSize) {
+        if (Integer.bitCount(slabSize) != 1 || slabSize < MIN_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Slab size must be a power of two of at least " + MIN_CHUNK_SIZE);
+        }
+        this.slabSize = slabSize;
+        int count = Integer.numberOfTrailingZeros(slabSize) - Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE) + 1;
+        this.classes = new SizeClass[count];
+        for (int i = 0; i < count; i++) {
+            classes[i] = new SizeClass(MIN_CHUNK_SIZE << i, slabSize);
+        }
+    }
+
+    /**
+     * Largest record that fits in a chunk.
+     */
+    int maxRecordSize() {
+        return slabSize - LENGTH_SIZE;
+    }
+
+    /**
+     * Copies the record into a newly allocated chunk.
+     *
+     * @return the chunk handle
+     */
+    long store(ByteBuffer record) {
+        int length = record.remaining();
+        int sizeClass = classFor(length);
+        long handle = ((long) sizeClass << 32) | classes[sizeClass].allocate();
+        write(handle, record);
+        return handle;
+    }
+
+    /**
+     * Overwrites the chunk in place when the record still maps to its size class.
+     *
+     * @return whether the record was written
+     */
+    boolean replace(long handle, ByteBuffer record) {
+        if (classFor(record.remaining()) != sizeClass(handle)) {
+            return false;
+        }
+        write(handle, record);
+        return true;
+    }
+
+    void free(long handle) {
+        classes[sizeClass(handle)].free(chunk(handle));
+    }
+
+    /**
+     * Read-only view over the record held by the chunk.
+     */
+    ByteBuffer view(long handle) {
+        SizeClass owner = classes[sizeClass(handle)];
+        int chunk = chunk(handle);
+        ByteBuffer slab = owner.slab(chunk);
+        int offset = owner.offset(chunk);
+        return slab.slice(offset + LENGTH_SIZE, slab.getInt(offset)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Bytes held by live chunks, including the unused tail of each chunk.
+     */
+    long usedBytes() {
+        long used = 0;
+        for (SizeClass sizeClass : classes) {
+            used += (long) sizeClass.liveChunks() * sizeClass.chunkSize;
+        }
+        return used;
+    }
+
+    long reservedBytes() {
+        return (long) slabs() * slabSize;
+    }
+
+    int slabs() {
+        int slabs = 0;
+        for (SizeClass sizeClass : classes) {
+            slabs += sizeClass.slabs.size();
+        }
+        return slabs;
+    }
+
+    /**
+     * Drops every slab; the direct memory is returned once the buffers are collected.
+     */
+    void release() {
+        for (SizeClass sizeClass : classes) {
+            sizeClass.slabs.clear();
+        }
+    }
+
+    private void write(long handle, ByteBuffer record) {
+        SizeClass owner = classes[sizeClass(handle)];
+        int chunk = chunk(handle);
+        ByteBuffer slab = owner.slab(chunk);
+        int offset = owner.offset(chunk);
+        int length = record.remaining();
+        slab.putInt(offset, length);
+        slab.put(offset + LENGTH_SIZE, record, record.position(), length);
+    }
+
+    private int classFor(int length) {
+        int required = length + LENGTH_SIZE;
+        if (required > slabSize) {
+            throw new IllegalArgumentException("Record of " + length + " bytes does not fit in a slab");
+        }
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, Integer.highestOneBit(required - 1) << 1);
+        return Integer.numberOfTrailingZeros(chunkSize) - Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE);
+    }
+
+    private static int sizeClass(long handle) {
+        return (int) (handle >>> 32);
+    }
+
+    private static int chunk(long handle) {
+        return (int) handle;
+    }
+
+    private static final class SizeClass {
+
+        private final int chunkSize;
+        private final int chunksPerSlab;
+        private final int slabSize;
+        private final List<ByteBuffer> slabs = new ArrayList<>();
+        private int[] freeChunks = new int[16];
+        private int freeCount;
+        private int carved;
+
+        private SizeClass(int chunkSize, int slabSize) {
+            this.chunkSize = chunkSize;
+            this.chunksPerSlab = slabSize / chunkSize;
+            this.slabSize = slabSize;
+        }
+
+        private int allocate() {
+            if (freeCount > 0) {
+                return freeChunks[--freeCount];
+            }
+            if (carved == slabs.size() * chunksPerSlab) {
+                slabs.add(ByteBuffer.allocateDirect(slabSize));
+            }
+            return carved++;
+        }
+
+        private void free(int chunk) {
+            if (freeCount == freeChunks.length) {
+                freeChunks = Arrays.copyOf(freeChunks, freeCount * 2);
+            }
+            freeChunks[freeCount++] = chunk;
+        }
+
+        private ByteBuffer slab(int chunk) {
+            return slabs.get(chunk / chunksPerSlab);
+        }
+
+        private int offset(int chunk) {
+            return (chunk % chunksPerSlab) * chunkSize;
+        }
+
+        private int liveChunks() {
+            return carved - freeCount;
+        }
+    }
+}
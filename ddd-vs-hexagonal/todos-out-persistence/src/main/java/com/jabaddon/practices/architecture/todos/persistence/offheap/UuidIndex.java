@@ -0,0 +1,157 @@
+package com.jabaddon.practices.architecture.todos.persistence.offheap;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing hash map from a UUID, held as two longs, to a chunk handle.
+ *
+ * Three parallel primitive arrays and linear probing: one entry costs 24
+ * bytes and no objects. Removal shifts the following cluster back instead of
+ * leaving tombstones. Callers serialize writes.
+ */
+final class UuidIndex {
+
+    static final long ABSENT = -1;
+
+    private static final double LOAD_FACTOR = 0.75;
+
+    private long[] mostSignificant;
+    private long[] leastSignificant;
+    private long[] handles;
+    private int size;
+    private int resizeAt;
+
+    UuidIndex(int initialCapacity) {
+        allocate(Integer.highestOneBit(Math.max(16, (int) (initialCapacity / LOAD_FACTOR)) - 1) << 1);
+    }
+
+    long get(long msb, long lsb) {
+        int mask = handles.length - 1;
+        for (int slot = slot(msb, lsb, mask); ; slot = (slot + 1) & mask) {
+            long stored = handles[slot];
+            if (stored == 0) {
+                return ABSENT;
+            }
+            if (mostSignificant[slot] == msb && leastSignificant[slot] == lsb) {
+                return stored - 1;
+            }
+        }
+    }
+
+    /**
+     * @return the replaced handle, or {@link #ABSENT}
+     */
+    long put(long msb, long lsb, long handle) {
+        int mask = handles.length - 1;
+        int slot = slot(msb, lsb, mask);
+        while (handles[slot] != 0) {
+            if (mostSignificant[slot] == msb && leastSignificant[slot] == lsb) {
+                long previous = handles[slot] - 1;
+                handles[slot] = handle + 1;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        mostSignificant[slot] = msb;
+        leastSignificant[slot] = lsb;
+        handles[slot] = handle + 1;
+        if (++size > resizeAt) {
+            resize();
+        }
+        return ABSENT;
+    }
+
+    /**
+     * @return the removed handle, or {@link #ABSENT}
+     */
+    long remove(long msb, long lsb) {
+        int mask = handles.length - 1;
+        int slot = slot(msb, lsb, mask);
+        while (handles[slot] != 0) {
+            if (mostSignificant[slot] == msb && leastSignificant[slot] == lsb) {
+                long previous = handles[slot] - 1;
+                shiftBack(slot, mask);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ABSENT;
+    }
+
+    void forEachHandle(LongConsumer consumer) {
+        for (long stored : handles) {
+            if (stored != 0) {
+                consumer.accept(stored - 1);
+            }
+        }
+    }
+
+    void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < handles.length; slot++) {
+            if (handles[slot] != 0) {
+                consumer.accept(mostSignificant[slot], leastSignificant[slot], handles[slot] - 1);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void shiftBack(int emptied, int mask) {
+        int gap = emptied;
+        for (int slot = (gap + 1) & mask; handles[slot] != 0; slot = (slot + 1) & mask) {
+            int home = slot(mostSignificant[slot], leastSignificant[slot], mask);
+            // Move the entry into the gap unless its home lies cyclically in (gap, slot]
+            boolean homeAfterGap = gap <= slot ? home > gap && home <= slot : home > gap || home <= slot;
+            if (!homeAfterGap) {
+                mostSignificant[gap] = mostSignificant[slot];
+                leastSignificant[gap] = leastSignificant[slot];
+                handles[gap] = handles[slot];
+                gap = slot;
+            }
+        }
+        handles[gap] = 0;
+    }
+
+    private void resize() {
+        long[] oldMost = mostSignificant;
+        long[] oldLeast = leastSignificant;
+        long[] oldHandles = handles;
+        allocate(oldHandles.length * 2);
+        int mask = handles.length - 1;
+        for (int i = 0; i < oldHandles.length; i++) {
+            if (oldHandles[i] != 0) {
+                int slot = slot(oldMost[i], oldLeast[i], mask);
+                while (handles[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                mostSignificant[slot] = oldMost[i];
+                leastSignificant[slot] = oldLeast[i];
+                handles[slot] = oldHandles[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mostSignificant = new long[capacity];
+        leastSignificant = new long[capacity];
+        handles = new long[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int slot(long msb, long lsb, int mask) {
+        long hash = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer {
+
+        void accept(long msb, long lsb, long handle);
+    }
+}
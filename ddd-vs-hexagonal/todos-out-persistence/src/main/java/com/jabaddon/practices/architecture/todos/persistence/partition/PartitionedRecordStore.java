@@ -0,0 +1,344 @@
+package com.jabaddon.practices.architecture.todos.persistence.partition;
+
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.log.LogStoreOptions;
+import com.jabaddon.practices.architecture.todos.persistence.log.LogStructuredRecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordQuery;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordReader;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordVisitor;
+import com.jabaddon.practices.architecture.todos.persistence.store.StoreException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * RecordStore spreading records over independent partitions by id hash.
+ *
+ * Each partition is a complete store with its own index, files and locks,
+ * so writes to different partitions never contend. Single-id operations go
+ * to the owning partition; scans, queries and counts fan out to every
+ * partition on a {@link ForkJoinPool} and merge the partial results.
+ * Ordered queries ask each partition for at most {@code limit} results and
+ * merge them in key order, equal keys ordered by id as within a partition.
+ *
+ * {@link #forEach} visits the partitions one after the other, so visitors
+ * need not be thread-safe.
+ */
+public final class PartitionedRecordStore implements RecordStore {
+
+    private static final String PARTITION_PREFIX = "partition-";
+
+    private final List<RecordStore> partitions;
+    private final ForkJoinPool pool;
+
+    public PartitionedRecordStore(List<? extends RecordStore> partitions) {
+        this(partitions, ForkJoinPool.commonPool());
+    }
+
+    public PartitionedRecordStore(List<? extends RecordStore> partitions, ForkJoinPool pool) {
+        if (partitions.isEmpty()) {
+            throw new IllegalArgumentException("At least one partition is required");
+        }
+        this.partitions = List.copyOf(partitions);
+        this.pool = pool;
+    }
+
+    /**
+     * Opens one log-structured partition per core in {@code partition-N} subdirectories.
+     */
+    public static PartitionedRecordStore open(Path directory, LogStoreOptions options) {
+        return open(directory, Runtime.getRuntime().availableProcessors(), options);
+    }
+
+    /**
+     * Opens, recovering them in parallel, the given number of log-structured partitions
+     * in {@code partition-N} subdirectories.
+     *
+     * @throws StoreException when the directory already holds a different number of partitions,
+     *                        since records would no longer hash to the partition holding them
+     */
+    public static PartitionedRecordStore open(Path directory, int partitionCount, LogStoreOptions options) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("At least one partition is required");
+        }
+        long existing = existingPartitions(directory);
+        if (existing > 0 && existing != partitionCount) {
+            throw new StoreException("Store " + directory + " has " + existing + " partitions, not " + partitionCount);
+        }
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        List<ForkJoinTask<LogStructuredRecordStore>> opening = IntStream.range(0, partitionCount)
+                .mapToObj(i -> pool.submit(() -> LogStructuredRecordStore.open(
+                        directory.resolve(PARTITION_PREFIX + i), options)))
+                .toList();
+        List<LogStructuredRecordStore> opened = new ArrayList<>(partitionCount);
+        RuntimeException failure = null;
+        for (ForkJoinTask<LogStructuredRecordStore> task : opening) {
+            try {
+                opened.add(task.join());
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            opened.forEach(LogStructuredRecordStore::close);
+            throw failure;
+        }
+        return new PartitionedRecordStore(opened, pool);
+    }
+
+    private static long existingPartitions(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isDirectory)
+                    .filter(path -> path.getFileName().toString().startsWith(PARTITION_PREFIX))
+                    .count();
+        } catch (IOException e) {
+            throw new StoreException("Cannot list store directory " + directory, e);
+        }
+    }
+
+    @Override
+    public void put(String id, ByteBuffer record) {
+        partitionOf(id).put(id, record);
+    }
+
+    /**
+     * Splits the batch by partition and writes the parts in parallel, one batch per partition.
+     */
+    @Override
+    public void writeAll(Map<String, ByteBuffer> records, Collection<String> deletedIds) {
+        Map<RecordStore, Map<String, ByteBuffer>> puts = new IdentityHashMap<>();
+        Map<RecordStore, List<String>> deletes = new IdentityHashMap<>();
+        records.forEach((id, record) ->
+                puts.computeIfAbsent(partitionOf(id), partition -> new LinkedHashMap<>()).put(id, record));
+        for (String id : deletedIds) {
+            deletes.computeIfAbsent(partitionOf(id), partition -> new ArrayList<>()).add(id);
+        }
+        fanOut(partition -> {
+            Map<String, ByteBuffer> partitionPuts = puts.getOrDefault(partition, Map.of());
+            List<String> partitionDeletes = deletes.getOrDefault(partition, List.of());
+            if (partitionPuts.isEmpty() && partitionDeletes.isEmpty()) {
+                return false;
+            }
+            partition.writeAll(partitionPuts, partitionDeletes);
+            return true;
+        });
+    }
+
+    @Override
+    public <T> Optional<T> read(String id, RecordReader<T> reader) {
+        return partitionOf(id).read(id, reader);
+    }
+
+    @Override
+    public <T> List<T> readAll(RecordReader<T> reader) {
+        return concat(fanOut(partition -> partition.readAll(reader)), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void forEach(RecordVisitor visitor) {
+        for (RecordStore partition : partitions) {
+            partition.forEach(visitor);
+        }
+    }
+
+    @Override
+    public <T> List<T> query(RecordQuery query, RecordReader<T> reader) {
+        if (!query.ordered()) {
+            return concat(fanOut(partition -> partition.query(query, reader)), query.limit());
+        }
+        return merge(fanOut(partition -> partition.query(query,
+                record -> new Keyed<>(query.orderKey(record), TodoRecordCodec.id(record), reader.read(record)))), query);
+    }
+
+    @Override
+    public long count(RecordQuery query) {
+        long count = 0;
+        for (long partial : fanOut(partition -> partition.count(query))) {
+            count += partial;
+        }
+        return Math.min(count, query.limit());
+    }
+
+    /**
+     * The sum of the partition versions, which changes when any of them does;
+     * empty unless every partition keeps one.
+     */
+    @Override
+    public OptionalLong version() {
+        return sum(partitions.stream().map(RecordStore::version).toList());
+    }
+
+    @Override
+    public OptionalLong version(RecordQuery query) {
+        return sum(partitions.stream().map(partition -> partition.version(query)).toList());
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return partitionOf(id).delete(id);
+    }
+
+    @Override
+    public boolean contains(String id) {
+        return partitionOf(id).contains(id);
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (RecordStore partition : partitions) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    /**
+     * Closes every partition, rethrowing the first failure once all were attempted.
+     */
+    @Override
+    public void close() {
+        RuntimeException failure = null;
+        for (RecordStore partition : partitions) {
+            try {
+                partition.close();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public int partitionCount() {
+        return partitions.size();
+    }
+
+    private RecordStore partitionOf(String id) {
+        int hash = id.hashCode();
+        // Spread the high bits, String.hashCode varies little in them for similar ids
+        hash ^= hash >>> 16;
+        return partitions.get(Math.floorMod(hash, partitions.size()));
+    }
+
+    private <R> List<R> fanOut(Function<RecordStore, R> task) {
+        if (partitions.size() == 1) {
+            return List.of(task.apply(partitions.get(0)));
+        }
+        List<ForkJoinTask<R>> tasks = new ArrayList<>(partitions.size());
+        for (RecordStore partition : partitions) {
+            tasks.add(pool.submit(() -> task.apply(partition)));
+        }
+        List<R> results = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<R> submitted : tasks) {
+            results.add(submitted.join());
+        }
+        return results;
+    }
+
+    private static OptionalLong sum(List<OptionalLong> versions) {
+        long sum = 0;
+        for (OptionalLong version : versions) {
+            if (version.isEmpty()) {
+                return OptionalLong.empty();
+            }
+            sum += version.getAsLong();
+        }
+        return OptionalLong.of(sum);
+    }
+
+    private static <T> List<T> concat(List<List<T>> parts, int limit) {
+        int total = 0;
+        for (List<T> part : parts) {
+            total += part.size();
+        }
+        List<T> result = new ArrayList<>(Math.min(total, limit));
+        for (List<T> part : parts) {
+            for (T value : part) {
+                if (result.size() == limit) {
+                    return result;
+                }
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Merges the sorted partition results by {@code (key, id)}, as an unpartitioned
+     * store sorts them, so ties and limits come out the same.
+     */
+    private static <T> List<T> merge(List<List<Keyed<T>>> parts, RecordQuery query) {
+        Comparator<Cursor<T>> order = Comparator.<Cursor<T>>comparingLong(Cursor::key).thenComparing(Cursor::id);
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>(parts.size(),
+                query.descending() ? order.reversed() : order);
+        for (List<Keyed<T>> part : parts) {
+            if (!part.isEmpty()) {
+                heads.add(new Cursor<>(part));
+            }
+        }
+        List<T> result = new ArrayList<>();
+        while (result.size() < query.limit() && !heads.isEmpty()) {
+            Cursor<T> head = heads.poll();
+            result.add(head.current().value());
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return result;
+    }
+
+    private record Keyed<T>(long key, String id, T value) {
+    }
+
+    private static final class Cursor<T> {
+
+        private final List<Keyed<T>> values;
+        private int position;
+
+        private Cursor(List<Keyed<T>> values) {
+            this.values = values;
+        }
+
+        private Keyed<T> current() {
+            return values.get(position);
+        }
+
+        private long key() {
+            return current().key();
+        }
+
+        private String id() {
+            return current().id();
+        }
+
+        private boolean advance() {
+            return ++position < values.size();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.jabaddon.practices.architecture.todos.persistence.replication;
+
+import com.jabaddon.practices.architecture.todos.persistence.cdc.ChangeEvent;
+import com.jabaddon.practices.architecture.todos.persistence.cdc.ChangeType;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordQuery;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordReader;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordVisitor;
+import com.jabaddon.practices.architecture.todos.persistence.store.StoreException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Read-only RecordStore kept up to date by a {@link ReplicationLeader}.
+ *
+ * A background thread connects to the leader's socket, applies the shipped
+ * changes to a local store and reconnects from its last applied sequence
+ * whenever the connection drops. Handed to a TodoGateway, TodoDao or
+ * TodoRepository adapter, it serves the read ports; writes must go to the
+ * leader.
+ *
+ * Reads fail with a {@link StaleReplicaException} once the replica has not
+ * held every change the leader reported for longer than the staleness bound,
+ * for example while it catches up or after losing the leader. See
+ * {@link #lag()}.
+ */
+public final class ReplicaRecordStore implements RecordStore {
+
+    private static final Duration MAX_RECONNECT_DELAY = Duration.ofSeconds(1);
+
+    private final Path socket;
+    private final RecordStore local;
+    private final Duration maxStaleness;
+    private final Thread follower;
+    private final long startedAt = System.nanoTime();
+    private volatile long appliedSequence;
+    private volatile long leaderSequence;
+    private volatile long caughtUpAt = -1;
+    private volatile StoreException failure;
+    private volatile SocketChannel channel;
+    private volatile boolean closed;
+
+    private ReplicaRecordStore(Path socket, RecordStore local, Duration maxStaleness) {
+        this.socket = socket;
+        this.local = local;
+        this.maxStaleness = maxStaleness;
+        this.follower = new Thread(this::follow, "replication-follower");
+        follower.setDaemon(true);
+        follower.start();
+    }
+
+    /**
+     * Starts following the leader listening on the socket.
+     *
+     * @param local        empty store to hold the replicated records; closed with the replica
+     * @param maxStaleness how long reads keep being served without having caught up with the leader
+     */
+    public static ReplicaRecordStore follow(Path socket, RecordStore local, Duration maxStaleness) {
+        if (maxStaleness.isNegative()) {
+            throw new IllegalArgumentException("Staleness bound cannot be negative");
+        }
+        return new ReplicaRecordStore(socket, local, maxStaleness);
+    }
+
+    private void follow() {
+        long delay = 10;
+        while (!closed && failure == null) {
+            try (SocketChannel connection = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+                connection.connect(UnixDomainSocketAddress.of(socket));
+                channel = connection;
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(connection)));
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(connection)));
+                out.writeLong(appliedSequence);
+                out.flush();
+                delay = 10;
+                while (!closed) {
+                    apply(ReplicationProtocol.readBatch(in));
+                }
+            } catch (IOException e) {
+                // The leader is gone or not up yet; retry below
+            } catch (StoreException e) {
+                failure = e;
+                return;
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                return;
+            }
+            delay = Math.min(delay * 2, MAX_RECONNECT_DELAY.toMillis());
+        }
+    }
+
+    private void apply(ReplicationProtocol.Batch batch) {
+        for (ChangeEvent change : batch.changes()) {
+            if (change.sequence() != appliedSequence + 1) {
+                throw new StoreException("Replication gap: expected change " + (appliedSequence + 1)
+                        + " but received " + change.sequence());
+            }
+            if (change.type() == ChangeType.DELETE) {
+                local.delete(change.id());
+            } else {
+                local.put(change.id(), change.record());
+            }
+            appliedSequence = change.sequence();
+        }
+        leaderSequence = Math.max(leaderSequence, batch.leaderSequence());
+        if (appliedSequence >= batch.leaderSequence()) {
+            caughtUpAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Current replication lag; the staleness counts from start until the replica first caught up.
+     */
+    public ReplicationLag lag() {
+        long reference = caughtUpAt < 0 ? startedAt : caughtUpAt;
+        return new ReplicationLag(appliedSequence, Math.max(leaderSequence, appliedSequence),
+                Duration.ofNanos(System.nanoTime() - reference));
+    }
+
+    /**
+     * Blocks until the replica has applied the given sequence or the timeout expires.
+     *
+     * @return whether the sequence was applied
+     */
+    public boolean awaitSequence(long sequence, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (appliedSequence < sequence) {
+            if (failure != null || closed || System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    @Override
+    public void put(String id, ByteBuffer record) {
+        throw new UnsupportedOperationException("Replica is read-only, write to the leader");
+    }
+
+    @Override
+    public boolean delete(String id) {
+        throw new UnsupportedOperationException("Replica is read-only, write to the leader");
+    }
+
+    @Override
+    public <T> Optional<T> read(String id, RecordReader<T> reader) {
+        ensureFresh();
+        return local.read(id, reader);
+    }
+
+    @Override
+    public <T> List<T> readAll(RecordReader<T> reader) {
+        ensureFresh();
+        return local.readAll(reader);
+    }
+
+    @Override
+    public void forEach(RecordVisitor visitor) {
+        ensureFresh();
+        local.forEach(visitor);
+    }
+
+    @Override
+    public <T> List<T> query(RecordQuery query, RecordReader<T> reader) {
+        ensureFresh();
+        return local.query(query, reader);
+    }
+
+    @Override
+    public long count(RecordQuery query) {
+        ensureFresh();
+        return local.count(query);
+    }
+
+    @Override
+    public OptionalLong version() {
+        ensureFresh();
+        return local.version();
+    }
+
+    @Override
+    public OptionalLong version(RecordQuery query) {
+        ensureFresh();
+        return local.version(query);
+    }
+
+    @Override
+    public boolean contains(String id) {
+        ensureFresh();
+        return local.contains(id);
+    }
+
+    @Override
+    public long size() {
+        ensureFresh();
+        return local.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        follower.interrupt();
+        try {
+            SocketChannel current = channel;
+            if (current != null) {
+                current.close();
+            }
+            follower.join();
+        } catch (IOException e) {
+            throw new StoreException("Cannot close replication connection to " + socket, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            local.close();
+        }
+    }
+
+    private void ensureFresh() {
+        if (closed) {
+            throw new IllegalStateException("Store is closed");
+        }
+        if (failure != null) {
+            throw new StoreException("Replication stopped: " + failure.getMessage(), failure);
+        }
+        Duration staleness = lag().staleness();
+        if (staleness.compareTo(maxStaleness) > 0) {
+            throw new StaleReplicaException("Replica is " + staleness.toMillis() + " ms stale, bound is "
+                    + maxStaleness.toMillis() + " ms");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.jabaddon.practices.architecture.todos.persistence.replication;
+
+import java.time.Duration;
+
+/**
+ * How far a {@link ReplicaRecordStore} trails its leader.
+ *
+ * @param appliedSequence last change applied by the replica
+ * @param leaderSequence  last change the leader reported having
+ * @param staleness       time since the replica last had every change the leader reported
+ */
+public record ReplicationLag(long appliedSequence, long leaderSequence, Duration staleness) {
+
+    public long sequencesBehind() {
+        return Math.max(0, leaderSequence - appliedSequence);
+    }
+}
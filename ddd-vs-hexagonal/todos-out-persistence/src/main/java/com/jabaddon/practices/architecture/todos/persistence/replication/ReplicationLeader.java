@@ -0,0 +1,146 @@
+package com.jabaddon.practices.architecture.todos.persistence.replication;
+
+import com.jabaddon.practices.architecture.todos.persistence.cdc.ChangeCursor;
+import com.jabaddon.practices.architecture.todos.persistence.cdc.ChangeEvent;
+import com.jabaddon.practices.architecture.todos.persistence.cdc.ChangeLog;
+import com.jabaddon.practices.architecture.todos.persistence.store.StoreException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Ships a {@link ChangeLog} to {@link ReplicaRecordStore}s over a Unix domain socket.
+ *
+ * Every connected replica gets a thread that tails the log from the
+ * position the replica reports and streams the changes in batches, sending
+ * a heartbeat frame when the log stays idle for the heartbeat interval so
+ * replicas can bound their staleness. The leader keeps no per-replica state
+ * beyond the connection: a replica that reconnects resumes from its own
+ * position. The change log must retain every change a replica has yet to
+ * apply; a replica behind the truncated part of the log is refused.
+ */
+public final class ReplicationLeader implements AutoCloseable {
+
+    public static final Duration DEFAULT_HEARTBEAT_INTERVAL = Duration.ofMillis(100);
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final ChangeLog changes;
+    private final Path socket;
+    private final Duration heartbeatInterval;
+    private final int batchSize;
+    private final ServerSocketChannel server;
+    private final ExecutorService threads;
+    private final Set<SocketChannel> replicas = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    private ReplicationLeader(ChangeLog changes, Path socket, Duration heartbeatInterval, int batchSize) {
+        this.changes = changes;
+        this.socket = socket;
+        this.heartbeatInterval = heartbeatInterval;
+        this.batchSize = batchSize;
+        try {
+            Files.deleteIfExists(socket);
+            this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            server.bind(UnixDomainSocketAddress.of(socket));
+        } catch (IOException e) {
+            throw new StoreException("Cannot listen on replication socket " + socket, e);
+        }
+        this.threads = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "replication-leader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        threads.execute(this::accept);
+    }
+
+    public static ReplicationLeader start(ChangeLog changes, Path socket) {
+        return start(changes, socket, DEFAULT_HEARTBEAT_INTERVAL, DEFAULT_BATCH_SIZE);
+    }
+
+    public static ReplicationLeader start(ChangeLog changes, Path socket, Duration heartbeatInterval, int batchSize) {
+        if (heartbeatInterval.isNegative() || heartbeatInterval.isZero()) {
+            throw new IllegalArgumentException("Heartbeat interval must be positive");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        return new ReplicationLeader(changes, socket, heartbeatInterval, batchSize);
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                SocketChannel replica = server.accept();
+                replicas.add(replica);
+                threads.execute(() -> ship(replica));
+            } catch (IOException e) {
+                // The server channel was closed
+                return;
+            }
+        }
+    }
+
+    private void ship(SocketChannel replica) {
+        try (replica) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(replica)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(replica)));
+            ChangeCursor cursor = changes.cursor(in.readLong(), batchSize);
+            while (!closed) {
+                long leaderSequence = changes.lastSequence();
+                List<ChangeEvent> batch;
+                try {
+                    batch = cursor.poll(heartbeatInterval);
+                } catch (StoreException e) {
+                    ReplicationProtocol.writeError(out, e.getMessage());
+                    return;
+                }
+                ReplicationProtocol.writeBatch(out, leaderSequence, batch);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The replica disconnected or the change log was closed; the replica reconnects on its own
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            replicas.remove(replica);
+        }
+    }
+
+    /**
+     * Replicas currently connected.
+     */
+    public int replicaCount() {
+        return replicas.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            server.close();
+            for (SocketChannel replica : replicas) {
+                replica.close();
+            }
+            Files.deleteIfExists(socket);
+        } catch (IOException e) {
+            throw new StoreException("Cannot close replication socket " + socket, e);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.jabaddon.practices.architecture.todos.persistence.replication;
+
+import com.jabaddon.practices.architecture.todos.persistence.cdc.ChangeEvent;
+import com.jabaddon.practices.architecture.todos.persistence.cdc.ChangeType;
+import com.jabaddon.practices.architecture.todos.persistence.store.StoreException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire format between a {@link ReplicationLeader} and its replicas.
+ *
+ * The replica opens with {@code [long position]}, the last sequence it has
+ * applied. The leader then streams frames:
+ * <pre>
+ * [int count][long leaderSequence] count x [long sequence][byte type][UTF id][int length][record bytes]
+ * </pre>
+ * A frame with no changes is a heartbeat. A delete has length -1 and no
+ * bytes. A count of -1 is followed by {@code [UTF message]} and ends the
+ * stream with an error.
+ */
+final class ReplicationProtocol {
+
+    private static final int ERROR = -1;
+
+    private ReplicationProtocol() {
+    }
+
+    static void writeBatch(DataOutputStream out, long leaderSequence, List<ChangeEvent> changes) throws IOException {
+        out.writeInt(changes.size());
+        out.writeLong(leaderSequence);
+        for (ChangeEvent change : changes) {
+            out.writeLong(change.sequence());
+            out.writeByte(change.type().ordinal());
+            out.writeUTF(change.id());
+            ByteBuffer record = change.record();
+            if (record == null) {
+                out.writeInt(-1);
+            } else {
+                byte[] bytes = new byte[record.remaining()];
+                record.get(record.position(), bytes);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+        out.flush();
+    }
+
+    static void writeError(DataOutputStream out, String message) throws IOException {
+        out.writeInt(ERROR);
+        out.writeUTF(message);
+        out.flush();
+    }
+
+    static Batch readBatch(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count == ERROR) {
+            throw new StoreException("Leader refused replication: " + in.readUTF());
+        }
+        long leaderSequence = in.readLong();
+        List<ChangeEvent> changes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long sequence = in.readLong();
+            ChangeType type = ChangeType.values()[in.readByte()];
+            String id = in.readUTF();
+            int length = in.readInt();
+            ByteBuffer record = null;
+            if (length >= 0) {
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                record = ByteBuffer.wrap(bytes);
+            }
+            changes.add(new ChangeEvent(sequence, type, id, record));
+        }
+        return new Batch(leaderSequence, changes);
+    }
+
+    record Batch(long leaderSequence, List<ChangeEvent> changes) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.jabaddon.practices.architecture.todos.persistence.replication;
+
+import com.jabaddon.practices.architecture.todos.persistence.store.StoreException;
+
+/**
+ * Thrown by a read on a {@link ReplicaRecordStore} that trails its leader by more than its staleness bound.
+ */
+public class StaleReplicaException extends StoreException {
+
+    public StaleReplicaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.jabaddon.practices.architecture.todos.persistence.store;
+
+/**
+ * A scanned match of an ordered {@link RecordQuery}, waiting to be sorted.
+ */
+record OrderedResult<T>(long key, String id, T value) {
+}
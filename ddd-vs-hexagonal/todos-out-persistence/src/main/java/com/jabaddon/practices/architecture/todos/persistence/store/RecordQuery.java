@@ -0,0 +1,36 @@
+package com.jabaddon.practices.architecture.todos.persistence.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A predicate over encoded records, optionally ordered and limited.
+ *
+ * Any store can answer a query by scanning; a store with a
+ * {@code RecordIndex} that supports the query answers it from the index.
+ * An ordered query returns its results sorted by {@link #orderKey}, ties
+ * broken by id, and at most {@link #limit()} of them.
+ */
+@FunctionalInterface
+public interface RecordQuery {
+
+    boolean matches(ByteBuffer record);
+
+    default boolean ordered() {
+        return false;
+    }
+
+    /**
+     * Sort key of a matching record; only used when the query is {@link #ordered()}.
+     */
+    default long orderKey(ByteBuffer record) {
+        return 0;
+    }
+
+    default boolean descending() {
+        return false;
+    }
+
+    default int limit() {
+        return Integer.MAX_VALUE;
+    }
+}
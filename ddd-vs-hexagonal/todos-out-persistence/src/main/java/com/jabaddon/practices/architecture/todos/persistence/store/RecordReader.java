@@ -0,0 +1,15 @@
+package com.jabaddon.practices.architecture.todos.persistence.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns an encoded record into a value.
+ *
+ * The buffer is a read-only view owned by the store and is only valid
+ * for the duration of the call; implementations must not keep it.
+ */
+@FunctionalInterface
+public interface RecordReader<T> {
+
+    T read(ByteBuffer record);
+}
@@ -0,0 +1,130 @@
+package com.jabaddon.practices.architecture.todos.persistence.store;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * RecordStore - Storage engine contract
+ *
+ * Keeps one encoded record per id. The store knows nothing about todos;
+ * adapters translate between their port types and the encoded bytes.
+ */
+public interface RecordStore extends AutoCloseable {
+
+    void put(String id, ByteBuffer record);
+
+    /**
+     * Writes several records as one batch, see {@link #writeAll}.
+     */
+    default void putAll(Map<String, ByteBuffer> records) {
+        writeAll(records, List.of());
+    }
+
+    /**
+     * Deletes several records as one batch, see {@link #writeAll}.
+     */
+    default void deleteAll(Collection<String> ids) {
+        writeAll(Map.of(), ids);
+    }
+
+    /**
+     * Writes the records, then deletes the ids, as one batch. Applies them one
+     * by one by default; stores with a per-write cost, such as a forced log,
+     * write the batch at once, and decorators hand it on whole.
+     */
+    default void writeAll(Map<String, ByteBuffer> records, Collection<String> deletedIds) {
+        records.forEach(this::put);
+        deletedIds.forEach(this::delete);
+    }
+
+    /**
+     * Reads the record of the id; empty when there is none or the reader returns {@code null}.
+     */
+    <T> Optional<T> read(String id, RecordReader<T> reader);
+
+    <T> List<T> readAll(RecordReader<T> reader);
+
+    /**
+     * Visits every record with its id, in no particular order. No store holds a
+     * lock while the visitor runs, so writes may go on during a visit: a record
+     * changed meanwhile may be seen before or after the change, and one added
+     * meanwhile may be missed.
+     */
+    void forEach(RecordVisitor visitor);
+
+    /**
+     * Reads the records matching the query. Scans by default.
+     */
+    default <T> List<T> query(RecordQuery query, RecordReader<T> reader) {
+        if (!query.ordered()) {
+            List<T> result = new ArrayList<>();
+            forEach((id, record) -> {
+                if (query.matches(record) && result.size() < query.limit()) {
+                    result.add(reader.read(record));
+                }
+            });
+            return result;
+        }
+        List<OrderedResult<T>> matches = new ArrayList<>();
+        forEach((id, record) -> {
+            if (query.matches(record)) {
+                matches.add(new OrderedResult<>(query.orderKey(record), id, reader.read(record)));
+            }
+        });
+        Comparator<OrderedResult<T>> order = Comparator.<OrderedResult<T>>comparingLong(OrderedResult::key)
+                .thenComparing(OrderedResult::id);
+        matches.sort(query.descending() ? order.reversed() : order);
+        List<T> result = new ArrayList<>(Math.min(matches.size(), query.limit()));
+        for (int i = 0; i < matches.size() && i < query.limit(); i++) {
+            result.add(matches.get(i).value());
+        }
+        return result;
+    }
+
+    /**
+     * Counts the records matching the query. Scans by default.
+     */
+    default long count(RecordQuery query) {
+        long[] count = new long[1];
+        forEach((id, record) -> {
+            if (query.matches(record)) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * A number that changes on every write and delete, so a caller holding an
+     * earlier value can tell nothing changed without reading any record. Empty
+     * when the store keeps no version. Only comparable with values from the same
+     * store instance: versions are not kept across restarts.
+     */
+    default OptionalLong version() {
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Like {@link #version()}, for the records matching the query: changes when
+     * a write or delete touches a record matching it before or after. Empty
+     * when the store keeps no version for such queries.
+     */
+    default OptionalLong version(RecordQuery query) {
+        return OptionalLong.empty();
+    }
+
+    boolean delete(String id);
+
+    boolean contains(String id);
+
+    long size();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,14 @@
+package com.jabaddon.practices.architecture.todos.persistence.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives every stored record together with its id.
+ *
+ * Like with {@link RecordReader}, the buffer is only valid for the duration of the call.
+ */
+@FunctionalInterface
+public interface RecordVisitor {
+
+    void visit(String id, ByteBuffer record);
+}
@@ -0,0 +1,15 @@
+package com.jabaddon.practices.architecture.todos.persistence.store;
+
+/**
+ * Exception thrown when the underlying storage fails.
+ */
+public class StoreException extends RuntimeException {
+
+    public StoreException(String message) {
+        super(message);
+    }
+
+    public StoreException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
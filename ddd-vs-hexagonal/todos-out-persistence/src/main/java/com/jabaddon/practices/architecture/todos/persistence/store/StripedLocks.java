@@ -0,0 +1,65 @@
+package com.jabaddon.practices.architecture.todos.persistence.store;
+
+import java.util.Collection;
+
+/**
+ * A fixed set of monitors, one per stripe of the id space.
+ *
+ * Decorators synchronize on {@link #lockFor} to serialize the writes to one
+ * id while writes to ids on other stripes stay concurrent. A batch takes the
+ * stripes of all its ids through {@link #runLocked}.
+ */
+public final class StripedLocks {
+
+    private static final int STRIPES = 64;
+
+    private final Object[] locks = new Object[STRIPES];
+
+    public StripedLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public Object lockFor(String id) {
+        return locks[stripe(id)];
+    }
+
+    /**
+     * Runs the action holding the locks of every id. Batches sharing a stripe
+     * still wait on each other, but every batch takes its stripes in the same
+     * ascending order, so overlapping batches cannot deadlock.
+     */
+    public void runLocked(Collection<String> ids, Runnable action) {
+        boolean[] taken = new boolean[STRIPES];
+        int count = 0;
+        for (String id : ids) {
+            int stripe = stripe(id);
+            if (!taken[stripe]) {
+                taken[stripe] = true;
+                count++;
+            }
+        }
+        int[] order = new int[count];
+        for (int stripe = 0, next = 0; stripe < STRIPES; stripe++) {
+            if (taken[stripe]) {
+                order[next++] = stripe;
+            }
+        }
+        runLocked(order, 0, action);
+    }
+
+    private void runLocked(int[] order, int next, Runnable action) {
+        if (next == order.length) {
+            action.run();
+            return;
+        }
+        synchronized (locks[order[next]]) {
+            runLocked(order, next + 1, action);
+        }
+    }
+
+    private static int stripe(String id) {
+        return (id.hashCode() & 0x7FFFFFFF) % STRIPES;
+    }
+}
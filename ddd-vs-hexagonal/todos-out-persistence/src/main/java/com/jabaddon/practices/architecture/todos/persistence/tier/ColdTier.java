@@ -0,0 +1,236 @@
+package com.jabaddon.practices.architecture.todos.persistence.tier;
+
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordVisitor;
+import com.jabaddon.practices.architecture.todos.persistence.store.StoreException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Disk tier of a {@link TieredRecordStore}: deflated records appended to segment files.
+ *
+ * Only the index from id to file position stays on the heap. A segment file
+ * is deleted as soon as all its records were promoted, rewritten or deleted.
+ * The tier is spill space, not durable storage: leftover segments are
+ * discarded on open. Callers serialize access.
+ */
+final class ColdTier {
+
+    private final Path directory;
+    private final long segmentSize;
+    private final Map<Integer, FileChannel> segments = new HashMap<>();
+    private final Map<Integer, Integer> liveRecords = new HashMap<>();
+    private final Map<String, Pointer> pointers = new HashMap<>();
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final Inflater inflater = new Inflater();
+    private byte[] scratch = new byte[1024];
+    private int activeSegment = -1;
+    private long writePosition;
+    private long bytes;
+
+    private ColdTier(Path directory, long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    static ColdTier open(Path directory, long segmentSize) {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files.filter(ColdTier::isSegmentFile)::iterator) {
+                    Files.delete(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new StoreException("Cannot open cold tier in " + directory, e);
+        }
+        return new ColdTier(directory, segmentSize);
+    }
+
+    void write(String id, ByteBuffer record) {
+        int length = deflate(record);
+        if (activeSegment < 0 || writePosition + length > segmentSize) {
+            roll();
+        }
+        try {
+            FileChannel channel = segments.get(activeSegment);
+            ByteBuffer source = ByteBuffer.wrap(scratch, 0, length);
+            while (source.hasRemaining()) {
+                channel.write(source, writePosition + source.position());
+            }
+        } catch (IOException e) {
+            throw new StoreException("Cannot write cold record " + id, e);
+        }
+        remove(id);
+        pointers.put(id, new Pointer(activeSegment, writePosition, length, record.remaining()));
+        liveRecords.merge(activeSegment, 1, Integer::sum);
+        writePosition += length;
+        bytes += length;
+    }
+
+    /**
+     * Decompressed copy of the record, or {@code null} when the tier does not hold the id.
+     */
+    ByteBuffer read(String id) {
+        Pointer pointer = pointers.get(id);
+        return pointer == null ? null : read(id, pointer);
+    }
+
+    /**
+     * Reads the record and removes it from the tier.
+     */
+    ByteBuffer take(String id) {
+        ByteBuffer record = read(id);
+        if (record != null) {
+            remove(id);
+        }
+        return record;
+    }
+
+    boolean remove(String id) {
+        Pointer pointer = pointers.remove(id);
+        if (pointer == null) {
+            return false;
+        }
+        bytes -= pointer.length();
+        if (liveRecords.merge(pointer.segment(), -1, Integer::sum) == 0 && pointer.segment() != activeSegment) {
+            deleteSegment(pointer.segment());
+        }
+        return true;
+    }
+
+    boolean contains(String id) {
+        return pointers.containsKey(id);
+    }
+
+    void forEach(RecordVisitor visitor) {
+        for (Map.Entry<String, Pointer> entry : pointers.entrySet()) {
+            visitor.visit(entry.getKey(), read(entry.getKey(), entry.getValue()).asReadOnlyBuffer());
+        }
+    }
+
+    /**
+     * Copy of the ids the tier holds.
+     */
+    List<String> ids() {
+        return new ArrayList<>(pointers.keySet());
+    }
+
+    int size() {
+        return pointers.size();
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Drops every record and deletes the segment files.
+     */
+    void close() {
+        for (Integer segment : Map.copyOf(segments).keySet()) {
+            deleteSegment(segment);
+        }
+        pointers.clear();
+        deflater.end();
+        inflater.end();
+    }
+
+    private ByteBuffer read(String id, Pointer pointer) {
+        byte[] compressed = new byte[pointer.length()];
+        try {
+            ByteBuffer target = ByteBuffer.wrap(compressed);
+            FileChannel channel = segments.get(pointer.segment());
+            while (target.hasRemaining()) {
+                if (channel.read(target, pointer.offset() + target.position()) < 0) {
+                    throw new StoreException("Truncated cold record " + id);
+                }
+            }
+            byte[] record = new byte[pointer.recordLength()];
+            inflater.reset();
+            inflater.setInput(compressed);
+            if (inflater.inflate(record) != record.length || !inflater.finished()) {
+                throw new StoreException("Corrupt cold record " + id);
+            }
+            return ByteBuffer.wrap(record);
+        } catch (IOException | DataFormatException e) {
+            throw new StoreException("Cannot read cold record " + id, e);
+        }
+    }
+
+    private int deflate(ByteBuffer record) {
+        byte[] input = new byte[record.remaining()];
+        record.get(record.position(), input);
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == scratch.length) {
+                scratch = Arrays.copyOf(scratch, scratch.length * 2);
+            }
+            length += deflater.deflate(scratch, length, scratch.length - length);
+        }
+        return length;
+    }
+
+    private void roll() {
+        int previous = activeSegment;
+        activeSegment++;
+        writePosition = 0;
+        Path path = directory.resolve(fileName(activeSegment));
+        try {
+            segments.put(activeSegment, FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE));
+        } catch (IOException e) {
+            throw new StoreException("Cannot create cold segment " + path, e);
+        }
+        if (previous >= 0 && liveRecords.getOrDefault(previous, 0) == 0) {
+            deleteSegment(previous);
+        }
+    }
+
+    private void deleteSegment(int segment) {
+        FileChannel channel = segments.remove(segment);
+        liveRecords.remove(segment);
+        if (channel == null) {
+            return;
+        }
+        Path path = directory.resolve(fileName(segment));
+        try {
+            channel.close();
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new StoreException("Cannot delete cold segment " + path, e);
+        }
+    }
+
+    private static String fileName(int segment) {
+        return String.format("cold-%010d.seg", segment);
+    }
+
+    private static boolean isSegmentFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith("cold-") && name.endsWith(".seg");
+    }
+
+    private record Pointer(int segment, long offset, int length, int recordLength) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.jabaddon.practices.architecture.todos.persistence.tier;
+
+/**
+ * Occupancy and lookup counters of a {@link TieredRecordStore}.
+ *
+ * Every read by id is a hit or a miss on the heap tier; heap misses are a
+ * hit (and a promotion) or a miss on the disk tier. Scans are not counted.
+ *
+ * @param hotRecords records held on the heap
+ * @param coldRecords records held compressed on disk
+ * @param coldBytes   compressed bytes of the cold records
+ * @param hotHits     reads served from the heap
+ * @param hotMisses   reads that had to go to disk
+ * @param coldHits    reads served from disk
+ * @param coldMisses  reads of an id held by neither tier
+ * @param demotions   records moved from heap to disk
+ * @param promotions  records moved from disk back to heap
+ */
+public record TierStats(long hotRecords, long coldRecords, long coldBytes, long hotHits, long hotMisses,
+                        long coldHits, long coldMisses, long demotions, long promotions) {
+
+    public double hotHitRate() {
+        return rate(hotHits, hotMisses);
+    }
+
+    public double coldHitRate() {
+        return rate(coldHits, coldMisses);
+    }
+
+    private static double rate(long hits, long misses) {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,300 @@
+package com.jabaddon.practices.architecture.todos.persistence.tier;
+
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordReader;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordVisitor;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Record store with a bounded heap tier in front of a compressed disk tier.
+ *
+ * Written and recently read records live on the heap in least recently used
+ * order. Once the heap tier holds more than its bound, records are demoted
+ * to deflated segment files: completed todos among the least recently used
+ * ones go first, since they are rarely read again, then the least recently
+ * used record. Reading a demoted record promotes it back to the heap, so
+ * callers never see which tier served them. Scans read both tiers in place
+ * without promoting anything. See {@link #stats()}.
+ *
+ * Only the heap tier and the disk index are kept in memory; the disk tier is
+ * spill space and does not survive a restart. All operations are serialized
+ * by one lock, since even a heap hit reorders the recency list; only
+ * {@link #forEach} lets go of it while its visitor runs.
+ */
+public final class TieredRecordStore implements RecordStore {
+
+    public static final long DEFAULT_SEGMENT_SIZE = 4L * 1024 * 1024;
+
+    /**
+     * Least recently used records looked at for a completed todo before demoting the eldest.
+     */
+    private static final int DEMOTION_CANDIDATES = 16;
+
+    /**
+     * Disk records read per lock acquisition while visiting.
+     */
+    private static final int SCAN_BATCH = 256;
+
+    private final int maxHotRecords;
+    private final LinkedHashMap<String, byte[]> hot = new LinkedHashMap<>(16, 0.75f, true);
+    private final ColdTier cold;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long hotHits;
+    private long hotMisses;
+    private long coldHits;
+    private long coldMisses;
+    private long demotions;
+    private long promotions;
+    private boolean closed;
+
+    private TieredRecordStore(int maxHotRecords, ColdTier cold) {
+        this.maxHotRecords = maxHotRecords;
+        this.cold = cold;
+    }
+
+    public static TieredRecordStore open(Path directory, int maxHotRecords) {
+        return open(directory, maxHotRecords, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param directory     where the disk tier keeps its segment files
+     * @param maxHotRecords records kept on the heap before demoting
+     * @param segmentSize   bytes per disk segment
+     */
+    public static TieredRecordStore open(Path directory, int maxHotRecords, long segmentSize) {
+        if (maxHotRecords < 1) {
+            throw new IllegalArgumentException("Heap tier must hold at least one record");
+        }
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        return new TieredRecordStore(maxHotRecords, ColdTier.open(directory, segmentSize));
+    }
+
+    @Override
+    public void put(String id, ByteBuffer record) {
+        byte[] bytes = new byte[record.remaining()];
+        record.get(record.position(), bytes);
+        lock.lock();
+        try {
+            ensureOpen();
+            cold.remove(id);
+            hot.put(id, bytes);
+            demote();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public <T> Optional<T> read(String id, RecordReader<T> reader) {
+        lock.lock();
+        try {
+            ensureOpen();
+            byte[] bytes = hot.get(id);
+            if (bytes != null) {
+                hotHits++;
+                return Optional.ofNullable(reader.read(ByteBuffer.wrap(bytes).asReadOnlyBuffer()));
+            }
+            hotMisses++;
+            ByteBuffer record = cold.take(id);
+            if (record == null) {
+                coldMisses++;
+                return Optional.empty();
+            }
+            coldHits++;
+            promotions++;
+            hot.put(id, record.array());
+            demote();
+            return Optional.ofNullable(reader.read(record.asReadOnlyBuffer()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public <T> List<T> readAll(RecordReader<T> reader) {
+        lock.lock();
+        try {
+            ensureOpen();
+            List<T> result = new ArrayList<>(hot.size() + cold.size());
+            forEachLocked((id, record) -> result.add(reader.read(record)));
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Snapshots the heap tier and the ids on disk under the lock, then visits
+     * the heap records, whose arrays are never written in place, without it.
+     * Disk records are read {@value #SCAN_BATCH} at a time under the lock and
+     * visited after releasing it, so a slow visitor never holds up the store.
+     * Records deleted after the snapshot are skipped and records added after it
+     * are not visited.
+     */
+    @Override
+    public void forEach(RecordVisitor visitor) {
+        List<Map.Entry<String, byte[]>> hotRecords;
+        List<String> coldIds;
+        lock.lock();
+        try {
+            ensureOpen();
+            // Iterating the entry set does not count as an access, so scans keep the recency order
+            hotRecords = new ArrayList<>(hot.size());
+            for (Map.Entry<String, byte[]> entry : hot.entrySet()) {
+                hotRecords.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+            coldIds = cold.ids();
+        } finally {
+            lock.unlock();
+        }
+        for (Map.Entry<String, byte[]> entry : hotRecords) {
+            visitor.visit(entry.getKey(), ByteBuffer.wrap(entry.getValue()).asReadOnlyBuffer());
+        }
+        List<ByteBuffer> batch = new ArrayList<>(SCAN_BATCH);
+        for (int from = 0; from < coldIds.size(); from += SCAN_BATCH) {
+            List<String> ids = coldIds.subList(from, Math.min(coldIds.size(), from + SCAN_BATCH));
+            batch.clear();
+            lock.lock();
+            try {
+                ensureOpen();
+                for (String id : ids) {
+                    ByteBuffer record = cold.read(id);
+                    if (record == null) {
+                        // Promoted since the snapshot, so just read: looking it up barely moves it
+                        byte[] bytes = hot.get(id);
+                        record = bytes != null ? ByteBuffer.wrap(bytes) : null;
+                    }
+                    batch.add(record);
+                }
+            } finally {
+                lock.unlock();
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                if (batch.get(i) != null) {
+                    visitor.visit(ids.get(i), batch.get(i).asReadOnlyBuffer());
+                }
+            }
+        }
+    }
+
+    private void forEachLocked(RecordVisitor visitor) {
+        // Iterating the entry set does not count as an access, so scans keep the recency order
+        for (Map.Entry<String, byte[]> entry : hot.entrySet()) {
+            visitor.visit(entry.getKey(), ByteBuffer.wrap(entry.getValue()).asReadOnlyBuffer());
+        }
+        cold.forEach(visitor);
+    }
+
+    @Override
+    public boolean delete(String id) {
+        lock.lock();
+        try {
+            ensureOpen();
+            return hot.remove(id) != null || cold.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(String id) {
+        lock.lock();
+        try {
+            return !closed && (hot.containsKey(id) || cold.contains(id));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        lock.lock();
+        try {
+            return hot.size() + cold.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public TierStats stats() {
+        lock.lock();
+        try {
+            return new TierStats(hot.size(), cold.size(), cold.bytes(), hotHits, hotMisses, coldHits, coldMisses,
+                    demotions, promotions);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Disk segment files currently held.
+     */
+    int coldSegments() {
+        lock.lock();
+        try {
+            return cold.segmentCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void demote() {
+        while (hot.size() > maxHotRecords) {
+            Map.Entry<String, byte[]> victim = null;
+            Iterator<Map.Entry<String, byte[]>> eldest = hot.entrySet().iterator();
+            for (int i = 0; i < DEMOTION_CANDIDATES && eldest.hasNext(); i++) {
+                Map.Entry<String, byte[]> candidate = eldest.next();
+                if (victim == null) {
+                    victim = candidate;
+                }
+                if (isCompleted(candidate.getValue())) {
+                    victim = candidate;
+                    break;
+                }
+            }
+            cold.write(victim.getKey(), ByteBuffer.wrap(victim.getValue()));
+            hot.remove(victim.getKey());
+            demotions++;
+        }
+    }
+
+    private static boolean isCompleted(byte[] record) {
+        return record.length >= TodoRecordCodec.HEADER_SIZE
+                && TodoRecordCodec.isCompleted(TodoRecordCodec.status(ByteBuffer.wrap(record)));
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Store is closed");
+        }
+    }
+
+    /**
+     * Drops all records and deletes the disk segments.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (!closed) {
+                closed = true;
+                hot.clear();
+                cold.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.jabaddon.practices.architecture.todos.persistence.transcript;
+
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.index.StatusQuery;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordStore;
+import com.jabaddon.practices.architecture.todos.transcript.TodoData;
+import com.jabaddon.practices.architecture.todos.transcript.TodoGateway;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Table data gateway of the transaction script, implemented on a {@link RecordStore}.
+ *
+ * Todos are stored in the {@link TodoRecordCodec} format and a {@link TodoData}
+ * is only created when a gateway method returns it. The scripts mutate the
+ * TodoData they load, so every call hands out a fresh one.
+ */
+public class RecordStoreTodoGateway implements TodoGateway {
+
+    private final RecordStore store;
+
+    public RecordStoreTodoGateway(RecordStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void insert(TodoData todo) {
+        store.put(todo.getId(), encode(todo));
+    }
+
+    @Override
+    public void update(TodoData todo) {
+        store.put(todo.getId(), encode(todo));
+    }
+
+    @Override
+    public void delete(String id) {
+        store.delete(id);
+    }
+
+    @Override
+    public TodoData findById(String id) {
+        return store.read(id, RecordStoreTodoGateway::decode).orElse(null);
+    }
+
+    @Override
+    public List<TodoData> findAll() {
+        return store.readAll(RecordStoreTodoGateway::decode);
+    }
+
+    @Override
+    public List<TodoData> findByCompleted(boolean completed) {
+        return store.query(StatusQuery.of(completed), RecordStoreTodoGateway::decode);
+    }
+
+    @Override
+    public boolean exists(String id) {
+        return store.contains(id);
+    }
+
+    private static ByteBuffer encode(TodoData todo) {
+        return TodoRecordCodec.encodeToScratch(
+                todo.getId(),
+                todo.getTitle(),
+                todo.getDescription(),
+                TodoRecordCodec.statusOf(todo.isCompleted()),
+                todo.getCreatedAt(),
+                todo.getUpdatedAt()
+        );
+    }
+
+    private static TodoData decode(ByteBuffer record) {
+        return TodoRecordCodec.decode(record, (id, title, description, status, createdAt, updatedAt) ->
+                new TodoData(id, title, description, TodoRecordCodec.isCompleted(status), createdAt, updatedAt));
+    }
+}
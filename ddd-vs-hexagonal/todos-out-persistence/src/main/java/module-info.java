@@ -0,0 +1,25 @@
+module com.jabaddon.practices.architecture.todos.persistence {
+    requires com.jabaddon.practices.architecture.todos.ddd;
+    requires com.jabaddon.practices.architecture.todos.hx;
+    requires com.jabaddon.practices.architecture.todos.transcript;
+    requires com.jabaddon.practices.architecture.todos.clean;
+
+    // Storage engine, usable by any adapter
+    exports com.jabaddon.practices.architecture.todos.persistence.store;
+    exports com.jabaddon.practices.architecture.todos.persistence.log;
+    exports com.jabaddon.practices.architecture.todos.persistence.offheap;
+    exports com.jabaddon.practices.architecture.todos.persistence.mvcc;
+    exports com.jabaddon.practices.architecture.todos.persistence.tier;
+    exports com.jabaddon.practices.architecture.todos.persistence.codec;
+    exports com.jabaddon.practices.architecture.todos.persistence.index;
+    exports com.jabaddon.practices.architecture.todos.persistence.cache;
+    exports com.jabaddon.practices.architecture.todos.persistence.partition;
+    exports com.jabaddon.practices.architecture.todos.persistence.cdc;
+    exports com.jabaddon.practices.architecture.todos.persistence.replication;
+
+    // Adapters implementing the output ports of the architecture modules
+    exports com.jabaddon.practices.architecture.todos.persistence.ddd;
+    exports com.jabaddon.practices.architecture.todos.persistence.hx;
+    exports com.jabaddon.practices.architecture.todos.persistence.transcript;
+    exports com.jabaddon.practices.architecture.todos.persistence.clean;
+}
@@ -0,0 +1,48 @@
+package com.jabaddon.practices.architecture.todos.persistence.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class TinyLfuCacheTest {
+
+    @Test
+    void shouldKeepFrequentlyUsedEntriesThroughScan() {
+        TinyLfuCache<String, Integer> cache = new TinyLfuCache<>(100);
+        for (int i = 0; i < 80; i++) {
+            cache.put("hot-" + i, i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("scan-" + i, i);
+            cache.getIfPresent("hot-" + (i % 80));
+        }
+
+        long hotCached = IntStream.range(0, 80).filter(i -> cache.getIfPresent("hot-" + i) != null).count();
+        assertThat(hotCached, is(greaterThanOrEqualTo(78L)));
+        assertThat(cache.size(), is(lessThanOrEqualTo(100L)));
+        assertThat(cache.stats().evictions(), is(greaterThanOrEqualTo(9_980L)));
+    }
+
+    @Test
+    void shouldCountHitsAndMissesAndForgetInvalidatedEntries() {
+        TinyLfuCache<String, Integer> cache = new TinyLfuCache<>(10);
+        cache.put("a", 1);
+        cache.put("a", 2);
+
+        assertThat(cache.getIfPresent("a"), is(2));
+        assertThat(cache.getIfPresent("b"), is(nullValue()));
+        cache.invalidate("a");
+        assertThat(cache.getIfPresent("a"), is(nullValue()));
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.hits(), is(1L));
+        assertThat(stats.misses(), is(2L));
+        assertThat(stats.hitRatio(), is(closeTo(1.0 / 3, 1e-9)));
+        assertThat(stats.size(), is(0L));
+        assertThat(stats.evictions(), is(0L));
+    }
+}
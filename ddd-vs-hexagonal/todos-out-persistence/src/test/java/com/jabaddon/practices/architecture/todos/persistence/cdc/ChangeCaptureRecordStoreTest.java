@@ -0,0 +1,165 @@
+package com.jabaddon.practices.architecture.todos.persistence.cdc;
+
+import com.jabaddon.practices.architecture.todos.hx.application.service.TodoService;
+import com.jabaddon.practices.architecture.todos.persistence.hx.RecordStoreTodoRepository;
+import com.jabaddon.practices.architecture.todos.persistence.offheap.OffHeapRecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.store.StoreException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChangeCaptureRecordStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private ChangeLog log;
+    private ChangeCaptureRecordStore store;
+
+    @BeforeEach
+    void setUp() {
+        log = ChangeLog.open(directory, 4096);
+        store = ChangeCaptureRecordStore.open(new OffHeapRecordStore(), log);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+        log.close();
+    }
+
+    @Test
+    void shouldNumberEveryWriteMadeThroughAnAdapter() {
+        TodoService service = new TodoService(new RecordStoreTodoRepository(store));
+
+        String id = service.createTodo("Buy groceries", "Milk").id();
+        service.completeTodo(id);
+        service.deleteTodo(id);
+
+        List<ChangeEvent> changes = log.cursor(0, 10).poll();
+        assertThat(changes.stream().map(ChangeEvent::sequence).toList(), contains(1L, 2L, 3L));
+        assertThat(changes.stream().map(ChangeEvent::type).toList(),
+                contains(ChangeType.INSERT, ChangeType.UPDATE, ChangeType.DELETE));
+        assertThat(changes.stream().map(ChangeEvent::id).distinct().toList(), contains(id));
+        assertThat(changes.get(2).record(), is(nullValue()));
+        assertThat(store.delete(id), is(false));
+        assertThat(log.lastSequence(), is(3L));
+    }
+
+    @Test
+    void shouldResumeFromSavedPositionAfterReopenInBatches() {
+        for (int i = 0; i < 500; i++) {
+            store.put("todo-" + i, value("todo " + i));
+        }
+        ChangeCursor cursor = log.cursor(0, 64);
+        List<ChangeEvent> first = cursor.poll();
+        long saved = cursor.position();
+        log.close();
+
+        log = ChangeLog.open(directory, 4096);
+        ChangeCursor resumed = log.cursor(saved, 64);
+        List<String> texts = new ArrayList<>();
+        for (List<ChangeEvent> batch = resumed.poll(); !batch.isEmpty(); batch = resumed.poll()) {
+            assertThat(batch.size(), is(lessThanOrEqualTo(64)));
+            batch.forEach(change -> texts.add(text(change.record())));
+        }
+
+        assertThat(first, hasSize(64));
+        assertThat(saved, is(64L));
+        assertThat(texts, hasSize(436));
+        assertThat(texts.get(0), is(equalTo("todo 64")));
+        assertThat(texts.get(435), is(equalTo("todo 499")));
+        assertThat(resumed.position(), is(500L));
+    }
+
+    @Test
+    void shouldTruncateConsumedSegmentsAndRejectPositionsBeforeThem() {
+        for (int i = 0; i < 1_000; i++) {
+            store.put("todo-" + (i % 10), value("version " + i));
+        }
+
+        log.truncateBefore(900);
+
+        assertThat(log.firstSequence(), is(both(greaterThan(1L)).and(lessThanOrEqualTo(900L))));
+        assertThat(log.cursor(899, 1000).poll(), hasSize(101));
+        assertThrows(StoreException.class, () -> log.cursor(0, 10).poll());
+    }
+
+    @Test
+    void shouldWakeUpWaitingConsumerOnWrite() throws Exception {
+        ChangeCursor cursor = log.cursor(log.lastSequence(), 10);
+        CompletableFuture<List<ChangeEvent>> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return cursor.poll(Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        store.put("todo-1", value("late"));
+
+        List<ChangeEvent> changes = waiting.get(5, TimeUnit.SECONDS);
+        assertThat(changes, hasSize(1));
+        assertThat(text(changes.get(0).record()), is(equalTo("late")));
+    }
+
+    @Test
+    void shouldRedoLoggedChangesTheStoreMissedWhenOpened() {
+        OffHeapRecordStore backing = new OffHeapRecordStore();
+        backing.put("stale", value("old"));
+        backing.put("gone", value("kept"));
+        backing.put("current", value("same"));
+        // Changes logged right before a crash that kept them from the store
+        log.append(ChangeType.INSERT, "missed", value("new"));
+        log.append(ChangeType.UPDATE, "stale", value("old"));
+        log.append(ChangeType.UPDATE, "stale", value("newer"));
+        log.append(ChangeType.DELETE, "gone", null);
+        log.append(ChangeType.UPDATE, "current", value("same"));
+
+        try (ChangeCaptureRecordStore reopened = ChangeCaptureRecordStore.open(backing, log)) {
+            assertThat(reopened.read("missed", ChangeCaptureRecordStoreTest::text), is(Optional.of("new")));
+            assertThat(reopened.read("stale", ChangeCaptureRecordStoreTest::text), is(Optional.of("newer")));
+            assertThat(reopened.contains("gone"), is(false));
+            assertThat(reopened.read("current", ChangeCaptureRecordStoreTest::text), is(Optional.of("same")));
+            assertThat(log.lastSequence(), is(5L));
+        }
+    }
+
+    @Test
+    void shouldRestateTheStoredRecordWhenTheStoreRejectsALoggedWrite() {
+        String tooLarge = "x".repeat(2_000);
+        try (ChangeCaptureRecordStore rejecting = ChangeCaptureRecordStore.open(new OffHeapRecordStore(1024, 16), log)) {
+            rejecting.put("todo-1", value("accepted"));
+
+            assertThrows(IllegalArgumentException.class, () -> rejecting.put("todo-1", value(tooLarge)));
+
+            List<ChangeEvent> changes = log.cursor(0, 10).poll();
+            assertThat(changes.stream().map(change -> text(change.record())).toList(),
+                    contains("accepted", tooLarge, "accepted"));
+            assertThat(rejecting.read("todo-1", ChangeCaptureRecordStoreTest::text), is(Optional.of("accepted")));
+        }
+    }
+
+    private static ByteBuffer value(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(ByteBuffer record) {
+        return StandardCharsets.UTF_8.decode(record.duplicate()).toString();
+    }
+}
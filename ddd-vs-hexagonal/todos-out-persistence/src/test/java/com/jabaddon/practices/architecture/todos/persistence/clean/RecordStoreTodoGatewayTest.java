@@ -0,0 +1,105 @@
+package com.jabaddon.practices.architecture.todos.persistence.clean;
+
+import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.complete.CompleteTodoUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.create.CreateTodoUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.delete.DeleteTodoRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.delete.DeleteTodoUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdRequest;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.findbyid.FindTodoByIdUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getall.GetAllTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getall.GetAllTodosUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getcompleted.GetCompletedTodosResponse;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getcompleted.GetCompletedTodosUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.getpending.GetPendingTodosUseCase;
+import com.jabaddon.practices.architecture.todos.clean.usecase.port.TodoGateway;
+import com.jabaddon.practices.architecture.todos.persistence.offheap.OffHeapRecordStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Runs use cases against the RecordStore gateway on an off-heap store.
+ */
+class RecordStoreTodoGatewayTest {
+
+    private OffHeapRecordStore store;
+    private TodoGateway todoGateway;
+
+    @BeforeEach
+    void setUp() {
+        store = new OffHeapRecordStore();
+        todoGateway = new RecordStoreTodoGateway(store);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldCreateAndFindTodo() {
+        CreateTodoResponse created = new CreateTodoUseCase(todoGateway).execute(
+                new CreateTodoRequest("Buy groceries", "Milk, bread, eggs"));
+
+        Optional<FindTodoByIdResponse> found = new FindTodoByIdUseCase(todoGateway).execute(new FindTodoByIdRequest(created.id()));
+
+        assertThat(found.isPresent(), is(true));
+        assertThat(found.get().title(), is(equalTo("Buy groceries")));
+        assertThat(found.get().description(), is(equalTo("Milk, bread, eggs")));
+        assertThat(found.get().completed(), is(false));
+    }
+
+    @Test
+    void shouldSeparateCompletedAndPendingTodos() {
+        CreateTodoUseCase createTodoUseCase = new CreateTodoUseCase(todoGateway);
+        CreateTodoResponse first = createTodoUseCase.execute(new CreateTodoRequest("Task 1", null));
+        createTodoUseCase.execute(new CreateTodoRequest("Task 2", "Description 2"));
+
+        new CompleteTodoUseCase(todoGateway).execute(new CompleteTodoRequest(first.id()));
+
+        assertThat(new GetCompletedTodosUseCase(todoGateway).execute().todos(), hasSize(1));
+        assertThat(new GetPendingTodosUseCase(todoGateway).execute().todos(), hasSize(1));
+    }
+
+    @Test
+    void shouldStreamTodosOneAtATime() {
+        CreateTodoUseCase createTodoUseCase = new CreateTodoUseCase(todoGateway);
+        for (int i = 0; i < 20; i++) {
+            CreateTodoResponse created = createTodoUseCase.execute(new CreateTodoRequest("Task " + i, null));
+            if (i % 4 == 0) {
+                new CompleteTodoUseCase(todoGateway).execute(new CompleteTodoRequest(created.id()));
+            }
+        }
+
+        List<GetAllTodosResponse.TodoItem> all = new ArrayList<>();
+        new GetAllTodosUseCase(todoGateway).execute(all::add);
+        List<GetCompletedTodosResponse.TodoItem> completed = new ArrayList<>();
+        new GetCompletedTodosUseCase(todoGateway).execute(completed::add);
+
+        assertThat(all, containsInAnyOrder(new GetAllTodosUseCase(todoGateway).execute().todos().toArray()));
+        assertThat(completed, hasSize(5));
+        assertThat(completed.stream().allMatch(GetCompletedTodosResponse.TodoItem::completed), is(true));
+    }
+
+    @Test
+    void shouldDeleteTodo() {
+        CreateTodoResponse created = new CreateTodoUseCase(todoGateway).execute(
+                new CreateTodoRequest("Task", "Description"));
+
+        new DeleteTodoUseCase(todoGateway).execute(new DeleteTodoRequest(created.id()));
+
+        assertThat(todoGateway.existsById(created.id()), is(false));
+        assertThat(store.size(), is(0L));
+    }
+}
@@ -0,0 +1,106 @@
+package com.jabaddon.practices.architecture.todos.persistence.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TodoRecordCodecTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_456_000);
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 3, 2, 8, 0, 0, 999_999_999);
+
+    @Test
+    void shouldRoundTripTodoWithUuidId() {
+        String id = UUID.randomUUID().toString();
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+
+        int written = TodoRecordCodec.encode(buffer, id, "Buy groceries", "Milk, bread, eggs",
+                TodoRecordCodec.STATUS_COMPLETED, CREATED_AT, UPDATED_AT);
+        buffer.flip();
+
+        assertThat(written, is(TodoRecordCodec.HEADER_SIZE + "Buy groceries".length() + "Milk, bread, eggs".length()));
+        assertThat(TodoRecordCodec.encodedLength(buffer), is(written));
+        assertThat(TodoRecordCodec.decode(buffer, List::of), is(equalTo(List.of(
+                id, "Buy groceries", "Milk, bread, eggs", TodoRecordCodec.STATUS_COMPLETED,
+                CREATED_AT, UPDATED_AT.withNano(999_999_000)))));
+    }
+
+    @Test
+    void shouldRoundTripTextIdAndNullDescription() {
+        ByteBuffer record = TodoRecordCodec.encodeToScratch("todo-42", "Task", null,
+                TodoRecordCodec.STATUS_PENDING, CREATED_AT, CREATED_AT);
+
+        String[] decoded = TodoRecordCodec.decode(record,
+                (id, title, description, status, createdAt, updatedAt) -> new String[]{id, title, description});
+
+        assertThat(decoded, is(arrayContaining("todo-42", "Task", null)));
+    }
+
+    @Test
+    void shouldKeepUppercaseUuidAsText() {
+        String id = UUID.randomUUID().toString().toUpperCase();
+        ByteBuffer record = TodoRecordCodec.encodeToScratch(id, "Task", "", TodoRecordCodec.STATUS_PENDING,
+                CREATED_AT, CREATED_AT);
+
+        assertThat(TodoRecordCodec.decode(record, (i, title, description, status, c, u) -> i), is(equalTo(id)));
+    }
+
+    @Test
+    void shouldEncodeNonAsciiTextAsUtf8() {
+        String title = "Café ☕ 😀";
+        ByteBuffer record = TodoRecordCodec.encodeToScratch(UUID.randomUUID().toString(), title, "ñandú",
+                TodoRecordCodec.STATUS_PENDING, CREATED_AT, CREATED_AT);
+        ByteBuffer direct = ByteBuffer.allocateDirect(record.remaining()).put(record).flip();
+
+        String[] decoded = TodoRecordCodec.decode(direct.asReadOnlyBuffer(),
+                (id, t, description, status, createdAt, updatedAt) -> new String[]{t, description});
+
+        assertThat(decoded, is(arrayContaining(title, "ñandú")));
+    }
+
+    @Test
+    void shouldReadHeaderFieldsWithoutDecoding() {
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+        buffer.position(100);
+        TodoRecordCodec.encode(buffer, "id", "Task", "Description", TodoRecordCodec.STATUS_COMPLETED,
+                CREATED_AT, UPDATED_AT);
+        buffer.position(100);
+
+        assertThat(TodoRecordCodec.status(buffer), is(TodoRecordCodec.STATUS_COMPLETED));
+        assertThat(TodoRecordCodec.fromEpochMicros(TodoRecordCodec.createdAtMicros(buffer)), is(CREATED_AT));
+        assertThat(TodoRecordCodec.updatedAtMicros(buffer), is(TodoRecordCodec.toEpochMicros(UPDATED_AT)));
+    }
+
+    @Test
+    void shouldRejectTooSmallBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(TodoRecordCodec.HEADER_SIZE);
+
+        assertThrows(BufferOverflowException.class, () ->
+                TodoRecordCodec.encode(buffer, "id", "Task", null, TodoRecordCodec.STATUS_PENDING,
+                        CREATED_AT, CREATED_AT));
+    }
+
+    @Test
+    void shouldRejectUnknownVersion() {
+        ByteBuffer record = TodoRecordCodec.encodeToScratch("id", "Task", null, TodoRecordCodec.STATUS_PENDING,
+                CREATED_AT, CREATED_AT);
+        record.put(0, (byte) 99);
+
+        assertThrows(IllegalArgumentException.class, () -> TodoRecordCodec.decode(record, List::of));
+    }
+
+    @Test
+    void shouldMapStatusNames() {
+        assertThat(TodoRecordCodec.statusOf("COMPLETED"), is(TodoRecordCodec.STATUS_COMPLETED));
+        assertThat(TodoRecordCodec.statusName(TodoRecordCodec.STATUS_PENDING), is("PENDING"));
+        assertThat(TodoRecordCodec.statusOf(true), is(TodoRecordCodec.STATUS_COMPLETED));
+    }
+}
@@ -0,0 +1,82 @@
+package com.jabaddon.practices.architecture.todos.persistence.ddd;
+
+import com.jabaddon.practices.architecture.todos.ddd.domain.repository.dao.TodoPersistenceModel;
+import com.jabaddon.practices.architecture.todos.persistence.offheap.OffHeapRecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class CachingTodoDaoTest {
+
+    private RecordStore store;
+    private AtomicInteger loads;
+    private CachingTodoDao dao;
+
+    @BeforeEach
+    void setUp() {
+        store = new OffHeapRecordStore();
+        loads = new AtomicInteger();
+        dao = new CachingTodoDao(new RecordStoreTodoDao(store) {
+            @Override
+            public Optional<TodoPersistenceModel> findById(String id) {
+                loads.incrementAndGet();
+                return super.findById(id);
+            }
+        }, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldWriteThroughAndServeRepeatedLoadsFromCache() {
+        TodoPersistenceModel model = todo("Buy groceries", "PENDING");
+        dao.save(model);
+        TodoPersistenceModel completed = new TodoPersistenceModel(model.id(), model.title(), model.description(),
+                "COMPLETED", model.createdAt(), model.updatedAt().plusMinutes(1));
+        dao.save(completed);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(dao.findById(model.id()).get(), is(equalTo(completed)));
+        }
+
+        assertThat(loads.get(), is(0));
+        assertThat(new RecordStoreTodoDao(store).findById(model.id()).get(), is(equalTo(completed)));
+        assertThat(dao.stats().hits(), is(10L));
+        assertThat(dao.stats().hitRatio(), is(1.0));
+    }
+
+    @Test
+    void shouldLoadOnceOnMissAndInvalidateOnDelete() {
+        TodoPersistenceModel model = todo("Written elsewhere", "PENDING");
+        new RecordStoreTodoDao(store).save(model);
+
+        assertThat(dao.findById(model.id()).isPresent(), is(true));
+        assertThat(dao.findById(model.id()).isPresent(), is(true));
+        assertThat(loads.get(), is(1));
+
+        dao.delete(model.id());
+
+        assertThat(dao.existsById(model.id()), is(false));
+        assertThat(dao.findById(model.id()).isPresent(), is(false));
+        assertThat(dao.stats().size(), is(0L));
+        assertThat(dao.stats().misses(), is(3L));
+    }
+
+    private static TodoPersistenceModel todo(String title, String status) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return new TodoPersistenceModel(UUID.randomUUID().toString(), title, null, status, now, now);
+    }
+}
@@ -0,0 +1,223 @@
+package com.jabaddon.practices.architecture.todos.persistence.ddd;
+
+import com.jabaddon.practices.architecture.todos.ddd.domain.repository.dao.TodoPersistenceModel;
+import com.jabaddon.practices.architecture.todos.persistence.cdc.ChangeCaptureRecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.cdc.ChangeLog;
+import com.jabaddon.practices.architecture.todos.persistence.index.FullTextIndex;
+import com.jabaddon.practices.architecture.todos.persistence.index.IndexedRecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.index.StatusBitmapIndex;
+import com.jabaddon.practices.architecture.todos.persistence.index.StatusCountingRecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.index.TimeOrderedIndex;
+import com.jabaddon.practices.architecture.todos.persistence.log.GroupCommitOptions;
+import com.jabaddon.practices.architecture.todos.persistence.log.GroupCommitStats;
+import com.jabaddon.practices.architecture.todos.persistence.log.LogStoreOptions;
+import com.jabaddon.practices.architecture.todos.persistence.log.LogStructuredRecordStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class RecordStoreTodoDaoTest {
+
+    private static final LogStoreOptions SMALL_SEGMENTS = LogStoreOptions.defaults()
+            .withSegmentSize(4096)
+            .withCompactionInterval(Duration.ofHours(1));
+
+    @TempDir
+    Path directory;
+
+    private LogStructuredRecordStore store;
+    private RecordStoreTodoDao dao;
+
+    @BeforeEach
+    void setUp() {
+        reopen();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldSaveAndFindTodo() {
+        TodoPersistenceModel model = todo("Buy groceries", "Milk, bread, eggs", "PENDING");
+
+        dao.save(model);
+
+        Optional<TodoPersistenceModel> found = dao.findById(model.id());
+        assertThat(found.isPresent(), is(true));
+        assertThat(found.get(), is(equalTo(model)));
+        assertThat(dao.existsById(model.id()), is(true));
+    }
+
+    @Test
+    void shouldKeepNullDescription() {
+        TodoPersistenceModel model = todo("Task", null, "PENDING");
+
+        dao.save(model);
+
+        assertThat(dao.findById(model.id()).get().description(), is(nullValue()));
+    }
+
+    @Test
+    void shouldFindByStatus() {
+        dao.save(todo("Task 1", "Description 1", "COMPLETED"));
+        TodoPersistenceModel pending = todo("Task 2", "Description 2", "PENDING");
+        dao.save(pending);
+        dao.save(todo("Task 3", "Description 3", "COMPLETED"));
+
+        assertThat(dao.findAll(), hasSize(3));
+        assertThat(dao.findByStatus("COMPLETED"), hasSize(2));
+        assertThat(dao.findByStatus("PENDING"), contains(pending));
+    }
+
+    @Test
+    void shouldDeleteTodo() {
+        TodoPersistenceModel model = todo("Task", "Description", "PENDING");
+        dao.save(model);
+
+        dao.delete(model.id());
+
+        assertThat(dao.findById(model.id()).isPresent(), is(false));
+        assertThat(dao.existsById(model.id()), is(false));
+    }
+
+    @Test
+    void shouldSaveBatchAsOneGroupCommit() {
+        store.close();
+        store = LogStructuredRecordStore.open(directory,
+                SMALL_SEGMENTS.withGroupCommit(new GroupCommitOptions(Duration.ofMillis(2), 64)));
+        dao = new RecordStoreTodoDao(store);
+        List<TodoPersistenceModel> models = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            models.add(todo("Task " + i, i % 2 == 0 ? "Description " + i : null, i % 3 == 0 ? "COMPLETED" : "PENDING"));
+        }
+
+        dao.saveAll(models);
+
+        GroupCommitStats stats = store.groupCommitStats().orElseThrow();
+        assertThat(stats.writes(), is(1L));
+        assertThat(stats.batches(), is(1L));
+        for (TodoPersistenceModel model : models) {
+            assertThat(dao.findById(model.id()).get(), is(equalTo(model)));
+        }
+    }
+
+    @Test
+    void shouldWriteSavesAndDeletesThroughDecoratorsWithOneForce() {
+        store.close();
+        store = LogStructuredRecordStore.open(directory,
+                LogStoreOptions.defaults().withGroupCommit(new GroupCommitOptions(Duration.ofMillis(2), 64)));
+        try (ChangeLog changes = ChangeLog.open(directory.resolve("changes"));
+             IndexedRecordStore decorated = new IndexedRecordStore(
+                     new StatusCountingRecordStore(ChangeCaptureRecordStore.open(store, changes)),
+                     new StatusBitmapIndex(), new TimeOrderedIndex(), new FullTextIndex())) {
+            dao = new RecordStoreTodoDao(decorated);
+            List<TodoPersistenceModel> existing = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                existing.add(todo("Task " + i, "Description " + i, "PENDING"));
+            }
+            dao.saveAll(existing);
+            long forcesBefore = store.groupCommitStats().orElseThrow().batches();
+            List<TodoPersistenceModel> saved = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                TodoPersistenceModel todo = existing.get(i);
+                saved.add(new TodoPersistenceModel(todo.id(), todo.title(), todo.description(), "COMPLETED",
+                        todo.createdAt(), todo.updatedAt()));
+                saved.add(todo("New " + i, null, "PENDING"));
+            }
+            List<String> deleted = existing.subList(5, 8).stream().map(TodoPersistenceModel::id).toList();
+
+            dao.writeAll(saved, deleted);
+
+            assertThat(store.groupCommitStats().orElseThrow().batches() - forcesBefore, is(1L));
+            assertThat(changes.lastSequence(), is(23L));
+            assertThat(dao.countByStatus("COMPLETED"), is(5L));
+            assertThat(dao.countByStatus("PENDING"), is(7L));
+            assertThat(dao.findByStatus("COMPLETED"), containsInAnyOrder(saved.stream()
+                    .filter(model -> model.status().equals("COMPLETED")).toArray()));
+            assertThat(dao.search("new", 10), hasSize(5));
+            assertThat(dao.existsById(deleted.get(0)), is(false));
+            assertThat(store.size(), is(12L));
+        }
+    }
+
+    @Test
+    void shouldRecoverTodosAfterReopen() {
+        TodoPersistenceModel kept = todo("Kept", "Description", "PENDING");
+        TodoPersistenceModel updated = todo("Original", "Description", "PENDING");
+        TodoPersistenceModel deleted = todo("Deleted", "Description", "PENDING");
+        dao.save(kept);
+        dao.save(updated);
+        dao.save(deleted);
+        TodoPersistenceModel completed = new TodoPersistenceModel(updated.id(), "Updated", "Description",
+                "COMPLETED", updated.createdAt(), LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        dao.save(completed);
+        dao.delete(deleted.id());
+
+        reopen();
+
+        assertThat(dao.findAll(), hasSize(2));
+        assertThat(dao.findById(kept.id()).get(), is(equalTo(kept)));
+        assertThat(dao.findById(updated.id()).get(), is(equalTo(completed)));
+        assertThat(dao.existsById(deleted.id()), is(false));
+    }
+
+    @Test
+    void shouldCompactSupersededRecords() throws IOException {
+        TodoPersistenceModel kept = todo("Kept", "Description", "PENDING");
+        dao.save(kept);
+        TodoPersistenceModel model = todo("Task", "x".repeat(500), "PENDING");
+        for (int i = 0; i < 100; i++) {
+            dao.save(new TodoPersistenceModel(model.id(), "Task " + i, model.description(),
+                    model.status(), model.createdAt(), model.updatedAt()));
+        }
+        long segmentsBefore = segmentFiles();
+
+        store.compact();
+
+        assertThat(segmentFiles(), is(lessThan(segmentsBefore)));
+        assertThat(dao.findById(kept.id()).get(), is(equalTo(kept)));
+        assertThat(dao.findById(model.id()).get().title(), is(equalTo("Task 99")));
+
+        reopen();
+
+        assertThat(dao.findAll(), hasSize(2));
+        assertThat(dao.findById(model.id()).get().title(), is(equalTo("Task 99")));
+    }
+
+    private void reopen() {
+        if (store != null) {
+            store.close();
+        }
+        store = LogStructuredRecordStore.open(directory, SMALL_SEGMENTS);
+        dao = new RecordStoreTodoDao(store);
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+
+    private static TodoPersistenceModel todo(String title, String description, String status) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return new TodoPersistenceModel(UUID.randomUUID().toString(), title, description, status, now, now);
+    }
+}
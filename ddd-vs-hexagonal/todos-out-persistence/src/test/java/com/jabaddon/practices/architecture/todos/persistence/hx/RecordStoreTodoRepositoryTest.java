@@ -0,0 +1,82 @@
+package com.jabaddon.practices.architecture.todos.persistence.hx;
+
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
+import com.jabaddon.practices.architecture.todos.hx.application.service.TodoService;
+import com.jabaddon.practices.architecture.todos.persistence.offheap.OffHeapRecordStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class RecordStoreTodoRepositoryTest {
+
+    private OffHeapRecordStore store;
+    private RecordStoreTodoRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        store = new OffHeapRecordStore();
+        repository = new RecordStoreTodoRepository(store);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldSaveAndFindTodo() {
+        TodoDTO todo = todo("Buy groceries", "Milk, bread, eggs", false);
+
+        repository.save(todo);
+
+        assertThat(repository.findById(todo.id()).get(), is(equalTo(todo)));
+        assertThat(repository.existsById(todo.id()), is(true));
+    }
+
+    @Test
+    void shouldFindByCompleted() {
+        TodoDTO completed = todo("Task 1", null, true);
+        TodoDTO pending = todo("Task 2", "Description 2", false);
+        repository.save(completed);
+        repository.save(pending);
+
+        assertThat(repository.findAll(), hasSize(2));
+        assertThat(repository.findByCompleted(true), contains(completed));
+        assertThat(repository.findByCompleted(false), contains(pending));
+    }
+
+    @Test
+    void shouldDeleteTodo() {
+        TodoDTO todo = todo("Task", "Description", false);
+        repository.save(todo);
+
+        repository.deleteById(todo.id());
+
+        assertThat(repository.findById(todo.id()).isPresent(), is(false));
+        assertThat(repository.existsById(todo.id()), is(false));
+    }
+
+    @Test
+    void shouldBackTodoService() {
+        TodoService service = new TodoService(repository);
+
+        TodoDTO created = service.createTodo("Task", "Description");
+        service.completeTodo(created.id());
+
+        assertThat(service.getCompletedTodos(), hasSize(1));
+        assertThat(service.getIncompleteTodos(), is(empty()));
+        assertThat(service.findTodoById(created.id()).get().completed(), is(true));
+    }
+
+    private static TodoDTO todo(String title, String description, boolean completed) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return new TodoDTO(UUID.randomUUID().toString(), title, description, completed, now, now);
+    }
+}
@@ -0,0 +1,100 @@
+package com.jabaddon.practices.architecture.todos.persistence.index;
+
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.offheap.OffHeapRecordStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class FullTextIndexTest {
+
+    private OffHeapRecordStore backing;
+    private IndexedRecordStore store;
+
+    @BeforeEach
+    void setUp() {
+        backing = new OffHeapRecordStore();
+        store = new IndexedRecordStore(backing, new FullTextIndex());
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldRankTitleMatchesFirstAndRequireEveryTerm() {
+        put(UUID.randomUUID().toString(), "Call the plumber", "About the kitchen sink");
+        put(UUID.randomUUID().toString(), "Clean the kitchen", null);
+        put(UUID.randomUUID().toString(), "Kitchen renovation quote", "Call the contractor");
+
+        assertThat(store.query(SearchQuery.of("kitchen", 10), FullTextIndexTest::title),
+                contains("Clean the kitchen", "Kitchen renovation quote", "Call the plumber"));
+        assertThat(store.query(SearchQuery.of("CALL kitchen", 10), FullTextIndexTest::title),
+                containsInAnyOrder("Call the plumber", "Kitchen renovation quote"));
+        assertThat(store.query(SearchQuery.of("kitchen", 1), FullTextIndexTest::title),
+                contains("Clean the kitchen"));
+        assertThat(store.count(SearchQuery.of("kitchen", 10)), is(3L));
+        assertThat(store.query(SearchQuery.of("  ", 10), FullTextIndexTest::title), is(empty()));
+    }
+
+    @Test
+    void shouldMatchPrefixesAndPreferExactTerms() {
+        put(UUID.randomUUID().toString(), "Write report", null);
+        put(UUID.randomUUID().toString(), "Write reports summary", null);
+        put(UUID.randomUUID().toString(), "Review", null);
+
+        assertThat(store.query(SearchQuery.of("rep", 10), FullTextIndexTest::title),
+                containsInAnyOrder("Write report", "Write reports summary"));
+        assertThat(store.query(SearchQuery.of("report", 10), FullTextIndexTest::title).get(0),
+                is(equalTo("Write report")));
+        assertThat(store.query(SearchQuery.of("re", 10), FullTextIndexTest::title), hasSize(3));
+    }
+
+    @Test
+    void shouldReindexOnlyChangedTermsOnUpdateAndForgetDeletes() {
+        String id = put(UUID.randomUUID().toString(), "Buy milk", "From the corner shop");
+        String deleted = put(UUID.randomUUID().toString(), "Buy bread", null);
+
+        put(id, "Buy oat milk", "From the corner shop");
+        store.delete(deleted);
+
+        assertThat(store.query(SearchQuery.of("oat", 10), FullTextIndexTest::title), contains("Buy oat milk"));
+        assertThat(store.query(SearchQuery.of("corner", 10), FullTextIndexTest::title), contains("Buy oat milk"));
+        assertThat(store.query(SearchQuery.of("bread", 10), FullTextIndexTest::title), is(empty()));
+        assertThat(store.count(SearchQuery.of("buy", 10)), is(1L));
+    }
+
+    @Test
+    void shouldFindSameTodosAsScan() {
+        String[] words = {"alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta", "theta"};
+        for (int i = 0; i < 2_000; i++) {
+            put(UUID.randomUUID().toString(), words[i % 8] + " " + words[(i / 8) % 8] + " " + i,
+                    i % 3 == 0 ? null : words[(i / 64) % 8]);
+        }
+
+        for (String text : new String[]{"alpha", "gam eta", "zeta theta", "1"}) {
+            SearchQuery query = SearchQuery.of(text, Integer.MAX_VALUE);
+            assertThat(text, store.query(query, FullTextIndexTest::title),
+                    containsInAnyOrder(backing.query(query, FullTextIndexTest::title).toArray()));
+        }
+    }
+
+    private String put(String id, String title, String description) {
+        LocalDateTime now = LocalDateTime.now();
+        store.put(id, TodoRecordCodec.encodeToScratch(id, title, description, TodoRecordCodec.statusOf(false),
+                now, now));
+        return id;
+    }
+
+    private static String title(ByteBuffer record) {
+        return TodoRecordCodec.decode(record, (id, title, description, status, createdAt, updatedAt) -> title);
+    }
+}
@@ -0,0 +1,119 @@
+package com.jabaddon.practices.architecture.todos.persistence.index;
+
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.offheap.OffHeapRecordStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class IndexedRecordStoreTest {
+
+    private OffHeapRecordStore backing;
+    private IndexedRecordStore store;
+
+    @BeforeEach
+    void setUp() {
+        backing = new OffHeapRecordStore();
+        store = new IndexedRecordStore(backing, new StatusBitmapIndex());
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldAnswerStatusQueriesFromIndex() {
+        String completed = put(UUID.randomUUID().toString(), "Done", true);
+        put(UUID.randomUUID().toString(), "Pending 1", false);
+        put("todo-2", "Pending 2", false);
+
+        assertThat(store.query(StatusQuery.of(true), IndexedRecordStoreTest::title), contains("Done"));
+        assertThat(store.query(StatusQuery.of(false), IndexedRecordStoreTest::title),
+                containsInAnyOrder("Pending 1", "Pending 2"));
+        assertThat(store.count(StatusQuery.of(true)), is(1L));
+        assertThat(store.count(StatusQuery.of("PENDING")), is(2L));
+        assertThat(store.read(completed, IndexedRecordStoreTest::title).get(), is(equalTo("Done")));
+    }
+
+    @Test
+    void shouldMoveTodoBetweenStatusesAndForgetDeletedOnes() {
+        String id = put(UUID.randomUUID().toString(), "Task", false);
+        String deleted = put(UUID.randomUUID().toString(), "Deleted", false);
+
+        put(id, "Task", true);
+        store.delete(deleted);
+
+        assertThat(store.count(StatusQuery.of(false)), is(0L));
+        assertThat(store.query(StatusQuery.of(true), IndexedRecordStoreTest::title), contains("Task"));
+    }
+
+    @Test
+    void shouldBuildIndexFromExistingRecords() {
+        for (int i = 0; i < 10; i++) {
+            put(UUID.randomUUID().toString(), "Task " + i, i % 3 == 0);
+        }
+
+        IndexedRecordStore reopened = new IndexedRecordStore(backing, new StatusBitmapIndex());
+
+        assertThat(reopened.count(StatusQuery.of(true)), is(4L));
+        assertThat(reopened.query(StatusQuery.of(false), IndexedRecordStoreTest::title), hasSize(6));
+    }
+
+    @Test
+    void shouldMatchScanResultsAfterManyUpdates() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            ids.add(put(UUID.randomUUID().toString(), "Task " + i, i % 2 == 0));
+        }
+        for (int i = 0; i < ids.size(); i += 4) {
+            store.delete(ids.get(i));
+        }
+
+        assertThat(store.count(StatusQuery.of(true)), is(backing.count(StatusQuery.of(true))));
+        assertThat(store.count(StatusQuery.of(true)), is(5_000L));
+        assertThat(store.query(StatusQuery.of(false), IndexedRecordStoreTest::title),
+                containsInAnyOrder(backing.query(StatusQuery.of(false), IndexedRecordStoreTest::title).toArray()));
+    }
+
+    @Test
+    void shouldConvertBitmapContainersBothWays() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < 10_000; i++) {
+            bitmap.add(i * 3);
+        }
+        for (int i = 0; i < 10_000; i += 2) {
+            bitmap.remove(i * 3);
+        }
+
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+
+        assertThat(bitmap.cardinality(), is(5_000L));
+        assertThat(values, hasSize(5_000));
+        assertThat(values.get(0), is(3));
+        assertThat(values.get(4_999), is(29_997));
+        assertThat(bitmap.contains(29_997), is(true));
+        assertThat(bitmap.contains(0), is(false));
+    }
+
+    private String put(String id, String title, boolean completed) {
+        LocalDateTime now = LocalDateTime.now();
+        store.put(id, TodoRecordCodec.encodeToScratch(id, title, null, TodoRecordCodec.statusOf(completed),
+                now, now));
+        return id;
+    }
+
+    private static String title(ByteBuffer record) {
+        return TodoRecordCodec.decode(record, (id, title, description, status, createdAt, updatedAt) -> title);
+    }
+}
@@ -0,0 +1,129 @@
+package com.jabaddon.practices.architecture.todos.persistence.index;
+
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoCountsDTO;
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
+import com.jabaddon.practices.architecture.todos.hx.application.service.TodoService;
+import com.jabaddon.practices.architecture.todos.persistence.hx.RecordStoreTodoRepository;
+import com.jabaddon.practices.architecture.todos.persistence.log.LogStoreOptions;
+import com.jabaddon.practices.architecture.todos.persistence.log.LogStructuredRecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.offheap.OffHeapRecordStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class StatusCountingRecordStoreTest {
+
+    private static final LogStoreOptions OPTIONS = LogStoreOptions.defaults()
+            .withCompactionInterval(Duration.ofHours(1))
+            .withCheckpointInterval(Duration.ofHours(1));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldFollowInsertsTransitionsAndDeletes() {
+        StatusCountingRecordStore store = new StatusCountingRecordStore(LogStructuredRecordStore.open(directory, OPTIONS));
+        try (store) {
+            TodoService service = new TodoService(new RecordStoreTodoRepository(store));
+            TodoDTO first = service.createTodo("First", null);
+            TodoDTO second = service.createTodo("Second", null);
+            service.createTodo("Third", null);
+
+            service.completeTodo(first.id());
+            service.completeTodo(first.id());
+            service.completeTodo(second.id());
+            service.uncompleteTodo(second.id());
+            service.updateTodo(second.id(), "Second, renamed", null);
+            service.deleteTodo(first.id());
+
+            assertThat(service.countTodosByStatus(), is(equalTo(new TodoCountsDTO(2, 0))));
+            assertThat(store.count(StatusQuery.of(false)), is((long) service.getIncompleteTodos().size()));
+        }
+    }
+
+    @Test
+    void shouldReconcileWithStoreOnStartupAndStayExactUnderConcurrentWrites() throws Exception {
+        try (LogStructuredRecordStore store = LogStructuredRecordStore.open(directory, OPTIONS)) {
+            TodoService service = new TodoService(new RecordStoreTodoRepository(store));
+            for (int i = 0; i < 10; i++) {
+                TodoDTO todo = service.createTodo("Written before counting " + i, null);
+                if (i < 4) {
+                    service.completeTodo(todo.id());
+                }
+            }
+        }
+
+        StatusCountingRecordStore store = new StatusCountingRecordStore(LogStructuredRecordStore.open(directory, OPTIONS));
+        try (store; ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            TodoService service = new TodoService(new RecordStoreTodoRepository(store));
+            assertThat(service.countTodosByStatus(), is(equalTo(new TodoCountsDTO(6, 4))));
+
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        TodoDTO todo = service.createTodo("Concurrent " + i, null);
+                        service.completeTodo(todo.id());
+                        if (i % 2 == 0) {
+                            service.uncompleteTodo(todo.id());
+                        }
+                        if (i % 5 == 0) {
+                            service.deleteTodo(todo.id());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+
+            TodoCountsDTO counts = service.countTodosByStatus();
+            assertThat(counts.pending(), is((long) service.getIncompleteTodos().size()));
+            assertThat(counts.completed(), is((long) service.getCompletedTodos().size()));
+            assertThat(counts.pending() + counts.completed(), is(store.size()));
+        }
+    }
+
+    @Test
+    void shouldMoveVersionsOnlyWhenTheirTodosChange() {
+        StatusCountingRecordStore store = new StatusCountingRecordStore(new OffHeapRecordStore());
+        try (store) {
+            TodoService service = new TodoService(new RecordStoreTodoRepository(new IndexedRecordStore(store)));
+            TodoDTO todo = service.createTodo("Versioned", null);
+            long all = service.allTodosVersion().orElseThrow();
+            long pending = service.incompleteTodosVersion().orElseThrow();
+            long completed = service.completedTodosVersion().orElseThrow();
+
+            service.getAllTodos();
+            service.findTodoById(todo.id());
+            assertThat(service.allTodosVersion().orElseThrow(), is(all));
+
+            service.updateTodo(todo.id(), "Versioned, renamed", null);
+            assertThat(service.allTodosVersion().orElseThrow(), is(greaterThan(all)));
+            assertThat(service.incompleteTodosVersion().orElseThrow(), is(greaterThan(pending)));
+            assertThat(service.completedTodosVersion().orElseThrow(), is(completed));
+
+            pending = service.incompleteTodosVersion().orElseThrow();
+            service.completeTodo(todo.id());
+            assertThat(service.incompleteTodosVersion().orElseThrow(), is(greaterThan(pending)));
+            assertThat(service.completedTodosVersion().orElseThrow(), is(greaterThan(completed)));
+
+            pending = service.incompleteTodosVersion().orElseThrow();
+            completed = service.completedTodosVersion().orElseThrow();
+            service.deleteTodo(todo.id());
+            assertThat(service.incompleteTodosVersion().orElseThrow(), is(pending));
+            assertThat(service.completedTodosVersion().orElseThrow(), is(greaterThan(completed)));
+            assertThat(store.version(new RecentlyUpdatedQuery(10)).isPresent(), is(false));
+        }
+    }
+}
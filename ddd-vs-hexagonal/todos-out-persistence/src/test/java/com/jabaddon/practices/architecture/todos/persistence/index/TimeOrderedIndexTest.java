@@ -0,0 +1,127 @@
+package com.jabaddon.practices.architecture.todos.persistence.index;
+
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.offheap.OffHeapRecordStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class TimeOrderedIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    private OffHeapRecordStore backing;
+    private IndexedRecordStore store;
+
+    @BeforeEach
+    void setUp() {
+        backing = new OffHeapRecordStore();
+        store = new IndexedRecordStore(backing, new TimeOrderedIndex());
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldReturnCreatedRangeOldestFirstUpToLimit() {
+        for (int i = 9; i >= 0; i--) {
+            put(UUID.randomUUID().toString(), "Task " + i, START.plusMinutes(i), START.plusMinutes(i));
+        }
+
+        CreatedBetweenQuery range = CreatedBetweenQuery.of(START.plusMinutes(2), START.plusMinutes(7), 3);
+        CreatedBetweenQuery all = CreatedBetweenQuery.of(START.plusMinutes(2), START.plusMinutes(7), 100);
+
+        assertThat(store.query(range, TimeOrderedIndexTest::title), contains("Task 2", "Task 3", "Task 4"));
+        assertThat(store.query(all, TimeOrderedIndexTest::title),
+                contains("Task 2", "Task 3", "Task 4", "Task 5", "Task 6"));
+        assertThat(store.count(all), is(5L));
+    }
+
+    @Test
+    void shouldReturnRecentlyUpdatedNewestFirstAfterUpdatesAndDeletes() {
+        String first = put(UUID.randomUUID().toString(), "First", START, START);
+        String second = put(UUID.randomUUID().toString(), "Second", START, START.plusMinutes(1));
+        String third = put(UUID.randomUUID().toString(), "Third", START, START.plusMinutes(2));
+
+        put(first, "First", START, START.plusMinutes(3));
+        store.delete(third);
+
+        assertThat(store.query(new RecentlyUpdatedQuery(10), TimeOrderedIndexTest::title),
+                contains("First", "Second"));
+        assertThat(store.query(new RecentlyUpdatedQuery(1), TimeOrderedIndexTest::title), contains("First"));
+        assertThat(store.read(second, TimeOrderedIndexTest::title).get(), is(equalTo("Second")));
+    }
+
+    @Test
+    void shouldMatchScanResultsForEqualTimestamps() {
+        for (int i = 0; i < 1_000; i++) {
+            LocalDateTime at = START.plusSeconds(i / 10);
+            put(UUID.randomUUID().toString(), "Task " + i, at, at.plusSeconds(i % 7));
+        }
+
+        CreatedBetweenQuery range = CreatedBetweenQuery.of(START.plusSeconds(20), START.plusSeconds(40), 150);
+        RecentlyUpdatedQuery recent = new RecentlyUpdatedQuery(50);
+
+        assertThat(store.query(range, TimeOrderedIndexTest::id), is(equalTo(backing.query(range, TimeOrderedIndexTest::id))));
+        assertThat(store.query(recent, TimeOrderedIndexTest::id), is(equalTo(backing.query(recent, TimeOrderedIndexTest::id))));
+    }
+
+    @Test
+    void shouldPageThroughTodosSharingACreatedAtWithTheKeysetCursor() {
+        for (int i = 0; i < 25; i++) {
+            LocalDateTime at = START.plusSeconds(i / 10);
+            put(UUID.randomUUID().toString(), "Task " + i, at, at);
+        }
+        LocalDateTime to = START.plusMinutes(1);
+
+        List<String> paged = new ArrayList<>();
+        List<String> page = store.query(CreatedBetweenQuery.of(START, to, 4), TimeOrderedIndexTest::id);
+        while (!page.isEmpty()) {
+            paged.addAll(page);
+            String last = page.get(page.size() - 1);
+            LocalDateTime lastCreatedAt = store.read(last, record ->
+                    TodoRecordCodec.fromEpochMicros(TodoRecordCodec.createdAtMicros(record))).orElseThrow();
+            CreatedBetweenQuery next = CreatedBetweenQuery.after(lastCreatedAt, last, to, 4);
+            page = store.query(next, TimeOrderedIndexTest::id);
+            assertThat(page, is(equalTo(backing.query(next, TimeOrderedIndexTest::id))));
+        }
+
+        assertThat(paged, is(equalTo(store.query(CreatedBetweenQuery.of(START, to, 100), TimeOrderedIndexTest::id))));
+        assertThat(paged, hasSize(25));
+    }
+
+    @Test
+    void shouldAnswerAnInvertedRangeWithNoTodosLikeAScan() {
+        put(UUID.randomUUID().toString(), "Task", START, START);
+        CreatedBetweenQuery inverted = CreatedBetweenQuery.of(START.plusMinutes(1), START.minusMinutes(1), 10);
+
+        assertThat(store.query(inverted, TimeOrderedIndexTest::id), is(empty()));
+        assertThat(backing.query(inverted, TimeOrderedIndexTest::id), is(empty()));
+        assertThat(store.count(inverted), is(0L));
+    }
+
+    private String put(String id, String title, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        store.put(id, TodoRecordCodec.encodeToScratch(id, title, null, TodoRecordCodec.statusOf(false),
+                createdAt, updatedAt));
+        return id;
+    }
+
+    private static String title(ByteBuffer record) {
+        return TodoRecordCodec.decode(record, (id, title, description, status, createdAt, updatedAt) -> title);
+    }
+
+    private static String id(ByteBuffer record) {
+        return TodoRecordCodec.decode(record, (id, title, description, status, createdAt, updatedAt) -> id);
+    }
+}
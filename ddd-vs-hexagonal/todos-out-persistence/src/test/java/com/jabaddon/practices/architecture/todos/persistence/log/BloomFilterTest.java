@@ -0,0 +1,132 @@
+package com.jabaddon.practices.architecture.todos.persistence.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class BloomFilterTest {
+
+    private static final LogStoreOptions OPTIONS = LogStoreOptions.defaults()
+            .withSegmentSize(64 * 1024)
+            .withCompactionInterval(Duration.ofHours(1))
+            .withCheckpointInterval(Duration.ofHours(1));
+
+    @TempDir
+    Path directory;
+
+    private LogStructuredRecordStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = LogStructuredRecordStore.open(directory, OPTIONS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldAnswerMostAbsentLookupsFromMemory() {
+        for (int i = 0; i < 2_000; i++) {
+            store.put("todo-" + i, value(i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(store.contains("stale-" + i), is(false));
+        }
+        for (int i = 0; i < 2_000; i++) {
+            assertThat(store.contains("todo-" + i), is(true));
+        }
+
+        BloomFilterStats stats = store.filterStats();
+        assertThat(stats.filters(), is(greaterThan(1)));
+        assertThat(stats.ids(), is(2_000L));
+        assertThat(stats.lookups(), is(12_000L + 2_000L));
+        assertThat(stats.filteredLookups(), is(greaterThan(9_000L)));
+        assertThat(stats.observedFalsePositiveRate(), is(lessThan(0.1)));
+        assertThat(stats.estimatedFalsePositiveRate(), is(lessThan(0.1)));
+    }
+
+    @Test
+    void shouldReuseSavedFiltersAndRebuildMissingOnesOnOpen() throws IOException {
+        for (int i = 0; i < 1_000; i++) {
+            store.put("todo-" + i, value(i));
+        }
+        store.close();
+        List<Path> filters = filterFiles();
+        assertThat(filters, hasSize(store.filterStats().filters()));
+        Files.delete(filters.get(0));
+
+        store = LogStructuredRecordStore.open(directory, OPTIONS);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(store.read("todo-" + i, BloomFilterTest::text).isPresent(), is(true));
+        }
+        assertThat(store.contains("missing"), is(false));
+        assertThat(store.filterStats().ids(), is(1_000L));
+    }
+
+    @Test
+    void shouldDropFiltersOfCompactedSegments() throws IOException {
+        // Tombstones count as garbage, so a low threshold also compacts the segment holding the deletes
+        store.close();
+        store = LogStructuredRecordStore.open(directory, OPTIONS.withCompactionThreshold(0.1));
+        for (int i = 0; i < 1_000; i++) {
+            store.put("todo-" + i, value(i));
+        }
+        for (int i = 0; i < 950; i++) {
+            store.delete("todo-" + i);
+        }
+        for (int i = 0; i < 600; i++) {
+            store.put("fresh-" + i, value(i));
+        }
+        store.checkpoint();
+        int before = store.filterStats().filters();
+
+        store.compact();
+
+        BloomFilterStats stats = store.filterStats();
+        assertThat(stats.filters(), is(lessThan(before)));
+        assertThat(filterFiles().size(), is(lessThan(before)));
+        for (int i = 950; i < 1_000; i++) {
+            assertThat(store.contains("todo-" + i), is(true));
+        }
+        for (int i = 0; i < 600; i++) {
+            assertThat(store.contains("fresh-" + i), is(true));
+        }
+        BloomFilterStats afterCompaction = store.filterStats();
+        for (int i = 0; i < 950; i++) {
+            assertThat(store.contains("todo-" + i), is(false));
+        }
+        assertThat(store.filterStats().filteredLookups() - afterCompaction.filteredLookups(),
+                is(greaterThan(800L)));
+    }
+
+    private List<Path> filterFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Segment::isFilterFile).sorted().toList();
+        }
+    }
+
+    private static ByteBuffer value(int i) {
+        return ByteBuffer.wrap(("todo " + i + " " + "x".repeat(100)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(ByteBuffer record) {
+        return StandardCharsets.UTF_8.decode(record).toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.jabaddon.practices.architecture.todos.persistence.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GroupCommitWriterTest {
+
+    private static final LogStoreOptions GROUP_COMMIT = LogStoreOptions.defaults()
+            .withSegmentSize(1024 * 1024)
+            .withGroupCommit(new GroupCommitOptions(Duration.ofMillis(2), 64));
+
+    @TempDir
+    Path directory;
+
+    private LogStructuredRecordStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = LogStructuredRecordStore.open(directory, GROUP_COMMIT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldBatchConcurrentWritesIntoFewerCommits() throws Exception {
+        int threads = 16;
+        int writesPerThread = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < writesPerThread; i++) {
+                    store.put(thread + "-" + i, value("todo " + i));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        GroupCommitStats stats = store.groupCommitStats().orElseThrow();
+        assertThat(store.size(), is((long) threads * writesPerThread));
+        assertThat(stats.writes(), is((long) threads * writesPerThread));
+        assertThat(stats.batches(), is(lessThan(stats.writes())));
+        assertThat(stats.maxBatchSize(), is(both(greaterThan(1)).and(lessThanOrEqualTo(64))));
+        assertThat(stats.averageCommitLatency(), is(greaterThan(Duration.ZERO)));
+    }
+
+    @Test
+    void shouldReturnDeleteResultThroughTheWriter() {
+        store.put("id", value("todo"));
+
+        assertThat(store.delete("id"), is(true));
+        assertThat(store.delete("id"), is(false));
+    }
+
+    @Test
+    void shouldKeepCommittedWritesAfterReopen() {
+        store.put("kept", value("kept"));
+        store.put("deleted", value("deleted"));
+        store.delete("deleted");
+
+        store.close();
+        store = LogStructuredRecordStore.open(directory, GROUP_COMMIT);
+
+        assertThat(store.read("kept", GroupCommitWriterTest::text).orElseThrow(), is(equalTo("kept")));
+        assertThat(store.contains("deleted"), is(false));
+    }
+
+    @Test
+    void shouldRejectWritesAfterClose() {
+        store.close();
+
+        assertThrows(IllegalStateException.class, () ->
+                store.put("id", value("todo")));
+    }
+
+    private static ByteBuffer value(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+}
@@ -0,0 +1,138 @@
+package com.jabaddon.practices.architecture.todos.persistence.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class SnapshotRecoveryTest {
+
+    private static final LogStoreOptions SMALL_SEGMENTS = LogStoreOptions.defaults()
+            .withSegmentSize(4096)
+            .withCompactionInterval(Duration.ofHours(1))
+            .withCheckpointInterval(Duration.ofHours(1));
+
+    @TempDir
+    Path directory;
+
+    @TempDir
+    Path crashed;
+
+    private LogStructuredRecordStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = LogStructuredRecordStore.open(directory, SMALL_SEGMENTS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldLoadIndexFromSnapshotAfterCleanClose() {
+        for (int i = 0; i < 100; i++) {
+            store.put("todo-" + i, value("todo " + i));
+        }
+        store.close();
+
+        store = LogStructuredRecordStore.open(directory, SMALL_SEGMENTS);
+
+        RecoveryReport report = store.recoveryReport();
+        assertThat(report.snapshotEntries(), is(100L));
+        assertThat(report.replayedRecords(), is(0L));
+        assertThat(store.size(), is(100L));
+        assertThat(store.read("todo-42", SnapshotRecoveryTest::text).get(), is(equalTo("todo 42")));
+        assertThat(store.readAll(SnapshotRecoveryTest::text), hasSize(100));
+    }
+
+    @Test
+    void shouldReplayLogWrittenAfterCheckpoint() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            store.put("todo-" + i, value("todo " + i));
+        }
+        store.checkpoint();
+        for (int i = 0; i < 10; i++) {
+            store.put("todo-" + i, value("updated " + i));
+        }
+        for (int i = 10; i < 15; i++) {
+            store.delete("todo-" + i);
+        }
+        for (int i = 100; i < 105; i++) {
+            store.put("todo-" + i, value("todo " + i));
+        }
+
+        LogStructuredRecordStore recovered = openCrashedCopy();
+        try {
+            RecoveryReport report = recovered.recoveryReport();
+            assertThat(report.snapshotEntries(), is(100L));
+            assertThat(report.replayedRecords(), is(20L));
+            assertThat(recovered.size(), is(100L));
+            assertThat(recovered.read("todo-3", SnapshotRecoveryTest::text).get(), is(equalTo("updated 3")));
+            assertThat(recovered.contains("todo-12"), is(false));
+            assertThat(recovered.read("todo-50", SnapshotRecoveryTest::text).get(), is(equalTo("todo 50")));
+            assertThat(recovered.read("todo-104", SnapshotRecoveryTest::text).get(), is(equalTo("todo 104")));
+            assertThat(recovered.readAll(SnapshotRecoveryTest::text), hasSize(100));
+        } finally {
+            recovered.close();
+        }
+    }
+
+    @Test
+    void shouldKeepDeletesAcrossCompactionAndCheckpoints() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            store.put("todo-" + i, value("todo " + i));
+        }
+        store.checkpoint();
+        for (int i = 0; i < 100; i += 2) {
+            store.delete("todo-" + i);
+        }
+        store.compact();
+        store.checkpoint();
+        store.compact();
+        store.put("todo-1", value("updated 1"));
+
+        LogStructuredRecordStore recovered = openCrashedCopy();
+        try {
+            assertThat(recovered.size(), is(50L));
+            assertThat(recovered.contains("todo-0"), is(false));
+            assertThat(recovered.contains("todo-98"), is(false));
+            assertThat(recovered.read("todo-1", SnapshotRecoveryTest::text).get(), is(equalTo("updated 1")));
+            assertThat(recovered.read("todo-99", SnapshotRecoveryTest::text).get(), is(equalTo("todo 99")));
+        } finally {
+            recovered.close();
+        }
+    }
+
+    /**
+     * Copies the files of the open store, as a crash would leave them, and opens the copy.
+     */
+    private LogStructuredRecordStore openCrashedCopy() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, crashed.resolve(file.getFileName()));
+            }
+        }
+        return LogStructuredRecordStore.open(crashed, SMALL_SEGMENTS);
+    }
+
+    private static ByteBuffer value(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(ByteBuffer record) {
+        return StandardCharsets.UTF_8.decode(record).toString();
+    }
+}
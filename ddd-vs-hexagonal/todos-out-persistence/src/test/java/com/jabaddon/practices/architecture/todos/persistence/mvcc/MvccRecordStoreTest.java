@@ -0,0 +1,126 @@
+package com.jabaddon.practices.architecture.todos.persistence.mvcc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class MvccRecordStoreTest {
+
+    private MvccRecordStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new MvccRecordStore(Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldKeepSnapshotIsolatedFromLaterWrites() {
+        store.put("todo-1", value("first"));
+        store.put("todo-2", value("second"));
+
+        try (MvccSnapshot snapshot = store.snapshot()) {
+            store.put("todo-1", value("updated"));
+            store.delete("todo-2");
+            store.put("todo-3", value("third"));
+
+            assertThat(snapshot.read("todo-1", MvccRecordStoreTest::text).get(), is(equalTo("first")));
+            assertThat(snapshot.read("todo-2", MvccRecordStoreTest::text).get(), is(equalTo("second")));
+            assertThat(snapshot.read("todo-3", MvccRecordStoreTest::text).isPresent(), is(false));
+            assertThat(snapshot.readAll(MvccRecordStoreTest::text), containsInAnyOrder("first", "second"));
+        }
+
+        assertThat(store.readAll(MvccRecordStoreTest::text), containsInAnyOrder("updated", "third"));
+        assertThat(store.size(), is(2L));
+        assertThat(store.delete("todo-2"), is(false));
+    }
+
+    @Test
+    void shouldCollectVersionsOnlyOnceNoSnapshotSeesThem() {
+        store.put("todo-1", value("v1"));
+        store.put("todo-2", value("doomed"));
+        MvccSnapshot snapshot = store.snapshot();
+        store.put("todo-1", value("v2"));
+        store.put("todo-1", value("v3"));
+        store.delete("todo-2");
+
+        store.collectGarbage();
+
+        assertThat(snapshot.read("todo-1", MvccRecordStoreTest::text).get(), is(equalTo("v1")));
+        assertThat(snapshot.read("todo-2", MvccRecordStoreTest::text).get(), is(equalTo("doomed")));
+        assertThat(store.stats().versions(), is(4L));
+        assertThat(store.stats().openSnapshots(), is(1));
+
+        snapshot.close();
+        store.collectGarbage();
+
+        MvccStats stats = store.stats();
+        assertThat(stats.versions(), is(1L));
+        assertThat(stats.records(), is(1L));
+        assertThat(stats.openSnapshots(), is(0));
+        assertThat(store.read("todo-1", MvccRecordStoreTest::text).get(), is(equalTo("v3")));
+    }
+
+    @Test
+    void shouldScanConsistentStateWhileWritersRun() throws InterruptedException {
+        int records = 1_000;
+        for (int i = 0; i < records; i++) {
+            store.put("todo-" + i, value("0"));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < 2; w++) {
+            Thread writer = new Thread(() -> {
+                // Each round moves every record to the next generation, in order
+                for (int generation = 1; running.get(); generation++) {
+                    for (int i = 0; i < records && running.get(); i++) {
+                        store.put("todo-" + i, value(Integer.toString(generation)));
+                        if (i % 100 == 0) {
+                            store.collectGarbage();
+                        }
+                    }
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        try {
+            for (int scan = 0; scan < 50; scan++) {
+                try (MvccSnapshot snapshot = store.snapshot()) {
+                    List<String> first = snapshot.readAll(MvccRecordStoreTest::text);
+                    List<String> second = snapshot.readAll(MvccRecordStoreTest::text);
+
+                    assertThat(first, hasSize(records));
+                    assertThat(second, containsInAnyOrder(first.toArray()));
+                }
+            }
+        } finally {
+            running.set(false);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+    }
+
+    private static ByteBuffer value(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(ByteBuffer record) {
+        return StandardCharsets.UTF_8.decode(record).toString();
+    }
+}
@@ -0,0 +1,148 @@
+package com.jabaddon.practices.architecture.todos.persistence.offheap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OffHeapRecordStoreTest {
+
+    private OffHeapRecordStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new OffHeapRecordStore(4096, 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldStoreRecordsByUuidAndTextId() {
+        String uuid = UUID.randomUUID().toString();
+        store.put(uuid, value("uuid record"));
+        store.put("todo-1", value("text record"));
+
+        assertThat(store.read(uuid, OffHeapRecordStoreTest::text).get(), is(equalTo("uuid record")));
+        assertThat(store.read("todo-1", OffHeapRecordStoreTest::text).get(), is(equalTo("text record")));
+        assertThat(store.read(UUID.randomUUID().toString(), OffHeapRecordStoreTest::text).isPresent(), is(false));
+        assertThat(store.readAll(OffHeapRecordStoreTest::text), containsInAnyOrder("uuid record", "text record"));
+        assertThat(store.size(), is(2L));
+    }
+
+    @Test
+    void shouldReplaceRecordWithinAndAcrossSizeClasses() {
+        String id = UUID.randomUUID().toString();
+        store.put(id, value("short"));
+        store.put(id, value("still short"));
+        long usedInSmallestClass = store.stats().usedBytes();
+
+        store.put(id, value("x".repeat(1000)));
+
+        assertThat(usedInSmallestClass, is((long) SlabAllocator.MIN_CHUNK_SIZE));
+        assertThat(store.stats().usedBytes(), is(1024L));
+        assertThat(store.read(id, OffHeapRecordStoreTest::text).get(), is(equalTo("x".repeat(1000))));
+        assertThat(store.size(), is(1L));
+    }
+
+    @Test
+    void shouldReuseChunksOfDeletedRecords() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String id = UUID.randomUUID().toString();
+            ids.add(id);
+            store.put(id, value("todo " + i));
+        }
+        int slabs = store.stats().slabs();
+        for (int i = 0; i < ids.size(); i += 2) {
+            assertThat(store.delete(ids.get(i)), is(true));
+        }
+        for (int i = 0; i < ids.size(); i += 2) {
+            store.put(ids.get(i), value("again " + i));
+        }
+
+        assertThat(store.stats().slabs(), is(slabs));
+        assertThat(store.size(), is(10_000L));
+        for (int i = 0; i < ids.size(); i++) {
+            String expected = i % 2 == 0 ? "again " + i : "todo " + i;
+            assertThat(store.read(ids.get(i), OffHeapRecordStoreTest::text).get(), is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    void shouldDeleteRecords() {
+        String id = UUID.randomUUID().toString();
+        store.put(id, value("record"));
+
+        assertThat(store.delete(id), is(true));
+        assertThat(store.delete(id), is(false));
+        assertThat(store.contains(id), is(false));
+        assertThat(store.stats().usedBytes(), is(0L));
+    }
+
+    @Test
+    void shouldLetWritersRunWhileVisitingInBatches() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String uuid = UUID.randomUUID().toString();
+            store.put(uuid, value(uuid));
+            store.put("todo-" + i, value("todo-" + i));
+            expected.add(uuid);
+            expected.add("todo-" + i);
+        }
+        expected.remove("todo-299");
+
+        Map<String, String> visited = new HashMap<>();
+        store.forEach((id, record) -> {
+            if (visited.isEmpty()) {
+                // Text ids are visited after UUIDs, so todo-299 is deleted before its turn
+                write(() -> {
+                    store.delete("todo-299");
+                    store.put("added", value("added"));
+                });
+            }
+            visited.put(id, text(record));
+        });
+
+        assertThat(visited.keySet(), containsInAnyOrder(expected.toArray()));
+        visited.forEach((id, text) -> assertThat(text, is(equalTo(id))));
+        assertThat(store.contains("added"), is(true));
+    }
+
+    @Test
+    void shouldRejectRecordLargerThanSlab() {
+        assertThrows(IllegalArgumentException.class, () ->
+                store.put("too-large", value("x".repeat(4096))));
+    }
+
+    private static void write(Runnable write) {
+        try {
+            CompletableFuture.runAsync(write).get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new AssertionError("Write blocked by the visit", e);
+        }
+    }
+
+    private static ByteBuffer value(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(ByteBuffer record) {
+        return StandardCharsets.UTF_8.decode(record).toString();
+    }
+}
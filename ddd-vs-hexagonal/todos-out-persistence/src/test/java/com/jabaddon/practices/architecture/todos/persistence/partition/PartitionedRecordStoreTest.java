@@ -0,0 +1,126 @@
+package com.jabaddon.practices.architecture.todos.persistence.partition;
+
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.index.CreatedBetweenQuery;
+import com.jabaddon.practices.architecture.todos.persistence.index.IndexedRecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.index.RecentlyUpdatedQuery;
+import com.jabaddon.practices.architecture.todos.persistence.index.StatusBitmapIndex;
+import com.jabaddon.practices.architecture.todos.persistence.index.StatusQuery;
+import com.jabaddon.practices.architecture.todos.persistence.index.TimeOrderedIndex;
+import com.jabaddon.practices.architecture.todos.persistence.log.LogStoreOptions;
+import com.jabaddon.practices.architecture.todos.persistence.offheap.OffHeapRecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.store.RecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.store.StoreException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PartitionedRecordStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldSpreadRecordsAndReopenThemFromPartitionDirectories() {
+        List<String> ids = new ArrayList<>();
+        try (PartitionedRecordStore store = PartitionedRecordStore.open(directory, 4, LogStoreOptions.defaults())) {
+            for (int i = 0; i < 1_000; i++) {
+                ids.add(put(store, UUID.randomUUID().toString(), "Task " + i, i % 2 == 0, START.plusSeconds(i)));
+            }
+            store.delete(ids.get(0));
+        }
+
+        try (PartitionedRecordStore store = PartitionedRecordStore.open(directory, 4, LogStoreOptions.defaults())) {
+            assertThat(store.partitionCount(), is(4));
+            assertThat(store.size(), is(999L));
+            assertThat(store.contains(ids.get(0)), is(false));
+            assertThat(store.read(ids.get(1), PartitionedRecordStoreTest::title).get(), is(equalTo("Task 1")));
+            assertThat(store.readAll(PartitionedRecordStoreTest::title), hasSize(999));
+            assertThat(store.count(StatusQuery.of(true)), is(499L));
+            assertThat(store.query(StatusQuery.of(false), PartitionedRecordStoreTest::title), hasSize(500));
+        }
+    }
+
+    @Test
+    void shouldRejectReopeningWithDifferentPartitionCount() {
+        PartitionedRecordStore.open(directory, 4, LogStoreOptions.defaults()).close();
+
+        assertThrows(StoreException.class, () -> PartitionedRecordStore.open(directory, 8, LogStoreOptions.defaults()));
+    }
+
+    @Test
+    void shouldMergeOrderedQueriesAcrossIndexedPartitions() {
+        OffHeapRecordStore single = new OffHeapRecordStore();
+        PartitionedRecordStore store = new PartitionedRecordStore(IntStream.range(0, 8)
+                .mapToObj(i -> new IndexedRecordStore(new OffHeapRecordStore(),
+                        new StatusBitmapIndex(), new TimeOrderedIndex()))
+                .toList());
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                String id = UUID.randomUUID().toString();
+                put(store, id, "Task " + i, i % 3 == 0, START.plusSeconds(i));
+                put(single, id, "Task " + i, i % 3 == 0, START.plusSeconds(i));
+            }
+
+            CreatedBetweenQuery range = CreatedBetweenQuery.of(START.plusSeconds(100), START.plusSeconds(900), 250);
+            RecentlyUpdatedQuery recent = new RecentlyUpdatedQuery(20);
+
+            assertThat(store.query(range, PartitionedRecordStoreTest::title),
+                    is(equalTo(single.query(range, PartitionedRecordStoreTest::title))));
+            assertThat(store.query(recent, PartitionedRecordStoreTest::title),
+                    is(equalTo(single.query(recent, PartitionedRecordStoreTest::title))));
+            assertThat(store.count(StatusQuery.of(true)), is(667L));
+        } finally {
+            store.close();
+            single.close();
+        }
+    }
+
+    @Test
+    void shouldBreakOrderKeyTiesByIdAcrossPartitions() {
+        OffHeapRecordStore single = new OffHeapRecordStore();
+        PartitionedRecordStore store = new PartitionedRecordStore(IntStream.range(0, 8)
+                .mapToObj(i -> new OffHeapRecordStore())
+                .toList());
+        try {
+            for (int i = 0; i < 500; i++) {
+                String id = UUID.randomUUID().toString();
+                put(store, id, "Task " + i, false, START.plusSeconds(i / 50));
+                put(single, id, "Task " + i, false, START.plusSeconds(i / 50));
+            }
+
+            CreatedBetweenQuery range = CreatedBetweenQuery.of(START, START.plusSeconds(5), 73);
+            RecentlyUpdatedQuery recent = new RecentlyUpdatedQuery(73);
+
+            assertThat(store.query(range, PartitionedRecordStoreTest::title),
+                    is(equalTo(single.query(range, PartitionedRecordStoreTest::title))));
+            assertThat(store.query(recent, PartitionedRecordStoreTest::title),
+                    is(equalTo(single.query(recent, PartitionedRecordStoreTest::title))));
+        } finally {
+            store.close();
+            single.close();
+        }
+    }
+
+    private static String put(RecordStore store, String id, String title, boolean completed, LocalDateTime at) {
+        store.put(id, TodoRecordCodec.encodeToScratch(id, title, null, TodoRecordCodec.statusOf(completed), at, at));
+        return id;
+    }
+
+    private static String title(ByteBuffer record) {
+        return TodoRecordCodec.decode(record, (id, title, description, status, createdAt, updatedAt) -> title);
+    }
+}
@@ -0,0 +1,26 @@
+package com.jabaddon.practices.architecture.todos.persistence.replication;
+
+import com.jabaddon.practices.architecture.todos.persistence.offheap.OffHeapRecordStore;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Replica run in its own JVM by {@link ReplicationTest}: follows the leader until it applied
+ * the expected sequence, then prints the replicated record count.
+ */
+public final class FollowerProcess {
+
+    public static void main(String[] args) throws InterruptedException {
+        Path socket = Path.of(args[0]);
+        long expectedSequence = Long.parseLong(args[1]);
+        try (ReplicaRecordStore replica = ReplicaRecordStore.follow(socket, new OffHeapRecordStore(),
+                Duration.ofSeconds(5))) {
+            if (!replica.awaitSequence(expectedSequence, Duration.ofSeconds(30))) {
+                System.out.println("timed out at " + replica.lag().appliedSequence());
+                System.exit(1);
+            }
+            System.out.println("records " + replica.size());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.jabaddon.practices.architecture.todos.persistence.replication;
+
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
+import com.jabaddon.practices.architecture.todos.hx.application.service.TodoService;
+import com.jabaddon.practices.architecture.todos.persistence.cdc.ChangeCaptureRecordStore;
+import com.jabaddon.practices.architecture.todos.persistence.cdc.ChangeLog;
+import com.jabaddon.practices.architecture.todos.persistence.hx.RecordStoreTodoRepository;
+import com.jabaddon.practices.architecture.todos.persistence.offheap.OffHeapRecordStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReplicationTest {
+
+    @TempDir
+    Path directory;
+
+    private Path socket;
+    private ChangeLog changes;
+    private ChangeCaptureRecordStore leaderStore;
+    private TodoService leader;
+    private ReplicationLeader shipping;
+
+    @BeforeEach
+    void setUp() {
+        socket = directory.resolve("leader.sock");
+        changes = ChangeLog.open(directory.resolve("changes"));
+        leaderStore = ChangeCaptureRecordStore.open(new OffHeapRecordStore(), changes);
+        leader = new TodoService(new RecordStoreTodoRepository(leaderStore));
+        shipping = ReplicationLeader.start(changes, socket, Duration.ofMillis(20), 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shipping.close();
+        leaderStore.close();
+        changes.close();
+    }
+
+    @Test
+    void shouldServeReadPortsFromReplica() throws InterruptedException {
+        TodoDTO groceries = leader.createTodo("Buy groceries", "Milk");
+        for (int i = 0; i < 300; i++) {
+            leader.createTodo("Task " + i, null);
+        }
+        leader.completeTodo(groceries.id());
+
+        try (ReplicaRecordStore replica = ReplicaRecordStore.follow(socket, new OffHeapRecordStore(),
+                Duration.ofSeconds(5))) {
+            TodoService reads = new TodoService(new RecordStoreTodoRepository(replica));
+
+            assertThat(replica.awaitSequence(changes.lastSequence(), Duration.ofSeconds(10)), is(true));
+            assertThat(reads.findTodoById(groceries.id()).get().completed(), is(true));
+            assertThat(reads.getAllTodos(), hasSize(301));
+            assertThat(reads.getCompletedTodos(), hasSize(1));
+            assertThat(replica.lag().sequencesBehind(), is(0L));
+            assertThrows(UnsupportedOperationException.class, () -> reads.createTodo("Nope", null));
+        }
+    }
+
+    @Test
+    void shouldRefuseStaleReadsAndResumeWhenLeaderReturns() throws InterruptedException {
+        leader.createTodo("First", null);
+        try (ReplicaRecordStore replica = ReplicaRecordStore.follow(socket, new OffHeapRecordStore(),
+                Duration.ofMillis(200))) {
+            assertThat(replica.awaitSequence(1, Duration.ofSeconds(10)), is(true));
+
+            shipping.close();
+            leader.createTodo("Second", null);
+            Thread.sleep(400);
+
+            assertThrows(StaleReplicaException.class, replica::size);
+            assertThat(replica.lag().staleness(), is(greaterThan(Duration.ofMillis(200))));
+
+            shipping = ReplicationLeader.start(changes, socket, Duration.ofMillis(20), 100);
+
+            assertThat(replica.awaitSequence(2, Duration.ofSeconds(10)), is(true));
+            assertThat(replica.size(), is(2L));
+        }
+    }
+
+    @Test
+    void shouldReplicateToFollowerInAnotherJvm() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            leader.createTodo("Task " + i, "Shipped to another process");
+        }
+
+        String classPath = System.getProperty("jdk.module.path", "") + File.pathSeparator
+                + System.getProperty("java.class.path");
+        Process follower = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", classPath, FollowerProcess.class.getName(),
+                socket.toString(), Long.toString(changes.lastSequence()))
+                .redirectErrorStream(true)
+                .start();
+
+        assertThat(follower.waitFor(60, TimeUnit.SECONDS), is(true));
+        String output = new String(follower.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        assertThat(output, is(equalTo("records 200")));
+        assertThat(follower.exitValue(), is(0));
+    }
+}
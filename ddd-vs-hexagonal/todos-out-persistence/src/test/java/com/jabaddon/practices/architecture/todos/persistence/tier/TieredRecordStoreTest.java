@@ -0,0 +1,161 @@
+package com.jabaddon.practices.architecture.todos.persistence.tier;
+
+import com.jabaddon.practices.architecture.todos.hx.application.dto.TodoDTO;
+import com.jabaddon.practices.architecture.todos.hx.application.service.TodoService;
+import com.jabaddon.practices.architecture.todos.persistence.codec.TodoRecordCodec;
+import com.jabaddon.practices.architecture.todos.persistence.hx.RecordStoreTodoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class TieredRecordStoreTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @TempDir
+    Path directory;
+
+    private TieredRecordStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = TieredRecordStore.open(directory, 10, 4096);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldDemoteCompletedTodosBeforeRecentlyUsedOnes() {
+        for (int i = 0; i < 10; i++) {
+            store.put("todo-" + i, todo("todo-" + i, i % 2 == 0));
+        }
+        for (int i = 10; i < 15; i++) {
+            store.put("todo-" + i, todo("todo-" + i, false));
+        }
+
+        TierStats stats = store.stats();
+        assertThat(stats.hotRecords(), is(10L));
+        assertThat(stats.coldRecords(), is(5L));
+        assertThat(stats.demotions(), is(5L));
+        assertThat(stats.coldBytes(), is(greaterThan(0L)));
+        List<String> demoted = new ArrayList<>();
+        store.forEach((id, record) -> {
+            if (TodoRecordCodec.isCompleted(TodoRecordCodec.status(record))) {
+                demoted.add(id);
+            }
+        });
+        assertThat(demoted, containsInAnyOrder("todo-0", "todo-2", "todo-4", "todo-6", "todo-8"));
+        assertThat(store.read("todo-1", TieredRecordStoreTest::id).get(), is(equalTo("todo-1")));
+        assertThat(store.stats().hotHits(), is(1L));
+        assertThat(store.stats().demotions(), is(5L));
+    }
+
+    @Test
+    void shouldPromoteColdRecordOnReadAndReportHitRatesPerTier() {
+        for (int i = 0; i < 30; i++) {
+            store.put("todo-" + i, todo("todo-" + i, false));
+        }
+
+        assertThat(store.read("todo-0", TieredRecordStoreTest::id).get(), is(equalTo("todo-0")));
+        assertThat(store.read("todo-0", TieredRecordStoreTest::id).get(), is(equalTo("todo-0")));
+        assertThat(store.read("missing", TieredRecordStoreTest::id).isPresent(), is(false));
+
+        TierStats stats = store.stats();
+        assertThat(stats.promotions(), is(1L));
+        assertThat(stats.hotHits(), is(1L));
+        assertThat(stats.hotMisses(), is(2L));
+        assertThat(stats.coldHits(), is(1L));
+        assertThat(stats.coldMisses(), is(1L));
+        assertThat(stats.hotHitRate(), is(closeTo(1.0 / 3, 1e-9)));
+        assertThat(stats.coldHitRate(), is(closeTo(0.5, 1e-9)));
+        assertThat(stats.hotRecords(), is(10L));
+        assertThat(store.size(), is(30L));
+    }
+
+    @Test
+    void shouldServeTodoPortsAcrossTiersAndDropEmptiedSegments() throws Exception {
+        TodoService service = new TodoService(new RecordStoreTodoRepository(store));
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            TodoDTO todo = service.createTodo("Task " + i, "Spread over both tiers");
+            ids.add(todo.id());
+            if (i % 4 == 0) {
+                service.completeTodo(todo.id());
+            }
+        }
+
+        assertThat(store.coldSegments(), is(greaterThan(1)));
+        assertThat(service.getAllTodos(), hasSize(200));
+        assertThat(service.getCompletedTodos(), hasSize(50));
+        assertThat(service.findTodoById(ids.get(0)).get().completed(), is(true));
+
+        ids.forEach(service::deleteTodo);
+
+        assertThat(store.size(), is(0L));
+        assertThat(store.coldSegments(), is(lessThanOrEqualTo(1)));
+        store.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.toList(), is(empty()));
+        }
+    }
+
+    @Test
+    void shouldLetWritersRunWhileVisitingInBatches() {
+        for (int i = 0; i < 600; i++) {
+            store.put("todo-" + i, todo("todo-" + i, false));
+        }
+
+        Map<String, String> visited = new HashMap<>();
+        store.forEach((id, record) -> {
+            if (visited.isEmpty()) {
+                // The heap tier is visited first, so the demoted todo-0 is deleted before its turn
+                write(() -> {
+                    store.delete("todo-0");
+                    store.put("added", todo("added", false));
+                });
+            }
+            visited.put(id, id(record));
+        });
+
+        assertThat(visited.keySet(), hasSize(599));
+        assertThat(visited, not(hasKey("todo-0")));
+        visited.forEach((id, decoded) -> assertThat(decoded, is(equalTo(id))));
+        assertThat(store.contains("added"), is(true));
+    }
+
+    private static void write(Runnable write) {
+        try {
+            CompletableFuture.runAsync(write).get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new AssertionError("Write blocked by the visit", e);
+        }
+    }
+
+    private static ByteBuffer todo(String id, boolean completed) {
+        return TodoRecordCodec.encodeToScratch(id, "Title of " + id, "Description of " + id,
+                TodoRecordCodec.statusOf(completed), CREATED, CREATED);
+    }
+
+    private static String id(ByteBuffer record) {
+        return TodoRecordCodec.decode(record, (id, title, description, status, createdAt, updatedAt) -> id);
+    }
+}
@@ -0,0 +1,84 @@
+package com.jabaddon.practices.architecture.todos.persistence.transcript;
+
+import com.jabaddon.practices.architecture.todos.persistence.offheap.OffHeapRecordStore;
+import com.jabaddon.practices.architecture.todos.transcript.TodoData;
+import com.jabaddon.practices.architecture.todos.transcript.TodoTransactionScript;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class RecordStoreTodoGatewayTest {
+
+    private OffHeapRecordStore store;
+    private RecordStoreTodoGateway gateway;
+
+    @BeforeEach
+    void setUp() {
+        store = new OffHeapRecordStore();
+        gateway = new RecordStoreTodoGateway(store);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldInsertUpdateAndFindTodo() {
+        TodoData todo = todo("Buy groceries", "Milk, bread, eggs", false);
+
+        gateway.insert(todo);
+        todo.setCompleted(true);
+        gateway.update(todo);
+
+        TodoData found = gateway.findById(todo.getId());
+        assertThat(found, is(not(sameInstance(todo))));
+        assertThat(found.getTitle(), is("Buy groceries"));
+        assertThat(found.getDescription(), is("Milk, bread, eggs"));
+        assertThat(found.isCompleted(), is(true));
+        assertThat(found.getCreatedAt(), is(todo.getCreatedAt()));
+        assertThat(gateway.exists(todo.getId()), is(true));
+    }
+
+    @Test
+    void shouldFindByCompletedAndDelete() {
+        TodoData completed = todo("Task 1", null, true);
+        TodoData pending = todo("Task 2", "Description 2", false);
+        gateway.insert(completed);
+        gateway.insert(pending);
+
+        assertThat(gateway.findAll(), hasSize(2));
+        assertThat(gateway.findByCompleted(true).get(0).getId(), is(completed.getId()));
+        assertThat(gateway.findByCompleted(false).get(0).getId(), is(pending.getId()));
+
+        gateway.delete(completed.getId());
+
+        assertThat(gateway.findById(completed.getId()), is(nullValue()));
+        assertThat(gateway.exists(completed.getId()), is(false));
+        assertThat(gateway.findAll(), hasSize(1));
+    }
+
+    @Test
+    void shouldBackTodoTransactionScript() {
+        TodoTransactionScript script = new TodoTransactionScript(gateway);
+
+        TodoData created = script.createTodo("Task", "Description");
+        script.completeTodo(created.getId());
+
+        assertThat(script.getCompletedTodos(), hasSize(1));
+        assertThat(script.getPendingTodos(), is(empty()));
+        assertThat(script.findTodoById(created.getId()).isCompleted(), is(true));
+    }
+
+    private static TodoData todo(String title, String description, boolean completed) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return new TodoData(UUID.randomUUID().toString(), title, description, completed, now, now);
+    }
+}